@@ -0,0 +1,60 @@
+package com.example.library;
+
+import com.example.library.db.MigrationRunner;
+import com.example.library.repository.CatalogImporter;
+import com.example.library.repository.ImportReport;
+import com.example.library.repository.JdbcCatalogImporter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command-line bulk import of catalog CSV files, one transaction per file.
+ * <p>
+ * Usage: {@code mvn exec:java -Dexec.mainClass="com.example.library.CatalogImportTool" -Dexec.args="items.csv"}
+ */
+public class CatalogImportTool {
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: CatalogImportTool <file.csv> [<file.csv> ...]");
+            System.exit(2);
+        }
+
+        new MigrationRunner(DatabaseConnection.getDataSource()).migrate();
+        CatalogImporter importer = new JdbcCatalogImporter(DatabaseConnection.getDataSource());
+        boolean failed = false;
+
+        try {
+            for (String arg : args) {
+                try (Reader reader = Files.newBufferedReader(Path.of(arg), StandardCharsets.UTF_8)) {
+                    print(arg, importer.importCsv(reader));
+                } catch (IOException | RuntimeException e) {
+                    System.err.println(arg + ": import failed, nothing was imported: " + e.getMessage());
+                    failed = true;
+                }
+            }
+        } finally {
+            DatabaseConnection.closeDataSource();
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    private static void print(String file, ImportReport report) {
+        System.out.printf("%s: %d rows read, %d added, %d merged, %d rejected in %d ms (%.0f rows/s)%n",
+                file, report.getRowsRead(), report.getRowsInserted(), report.getRowsMerged(),
+                report.getRowsRejected(), report.getElapsed().toMillis(), report.getRowsPerSecond());
+        for (ImportReport.Rejection rejection : report.getRejections()) {
+            System.out.println("  " + rejection);
+        }
+        long unlisted = report.getRowsRejected() - report.getRejections().size();
+        if (unlisted > 0) {
+            System.out.println("  ... and " + unlisted + " more rejected rows");
+        }
+    }
+}
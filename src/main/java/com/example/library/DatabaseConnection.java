@@ -1,12 +1,15 @@
 package com.example.library;
 
+import com.example.library.db.ConnectionPool;
 import com.example.library.util.DatabaseConfig;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import javax.sql.DataSource;
 
 public class DatabaseConnection {
     private static Connection connection = null;
+    private static ConnectionPool dataSource = null;
     
     public static Connection getConnection() {
         try {
@@ -26,6 +29,18 @@ public class DatabaseConnection {
         return connection;
     }
     
+    /**
+     * Returns the shared connection pool, creating it from db.properties on first use.
+     * Repositories borrow connections from this pool; closing a borrowed connection
+     * hands it back instead of disconnecting.
+     */
+    public static synchronized DataSource getDataSource() {
+        if (dataSource == null || dataSource.isClosed()) {
+            dataSource = ConnectionPool.fromConfig();
+        }
+        return dataSource;
+    }
+    
     public static void closeConnection() {
         try {
             if (connection != null && !connection.isClosed()) {
@@ -36,4 +51,14 @@ public class DatabaseConnection {
             e.printStackTrace();
         }
     }
+    
+    /**
+     * Closes the shared connection pool, if one has been created.
+     */
+    public static synchronized void closeDataSource() {
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+        }
+    }
 }
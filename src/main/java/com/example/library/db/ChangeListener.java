@@ -0,0 +1,16 @@
+package com.example.library.db;
+
+/**
+ * Receives the committed changes to one table from a {@link ChangeNotificationListener}.
+ */
+@FunctionalInterface
+public interface ChangeListener {
+
+    /**
+     * Called on the notification thread after a change to the table was committed.
+     * Implementations should return quickly; exceptions are logged and ignored.
+     *
+     * @param change the table, operation and changed row IDs
+     */
+    void onChange(RowChange change);
+}
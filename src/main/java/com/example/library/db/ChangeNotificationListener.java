@@ -0,0 +1,219 @@
+package com.example.library.db;
+
+import com.example.library.util.DatabaseConfig;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Listens on a dedicated connection for the change notifications raised by the
+ * triggers from the V8 migration, and passes each committed change to the
+ * listeners registered for its table. This lets every application instance drop
+ * the rows other instances wrote from its in-memory caches right after the
+ * commit, instead of waiting for them to expire.
+ * <p>
+ * Notifications are only delivered while the connection is up. When it drops,
+ * the listener reconnects after a delay and then reports a {@link RowChange#RESYNC}
+ * for every table with listeners, since changes in between went unannounced.
+ */
+public class ChangeNotificationListener implements AutoCloseable {
+
+    /**
+     * The channel the triggers notify.
+     */
+    public static final String CHANNEL = "library_changes";
+
+    private static final Logger LOGGER = Logger.getLogger(ChangeNotificationListener.class.getName());
+    private static final long POLL_TIMEOUT_MILLIS = 1000;
+    private static final long STARTUP_TIMEOUT_MILLIS = 10000;
+
+    private final ConnectionPool.ConnectionFactory connectionFactory;
+    private final long reconnectDelayMillis;
+    private final Map<String, List<ChangeListener>> listeners = new ConcurrentHashMap<>();
+    private final CountDownLatch firstAttempt = new CountDownLatch(1);
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+
+    /**
+     * @param connectionFactory opens the connection to listen on; it is not taken from a pool
+     *                          because it stays open for the listener's lifetime
+     * @param reconnectDelayMillis how long to wait before reconnecting after the connection failed
+     */
+    public ChangeNotificationListener(ConnectionPool.ConnectionFactory connectionFactory, long reconnectDelayMillis) {
+        this.connectionFactory = connectionFactory;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+    }
+
+    /**
+     * Creates a listener that connects with the settings from db.properties via {@link DatabaseConfig}.
+     *
+     * @return a new, not yet started listener
+     */
+    public static ChangeNotificationListener fromConfig() {
+        return new ChangeNotificationListener(
+                () -> DriverManager.getConnection(
+                        DatabaseConfig.getUrl(),
+                        DatabaseConfig.getUsername(),
+                        DatabaseConfig.getPassword()),
+                DatabaseConfig.getChangeNotificationReconnectDelayMillis());
+    }
+
+    /**
+     * Registers a listener for committed changes to a table.
+     *
+     * @param table the table name, e.g. {@code media_item}
+     * @param listener called for every change to the table
+     */
+    public void addListener(String table, ChangeListener listener) {
+        listeners.computeIfAbsent(table, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Starts the listener thread and waits until it is listening, or its first
+     * connection attempt failed, so changes committed after this returns are seen.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "change-notification-listener");
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            firstAttempt.await(STARTUP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return true while the dedicated connection is open and listening
+     */
+    public boolean isListening() {
+        return connection != null;
+    }
+
+    /**
+     * Stops the listener thread and closes its connection.
+     */
+    @Override
+    public void close() {
+        Thread listenerThread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            listenerThread = thread;
+        }
+        closeQuietly(connection);
+        listenerThread.interrupt();
+        try {
+            listenerThread.join(POLL_TIMEOUT_MILLIS * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        // Set after a failure, as changes may have gone unannounced until the next LISTEN
+        boolean missedChanges = false;
+        while (running) {
+            try (Connection conn = connectionFactory.create()) {
+                conn.setAutoCommit(true);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LISTEN " + CHANNEL);
+                }
+                connection = conn;
+                firstAttempt.countDown();
+                if (missedChanges) {
+                    LOGGER.info("Change notifications reconnected; reporting every table as changed");
+                    resyncAll();
+                    missedChanges = false;
+                }
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    LOGGER.log(Level.WARNING, "Change notification connection failed; reconnecting in "
+                            + reconnectDelayMillis + " ms", e);
+                }
+            } finally {
+                connection = null;
+                firstAttempt.countDown();
+            }
+            if (running) {
+                missedChanges = true;
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        RowChange change;
+        try {
+            change = RowChange.parse(payload);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warning(e.getMessage());
+            return;
+        }
+        notifyListeners(change);
+    }
+
+    private void resyncAll() {
+        for (String table : listeners.keySet()) {
+            notifyListeners(new RowChange(table, RowChange.RESYNC, null));
+        }
+    }
+
+    private void notifyListeners(RowChange change) {
+        for (ChangeListener listener : listeners.getOrDefault(change.getTable(), List.of())) {
+            try {
+                listener.onChange(change);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Change listener failed for " + change, e);
+            }
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(reconnectDelayMillis);
+        } catch (InterruptedException e) {
+            // close() interrupts to stop the thread; running is re-checked by the caller
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            // the listener thread is stopping anyway
+        }
+    }
+}
@@ -0,0 +1,559 @@
+package com.example.library.db;
+
+import com.example.library.util.DatabaseConfig;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded JDBC connection pool exposed as a {@link DataSource}.
+ * Connections handed out are lightweight handles: closing one returns the
+ * underlying physical connection to the pool instead of disconnecting.
+ * Idle connections are validated before reuse, evicted after the idle timeout,
+ * and a warning is logged when a borrowed connection is held past the leak threshold.
+ * Each physical connection can keep an LRU cache of prepared statements, so the
+ * constant SQL used by the repositories is only parsed once per connection.
+ * Statements opened under a {@link QueryCancellation} can be cancelled from
+ * another thread.
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+    /**
+     * Creates physical database connections for the pool.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    // Connections idle for less than this are trusted without a validation round trip
+    private static final long VALIDATION_IDLE_THRESHOLD_MILLIS = 500;
+    private static final long HOUSEKEEPING_PERIOD_MILLIS = 30000;
+
+    private final ConnectionFactory connectionFactory;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final int validationTimeoutSeconds;
+    private final long leakDetectionThresholdMillis;
+    private final int statementCacheSize;
+
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Semaphore borrowPermits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    private volatile boolean closed = false;
+    private PrintWriter logWriter;
+    private int loginTimeout;
+
+    /**
+     * Constructs a new pool without a prepared statement cache.
+     *
+     * @see #ConnectionPool(ConnectionFactory, int, int, long, long, int, long, int)
+     */
+    public ConnectionPool(ConnectionFactory connectionFactory,
+                          int minSize,
+                          int maxSize,
+                          long acquireTimeoutMillis,
+                          long idleTimeoutMillis,
+                          int validationTimeoutSeconds,
+                          long leakDetectionThresholdMillis) {
+        this(connectionFactory, minSize, maxSize, acquireTimeoutMillis, idleTimeoutMillis,
+                validationTimeoutSeconds, leakDetectionThresholdMillis, 0);
+    }
+
+    /**
+     * Constructs a new pool. No connections are opened on the caller's thread;
+     * the housekeeping thread fills the pool up to the minimum size in the background.
+     *
+     * @param connectionFactory creates physical connections
+     * @param minSize number of idle connections kept open
+     * @param maxSize maximum number of physical connections
+     * @param acquireTimeoutMillis how long getConnection waits for a free connection
+     * @param idleTimeoutMillis idle time after which connections above minSize are closed
+     * @param validationTimeoutSeconds timeout passed to Connection.isValid
+     * @param leakDetectionThresholdMillis hold time after which a leak warning is logged (0 disables)
+     * @param statementCacheSize prepared statements cached per connection (0 disables)
+     */
+    public ConnectionPool(ConnectionFactory connectionFactory,
+                          int minSize,
+                          int maxSize,
+                          long acquireTimeoutMillis,
+                          long idleTimeoutMillis,
+                          int validationTimeoutSeconds,
+                          long leakDetectionThresholdMillis,
+                          int statementCacheSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool max size must be positive");
+        }
+        if (minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Pool min size must be between 0 and max size");
+        }
+        this.connectionFactory = connectionFactory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+        this.borrowPermits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.min(HOUSEKEEPING_PERIOD_MILLIS, Math.max(1, idleTimeoutMillis / 2));
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a pool configured from db.properties via {@link DatabaseConfig}.
+     * The connection URL and credentials are read each time a physical connection
+     * is opened, so system property overrides still apply.
+     *
+     * @return a new connection pool
+     */
+    public static ConnectionPool fromConfig() {
+        try {
+            Class.forName(DatabaseConfig.getDriver());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("JDBC driver not found: " + DatabaseConfig.getDriver(), e);
+        }
+        return new ConnectionPool(
+                () -> DriverManager.getConnection(
+                        DatabaseConfig.getUrl(),
+                        DatabaseConfig.getUsername(),
+                        DatabaseConfig.getPassword()),
+                DatabaseConfig.getPoolMinSize(),
+                DatabaseConfig.getPoolMaxSize(),
+                DatabaseConfig.getPoolAcquireTimeoutMillis(),
+                DatabaseConfig.getPoolIdleTimeoutMillis(),
+                DatabaseConfig.getPoolValidationTimeoutSeconds(),
+                DatabaseConfig.getPoolLeakDetectionThresholdMillis(),
+                DatabaseConfig.getPoolStatementCacheSize()
+        );
+    }
+
+    /**
+     * Borrows a connection, waiting up to the acquire timeout when the pool is exhausted.
+     *
+     * @return a pooled connection handle; close it to return the connection
+     * @throws SQLException if the pool is closed, the timeout elapses, or connecting fails
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long deadline = System.currentTimeMillis() + acquireTimeoutMillis;
+        try {
+            if (!borrowPermits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + acquireTimeoutMillis
+                        + " ms waiting for a database connection (max pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeConnection(deadline);
+            return pooled.borrow();
+        } catch (SQLException | RuntimeException e) {
+            borrowPermits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Connection pool does not support per-call credentials");
+    }
+
+    /**
+     * Closes all idle connections and stops housekeeping.
+     * Connections still borrowed are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idleConnections.size();
+    }
+
+    public int getActiveConnections() {
+        return maxSize - borrowPermits.availablePermits();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return number of prepareStatement calls served from a connection's statement cache
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    /**
+     * @return number of prepareStatement calls that had to prepare a new statement
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        this.loginTimeout = seconds;
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("Connection pool does not use java.util.logging");
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Connection pool does not wrap " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * Takes an idle connection (most recently used first) or opens a new one.
+     * The caller must already hold a borrow permit.
+     */
+    private PooledConnection takeConnection(long deadline) throws SQLException {
+        while (true) {
+            PooledConnection pooled = idleConnections.pollFirst();
+            if (pooled == null && reserveSlot()) {
+                return openConnection();
+            }
+            if (pooled == null) {
+                // Every slot is taken by an idle connection another borrower is about to release
+                long remaining = deadline - System.currentTimeMillis();
+                try {
+                    pooled = idleConnections.pollFirst(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a database connection", e);
+                }
+                if (pooled == null) {
+                    throw new SQLException("Timed out after " + acquireTimeoutMillis
+                            + " ms waiting for a database connection (max pool size " + maxSize + ")");
+                }
+            }
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            destroy(pooled);
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastReturnedAt < VALIDATION_IDLE_THRESHOLD_MILLIS) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = totalConnections.get();
+            if (current >= maxSize) {
+                return false;
+            }
+            if (totalConnections.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        try {
+            Connection physical = connectionFactory.create();
+            if (physical == null) {
+                throw new SQLException("Connection factory returned no connection");
+            }
+            return new PooledConnection(physical);
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool, resetting transaction state first.
+     */
+    private void release(PooledConnection pooled) {
+        pooled.cancelLeakDetection();
+
+        boolean reusable = !closed && !pooled.broken;
+        if (reusable) {
+            try {
+                if (!pooled.physical.getAutoCommit()) {
+                    pooled.physical.rollback();
+                    pooled.physical.setAutoCommit(true);
+                }
+                if (pooled.physical.isReadOnly()) {
+                    pooled.physical.setReadOnly(false);
+                }
+                reusable = !pooled.physical.isClosed();
+            } catch (SQLException e) {
+                reusable = false;
+            }
+        }
+
+        if (reusable) {
+            pooled.lastReturnedAt = System.currentTimeMillis();
+            idleConnections.offerFirst(pooled);
+        } else {
+            destroy(pooled);
+        }
+        borrowPermits.release();
+    }
+
+    private void destroy(PooledConnection pooled) {
+        pooled.cancelLeakDetection();
+        totalConnections.decrementAndGet();
+        if (pooled.statementCache != null) {
+            pooled.statementCache.closeAll();
+        }
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // Connection is being discarded anyway
+        }
+    }
+
+    /**
+     * Closes connections idle longer than the idle timeout (keeping at least minSize)
+     * and tops the pool back up to minSize.
+     */
+    private void housekeep() {
+        if (closed) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : idleConnections) {
+            if (totalConnections.get() <= minSize) {
+                break;
+            }
+            if (now - pooled.lastReturnedAt > idleTimeoutMillis && idleConnections.remove(pooled)) {
+                destroy(pooled);
+            }
+        }
+
+        while (!closed && totalConnections.get() < minSize && reserveSlot()) {
+            try {
+                PooledConnection pooled = openConnection();
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idleConnections.offerLast(pooled);
+            } catch (SQLException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Connection pool could not open a connection", e);
+                break;
+            }
+        }
+    }
+
+    /**
+     * A physical connection plus its pool bookkeeping.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private volatile long lastReturnedAt = System.currentTimeMillis();
+        private volatile boolean broken = false;
+        private ScheduledFuture<?> leakTask;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statementCache = statementCacheSize > 0
+                    ? new StatementCache(statementCacheSize, statementCacheHits, statementCacheMisses)
+                    : null;
+        }
+
+        private Connection borrow() {
+            if (leakDetectionThresholdMillis > 0) {
+                Exception borrowedAt = new Exception("Connection borrowed here");
+                try {
+                    leakTask = housekeeper.schedule(() -> {
+                        LOGGER.log(Level.WARNING, "Possible connection leak: connection held for more than "
+                                + leakDetectionThresholdMillis + " ms", borrowedAt);
+                    }, leakDetectionThresholdMillis, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Pool is shutting down; the connection is closed on return
+                }
+            }
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class},
+                    new ConnectionHandle(this));
+        }
+
+        private void cancelLeakDetection() {
+            ScheduledFuture<?> task = leakTask;
+            if (task != null) {
+                task.cancel(false);
+                leakTask = null;
+            }
+        }
+    }
+
+    /**
+     * Invocation handler behind each borrowed connection handle.
+     * close() returns the connection to the pool; any later call fails.
+     */
+    private final class ConnectionHandle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean handleClosed = false;
+
+        private ConnectionHandle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return handleClosed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+
+            if (handleClosed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+
+            Object result;
+            if (pooled.statementCache != null && isCacheablePrepare(method)) {
+                int autoGeneratedKeys = args.length == 2
+                        ? (Integer) args[1]
+                        : StatementCache.NO_GENERATED_KEYS_ARGUMENT;
+                try {
+                    result = pooled.statementCache.prepare(
+                            pooled.physical, (Connection) proxy, (String) args[0], autoGeneratedKeys);
+                } catch (SQLException e) {
+                    if (isConnectionError(e)) {
+                        pooled.broken = true;
+                    }
+                    throw e;
+                }
+            } else {
+                try {
+                    result = method.invoke(pooled.physical, args);
+                } catch (InvocationTargetException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof SQLException && isConnectionError((SQLException) cause)) {
+                        pooled.broken = true;
+                    }
+                    throw cause;
+                }
+            }
+
+            // Statements opened by a cancellable task can be cancelled from another thread
+            QueryCancellation cancellation = QueryCancellation.current();
+            if (cancellation != null && result instanceof Statement) {
+                return cancellation.track((Statement) result, method.getReturnType().asSubclass(Statement.class));
+            }
+            return result;
+        }
+
+        private boolean isCacheablePrepare(Method method) {
+            if (!"prepareStatement".equals(method.getName())) {
+                return false;
+            }
+            Class<?>[] types = method.getParameterTypes();
+            return (types.length == 1 && types[0] == String.class)
+                    || (types.length == 2 && types[0] == String.class && types[1] == int.class);
+        }
+
+        private boolean isConnectionError(SQLException e) {
+            // SQLState class 08 is "connection exception"
+            String sqlState = e.getSQLState();
+            return sqlState != null && sqlState.startsWith("08");
+        }
+    }
+}
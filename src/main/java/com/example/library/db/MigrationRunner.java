@@ -0,0 +1,229 @@
+package com.example.library.db;
+
+import com.example.library.repository.DataAccessException;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies versioned SQL scripts from the classpath at startup.
+ * Scripts are named {@code V<version>__<description>.sql} and run in version order,
+ * each in its own transaction. Applied versions are recorded in the
+ * {@code schema_version} table together with a SHA-256 checksum of the script, so
+ * an already applied script that has since been edited is reported instead of
+ * silently diverging. A PostgreSQL advisory lock is held while migrating, so
+ * several clients starting at once apply each script exactly once.
+ */
+public class MigrationRunner {
+
+    private static final Logger LOGGER = Logger.getLogger(MigrationRunner.class.getName());
+
+    static final String DEFAULT_LOCATION = "db/migration";
+
+    // Keep in version order; add new scripts at the end
+    static final List<String> DEFAULT_SCRIPTS = List.of(
+            "V1__baseline_schema.sql",
+            "V2__reservation_table.sql",
+            "V3__loan_eligibility_index.sql",
+            "V4__performance_indexes.sql",
+            "V5__media_item_search_vector.sql",
+            "V6__trigram_indexes.sql",
+            "V7__keyset_pagination_indexes.sql",
+            "V8__change_notifications.sql",
+            "V9__loan_listing_index.sql",
+            "V10__trigram_indexes_retry.sql",
+            "V11__fuzzystrmatch.sql"
+    );
+
+    // Arbitrary application-wide key for pg_advisory_lock
+    private static final long ADVISORY_LOCK_KEY = 0x4C49425241525901L;
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private final DataSource dataSource;
+    private final String location;
+    private final List<String> scripts;
+
+    /**
+     * Constructs a runner for the scripts shipped in {@code db/migration}.
+     *
+     * @param dataSource the data source to migrate
+     */
+    public MigrationRunner(DataSource dataSource) {
+        this(dataSource, DEFAULT_LOCATION, DEFAULT_SCRIPTS);
+    }
+
+    /**
+     * Constructs a runner for the given scripts.
+     *
+     * @param dataSource the data source to migrate
+     * @param location classpath directory holding the scripts
+     * @param scripts script file names, in version order
+     */
+    public MigrationRunner(DataSource dataSource, String location, List<String> scripts) {
+        this.dataSource = dataSource;
+        this.location = location;
+        this.scripts = List.copyOf(scripts);
+    }
+
+    /**
+     * Applies every script that has not been applied yet.
+     *
+     * @return the number of scripts applied by this call
+     * @throws DataAccessException if a script fails, is missing, or no longer matches its recorded checksum
+     */
+    public int migrate() {
+        List<Migration> migrations = loadMigrations();
+
+        try (Connection conn = dataSource.getConnection()) {
+            lock(conn);
+            try {
+                createVersionTable(conn);
+                Map<Integer, String> applied = findAppliedChecksums(conn);
+
+                int count = 0;
+                for (Migration migration : migrations) {
+                    String recorded = applied.get(migration.version());
+                    if (recorded == null) {
+                        apply(conn, migration);
+                        count++;
+                    } else if (!recorded.equals(migration.checksum())) {
+                        throw new DataAccessException("Checksum mismatch for applied migration: " + migration.scriptName());
+                    }
+                }
+                return count;
+            } finally {
+                unlock(conn);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error migrating database schema", e);
+        }
+    }
+
+    private List<Migration> loadMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+        int previousVersion = 0;
+        for (String scriptName : scripts) {
+            Matcher matcher = SCRIPT_NAME.matcher(scriptName);
+            if (!matcher.matches()) {
+                throw new DataAccessException("Invalid migration script name: " + scriptName);
+            }
+            int version = Integer.parseInt(matcher.group(1));
+            if (version <= previousVersion) {
+                throw new DataAccessException("Migration scripts out of order: " + scriptName);
+            }
+            previousVersion = version;
+
+            String sql = readScript(scriptName);
+            migrations.add(new Migration(version, matcher.group(2).replace('_', ' '), scriptName, sql, checksum(sql)));
+        }
+        return migrations;
+    }
+
+    private String readScript(String scriptName) {
+        String path = location + "/" + scriptName;
+        try (InputStream input = MigrationRunner.class.getClassLoader().getResourceAsStream(path)) {
+            if (input == null) {
+                throw new DataAccessException("Migration script not found: " + path);
+            }
+            // Normalize line endings so checksums do not depend on the checkout platform
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new DataAccessException("Error reading migration script: " + path, e);
+        }
+    }
+
+    private static String checksum(String sql) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(sql.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void lock(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT pg_advisory_lock(?)")) {
+            pstmt.setLong(1, ADVISORY_LOCK_KEY);
+            pstmt.executeQuery().close();
+        }
+    }
+
+    private static void unlock(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            pstmt.setLong(1, ADVISORY_LOCK_KEY);
+            pstmt.executeQuery().close();
+        }
+    }
+
+    private static void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                         "version INTEGER PRIMARY KEY, " +
+                         "description VARCHAR(255) NOT NULL, " +
+                         "script VARCHAR(255) NOT NULL, " +
+                         "checksum VARCHAR(64) NOT NULL, " +
+                         "installed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                         "execution_time_ms INTEGER NOT NULL)");
+        }
+    }
+
+    private static Map<Integer, String> findAppliedChecksums(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT version, checksum FROM schema_version");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        long start = System.currentTimeMillis();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(migration.sql());
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description, script, checksum, execution_time_ms) " +
+                    "VALUES (?, ?, ?, ?, ?)")) {
+                pstmt.setInt(1, migration.version());
+                pstmt.setString(2, migration.description());
+                pstmt.setString(3, migration.scriptName());
+                pstmt.setString(4, migration.checksum());
+                pstmt.setInt(5, (int) (System.currentTimeMillis() - start));
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new DataAccessException("Error applying migration: " + migration.scriptName(), e);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        LOGGER.info("Applied migration " + migration.scriptName());
+    }
+
+    private record Migration(int version, String description, String scriptName, String sql, String checksum) {
+    }
+}
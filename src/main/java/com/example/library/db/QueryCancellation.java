@@ -0,0 +1,129 @@
+package com.example.library.db;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Lets another thread abort the database work of a task. While the task runs
+ * inside {@link #call}, every statement it opens on a {@link ConnectionPool}
+ * connection is tracked; {@link #cancel()} then cancels the ones still running
+ * with {@link Statement#cancel()}, and any statement the task executes afterwards
+ * fails at once instead of reaching the database.
+ * <p>
+ * A cancelled statement fails with an SQLException in SQLState
+ * {@value #QUERY_CANCELED_STATE}, which the repositories wrap like any other error.
+ * Closing a statement stops tracking it before it goes back to the pool's
+ * statement cache, so a later cancel never reaches a cached statement that
+ * another task has since checked out.
+ */
+public final class QueryCancellation {
+
+    /**
+     * SQLState of a statement cancelled by request, as PostgreSQL reports it.
+     */
+    public static final String QUERY_CANCELED_STATE = "57014";
+
+    private static final ThreadLocal<QueryCancellation> CURRENT = new ThreadLocal<>();
+
+    // Guarded by itself, so a statement is never cancelled while it is being closed
+    private final Set<Statement> statements = new HashSet<>();
+    private volatile boolean cancelled;
+
+    /**
+     * Runs work on the calling thread with its statements tracked by this cancellation.
+     *
+     * @param work the task's database work
+     * @return what the work returned
+     * @throws Exception whatever the work threw
+     */
+    public <T> T call(Callable<T> work) throws Exception {
+        QueryCancellation previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Cancels the statements the task is running and fails the ones it starts later.
+     * Cancelling opens a connection to the server, so this is best called off the
+     * Event Dispatch Thread.
+     */
+    public void cancel() {
+        cancelled = true;
+        synchronized (statements) {
+            for (Statement statement : statements) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    // The statement finished in the meantime
+                }
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return the cancellation the current thread runs under, or null
+     */
+    static QueryCancellation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wraps a statement opened under this cancellation, so {@link #cancel()} reaches
+     * it until it is closed.
+     *
+     * @param statement the statement to track
+     * @param type the statement interface to expose, e.g. PreparedStatement
+     * @return the tracked statement
+     */
+    Statement track(Statement statement, Class<? extends Statement> type) {
+        synchronized (statements) {
+            statements.add(statement);
+        }
+        return (Statement) Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (cancelled && name.startsWith("execute")) {
+                        throw new SQLException("Query cancelled", QUERY_CANCELED_STATE);
+                    }
+                    switch (name) {
+                        case "close":
+                            // Waits for a cancel in progress, then stops tracking before
+                            // the statement can be handed to another task
+                            synchronized (statements) {
+                                statements.remove(statement);
+                            }
+                            break;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.library.db;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * One committed write to a table, as announced by the change notification
+ * triggers: the table, the kind of write and the IDs of the rows it touched.
+ * Writes that touched too many rows to list, truncations, and the resync after
+ * a lost listener connection name no IDs and mean any row may have changed.
+ */
+public final class RowChange {
+
+    /**
+     * Operation reported after the listener reconnects, when notifications may have been missed.
+     */
+    public static final String RESYNC = "RESYNC";
+
+    private final String table;
+    private final String operation;
+    private final Set<Integer> ids;
+
+    RowChange(String table, String operation, Set<Integer> ids) {
+        this.table = table;
+        this.operation = operation;
+        this.ids = ids == null ? null : Collections.unmodifiableSet(ids);
+    }
+
+    /**
+     * Parses a notification payload of the form {@code table:OPERATION:id,id,...}
+     * or {@code table:OPERATION:*}.
+     *
+     * @throws IllegalArgumentException if the payload is malformed
+     */
+    static RowChange parse(String payload) {
+        String[] parts = payload.split(":", 3);
+        if (parts.length != 3 || parts[0].isEmpty() || parts[1].isEmpty()) {
+            throw new IllegalArgumentException("Malformed change notification: " + payload);
+        }
+        if ("*".equals(parts[2])) {
+            return new RowChange(parts[0], parts[1], null);
+        }
+        Set<Integer> ids = new LinkedHashSet<>();
+        try {
+            for (String id : parts[2].split(",")) {
+                ids.add(Integer.parseInt(id));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed change notification: " + payload, e);
+        }
+        return new RowChange(parts[0], parts[1], ids);
+    }
+
+    /**
+     * @return the table written to, e.g. {@code media_item}
+     */
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * @return INSERT, UPDATE, DELETE, TRUNCATE or {@link #RESYNC}
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * @return true if the change names no IDs, so every cached row of the table should be dropped
+     */
+    public boolean isAllRows() {
+        return ids == null;
+    }
+
+    /**
+     * @return the IDs of the changed rows; empty if {@link #isAllRows()}
+     */
+    public Set<Integer> getIds() {
+        return ids == null ? Set.of() : ids;
+    }
+
+    @Override
+    public String toString() {
+        return table + ":" + operation + ":" + (ids == null ? "*" : ids);
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.library.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements for one physical connection.
+ * Statements are keyed by SQL text and generated-keys mode. Closing a statement
+ * obtained from the cache clears its parameters and keeps it open for the next
+ * caller, so repeated queries skip client-side parsing and, once the driver's
+ * prepare threshold is reached, server-side planning. Fetch size, query timeout,
+ * max rows and fetch direction changed by a caller are restored to the driver
+ * defaults on check-in; a statement whose other settings were changed is closed
+ * instead of being reused.
+ */
+final class StatementCache {
+
+    // Marks statements prepared without a generated-keys argument
+    static final int NO_GENERATED_KEYS_ARGUMENT = Integer.MIN_VALUE;
+
+    // Settings restored to their defaults when a statement returns to the cache
+    private static final Set<String> RESETTABLE_SETTERS = Set.of(
+            "setFetchSize", "setQueryTimeout", "setMaxRows", "setLargeMaxRows",
+            "setFetchDirection", "setMaxFieldSize");
+
+    // Settings that would leak into the next caller and are not restored
+    private static final Set<String> UNRESETTABLE_SETTERS = Set.of(
+            "setCursorName", "setEscapeProcessing", "setPoolable", "closeOnCompletion");
+
+    private final int maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final LinkedHashMap<Key, CachedStatement> statements;
+
+    /**
+     * @param maxSize maximum number of statements kept open for the connection
+     * @param hits pool-wide hit counter
+     * @param misses pool-wide miss counter
+     */
+    StatementCache(int maxSize, AtomicLong hits, AtomicLong misses) {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns a cached statement for the SQL, preparing and caching it on a miss.
+     * A statement that is still open by an earlier caller is not shared; an
+     * uncached statement is prepared instead.
+     *
+     * @param physical the physical connection to prepare on
+     * @param owner the connection handle returned by Statement.getConnection
+     * @param sql the SQL text
+     * @param autoGeneratedKeys generated-keys mode, or NO_GENERATED_KEYS_ARGUMENT
+     * @return a statement whose close() returns it to the cache
+     */
+    synchronized PreparedStatement prepare(Connection physical, Connection owner, String sql,
+                                           int autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse && cached.statement.isClosed()) {
+            statements.remove(key);
+            cached = null;
+        }
+        if (cached != null && !cached.inUse) {
+            hits.incrementAndGet();
+            cached.inUse = true;
+            return cached.newHandle(owner);
+        }
+
+        misses.incrementAndGet();
+        PreparedStatement statement = autoGeneratedKeys == NO_GENERATED_KEYS_ARGUMENT
+                ? physical.prepareStatement(sql)
+                : physical.prepareStatement(sql, autoGeneratedKeys);
+        if (cached != null) {
+            // Same SQL is already open on this connection; hand out a one-off statement
+            return statement;
+        }
+
+        CachedStatement created = new CachedStatement(statement);
+        created.inUse = true;
+        statements.put(key, created);
+        evictOverflow();
+        return created.newHandle(owner);
+    }
+
+    /**
+     * Closes every cached statement. Used when the physical connection is discarded.
+     */
+    synchronized void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            cached.evicted = true;
+            if (!cached.inUse) {
+                closeQuietly(cached.statement);
+            }
+        }
+        statements.clear();
+    }
+
+    synchronized int size() {
+        return statements.size();
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedStatement> iterator = statements.values().iterator();
+        while (statements.size() > maxSize && iterator.hasNext()) {
+            CachedStatement eldest = iterator.next();
+            iterator.remove();
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                closeQuietly(eldest.statement);
+            }
+        }
+    }
+
+    private synchronized void checkIn(CachedStatement cached) {
+        cached.inUse = false;
+        if (cached.evicted) {
+            closeQuietly(cached.statement);
+            return;
+        }
+        if (cached.settingsLeaked) {
+            statements.values().remove(cached);
+            closeQuietly(cached.statement);
+            return;
+        }
+        try {
+            cached.statement.clearParameters();
+            cached.statement.clearBatch();
+            if (cached.defaults != null) {
+                cached.defaults.restore(cached.statement);
+                cached.defaults = null;
+            }
+        } catch (SQLException e) {
+            statements.values().remove(cached);
+            closeQuietly(cached.statement);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // Statement is being discarded anyway
+        }
+    }
+
+    private record Key(String sql, int autoGeneratedKeys) {
+    }
+
+    /**
+     * Statement settings as they were before a caller first changed one of them.
+     */
+    private record Settings(int fetchSize, int queryTimeout, int maxRows, int fetchDirection, int maxFieldSize) {
+
+        static Settings capture(PreparedStatement statement) throws SQLException {
+            return new Settings(statement.getFetchSize(), statement.getQueryTimeout(), statement.getMaxRows(),
+                    statement.getFetchDirection(), statement.getMaxFieldSize());
+        }
+
+        void restore(PreparedStatement statement) throws SQLException {
+            statement.setFetchSize(fetchSize);
+            statement.setQueryTimeout(queryTimeout);
+            statement.setMaxRows(maxRows);
+            statement.setFetchDirection(fetchDirection);
+            statement.setMaxFieldSize(maxFieldSize);
+        }
+    }
+
+    private final class CachedStatement {
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private boolean evicted;
+        // Captured before the current caller's first resettable setter, null if untouched
+        private Settings defaults;
+        private boolean settingsLeaked;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        private PreparedStatement newHandle(Connection owner) {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] {PreparedStatement.class},
+                    new StatementHandle(this, owner));
+        }
+    }
+
+    /**
+     * Invocation handler behind each statement handed out from the cache.
+     */
+    private final class StatementHandle implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection owner;
+        private boolean handleClosed = false;
+
+        private StatementHandle(CachedStatement cached, Connection owner) {
+            this.cached = cached;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        checkIn(cached);
+                    }
+                    return null;
+                case "isClosed":
+                    return handleClosed || cached.statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.statement + "]";
+                default:
+                    break;
+            }
+
+            if (handleClosed) {
+                throw new SQLException("Statement has already been closed");
+            }
+
+            if (RESETTABLE_SETTERS.contains(method.getName())) {
+                if (cached.defaults == null) {
+                    cached.defaults = Settings.capture(cached.statement);
+                }
+            } else if (UNRESETTABLE_SETTERS.contains(method.getName())) {
+                cached.settingsLeaked = true;
+            }
+
+            try {
+                return method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
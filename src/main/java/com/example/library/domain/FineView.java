@@ -0,0 +1,46 @@
+package com.example.library.domain;
+
+/**
+ * A fine together with the user and item of the loan it was issued for, read
+ * in one query with the fine, so listing fines by borrower does not look up
+ * each loan separately.
+ */
+public class FineView {
+    private final Fine fine;
+    private final Integer userId;
+    private final Integer itemId;
+    
+    /**
+     * @param fine the fine
+     * @param userId the borrower of the loan the fine was issued for
+     * @param itemId the item of the loan the fine was issued for
+     */
+    public FineView(Fine fine, Integer userId, Integer itemId) {
+        this.fine = fine;
+        this.userId = userId;
+        this.itemId = itemId;
+    }
+    
+    public Fine getFine() {
+        return fine;
+    }
+    
+    public Integer getUserId() {
+        return userId;
+    }
+    
+    public Integer getItemId() {
+        return itemId;
+    }
+    
+    @Override
+    public String toString() {
+        return "FineView{" +
+                "fineId=" + fine.getFineId() +
+                ", userId=" + userId +
+                ", itemId=" + itemId +
+                ", amount=" + fine.getAmount() +
+                ", status='" + fine.getStatus() + '\'' +
+                '}';
+    }
+}
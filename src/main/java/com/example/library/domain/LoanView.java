@@ -0,0 +1,80 @@
+package com.example.library.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * A loan together with the item details and fine a patron sees next to it:
+ * the item's title, type and daily late fee, how many days the loan is
+ * overdue and the fine it has accrued. Read in one query with the loan, so
+ * listing a patron's loans does not look up each item separately.
+ */
+public class LoanView {
+    private final Loan loan;
+    private final String itemTitle;
+    private final String itemType;
+    private final BigDecimal lateFeePerDay;
+    private final long overdueDays;
+    private final BigDecimal accruedFine;
+    
+    /**
+     * @param loan the loan
+     * @param itemTitle the title of the borrowed item
+     * @param itemType the type of the borrowed item, e.g. BOOK
+     * @param lateFeePerDay the item's late fee per day
+     * @param overdueDays days past the due date, until the return date or as of the date the
+     *                    view was read for an open loan; 0 if not overdue
+     * @param accruedFine the fines issued for a returned loan, or what returning an open loan
+     *                    on the date the view was read for would be charged
+     */
+    public LoanView(Loan loan, String itemTitle, String itemType, BigDecimal lateFeePerDay,
+                    long overdueDays, BigDecimal accruedFine) {
+        this.loan = loan;
+        this.itemTitle = itemTitle;
+        this.itemType = itemType;
+        this.lateFeePerDay = lateFeePerDay;
+        this.overdueDays = overdueDays;
+        this.accruedFine = accruedFine;
+    }
+    
+    public Loan getLoan() {
+        return loan;
+    }
+    
+    public String getItemTitle() {
+        return itemTitle;
+    }
+    
+    public String getItemType() {
+        return itemType;
+    }
+    
+    public BigDecimal getLateFeePerDay() {
+        return lateFeePerDay;
+    }
+    
+    public long getOverdueDays() {
+        return overdueDays;
+    }
+    
+    public BigDecimal getAccruedFine() {
+        return accruedFine;
+    }
+    
+    /**
+     * @return a copy of this view with another accrued fine
+     */
+    public LoanView withAccruedFine(BigDecimal fine) {
+        return new LoanView(loan, itemTitle, itemType, lateFeePerDay, overdueDays, fine);
+    }
+    
+    @Override
+    public String toString() {
+        return "LoanView{" +
+                "loanId=" + loan.getLoanId() +
+                ", itemTitle='" + itemTitle + '\'' +
+                ", status='" + loan.getStatus() + '\'' +
+                ", overdueDays=" + overdueDays +
+                ", accruedFine=" + accruedFine +
+                '}';
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.library.repository;
+
+import com.example.library.domain.MediaItem;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * MediaItemRepository decorator that answers lookups for ISBNs not in the
+ * catalog from an in-memory Bloom filter, without a query. Checks that an
+ * ISBN is new, which are almost always true, are then usually answered in
+ * memory; lookups that pass the filter go to the wrapped repository as before.
+ * <p>
+ * The filter is built from every item when the decorator is created and learns
+ * the ISBNs saved or updated through it. Items added by other clients or by the
+ * bulk catalog import are only seen once passed to {@link #learn} or after
+ * {@link #rebuild()}.
+ */
+public class BloomFilteredMediaItemRepository implements MediaItemRepository {
+
+    private final MediaItemRepository delegate;
+    private final NegativeLookupFilter isbns;
+
+    /**
+     * Creates the decorator and builds the filter from the wrapped repository.
+     *
+     * @param delegate the repository to wrap
+     * @param falsePositiveRate the wanted share of lookups for new ISBNs that still need a query
+     */
+    public BloomFilteredMediaItemRepository(MediaItemRepository delegate, double falsePositiveRate) {
+        this.delegate = delegate;
+        this.isbns = new NegativeLookupFilter(value -> value, falsePositiveRate);
+        rebuild();
+    }
+
+    /**
+     * Reads every ISBN from the wrapped repository and rebuilds the filter.
+     */
+    public synchronized void rebuild() {
+        isbns.beginRebuild();
+        List<String> all;
+        try (Stream<MediaItem> items = delegate.streamAll()) {
+            all = items.map(MediaItem::getIsbn).filter(Objects::nonNull).toList();
+        } catch (RuntimeException e) {
+            isbns.abortRebuild();
+            throw e;
+        }
+        isbns.finishRebuild(all);
+    }
+
+    /**
+     * Adds the ISBNs of the given items, e.g. after other clients inserted or updated them.
+     *
+     * @param itemIds IDs of the changed items
+     */
+    public void learn(Collection<Integer> itemIds) {
+        delegate.findAllByIds(itemIds).values().forEach(item -> isbns.add(item.getIsbn()));
+    }
+
+    /**
+     * @return how many ISBN lookups the filter answered without a query
+     */
+    public LookupFilterStats getIsbnStats() {
+        return isbns.stats();
+    }
+
+    // ISBNs are added before the write, so a concurrent lookup never misses an item that is already saved
+
+    @Override
+    public MediaItem save(MediaItem mediaItem) {
+        isbns.add(mediaItem.getIsbn());
+        return delegate.save(mediaItem);
+    }
+
+    @Override
+    public MediaItem update(MediaItem mediaItem) {
+        isbns.add(mediaItem.getIsbn());
+        return delegate.update(mediaItem);
+    }
+
+    @Override
+    public List<MediaItem> saveAll(List<MediaItem> mediaItems) {
+        mediaItems.forEach(item -> isbns.add(item.getIsbn()));
+        return delegate.saveAll(mediaItems);
+    }
+
+    @Override
+    public List<MediaItem> updateAll(List<MediaItem> mediaItems) {
+        mediaItems.forEach(item -> isbns.add(item.getIsbn()));
+        return delegate.updateAll(mediaItems);
+    }
+
+    @Override
+    public Optional<MediaItem> findByIsbn(String isbn) {
+        if (!isbns.mightExist(isbn)) {
+            return Optional.empty();
+        }
+        Optional<MediaItem> item = delegate.findByIsbn(isbn);
+        if (item.isEmpty()) {
+            isbns.falsePositive();
+        }
+        return item;
+    }
+
+    @Override
+    public boolean existsByIsbn(String isbn) {
+        if (!isbns.mightExist(isbn)) {
+            return false;
+        }
+        boolean exists = delegate.existsByIsbn(isbn);
+        if (!exists) {
+            isbns.falsePositive();
+        }
+        return exists;
+    }
+
+    @Override
+    public Optional<MediaItem> findById(Integer itemId) {
+        return delegate.findById(itemId);
+    }
+
+    @Override
+    public Map<Integer, MediaItem> findAllByIds(Collection<Integer> itemIds) {
+        return delegate.findAllByIds(itemIds);
+    }
+
+    @Override
+    public List<MediaItem> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<MediaItem> findAll(Integer afterId, int limit) {
+        return delegate.findAll(afterId, limit);
+    }
+
+    @Override
+    public Stream<MediaItem> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public List<MediaItem> findByType(String type) {
+        return delegate.findByType(type);
+    }
+
+    @Override
+    public Page<MediaItem> findByType(String type, Integer afterId, int limit) {
+        return delegate.findByType(type, afterId, limit);
+    }
+
+    @Override
+    public List<MediaItem> findByTitleContaining(String title) {
+        return delegate.findByTitleContaining(title);
+    }
+
+    @Override
+    public List<MediaItem> findByAuthorContaining(String author) {
+        return delegate.findByAuthorContaining(author);
+    }
+
+    @Override
+    public List<MediaItem> findAvailableItems() {
+        return delegate.findAvailableItems();
+    }
+
+    @Override
+    public Page<MediaItem> findAvailableItems(Integer afterId, int limit) {
+        return delegate.findAvailableItems(afterId, limit);
+    }
+
+    @Override
+    public boolean deleteById(Integer itemId) {
+        return delegate.deleteById(itemId);
+    }
+
+    @Override
+    public void updateAvailableCopies(Integer itemId, Integer availableCopies) {
+        delegate.updateAvailableCopies(itemId, availableCopies);
+    }
+
+    @Override
+    public Optional<Integer> tryDecrementAvailable(Integer itemId) {
+        return delegate.tryDecrementAvailable(itemId);
+    }
+
+    @Override
+    public Optional<Integer> incrementAvailable(Integer itemId) {
+        return delegate.incrementAvailable(itemId);
+    }
+
+    @Override
+    public List<MediaItem> search(String keyword) {
+        return delegate.search(keyword);
+    }
+
+    @Override
+    public Page<MediaItem> search(String keyword, Integer afterId, int limit) {
+        return delegate.search(keyword, afterId, limit);
+    }
+
+    @Override
+    public List<MediaItem> fullTextSearch(String query) {
+        return delegate.fullTextSearch(query);
+    }
+
+    @Override
+    public List<MediaItem> fuzzySearch(String query, int maxEdits) {
+        return delegate.fuzzySearch(query, maxEdits);
+    }
+
+    @Override
+    public FacetedSearchResult facetedSearch(CatalogQuery query) {
+        return delegate.facetedSearch(query);
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.library.repository;
+
+import com.example.library.domain.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * UserRepository decorator that answers lookups for usernames and emails that
+ * are not taken from in-memory Bloom filters, without a query. Checking that a
+ * new user's name and email are free, and failed logins, are then usually
+ * answered in memory; lookups that pass the filters go to the wrapped repository
+ * as before.
+ * <p>
+ * The filters are built from every user when the decorator is created and learn
+ * the usernames and emails saved or updated through it. Users added by other
+ * clients are only seen once passed to {@link #learn} or after {@link #rebuild()},
+ * so without change notifications this decorator suits deployments where one
+ * application instance creates the users.
+ */
+public class BloomFilteredUserRepository implements UserRepository {
+
+    private final UserRepository delegate;
+    private final NegativeLookupFilter usernames;
+    // existsByEmail ignores case, so emails are filtered in lower case
+    private final NegativeLookupFilter emails;
+
+    /**
+     * Creates the decorator and builds the filters from the wrapped repository.
+     *
+     * @param delegate the repository to wrap
+     * @param falsePositiveRate the wanted share of lookups for free values that still need a query
+     */
+    public BloomFilteredUserRepository(UserRepository delegate, double falsePositiveRate) {
+        this.delegate = delegate;
+        this.usernames = new NegativeLookupFilter(value -> value, falsePositiveRate);
+        this.emails = new NegativeLookupFilter(value -> value.toLowerCase(Locale.ROOT), falsePositiveRate);
+        rebuild();
+    }
+
+    /**
+     * Reloads every user from the wrapped repository and rebuilds the filters.
+     */
+    public synchronized void rebuild() {
+        usernames.beginRebuild();
+        emails.beginRebuild();
+        List<User> users;
+        try {
+            users = delegate.findAll();
+        } catch (RuntimeException e) {
+            usernames.abortRebuild();
+            emails.abortRebuild();
+            throw e;
+        }
+        usernames.finishRebuild(users.stream().map(User::getUsername).toList());
+        emails.finishRebuild(users.stream().map(User::getEmail).toList());
+    }
+
+    /**
+     * Adds the usernames and emails of the given users, e.g. after other clients
+     * inserted or updated them.
+     *
+     * @param userIds IDs of the changed users
+     */
+    public void learn(Collection<Integer> userIds) {
+        delegate.findAllByIds(userIds).values().forEach(this::remember);
+    }
+
+    /**
+     * @return how many username lookups the filter answered without a query
+     */
+    public LookupFilterStats getUsernameStats() {
+        return usernames.stats();
+    }
+
+    /**
+     * @return how many email lookups the filter answered without a query
+     */
+    public LookupFilterStats getEmailStats() {
+        return emails.stats();
+    }
+
+    @Override
+    public User save(User user) {
+        // Added first, so a concurrent lookup never misses a user that is already saved
+        remember(user);
+        return delegate.save(user);
+    }
+
+    @Override
+    public User update(User user) {
+        remember(user);
+        return delegate.update(user);
+    }
+
+    @Override
+    public Optional<User> findById(Integer userId) {
+        return delegate.findById(userId);
+    }
+
+    @Override
+    public Map<Integer, User> findAllByIds(Collection<Integer> userIds) {
+        return delegate.findAllByIds(userIds);
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        if (!usernames.mightExist(username)) {
+            return Optional.empty();
+        }
+        Optional<User> user = delegate.findByUsername(username);
+        if (user.isEmpty()) {
+            usernames.falsePositive();
+        }
+        return user;
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (!emails.mightExist(email)) {
+            return Optional.empty();
+        }
+        Optional<User> user = delegate.findByEmail(email);
+        if (user.isEmpty()) {
+            emails.falsePositive();
+        }
+        return user;
+    }
+
+    @Override
+    public List<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<User> findAll(Integer afterId, int limit) {
+        return delegate.findAll(afterId, limit);
+    }
+
+    @Override
+    public List<User> findByRole(String role) {
+        return delegate.findByRole(role);
+    }
+
+    @Override
+    public Page<User> findByRole(String role, Integer afterId, int limit) {
+        return delegate.findByRole(role, afterId, limit);
+    }
+
+    @Override
+    public void deleteById(Integer userId) {
+        delegate.deleteById(userId);
+    }
+
+    @Override
+    public boolean existsByUsername(String username) {
+        if (!usernames.mightExist(username)) {
+            return false;
+        }
+        boolean exists = delegate.existsByUsername(username);
+        if (!exists) {
+            usernames.falsePositive();
+        }
+        return exists;
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        if (!emails.mightExist(email)) {
+            return false;
+        }
+        boolean exists = delegate.existsByEmail(email);
+        if (!exists) {
+            emails.falsePositive();
+        }
+        return exists;
+    }
+
+    private void remember(User user) {
+        usernames.add(user.getUsername());
+        emails.add(user.getEmail());
+    }
+}
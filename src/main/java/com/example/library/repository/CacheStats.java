@@ -0,0 +1,62 @@
+package com.example.library.repository;
+
+/**
+ * A snapshot of a repository cache's counters, for monitoring and tuning its
+ * size and time to live.
+ */
+public final class CacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+
+    CacheStats(long hits, long misses, long evictions, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    /**
+     * @return lookups answered from the cache
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return lookups that had to go to the database, including those that found an expired entry
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return entries dropped because the cache was full or they had expired; invalidations are not counted
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return entries currently cached
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return hits as a fraction of all lookups, or 0 before the first lookup
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d, misses=%d, evictions=%d, size=%d, hitRate=%.2f",
+                hits, misses, evictions, size, getHitRate());
+    }
+}
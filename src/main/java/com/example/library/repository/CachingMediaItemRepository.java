@@ -0,0 +1,267 @@
+package com.example.library.repository;
+
+import com.example.library.domain.MediaItem;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * MediaItemRepository decorator that keeps recently read items in memory, so
+ * the lookups by ID made on every borrow, return and reservation usually skip
+ * the database.
+ * <p>
+ * Only {@link #findById} and {@link #findAllByIds} read through the cache;
+ * lists and searches always go to the wrapped repository. Writes made through
+ * this decorator go to the wrapped repository first and then drop the item from
+ * the cache, so the next read loads the new row. Changes made to the database
+ * by other clients are picked up when they are passed to {@link #evict}, or at
+ * the latest once the cached copy expires, which bounds how
+ * stale a cached item, including its available copy count, can be. Borrowing
+ * still claims copies atomically through the wrapped repository, so a stale
+ * count never lets a copy be lent twice. The same bound applies to a write made
+ * inside a longer transaction: a concurrent reader may cache the row as it was
+ * before the transaction commits.
+ */
+public class CachingMediaItemRepository implements MediaItemRepository {
+
+    private final MediaItemRepository delegate;
+    private final ExpiringLruCache<Integer, MediaItem> cache;
+
+    /**
+     * Creates the decorator with an empty cache.
+     *
+     * @param delegate the repository to wrap
+     * @param maxSize the most items kept; the least recently used is dropped first
+     * @param timeToLive how long a cached item is used before it is read again
+     */
+    public CachingMediaItemRepository(MediaItemRepository delegate, int maxSize, Duration timeToLive) {
+        this(delegate, maxSize, timeToLive, System::nanoTime);
+    }
+
+    CachingMediaItemRepository(MediaItemRepository delegate, int maxSize, Duration timeToLive, LongSupplier clock) {
+        this.delegate = delegate;
+        this.cache = new ExpiringLruCache<>(maxSize, timeToLive.toNanos(), clock);
+    }
+
+    /**
+     * @return the cache's hit, miss and eviction counts so far and its current size
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Drops every cached item, e.g. after the catalog was changed outside this application.
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Drops the given items, e.g. after other clients changed them.
+     *
+     * @param itemIds IDs of the changed items
+     */
+    public void evict(Collection<Integer> itemIds) {
+        itemIds.forEach(cache::invalidate);
+    }
+
+    @Override
+    public MediaItem save(MediaItem mediaItem) {
+        return delegate.save(mediaItem);
+    }
+
+    @Override
+    public MediaItem update(MediaItem mediaItem) {
+        try {
+            return delegate.update(mediaItem);
+        } finally {
+            cache.invalidate(mediaItem.getItemId());
+        }
+    }
+
+    @Override
+    public List<MediaItem> saveAll(List<MediaItem> mediaItems) {
+        return delegate.saveAll(mediaItems);
+    }
+
+    @Override
+    public List<MediaItem> updateAll(List<MediaItem> mediaItems) {
+        try {
+            return delegate.updateAll(mediaItems);
+        } finally {
+            mediaItems.forEach(item -> cache.invalidate(item.getItemId()));
+        }
+    }
+
+    @Override
+    public Optional<MediaItem> findById(Integer itemId) {
+        MediaItem cached = cache.get(itemId);
+        if (cached != null) {
+            return Optional.of(copy(cached));
+        }
+        long ticket = cache.ticket();
+        Optional<MediaItem> loaded = delegate.findById(itemId);
+        loaded.ifPresent(item -> cache.put(itemId, copy(item), ticket));
+        return loaded;
+    }
+
+    @Override
+    public Map<Integer, MediaItem> findAllByIds(Collection<Integer> itemIds) {
+        Map<Integer, MediaItem> found = new HashMap<>();
+        if (itemIds == null) {
+            return found;
+        }
+        List<Integer> missing = new ArrayList<>();
+        for (Integer itemId : new LinkedHashSet<>(itemIds)) {
+            if (itemId == null) {
+                continue;
+            }
+            MediaItem cached = cache.get(itemId);
+            if (cached != null) {
+                found.put(itemId, copy(cached));
+            } else {
+                missing.add(itemId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long ticket = cache.ticket();
+            delegate.findAllByIds(missing).forEach((itemId, item) -> {
+                cache.put(itemId, copy(item), ticket);
+                found.put(itemId, item);
+            });
+        }
+        return found;
+    }
+
+    @Override
+    public Optional<MediaItem> findByIsbn(String isbn) {
+        return delegate.findByIsbn(isbn);
+    }
+
+    @Override
+    public List<MediaItem> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<MediaItem> findAll(Integer afterId, int limit) {
+        return delegate.findAll(afterId, limit);
+    }
+
+    @Override
+    public Stream<MediaItem> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public List<MediaItem> findByType(String type) {
+        return delegate.findByType(type);
+    }
+
+    @Override
+    public Page<MediaItem> findByType(String type, Integer afterId, int limit) {
+        return delegate.findByType(type, afterId, limit);
+    }
+
+    @Override
+    public List<MediaItem> findByTitleContaining(String title) {
+        return delegate.findByTitleContaining(title);
+    }
+
+    @Override
+    public List<MediaItem> findByAuthorContaining(String author) {
+        return delegate.findByAuthorContaining(author);
+    }
+
+    @Override
+    public List<MediaItem> findAvailableItems() {
+        return delegate.findAvailableItems();
+    }
+
+    @Override
+    public Page<MediaItem> findAvailableItems(Integer afterId, int limit) {
+        return delegate.findAvailableItems(afterId, limit);
+    }
+
+    @Override
+    public boolean deleteById(Integer itemId) {
+        try {
+            return delegate.deleteById(itemId);
+        } finally {
+            cache.invalidate(itemId);
+        }
+    }
+
+    @Override
+    public void updateAvailableCopies(Integer itemId, Integer availableCopies) {
+        try {
+            delegate.updateAvailableCopies(itemId, availableCopies);
+        } finally {
+            cache.invalidate(itemId);
+        }
+    }
+
+    @Override
+    public Optional<Integer> tryDecrementAvailable(Integer itemId) {
+        try {
+            return delegate.tryDecrementAvailable(itemId);
+        } finally {
+            cache.invalidate(itemId);
+        }
+    }
+
+    @Override
+    public Optional<Integer> incrementAvailable(Integer itemId) {
+        try {
+            return delegate.incrementAvailable(itemId);
+        } finally {
+            cache.invalidate(itemId);
+        }
+    }
+
+    @Override
+    public List<MediaItem> search(String keyword) {
+        return delegate.search(keyword);
+    }
+
+    @Override
+    public Page<MediaItem> search(String keyword, Integer afterId, int limit) {
+        return delegate.search(keyword, afterId, limit);
+    }
+
+    @Override
+    public List<MediaItem> fullTextSearch(String query) {
+        return delegate.fullTextSearch(query);
+    }
+
+    @Override
+    public List<MediaItem> fuzzySearch(String query, int maxEdits) {
+        return delegate.fuzzySearch(query, maxEdits);
+    }
+
+    @Override
+    public FacetedSearchResult facetedSearch(CatalogQuery query) {
+        return delegate.facetedSearch(query);
+    }
+
+    @Override
+    public boolean existsByIsbn(String isbn) {
+        return delegate.existsByIsbn(isbn);
+    }
+
+    // Callers may change the items they get back, so the cache never shares its own
+    private static MediaItem copy(MediaItem item) {
+        return new MediaItem(item.getItemId(), item.getTitle(), item.getAuthor(), item.getType(),
+                item.getIsbn(), item.getPublicationDate(), item.getPublisher(), item.getTotalCopies(),
+                item.getAvailableCopies(), item.getLateFeesPerDay());
+    }
+}
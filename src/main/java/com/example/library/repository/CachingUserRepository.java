@@ -0,0 +1,198 @@
+package com.example.library.repository;
+
+import com.example.library.domain.User;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * UserRepository decorator that keeps recently read users in memory, so logins,
+ * reminders and reservations stop looking up the same users in the database.
+ * <p>
+ * Users are cached under both their ID and their username, each key an entry of
+ * its own, so {@link #findById}, {@link #findAllByIds} and {@link #findByUsername}
+ * all read through the cache; other lookups always go to the wrapped repository.
+ * {@link #update} and {@link #deleteById} drop every entry for the user, including
+ * one under a username the update replaced. Changes made to the database by other
+ * clients are picked up when they are passed to {@link #evict}, or at the latest
+ * once the cached entries expire.
+ */
+public class CachingUserRepository implements UserRepository {
+
+    private final UserRepository delegate;
+    private final ExpiringLruCache<Object, User> cache;
+
+    /**
+     * Creates the decorator with an empty cache.
+     *
+     * @param delegate the repository to wrap
+     * @param maxSize the most entries kept, two per user read both ways; the least recently used is dropped first
+     * @param timeToLive how long a cached user is used before it is read again
+     */
+    public CachingUserRepository(UserRepository delegate, int maxSize, Duration timeToLive) {
+        this(delegate, maxSize, timeToLive, System::nanoTime);
+    }
+
+    CachingUserRepository(UserRepository delegate, int maxSize, Duration timeToLive, LongSupplier clock) {
+        this.delegate = delegate;
+        this.cache = new ExpiringLruCache<>(maxSize, timeToLive.toNanos(), clock);
+    }
+
+    /**
+     * @return the cache's hit, miss and eviction counts so far and its current size
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Drops every cached user.
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Drops every entry for the given users, e.g. after other clients changed them.
+     *
+     * @param userIds IDs of the changed users
+     */
+    public void evict(Collection<Integer> userIds) {
+        Set<Integer> ids = Set.copyOf(userIds);
+        cache.invalidateIf(user -> ids.contains(user.getUserId()));
+    }
+
+    @Override
+    public User save(User user) {
+        return delegate.save(user);
+    }
+
+    @Override
+    public User update(User user) {
+        try {
+            return delegate.update(user);
+        } finally {
+            invalidate(user.getUserId());
+        }
+    }
+
+    @Override
+    public Optional<User> findById(Integer userId) {
+        return read(userId, () -> delegate.findById(userId));
+    }
+
+    @Override
+    public Map<Integer, User> findAllByIds(Collection<Integer> userIds) {
+        Map<Integer, User> found = new HashMap<>();
+        if (userIds == null) {
+            return found;
+        }
+        List<Integer> missing = new ArrayList<>();
+        for (Integer userId : new LinkedHashSet<>(userIds)) {
+            if (userId == null) {
+                continue;
+            }
+            User cached = cache.get(userId);
+            if (cached != null) {
+                found.put(userId, copy(cached));
+            } else {
+                missing.add(userId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long ticket = cache.ticket();
+            delegate.findAllByIds(missing).forEach((userId, user) -> {
+                cache.put(userId, copy(user), ticket);
+                found.put(userId, user);
+            });
+        }
+        return found;
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return read(new UsernameKey(username), () -> delegate.findByUsername(username));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<User> findAll(Integer afterId, int limit) {
+        return delegate.findAll(afterId, limit);
+    }
+
+    @Override
+    public List<User> findByRole(String role) {
+        return delegate.findByRole(role);
+    }
+
+    @Override
+    public Page<User> findByRole(String role, Integer afterId, int limit) {
+        return delegate.findByRole(role, afterId, limit);
+    }
+
+    @Override
+    public void deleteById(Integer userId) {
+        try {
+            delegate.deleteById(userId);
+        } finally {
+            invalidate(userId);
+        }
+    }
+
+    @Override
+    public boolean existsByUsername(String username) {
+        return delegate.existsByUsername(username);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return delegate.existsByEmail(email);
+    }
+
+    private Optional<User> read(Object key, Supplier<Optional<User>> loader) {
+        User cached = cache.get(key);
+        if (cached != null) {
+            return Optional.of(copy(cached));
+        }
+        long ticket = cache.ticket();
+        Optional<User> loaded = loader.get();
+        loaded.ifPresent(user -> {
+            // Cache under both keys, so the other lookup hits too
+            cache.put(user.getUserId(), copy(user), ticket);
+            cache.put(new UsernameKey(user.getUsername()), copy(user), ticket);
+        });
+        return loaded;
+    }
+
+    // Matching on the cached value finds the username entry even if the username just changed
+    private void invalidate(Integer userId) {
+        cache.invalidateIf(user -> user.getUserId().equals(userId));
+    }
+
+    // Callers may change the users they get back, so the cache never shares its own
+    private static User copy(User user) {
+        return new User(user.getUserId(), user.getUsername(), user.getPassword(), user.getEmail(),
+                user.getRole(), user.getCreatedAt());
+    }
+
+    private record UsernameKey(String username) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.library.repository;
+
+import java.io.Reader;
+
+/**
+ * Loads many media items into the catalog in one operation, for example the
+ * catalog of a new branch.
+ */
+public interface CatalogImporter {
+
+    /**
+     * Imports media items from CSV. The first line is a header naming the
+     * columns, in any order: {@code title} and {@code type} are required, and
+     * {@code author}, {@code isbn}, {@code publication_date} (yyyy-MM-dd),
+     * {@code publisher}, {@code total_copies} and {@code late_fees_per_day}
+     * are optional.
+     * <p>
+     * Rows that fail validation, and rows repeating an ISBN seen earlier in the
+     * input, are rejected and reported; the rest are imported together or not
+     * at all. A row whose ISBN is already catalogued adds its copies to that item.
+     *
+     * @param csv the CSV input; read to the end but not closed
+     * @return the counts, timing and rejected rows
+     * @throws IllegalArgumentException if the header is missing or names an unknown or repeated column
+     * @throws DataAccessException if the input cannot be read or is not well-formed CSV
+     */
+    ImportReport importCsv(Reader csv);
+}
@@ -0,0 +1,138 @@
+package com.example.library.repository;
+
+import com.example.library.domain.MediaItem;
+
+import java.time.LocalDate;
+
+/**
+ * A catalog search with optional facet filters and the page of hits wanted.
+ * Instances are immutable; the {@code with} methods return modified copies.
+ */
+public final class CatalogQuery {
+
+    /**
+     * Page size used unless {@link #page(int, int)} sets another.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Whether an item has a copy on the shelf.
+     */
+    public enum Availability {
+        /** At least one copy can be borrowed now. */
+        AVAILABLE,
+        /** Every copy is checked out. */
+        CHECKED_OUT
+    }
+
+    private final String text;
+    private final String type;
+    private final Availability availability;
+    private final Integer decade;
+    private final int offset;
+    private final int limit;
+
+    private CatalogQuery(String text, String type, Availability availability, Integer decade, int offset, int limit) {
+        this.text = text;
+        this.type = type;
+        this.availability = availability;
+        this.decade = decade;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    /**
+     * Creates an unfiltered query for the first page of hits.
+     *
+     * @param text the search text, matched like {@link MediaItemRepository#fullTextSearch(String)};
+     *             null or blank matches every item
+     * @return the query
+     */
+    public static CatalogQuery of(String text) {
+        String trimmed = text == null ? "" : text.trim();
+        return new CatalogQuery(trimmed, null, null, null, 0, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param type the item type to keep, e.g. "BOOK"; null for any type
+     * @return a copy of this query with the type filter
+     */
+    public CatalogQuery withType(String type) {
+        return new CatalogQuery(text, type, availability, decade, offset, limit);
+    }
+
+    /**
+     * @param availability whether to keep items on the shelf or checked out; null for both
+     * @return a copy of this query with the availability filter
+     */
+    public CatalogQuery withAvailability(Availability availability) {
+        return new CatalogQuery(text, type, availability, decade, offset, limit);
+    }
+
+    /**
+     * @param decade the first year of the publication decade to keep, e.g. 1990; null for any
+     * @return a copy of this query with the decade filter
+     */
+    public CatalogQuery withDecade(Integer decade) {
+        return new CatalogQuery(text, type, availability, decade, offset, limit);
+    }
+
+    /**
+     * @param offset the number of hits to skip
+     * @param limit the most hits to return
+     * @return a copy of this query for the given page
+     */
+    public CatalogQuery page(int offset, int limit) {
+        return new CatalogQuery(text, type, availability, decade, offset, limit);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Availability getAvailability() {
+        return availability;
+    }
+
+    public Integer getDecade() {
+        return decade;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return whether the query has search text, as opposed to listing the whole catalog
+     */
+    public boolean hasText() {
+        return !text.isEmpty();
+    }
+
+    /**
+     * Returns the first year of the decade a date falls in.
+     *
+     * @param date the date; may be null
+     * @return the decade, e.g. 1990 for 1997, or null if the date is null
+     */
+    public static Integer decadeOf(LocalDate date) {
+        return date == null ? null : Math.floorDiv(date.getYear(), 10) * 10;
+    }
+
+    /**
+     * @param item a media item
+     * @return the availability of the item
+     */
+    public static Availability availabilityOf(MediaItem item) {
+        Integer available = item.getAvailableCopies();
+        return available != null && available > 0 ? Availability.AVAILABLE : Availability.CHECKED_OUT;
+    }
+}
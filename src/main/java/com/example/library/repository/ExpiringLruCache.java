@@ -0,0 +1,121 @@
+package com.example.library.repository;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Bounded cache for the caching repository decorators: least recently used
+ * entries are evicted once the cache is full, and entries expire a fixed time
+ * after they were loaded.
+ * <p>
+ * Values are loaded outside the cache's lock, so a load can race with a write
+ * that invalidates the same row. Callers take a {@link #ticket()} before
+ * loading and pass it to {@link #put}; the value is only cached if nothing was
+ * invalidated in between, so a stale row never outlives the write that
+ * replaced it.
+ */
+final class ExpiringLruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * @param maxSize the most entries kept, at least 1
+     * @param ttlNanos how long an entry stays valid after it is cached
+     * @param clock the time source, in nanoseconds
+     */
+    ExpiringLruCache(int maxSize, long ttlNanos, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1, was " + maxSize);
+        }
+        if (ttlNanos <= 0) {
+            throw new IllegalArgumentException("Cache time to live must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the cached value, or null on a miss; expired entries are dropped
+     */
+    synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && clock.getAsLong() - entry.loadedAt >= ttlNanos) {
+            entries.remove(key);
+            evictions++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * @return a marker to pass to {@link #put} for a value about to be loaded
+     */
+    synchronized long ticket() {
+        return invalidations;
+    }
+
+    /**
+     * Caches a loaded value unless an invalidation happened since the ticket was taken.
+     */
+    synchronized void put(K key, V value, long ticket) {
+        if (ticket != invalidations) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, clock.getAsLong()));
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    synchronized void invalidate(K key) {
+        invalidations++;
+        entries.remove(key);
+    }
+
+    /**
+     * Drops every entry whose value matches, for values cached under more than one key.
+     */
+    synchronized void invalidateIf(Predicate<? super V> condition) {
+        invalidations++;
+        entries.values().removeIf(entry -> condition.test(entry.value));
+    }
+
+    synchronized void invalidateAll() {
+        invalidations++;
+        entries.clear();
+    }
+
+    synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, entries.size());
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long loadedAt;
+
+        private Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
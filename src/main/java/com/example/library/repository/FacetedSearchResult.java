@@ -0,0 +1,143 @@
+package com.example.library.repository;
+
+import com.example.library.domain.MediaItem;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * One page of catalog search hits together with facet counts.
+ * <p>
+ * Each facet is counted over the items that match the search text and every
+ * filter except the facet's own, so the counts say how many hits there would be
+ * after switching that filter to another value. With the type filter set to
+ * BOOK, for example, the type counts still show how many CDs match the other
+ * filters. Items without a publication date are left out of the decade counts.
+ */
+public final class FacetedSearchResult {
+
+    private final List<MediaItem> items;
+    private final int totalHits;
+    private final Map<String, Integer> typeCounts;
+    private final Map<CatalogQuery.Availability, Integer> availabilityCounts;
+    private final SortedMap<Integer, Integer> decadeCounts;
+
+    private FacetedSearchResult(List<MediaItem> items, Counter counter) {
+        this.items = Collections.unmodifiableList(items);
+        this.totalHits = counter.totalHits;
+        this.typeCounts = Collections.unmodifiableMap(counter.typeCounts);
+        this.availabilityCounts = Collections.unmodifiableMap(counter.availabilityCounts);
+        this.decadeCounts = Collections.unmodifiableSortedMap(counter.decadeCounts);
+    }
+
+    /**
+     * @return the requested page of hits, best matches first
+     */
+    public List<MediaItem> getItems() {
+        return items;
+    }
+
+    /**
+     * @return the number of hits across all pages
+     */
+    public int getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * @return hit counts per item type, in type order
+     */
+    public Map<String, Integer> getTypeCounts() {
+        return typeCounts;
+    }
+
+    /**
+     * @return hit counts for items on the shelf and items checked out
+     */
+    public Map<CatalogQuery.Availability, Integer> getAvailabilityCounts() {
+        return availabilityCounts;
+    }
+
+    /**
+     * @return hit counts per publication decade, keyed by the decade's first year
+     */
+    public SortedMap<Integer, Integer> getDecadeCounts() {
+        return decadeCounts;
+    }
+
+    /**
+     * Accumulates facet counts for a query from groups of items that share a type,
+     * availability and decade, in a single pass over the groups.
+     */
+    static final class Counter {
+        private final CatalogQuery query;
+        private int totalHits;
+        private final Map<String, Integer> typeCounts = new TreeMap<>();
+        private final Map<CatalogQuery.Availability, Integer> availabilityCounts =
+                new EnumMap<>(CatalogQuery.Availability.class);
+        private final SortedMap<Integer, Integer> decadeCounts = new TreeMap<>();
+
+        Counter(CatalogQuery query) {
+            this.query = query;
+            for (CatalogQuery.Availability availability : CatalogQuery.Availability.values()) {
+                availabilityCounts.put(availability, 0);
+            }
+        }
+
+        /**
+         * Counts a group of items matching the search text.
+         *
+         * @param type the items' type
+         * @param availability the items' availability
+         * @param decade the items' publication decade; null if undated
+         * @param count the number of items in the group
+         * @return whether the items pass every filter, i.e. are hits
+         */
+        boolean add(String type, CatalogQuery.Availability availability, Integer decade, int count) {
+            boolean typeMatches = query.getType() == null || query.getType().equals(type);
+            boolean availabilityMatches = query.getAvailability() == null || query.getAvailability() == availability;
+            boolean decadeMatches = query.getDecade() == null || query.getDecade().equals(decade);
+
+            if (availabilityMatches && decadeMatches && type != null) {
+                typeCounts.merge(type, count, Integer::sum);
+            }
+            if (typeMatches && decadeMatches) {
+                availabilityCounts.merge(availability, count, Integer::sum);
+            }
+            if (typeMatches && availabilityMatches && decade != null) {
+                decadeCounts.merge(decade, count, Integer::sum);
+            }
+            boolean hit = typeMatches && availabilityMatches && decadeMatches;
+            if (hit) {
+                totalHits += count;
+            }
+            return hit;
+        }
+
+        /**
+         * Counts one item matching the search text.
+         *
+         * @return whether the item passes every filter
+         */
+        boolean add(MediaItem item) {
+            return add(item.getType(), CatalogQuery.availabilityOf(item),
+                    CatalogQuery.decadeOf(item.getPublicationDate()), 1);
+        }
+
+        /**
+         * @return the number of hits counted so far
+         */
+        int getTotalHits() {
+            return totalHits;
+        }
+
+        FacetedSearchResult build(List<MediaItem> page) {
+            return new FacetedSearchResult(Objects.requireNonNull(page), this);
+        }
+    }
+}
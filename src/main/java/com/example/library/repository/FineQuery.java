@@ -0,0 +1,99 @@
+package com.example.library.repository;
+
+import java.time.LocalDate;
+
+/**
+ * A filtered listing of fines, newest first, and the page of it wanted. Filters
+ * left null match every fine. Instances are immutable; the {@code with} methods
+ * return modified copies.
+ */
+public final class FineQuery {
+
+    /**
+     * Page size used unless {@link #page(int, int)} sets another.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final Integer userId;
+    private final String status;
+    private final LocalDate issuedFrom;
+    private final LocalDate issuedTo;
+    private final int offset;
+    private final int limit;
+
+    private FineQuery(Integer userId, String status, LocalDate issuedFrom, LocalDate issuedTo, int offset, int limit) {
+        this.userId = userId;
+        this.status = status;
+        this.issuedFrom = issuedFrom;
+        this.issuedTo = issuedTo;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    /**
+     * Creates an unfiltered query for the first page of fines.
+     *
+     * @return the query
+     */
+    public static FineQuery all() {
+        return new FineQuery(null, null, null, null, 0, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param userId the borrower whose fines to keep; null for any user
+     * @return a copy of this query with the user filter
+     */
+    public FineQuery withUserId(Integer userId) {
+        return new FineQuery(userId, status, issuedFrom, issuedTo, offset, limit);
+    }
+
+    /**
+     * @param status the fine status to keep, e.g. "UNPAID"; null for any status
+     * @return a copy of this query with the status filter
+     */
+    public FineQuery withStatus(String status) {
+        return new FineQuery(userId, status, issuedFrom, issuedTo, offset, limit);
+    }
+
+    /**
+     * @param from the earliest issue date to keep, inclusive; null for no lower bound
+     * @param to the latest issue date to keep, inclusive; null for no upper bound
+     * @return a copy of this query with the issue date range
+     */
+    public FineQuery withIssuedBetween(LocalDate from, LocalDate to) {
+        return new FineQuery(userId, status, from, to, offset, limit);
+    }
+
+    /**
+     * @param offset the number of fines to skip
+     * @param limit the most fines to return
+     * @return a copy of this query for the given page
+     */
+    public FineQuery page(int offset, int limit) {
+        return new FineQuery(userId, status, issuedFrom, issuedTo, offset, limit);
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDate getIssuedFrom() {
+        return issuedFrom;
+    }
+
+    public LocalDate getIssuedTo() {
+        return issuedTo;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -3,8 +3,11 @@ package com.example.library.repository;
 import com.example.library.domain.Fine;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface FineRepository {
     
@@ -22,6 +25,21 @@ public interface FineRepository {
      */
     Fine update(Fine fine);
     
+    /**
+     * Save many new fines in one transaction, sent to the database in batches of a thousand
+     * @param fines the fines to save
+     * @return the same fines, each with its generated ID, in the order given
+     */
+    List<Fine> saveAll(List<Fine> fines);
+    
+    /**
+     * Update many existing fines in one transaction, sent to the database in batches of a thousand;
+     * nothing is updated if any of them does not exist
+     * @param fines the fines to update
+     * @return the updated fines
+     */
+    List<Fine> updateAll(List<Fine> fines);
+    
     /**
      * Find a fine by ID
      * @param fineId the fine ID
@@ -29,6 +47,13 @@ public interface FineRepository {
      */
     Optional<Fine> findById(Integer fineId);
     
+    /**
+     * Find many fines by ID, with one query per thousand IDs
+     * @param fineIds the IDs to look up; nulls and duplicates are ignored
+     * @return the fines found, keyed by ID; IDs without a fine are absent
+     */
+    Map<Integer, Fine> findAllByIds(Collection<Integer> fineIds);
+    
     /**
      * Find a fine by loan ID
      * @param loanId the loan ID
@@ -42,6 +67,23 @@ public interface FineRepository {
      */
     List<Fine> findAll();
     
+    /**
+     * Find all fines, one page at a time in fine ID order
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most fines to return, at least 1
+     * @return the page of fines
+     */
+    Page<Fine> findAll(Integer afterId, int limit);
+    
+    /**
+     * Stream all fines in fine ID order.
+     * Rows are read from a server-side cursor as the stream is consumed, so the
+     * scan runs in constant memory. The stream holds a database connection until
+     * it is closed, so use it in a try-with-resources block.
+     * @return the fines; must be closed
+     */
+    Stream<Fine> streamAll();
+    
     /**
      * Find fines by status
      * @param status the fine status (e.g., UNPAID, PAID)
@@ -49,6 +91,25 @@ public interface FineRepository {
      */
     List<Fine> findByStatus(String status);
     
+    /**
+     * Find fines by status, one page at a time in fine ID order
+     * @param status the fine status (e.g., UNPAID, PAID)
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most fines to return, at least 1
+     * @return the page of fines with the specified status
+     */
+    Page<Fine> findByStatus(String status, Integer afterId, int limit);
+    
+    /**
+     * Stream fines by status in fine ID order.
+     * Rows are read from a server-side cursor as the stream is consumed, so the
+     * scan runs in constant memory. The stream holds a database connection until
+     * it is closed, so use it in a try-with-resources block.
+     * @param status the fine status (e.g., UNPAID, PAID)
+     * @return the fines with the specified status; must be closed
+     */
+    Stream<Fine> streamByStatus(String status);
+    
     /**
      * Find unpaid fines by user ID
      * @param userId the user ID
@@ -90,4 +151,12 @@ public interface FineRepository {
      * @param paidDate the date the fine was paid
      */
     void markAsPaid(Integer fineId, LocalDate paidDate);
+    
+    /**
+     * List fines matching a query's user, status and issue date filters, newest first,
+     * together with the count and sum of the matching fines per status, in one query
+     * @param query the filters and page
+     * @return the page of fines with the borrower of each, and the totals across all pages
+     */
+    FineSearchResult search(FineQuery query);
 }
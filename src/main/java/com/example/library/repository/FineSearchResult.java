@@ -0,0 +1,100 @@
+package com.example.library.repository;
+
+import com.example.library.domain.FineView;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * One page of a {@link FineQuery} listing, with the number and total amount of
+ * the fines matching the query in each status, across all pages.
+ */
+public final class FineSearchResult {
+
+    /**
+     * The number and total amount of the matching fines in one status.
+     */
+    public static final class StatusTotal {
+        private final int count;
+        private final BigDecimal amount;
+
+        StatusTotal(int count, BigDecimal amount) {
+            this.count = count;
+            this.amount = amount;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+    }
+
+    private static final StatusTotal NONE = new StatusTotal(0, BigDecimal.ZERO);
+
+    private final List<FineView> fines;
+    private final int offset;
+    private final SortedMap<String, StatusTotal> totals;
+
+    FineSearchResult(List<FineView> fines, int offset, Map<String, StatusTotal> totals) {
+        this.fines = Collections.unmodifiableList(fines);
+        this.offset = offset;
+        this.totals = Collections.unmodifiableSortedMap(new TreeMap<>(totals));
+    }
+
+    /**
+     * @return the fines on this page, newest first
+     */
+    public List<FineView> getFines() {
+        return fines;
+    }
+
+    /**
+     * @return the number of fines before this page
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the count and amount of matching fines per status, in status order
+     */
+    public SortedMap<String, StatusTotal> getTotals() {
+        return totals;
+    }
+
+    /**
+     * @param status a fine status, e.g. "UNPAID"
+     * @return the count and amount of matching fines in that status; zero if there are none
+     */
+    public StatusTotal getTotal(String status) {
+        return totals.getOrDefault(status, NONE);
+    }
+
+    /**
+     * @return the number of matching fines across all pages
+     */
+    public int getTotalCount() {
+        return totals.values().stream().mapToInt(StatusTotal::getCount).sum();
+    }
+
+    /**
+     * @return whether another page follows
+     */
+    public boolean hasNext() {
+        return offset + fines.size() < getTotalCount();
+    }
+
+    /**
+     * @return the offset of the next page
+     */
+    public int getNextOffset() {
+        return offset + fines.size();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.library.repository;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a bulk catalog import: how many rows were read, added,
+ * merged into existing items and rejected, how long it took, and why rows
+ * were rejected.
+ */
+public final class ImportReport {
+
+    private final long rowsRead;
+    private final long rowsInserted;
+    private final long rowsMerged;
+    private final long rowsRejected;
+    private final List<Rejection> rejections;
+    private final Duration elapsed;
+
+    ImportReport(long rowsRead, long rowsInserted, long rowsMerged, long rowsRejected,
+                 List<Rejection> rejections, Duration elapsed) {
+        this.rowsRead = rowsRead;
+        this.rowsInserted = rowsInserted;
+        this.rowsMerged = rowsMerged;
+        this.rowsRejected = rowsRejected;
+        this.rejections = Collections.unmodifiableList(rejections);
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * @return the number of data rows in the input, not counting the header
+     */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * @return the number of rows added to the catalog as new items
+     */
+    public long getRowsInserted() {
+        return rowsInserted;
+    }
+
+    /**
+     * @return the number of rows whose ISBN was already catalogued, whose copies were added to that item
+     */
+    public long getRowsMerged() {
+        return rowsMerged;
+    }
+
+    /**
+     * @return the number of rows left out because they failed validation
+     */
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    /**
+     * @return the first rejected rows with the reason for each, in input order;
+     *         at most {@link JdbcCatalogImporter#MAX_REPORTED_REJECTIONS}
+     */
+    public List<Rejection> getRejections() {
+        return rejections;
+    }
+
+    /**
+     * @return the time the import took, from the first row read to the commit
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return input rows processed per second
+     */
+    public double getRowsPerSecond() {
+        long nanos = Math.max(1, elapsed.toNanos());
+        return rowsRead * 1_000_000_000.0 / nanos;
+    }
+
+    /**
+     * A row that was not imported.
+     */
+    public static final class Rejection {
+        private final long row;
+        private final String reason;
+
+        Rejection(long row, String reason) {
+            this.row = row;
+            this.reason = reason;
+        }
+
+        /**
+         * @return the row's position among the data rows, starting at 1 after the header
+         */
+        public long getRow() {
+            return row;
+        }
+
+        /**
+         * @return why the row was rejected
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "row " + row + ": " + reason;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.example.library.repository;
+
+import com.example.library.domain.MediaItem;
+import com.example.library.search.InvertedIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * MediaItemRepository decorator that answers full-text, fuzzy and faceted
+ * searches from in-memory inverted indexes instead of the database.
+ * The wrapped repository remains the source of truth: every other read and
+ * every write goes to it, and writes made through this decorator update the
+ * indexes afterwards. Changes made to the
+ * database by other clients are only picked up by {@link #refresh} or
+ * {@link #rebuild()}, and
+ * available copy counts in search results are informational; borrowing still
+ * claims copies through the wrapped repository. A rebuild loads into fresh
+ * indexes and swaps them in at once, so searches keep answering from the old
+ * ones meanwhile.
+ */
+public class IndexedMediaItemRepository implements MediaItemRepository {
+
+    private final MediaItemRepository delegate;
+    private final Object rebuildLock = new Object();
+    private volatile Indexes indexes = new Indexes();
+    // IDs written through this decorator while a rebuild is loading, guarded by this
+    private Set<Integer> changedDuringRebuild;
+
+    /**
+     * Creates the decorator and builds the index from the wrapped repository.
+     *
+     * @param delegate the repository to wrap
+     */
+    public IndexedMediaItemRepository(MediaItemRepository delegate) {
+        this.delegate = delegate;
+        rebuild();
+    }
+
+    /**
+     * Reloads every item from the wrapped repository into fresh indexes and
+     * swaps them in. Items written through this decorator during the load are
+     * reloaded after the swap, since the stream may have read them before the write.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            Set<Integer> changed = ConcurrentHashMap.newKeySet();
+            synchronized (this) {
+                changedDuringRebuild = changed;
+            }
+
+            Indexes fresh = new Indexes();
+            boolean loaded = false;
+            try (Stream<MediaItem> all = delegate.streamAll()) {
+                all.forEach(fresh::put);
+                loaded = true;
+            } finally {
+                // Swap and stop recording together, so no write lands in the old indexes unrecorded
+                synchronized (this) {
+                    if (loaded) {
+                        indexes = fresh;
+                    }
+                    changedDuringRebuild = null;
+                }
+            }
+            if (!changed.isEmpty()) {
+                refresh(changed);
+            }
+        }
+    }
+
+    /**
+     * Reloads the given items from the wrapped repository into the index, and
+     * drops those no longer there, after other clients changed them.
+     *
+     * @param itemIds IDs of the changed items
+     */
+    public void refresh(Collection<Integer> itemIds) {
+        Map<Integer, MediaItem> current = delegate.findAllByIds(itemIds);
+        for (Integer itemId : itemIds) {
+            MediaItem item = current.get(itemId);
+            if (item != null) {
+                put(item);
+            } else {
+                remove(itemId);
+            }
+        }
+    }
+
+    @Override
+    public MediaItem save(MediaItem mediaItem) {
+        MediaItem saved = delegate.save(mediaItem);
+        put(saved);
+        return saved;
+    }
+
+    @Override
+    public MediaItem update(MediaItem mediaItem) {
+        MediaItem updated = delegate.update(mediaItem);
+        put(updated);
+        return updated;
+    }
+
+    @Override
+    public List<MediaItem> saveAll(List<MediaItem> mediaItems) {
+        List<MediaItem> saved = delegate.saveAll(mediaItems);
+        saved.forEach(this::put);
+        return saved;
+    }
+
+    @Override
+    public List<MediaItem> updateAll(List<MediaItem> mediaItems) {
+        List<MediaItem> updated = delegate.updateAll(mediaItems);
+        updated.forEach(this::put);
+        return updated;
+    }
+
+    @Override
+    public boolean deleteById(Integer itemId) {
+        boolean deleted = delegate.deleteById(itemId);
+        if (deleted) {
+            remove(itemId);
+        }
+        return deleted;
+    }
+
+    @Override
+    public void updateAvailableCopies(Integer itemId, Integer availableCopies) {
+        delegate.updateAvailableCopies(itemId, availableCopies);
+        setAvailableCopies(itemId, availableCopies);
+    }
+
+    @Override
+    public Optional<Integer> tryDecrementAvailable(Integer itemId) {
+        Optional<Integer> remaining = delegate.tryDecrementAvailable(itemId);
+        remaining.ifPresent(count -> setAvailableCopies(itemId, count));
+        return remaining;
+    }
+
+    @Override
+    public Optional<Integer> incrementAvailable(Integer itemId) {
+        Optional<Integer> available = delegate.incrementAvailable(itemId);
+        available.ifPresent(count -> setAvailableCopies(itemId, count));
+        return available;
+    }
+
+    /**
+     * Answers from the in-memory index: every word must be a prefix of a word in
+     * the item's title, author, ISBN, type or publisher. Items with more query
+     * words in the title rank first, then by ID.
+     */
+    @Override
+    public List<MediaItem> fullTextSearch(String query) {
+        Indexes current = indexes;
+        int[] ids = current.index.search(query, InvertedIndex.Operator.AND, true);
+        List<MediaItem> results = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            MediaItem item = current.items.get(id);
+            if (item != null) {
+                results.add(copy(item));
+            }
+        }
+        rankTitleMatchesFirst(current, results, query);
+        return results;
+    }
+
+    /**
+     * Answers from memory in one pass over the items matching the search text,
+     * which counts every facet and collects the hits; only the requested page
+     * is copied. Hits are ranked as by {@link #fullTextSearch(String)}, or by ID
+     * when there is no search text.
+     */
+    @Override
+    public FacetedSearchResult facetedSearch(CatalogQuery query) {
+        Indexes current = indexes;
+        FacetedSearchResult.Counter counter = new FacetedSearchResult.Counter(query);
+        List<MediaItem> hits = new ArrayList<>();
+        if (query.hasText()) {
+            for (int id : current.index.search(query.getText(), InvertedIndex.Operator.AND, true)) {
+                MediaItem item = current.items.get(id);
+                if (item != null && counter.add(item)) {
+                    hits.add(item);
+                }
+            }
+            rankTitleMatchesFirst(current, hits, query.getText());
+        } else {
+            for (MediaItem item : current.items.values()) {
+                if (counter.add(item)) {
+                    hits.add(item);
+                }
+            }
+            hits.sort(Comparator.comparing(MediaItem::getItemId));
+        }
+
+        List<MediaItem> page = new ArrayList<>();
+        int end = (int) Math.min(hits.size(), (long) query.getOffset() + query.getLimit());
+        for (int i = Math.max(0, query.getOffset()); i < end; i++) {
+            page.add(copy(hits.get(i)));
+        }
+        return counter.build(page);
+    }
+
+    // Stable sort, so items with as many title hits keep their order
+    private static void rankTitleMatchesFirst(Indexes current, List<MediaItem> results, String query) {
+        if (results.size() > 1) {
+            Map<Integer, Integer> titleHits = new HashMap<>();
+            for (String word : query.trim().split("\\s+")) {
+                for (int id : current.titleIndex.search(word, InvertedIndex.Operator.AND, true)) {
+                    titleHits.merge(id, 1, Integer::sum);
+                }
+            }
+            results.sort(Comparator.comparingInt((MediaItem item) -> -titleHits.getOrDefault(item.getItemId(), 0)));
+        }
+    }
+
+    /**
+     * Answers from the in-memory index: every word must be within the edit budget
+     * of a word in the item's title or author. Items matching every word exactly
+     * rank first, then items with more title hits, then by ID.
+     */
+    @Override
+    public List<MediaItem> fuzzySearch(String query, int maxEdits) {
+        Indexes current = indexes;
+        int[] ids = current.namesIndex.searchFuzzy(query, maxEdits);
+        int[] exact = current.namesIndex.search(query, InvertedIndex.Operator.AND, false);
+        List<MediaItem> results = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            MediaItem item = current.items.get(id);
+            if (item != null) {
+                results.add(copy(item));
+            }
+        }
+
+        if (results.size() > 1) {
+            Map<Integer, Integer> titleHits = new HashMap<>();
+            for (String word : query.trim().split("\\s+")) {
+                for (int id : current.titleIndex.searchFuzzy(word, maxEdits)) {
+                    titleHits.merge(id, 1, Integer::sum);
+                }
+            }
+            results.sort(Comparator
+                    .comparingInt((MediaItem item) -> Arrays.binarySearch(exact, item.getItemId()) >= 0 ? 0 : 1)
+                    .thenComparingInt(item -> -titleHits.getOrDefault(item.getItemId(), 0)));
+        }
+        return results;
+    }
+
+    @Override
+    public Optional<MediaItem> findById(Integer itemId) {
+        return delegate.findById(itemId);
+    }
+
+    @Override
+    public Map<Integer, MediaItem> findAllByIds(Collection<Integer> itemIds) {
+        return delegate.findAllByIds(itemIds);
+    }
+
+    @Override
+    public Optional<MediaItem> findByIsbn(String isbn) {
+        return delegate.findByIsbn(isbn);
+    }
+
+    @Override
+    public List<MediaItem> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Page<MediaItem> findAll(Integer afterId, int limit) {
+        return delegate.findAll(afterId, limit);
+    }
+
+    @Override
+    public Stream<MediaItem> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public List<MediaItem> findByType(String type) {
+        return delegate.findByType(type);
+    }
+
+    @Override
+    public Page<MediaItem> findByType(String type, Integer afterId, int limit) {
+        return delegate.findByType(type, afterId, limit);
+    }
+
+    @Override
+    public List<MediaItem> findByTitleContaining(String title) {
+        return delegate.findByTitleContaining(title);
+    }
+
+    @Override
+    public List<MediaItem> findByAuthorContaining(String author) {
+        return delegate.findByAuthorContaining(author);
+    }
+
+    @Override
+    public List<MediaItem> findAvailableItems() {
+        return delegate.findAvailableItems();
+    }
+
+    @Override
+    public Page<MediaItem> findAvailableItems(Integer afterId, int limit) {
+        return delegate.findAvailableItems(afterId, limit);
+    }
+
+    @Override
+    public List<MediaItem> search(String keyword) {
+        return delegate.search(keyword);
+    }
+
+    @Override
+    public Page<MediaItem> search(String keyword, Integer afterId, int limit) {
+        return delegate.search(keyword, afterId, limit);
+    }
+
+    @Override
+    public boolean existsByIsbn(String isbn) {
+        return delegate.existsByIsbn(isbn);
+    }
+
+    private synchronized void put(MediaItem item) {
+        if (item == null || item.getItemId() == null) {
+            return;
+        }
+        recordChange(item.getItemId());
+        indexes.put(item);
+    }
+
+    private synchronized void remove(Integer itemId) {
+        recordChange(itemId);
+        indexes.remove(itemId);
+    }
+
+    private synchronized void setAvailableCopies(Integer itemId, Integer availableCopies) {
+        recordChange(itemId);
+        indexes.items.computeIfPresent(itemId, (id, item) -> {
+            MediaItem changed = copy(item);
+            changed.setAvailableCopies(availableCopies);
+            return changed;
+        });
+    }
+
+    private void recordChange(Integer itemId) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(itemId);
+        }
+    }
+
+    // Callers get their own copies so they cannot change the indexed state
+    private static MediaItem copy(MediaItem item) {
+        return new MediaItem(item.getItemId(), item.getTitle(), item.getAuthor(), item.getType(),
+                item.getIsbn(), item.getPublicationDate(), item.getPublisher(), item.getTotalCopies(),
+                item.getAvailableCopies(), item.getLateFeesPerDay());
+    }
+
+    /**
+     * The indexes and item copies searches answer from, replaced as a whole by a rebuild.
+     */
+    private static final class Indexes {
+        private final InvertedIndex index = new InvertedIndex();
+        // Titles only, used to rank title matches above matches in other fields
+        private final InvertedIndex titleIndex = new InvertedIndex();
+        // Titles and authors, for typo-tolerant searches
+        private final InvertedIndex namesIndex = new InvertedIndex();
+        private final Map<Integer, MediaItem> items = new ConcurrentHashMap<>();
+
+        private void put(MediaItem item) {
+            if (item == null || item.getItemId() == null) {
+                return;
+            }
+            items.put(item.getItemId(), copy(item));
+            index.index(item.getItemId(), item.getTitle(), item.getAuthor(), item.getIsbn(),
+                    item.getType(), item.getPublisher());
+            titleIndex.index(item.getItemId(), item.getTitle());
+            namesIndex.index(item.getItemId(), item.getTitle(), item.getAuthor());
+        }
+
+        private void remove(Integer itemId) {
+            index.remove(itemId);
+            titleIndex.remove(itemId);
+            namesIndex.remove(itemId);
+            items.remove(itemId);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.library.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+/**
+ * Writes many rows with JDBC batches: one prepared statement, one round trip
+ * per chunk of rows. With {@code reWriteBatchedInserts=true} on the connection
+ * URL the driver also folds each chunk of inserts into multi-row INSERTs.
+ * <p>
+ * All chunks run in one transaction, so a failure leaves none of the rows
+ * written. If the connection is already in a transaction (see
+ * {@link JdbcTransactionManager}) the batch joins it and leaves committing
+ * to its owner.
+ */
+final class JdbcBatches {
+
+    /**
+     * Rows sent per executeBatch; larger inputs are split into chunks of this size.
+     */
+    static final int BATCH_SIZE = 1000;
+
+    private JdbcBatches() {
+    }
+
+    /**
+     * Sets the parameters of a statement from one row.
+     */
+    @FunctionalInterface
+    interface RowBinder<T> {
+        void bind(PreparedStatement pstmt, T row) throws SQLException;
+    }
+
+    /**
+     * Inserts rows and hands each its generated key, in input order.
+     *
+     * @param dataSource where to borrow the connection from
+     * @param sql an INSERT whose first generated key is the row's id
+     * @param rows the rows to insert
+     * @param binder sets the insert's parameters from a row
+     * @param setId stores the generated id on a row
+     * @param errorMessage message for a {@link DataAccessException} if the batch fails
+     * @return the rows, with ids set
+     */
+    static <T> List<T> insertAll(DataSource dataSource, String sql, List<T> rows, RowBinder<T> binder,
+                                 BiConsumer<T, Integer> setId, String errorMessage) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        return inTransaction(dataSource, errorMessage, conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (List<T> chunk : chunks(rows)) {
+                    for (T row : chunk) {
+                        binder.bind(pstmt, row);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                    // Keys come back in the order the rows were added
+                    try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                        for (T row : chunk) {
+                            if (!generatedKeys.next()) {
+                                throw new DataAccessException(errorMessage + ": fewer IDs returned than rows inserted");
+                            }
+                            setId.accept(row, generatedKeys.getInt(1));
+                        }
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Updates rows by id; fails, writing nothing, if any id matches no row.
+     *
+     * @param dataSource where to borrow the connection from
+     * @param sql an UPDATE ... WHERE id = ?
+     * @param rows the rows to update
+     * @param binder sets the update's parameters, including the id, from a row
+     * @param idOf the id of a row, for error messages
+     * @param errorMessage message for a {@link DataAccessException} if the batch fails
+     * @return the rows
+     */
+    static <T> List<T> updateAll(DataSource dataSource, String sql, List<T> rows, RowBinder<T> binder,
+                                 Function<T, Integer> idOf, String errorMessage) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        return inTransaction(dataSource, errorMessage, conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (List<T> chunk : chunks(rows)) {
+                    for (T row : chunk) {
+                        binder.bind(pstmt, row);
+                        pstmt.addBatch();
+                    }
+                    int[] counts = pstmt.executeBatch();
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] == 0) {
+                            throw new DataAccessException(errorMessage + ": no rows affected for id: "
+                                    + idOf.apply(chunk.get(i)));
+                        }
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+
+    @FunctionalInterface
+    private interface Work<R> {
+        R run(Connection conn) throws SQLException;
+    }
+
+    private static <R> R inTransaction(DataSource dataSource, String errorMessage, Work<R> work) {
+        try (Connection conn = dataSource.getConnection()) {
+            if (!conn.getAutoCommit()) {
+                return work.run(conn);
+            }
+            conn.setAutoCommit(false);
+            try {
+                R result = work.run(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(errorMessage, e);
+        }
+    }
+
+    private static <T> List<List<T>> chunks(List<T> rows) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            chunks.add(rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+        return chunks;
+    }
+}
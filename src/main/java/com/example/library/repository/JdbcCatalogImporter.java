@@ -0,0 +1,222 @@
+package com.example.library.repository;
+
+import com.example.library.DatabaseConnection;
+import org.postgresql.PGConnection;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+/**
+ * Bulk catalog import through PostgreSQL COPY.
+ * <p>
+ * The input is streamed with COPY into a temporary staging table whose columns
+ * are all text, so a badly formatted value rejects its row instead of failing
+ * the whole COPY. Validation and ISBN de-duplication then run as a few
+ * set-wise statements over the staging table, and the accepted rows are merged
+ * into {@code media_item} with a single INSERT ... ON CONFLICT. Everything runs
+ * in one transaction on one connection, so memory use does not grow with the
+ * input and a failed import leaves the catalog unchanged.
+ */
+public class JdbcCatalogImporter implements CatalogImporter {
+
+    /**
+     * The most rejected rows listed in a report; all of them are counted.
+     */
+    public static final int MAX_REPORTED_REJECTIONS = 100;
+
+    private static final List<String> COLUMNS = List.of(
+            "title", "author", "type", "isbn", "publication_date", "publisher", "total_copies", "late_fees_per_day");
+
+    private static final String CREATE_STAGING =
+            "CREATE TEMP TABLE catalog_import (row_no BIGSERIAL, title TEXT, author TEXT, type TEXT, " +
+            "isbn TEXT, publication_date TEXT, publisher TEXT, total_copies TEXT, late_fees_per_day TEXT, " +
+            "reject_reason TEXT) ON COMMIT DROP";
+
+    // Blank values count as missing
+    private static final String NORMALIZE =
+            "UPDATE catalog_import SET title = NULLIF(BTRIM(title), ''), author = NULLIF(BTRIM(author), ''), " +
+            "type = UPPER(NULLIF(BTRIM(type), '')), isbn = NULLIF(BTRIM(isbn), ''), " +
+            "publication_date = NULLIF(BTRIM(publication_date), ''), publisher = NULLIF(BTRIM(publisher), ''), " +
+            "total_copies = NULLIF(BTRIM(total_copies), ''), late_fees_per_day = NULLIF(BTRIM(late_fees_per_day), '')";
+
+    // CASE evaluates its branches in order, so the casts only see values that parse
+    private static final String VALIDATE =
+            "UPDATE catalog_import SET reject_reason = CASE " +
+            "WHEN title IS NULL THEN 'Missing title' " +
+            "WHEN type IS NULL THEN 'Missing type' " +
+            "WHEN LENGTH(title) > 255 THEN 'Title longer than 255 characters' " +
+            "WHEN LENGTH(author) > 255 THEN 'Author longer than 255 characters' " +
+            "WHEN LENGTH(type) > 50 THEN 'Type longer than 50 characters' " +
+            "WHEN LENGTH(isbn) > 20 THEN 'ISBN longer than 20 characters' " +
+            "WHEN LENGTH(publisher) > 255 THEN 'Publisher longer than 255 characters' " +
+            "WHEN publication_date IS NOT NULL AND NOT pg_input_is_valid(publication_date, 'date') " +
+            "THEN 'Invalid publication date: ' || publication_date " +
+            "WHEN total_copies IS NOT NULL AND NOT pg_input_is_valid(total_copies, 'integer') " +
+            "THEN 'Invalid total copies: ' || total_copies " +
+            "WHEN total_copies IS NOT NULL AND total_copies::INTEGER < 1 THEN 'Total copies must be at least 1' " +
+            "WHEN late_fees_per_day IS NOT NULL AND NOT pg_input_is_valid(late_fees_per_day, 'numeric(10,2)') " +
+            "THEN 'Invalid late fee: ' || late_fees_per_day " +
+            "WHEN late_fees_per_day IS NOT NULL AND late_fees_per_day::NUMERIC(10, 2) < 0 " +
+            "THEN 'Late fee cannot be negative' " +
+            "END";
+
+    // Keeps the first valid row for each ISBN
+    private static final String DEDUPLICATE =
+            "UPDATE catalog_import s SET reject_reason = 'Duplicate ISBN ' || s.isbn || ', first on row ' || d.first_row " +
+            "FROM (SELECT row_no, MIN(row_no) OVER (PARTITION BY isbn) AS first_row FROM catalog_import " +
+            "      WHERE reject_reason IS NULL AND isbn IS NOT NULL) d " +
+            "WHERE s.row_no = d.row_no AND d.row_no <> d.first_row";
+
+    // Missing copies and late fees take the schema defaults; xmax is 0 only for freshly inserted rows
+    private static final String MERGE =
+            "WITH merged AS (" +
+            "  INSERT INTO media_item (title, author, type, isbn, publication_date, publisher, " +
+            "                          total_copies, available_copies, late_fees_per_day) " +
+            "  SELECT title, author, type, isbn, publication_date::DATE, publisher, " +
+            "         COALESCE(total_copies::INTEGER, 1), COALESCE(total_copies::INTEGER, 1), " +
+            "         COALESCE(late_fees_per_day::NUMERIC(10, 2), 10.00) " +
+            "  FROM catalog_import WHERE reject_reason IS NULL ORDER BY row_no " +
+            "  ON CONFLICT (isbn) DO UPDATE SET " +
+            "    total_copies = media_item.total_copies + EXCLUDED.total_copies, " +
+            "    available_copies = media_item.available_copies + EXCLUDED.available_copies " +
+            "  RETURNING (xmax = 0) AS inserted) " +
+            "SELECT COUNT(*) FILTER (WHERE inserted), COUNT(*) FILTER (WHERE NOT inserted) FROM merged";
+
+    private static final String REJECTIONS =
+            "SELECT row_no, reject_reason FROM catalog_import WHERE reject_reason IS NOT NULL ORDER BY row_no LIMIT ?";
+
+    private static final String REJECTED_COUNT =
+            "SELECT COUNT(*) FROM catalog_import WHERE reject_reason IS NOT NULL";
+
+    private final DataSource dataSource;
+
+    /**
+     * Creates an importer backed by the shared connection pool.
+     */
+    public JdbcCatalogImporter() {
+        this(DatabaseConnection.getDataSource());
+    }
+
+    /**
+     * Creates an importer that borrows connections from the given data source.
+     *
+     * @param dataSource the data source to obtain connections from
+     */
+    public JdbcCatalogImporter(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public ImportReport importCsv(Reader csv) {
+        BufferedReader input = csv instanceof BufferedReader ? (BufferedReader) csv : new BufferedReader(csv);
+        List<String> columns = readHeader(input);
+        long start = System.nanoTime();
+
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                ImportReport report = load(conn, columns, input);
+                conn.commit();
+                return withElapsed(report, start);
+            } catch (SQLException | IOException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error importing catalog: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new DataAccessException("Error reading catalog import data", e);
+        }
+    }
+
+    private ImportReport load(Connection conn, List<String> columns, Reader rows) throws SQLException, IOException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_STAGING);
+        }
+
+        String copy = "COPY catalog_import (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)";
+        long rowsRead = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(copy, rows);
+
+        long rowsInserted;
+        long rowsMerged;
+        long rowsRejected;
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(NORMALIZE);
+            stmt.executeUpdate(VALIDATE);
+            stmt.executeUpdate(DEDUPLICATE);
+            try (ResultSet rs = stmt.executeQuery(MERGE)) {
+                rs.next();
+                rowsInserted = rs.getLong(1);
+                rowsMerged = rs.getLong(2);
+            }
+            try (ResultSet rs = stmt.executeQuery(REJECTED_COUNT)) {
+                rs.next();
+                rowsRejected = rs.getLong(1);
+            }
+        }
+
+        List<ImportReport.Rejection> rejections = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(REJECTIONS)) {
+            pstmt.setInt(1, MAX_REPORTED_REJECTIONS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rejections.add(new ImportReport.Rejection(rs.getLong("row_no"), rs.getString("reject_reason")));
+                }
+            }
+        }
+        return new ImportReport(rowsRead, rowsInserted, rowsMerged, rowsRejected, rejections, Duration.ZERO);
+    }
+
+    private static ImportReport withElapsed(ImportReport report, long start) {
+        return new ImportReport(report.getRowsRead(), report.getRowsInserted(), report.getRowsMerged(),
+                report.getRowsRejected(), report.getRejections(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    // The header only names columns, so it is split without CSV quoting rules beyond stripping quotes
+    private static List<String> readHeader(BufferedReader input) {
+        String header;
+        try {
+            header = input.readLine();
+        } catch (IOException e) {
+            throw new DataAccessException("Error reading catalog import data", e);
+        }
+        if (header == null || header.isBlank()) {
+            throw new IllegalArgumentException("Import data has no header line");
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+
+        Set<String> columns = new LinkedHashSet<>();
+        for (String name : header.split(",", -1)) {
+            String column = name.trim().replace("\"", "").toLowerCase(Locale.ROOT);
+            if (!COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Unknown column in import header: '" + name.trim() + "'");
+            }
+            if (!columns.add(column)) {
+                throw new IllegalArgumentException("Column appears twice in import header: " + column);
+            }
+        }
+        if (!columns.contains("title") || !columns.contains("type")) {
+            throw new IllegalArgumentException("Import header must include the title and type columns");
+        }
+        return new ArrayList<>(columns);
+    }
+}
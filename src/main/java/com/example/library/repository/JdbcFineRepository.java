@@ -2,34 +2,55 @@ package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
 import com.example.library.domain.Fine;
+import com.example.library.domain.FineView;
 
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
 
 public class JdbcFineRepository implements FineRepository {
 
+    private static final String INSERT_SQL =
+            "INSERT INTO fine (loan_id, amount, issued_date, status, paid_date) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE fine SET loan_id = ?, amount = ?, issued_date = ?, status = ?, paid_date = ? " +
+            "WHERE fine_id = ?";
+    
+    private final DataSource dataSource;
+    
+    /**
+     * Creates a repository backed by the shared connection pool.
+     */
+    public JdbcFineRepository() {
+        this(DatabaseConnection.getDataSource());
+    }
+    
+    /**
+     * Creates a repository that borrows connections from the given data source.
+     * 
+     * @param dataSource the data source to obtain connections from
+     */
+    public JdbcFineRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     @Override
     public Fine save(Fine fine) {
-        String sql = "INSERT INTO fine (loan_id, amount, issued_date, status, paid_date) " +
-                     "VALUES (?, ?, ?, ?, ?)";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setInt(1, fine.getLoanId());
-            pstmt.setBigDecimal(2, fine.getAmount());
-            pstmt.setDate(3, Date.valueOf(fine.getIssuedDate()));
-            pstmt.setString(4, fine.getStatus());
-            
-            if (fine.getPaidDate() != null) {
-                pstmt.setDate(5, Date.valueOf(fine.getPaidDate()));
-            } else {
-                pstmt.setNull(5, Types.DATE);
-            }
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            
+            bindFine(pstmt, fine);
             
             int affectedRows = pstmt.executeUpdate();
             
@@ -53,23 +74,10 @@ public class JdbcFineRepository implements FineRepository {
 
     @Override
     public Fine update(Fine fine) {
-        String sql = "UPDATE fine SET loan_id = ?, amount = ?, issued_date = ?, status = ?, paid_date = ? " +
-                     "WHERE fine_id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, fine.getLoanId());
-            pstmt.setBigDecimal(2, fine.getAmount());
-            pstmt.setDate(3, Date.valueOf(fine.getIssuedDate()));
-            pstmt.setString(4, fine.getStatus());
-            
-            if (fine.getPaidDate() != null) {
-                pstmt.setDate(5, Date.valueOf(fine.getPaidDate()));
-            } else {
-                pstmt.setNull(5, Types.DATE);
-            }
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
             
+            bindFine(pstmt, fine);
             pstmt.setInt(6, fine.getFineId());
             
             int affectedRows = pstmt.executeUpdate();
@@ -84,12 +92,40 @@ public class JdbcFineRepository implements FineRepository {
         }
     }
 
+    @Override
+    public List<Fine> saveAll(List<Fine> fines) {
+        return JdbcBatches.insertAll(dataSource, INSERT_SQL, fines, JdbcFineRepository::bindFine,
+                Fine::setFineId, "Error saving " + fines.size() + " fines");
+    }
+
+    @Override
+    public List<Fine> updateAll(List<Fine> fines) {
+        return JdbcBatches.updateAll(dataSource, UPDATE_SQL, fines, (pstmt, fine) -> {
+            bindFine(pstmt, fine);
+            pstmt.setInt(6, fine.getFineId());
+        }, Fine::getFineId, "Error updating " + fines.size() + " fines");
+    }
+
+    // Parameters 1-5 of INSERT_SQL and UPDATE_SQL
+    private static void bindFine(PreparedStatement pstmt, Fine fine) throws SQLException {
+        pstmt.setInt(1, fine.getLoanId());
+        pstmt.setBigDecimal(2, fine.getAmount());
+        pstmt.setDate(3, Date.valueOf(fine.getIssuedDate()));
+        pstmt.setString(4, fine.getStatus());
+        
+        if (fine.getPaidDate() != null) {
+            pstmt.setDate(5, Date.valueOf(fine.getPaidDate()));
+        } else {
+            pstmt.setNull(5, Types.DATE);
+        }
+    }
+
     @Override
     public Optional<Fine> findById(Integer fineId) {
         String sql = "SELECT fine_id, loan_id, amount, issued_date, status, paid_date " +
                      "FROM fine WHERE fine_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, fineId);
@@ -106,12 +142,20 @@ public class JdbcFineRepository implements FineRepository {
         }
     }
 
+    @Override
+    public Map<Integer, Fine> findAllByIds(Collection<Integer> fineIds) {
+        String sql = "SELECT fine_id, loan_id, amount, issued_date, status, paid_date " +
+                     "FROM fine WHERE fine_id = ANY(?::int[])";
+        return JdbcMultiGet.findByIds(dataSource, sql, fineIds, this::mapRow, Fine::getFineId,
+                "Error finding fines by IDs");
+    }
+    
     @Override
     public Optional<Fine> findByLoanId(Integer loanId) {
         String sql = "SELECT fine_id, loan_id, amount, issued_date, status, paid_date " +
                      "FROM fine WHERE loan_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, loanId);
@@ -128,6 +172,68 @@ public class JdbcFineRepository implements FineRepository {
         }
     }
 
+    @Override
+    public FineSearchResult search(FineQuery query) {
+        StringBuilder matched = new StringBuilder(
+                "SELECT f.fine_id, f.loan_id, f.amount, f.issued_date, f.status, f.paid_date, l.user_id, l.item_id " +
+                "FROM fine f JOIN loan l ON l.loan_id = f.loan_id WHERE TRUE ");
+        List<Object> parameters = new ArrayList<>();
+        if (query.getUserId() != null) {
+            matched.append("AND l.user_id = ? ");
+            parameters.add(query.getUserId());
+        }
+        if (query.getStatus() != null) {
+            matched.append("AND f.status = ? ");
+            parameters.add(query.getStatus());
+        }
+        if (query.getIssuedFrom() != null) {
+            matched.append("AND f.issued_date >= ? ");
+            parameters.add(Date.valueOf(query.getIssuedFrom()));
+        }
+        if (query.getIssuedTo() != null) {
+            matched.append("AND f.issued_date <= ? ");
+            parameters.add(Date.valueOf(query.getIssuedTo()));
+        }
+        parameters.add(query.getLimit());
+        parameters.add(query.getOffset());
+        // The page rows (row_kind 0) and the per-status totals (row_kind 1) come back
+        // from one statement, both read from the same filtered set
+        String sql = "WITH matched AS (" + matched + "), " +
+                     "page AS (SELECT * FROM matched ORDER BY issued_date DESC, fine_id DESC LIMIT ? OFFSET ?) " +
+                     "SELECT 0 AS row_kind, fine_id, loan_id, amount, issued_date, status, paid_date, user_id, item_id, " +
+                     "0 AS fines FROM page " +
+                     "UNION ALL " +
+                     "SELECT 1, NULL, NULL, SUM(amount), NULL, status, NULL, NULL, NULL, COUNT(*) " +
+                     "FROM matched GROUP BY status " +
+                     "ORDER BY row_kind, issued_date DESC, fine_id DESC";
+        List<FineView> fines = new ArrayList<>();
+        Map<String, FineSearchResult.StatusTotal> totals = new HashMap<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            for (int i = 0; i < parameters.size(); i++) {
+                pstmt.setObject(i + 1, parameters.get(i));
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getInt("row_kind") == 0) {
+                        fines.add(new FineView(mapRow(rs), rs.getInt("user_id"), rs.getInt("item_id")));
+                    } else {
+                        totals.put(rs.getString("status"),
+                                new FineSearchResult.StatusTotal(rs.getInt("fines"), rs.getBigDecimal("amount")));
+                    }
+                }
+            }
+            
+            return new FineSearchResult(fines, query.getOffset(), totals);
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error searching fines", e);
+        }
+    }
+    
     @Override
     public List<Fine> findAll() {
         String sql = "SELECT fine_id, loan_id, amount, issued_date, status, paid_date " +
@@ -135,7 +241,7 @@ public class JdbcFineRepository implements FineRepository {
         
         List<Fine> fines = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
@@ -149,6 +255,38 @@ public class JdbcFineRepository implements FineRepository {
         }
     }
 
+    @Override
+    public Page<Fine> findAll(Integer afterId, int limit) {
+        String sql = "SELECT fine_id, loan_id, amount, issued_date, status, paid_date " +
+                     "FROM fine WHERE fine_id > ? ORDER BY fine_id LIMIT ?";
+        List<Fine> fines = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, Page.keyAfter(afterId));
+            pstmt.setLong(2, limit + 1L);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    fines.add(mapRow(rs));
+                }
+            }
+            
+            return Page.of(fines, limit, Fine::getFineId);
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding a page of fines after ID: " + afterId, e);
+        }
+    }
+    
+    @Override
+    public Stream<Fine> streamAll() {
+        String sql = "SELECT fine_id, loan_id, amount, issued_date, status, paid_date " +
+                     "FROM fine ORDER BY fine_id";
+        return JdbcStreams.stream(dataSource, sql, pstmt -> { }, this::mapRow, "Error streaming all fines");
+    }
+    
     @Override
     public List<Fine> findByStatus(String status) {
         String sql = "SELECT fine_id, loan_id, amount, issued_date, status, paid_date " +
@@ -156,7 +294,7 @@ public class JdbcFineRepository implements FineRepository {
         
         List<Fine> fines = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, status);
@@ -173,6 +311,40 @@ public class JdbcFineRepository implements FineRepository {
         }
     }
 
+    @Override
+    public Page<Fine> findByStatus(String status, Integer afterId, int limit) {
+        String sql = "SELECT fine_id, loan_id, amount, issued_date, status, paid_date " +
+                     "FROM fine WHERE status = ? AND fine_id > ? ORDER BY fine_id LIMIT ?";
+        List<Fine> fines = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, status);
+            pstmt.setInt(2, Page.keyAfter(afterId));
+            pstmt.setLong(3, limit + 1L);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    fines.add(mapRow(rs));
+                }
+            }
+            
+            return Page.of(fines, limit, Fine::getFineId);
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding a page of fines by status: " + status, e);
+        }
+    }
+    
+    @Override
+    public Stream<Fine> streamByStatus(String status) {
+        String sql = "SELECT fine_id, loan_id, amount, issued_date, status, paid_date " +
+                     "FROM fine WHERE status = ? ORDER BY fine_id";
+        return JdbcStreams.stream(dataSource, sql, pstmt -> pstmt.setString(1, status), this::mapRow,
+                "Error streaming fines by status: " + status);
+    }
+    
     @Override
     public List<Fine> findUnpaidByUserId(Integer userId) {
         String sql = "SELECT f.fine_id, f.loan_id, f.amount, f.issued_date, f.status, f.paid_date " +
@@ -183,7 +355,7 @@ public class JdbcFineRepository implements FineRepository {
         
         List<Fine> fines = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -210,7 +382,7 @@ public class JdbcFineRepository implements FineRepository {
         
         List<Fine> fines = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -234,7 +406,7 @@ public class JdbcFineRepository implements FineRepository {
                      "JOIN loan l ON f.loan_id = l.loan_id " +
                      "WHERE l.user_id = ? AND f.status = 'UNPAID'";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -255,7 +427,7 @@ public class JdbcFineRepository implements FineRepository {
     public boolean deleteById(Integer fineId) {
         String sql = "DELETE FROM fine WHERE fine_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, fineId);
@@ -271,7 +443,7 @@ public class JdbcFineRepository implements FineRepository {
     public boolean existsByLoanId(Integer loanId) {
         String sql = "SELECT COUNT(*) FROM fine WHERE loan_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, loanId);
@@ -292,7 +464,7 @@ public class JdbcFineRepository implements FineRepository {
     public void markAsPaid(Integer fineId, LocalDate paidDate) {
         String sql = "UPDATE fine SET status = 'PAID', paid_date = ? WHERE fine_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setDate(1, Date.valueOf(paidDate));
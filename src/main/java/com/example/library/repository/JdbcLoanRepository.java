@@ -2,29 +2,54 @@ package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanView;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
 
 public class JdbcLoanRepository implements LoanRepository {
     
+    private static final String INSERT_SQL =
+            "INSERT INTO loan (user_id, item_id, loan_date, due_date, return_date, status) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    
+    private static final String UPDATE_SQL =
+            "UPDATE loan SET user_id = ?, item_id = ?, loan_date = ?, due_date = ?, " +
+            "return_date = ?, status = ? WHERE loan_id = ?";
+    
+    private final DataSource dataSource;
+    
+    /**
+     * Creates a repository backed by the shared connection pool.
+     */
+    public JdbcLoanRepository() {
+        this(DatabaseConnection.getDataSource());
+    }
+    
+    /**
+     * Creates a repository that borrows connections from the given data source.
+     * 
+     * @param dataSource the data source to obtain connections from
+     */
+    public JdbcLoanRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
     @Override
     public Loan save(Loan loan) {
-        String sql = "INSERT INTO loan (user_id, item_id, loan_date, due_date, return_date, status) " +
-                     "VALUES (?, ?, ?, ?, ?, ?)";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             
-            pstmt.setInt(1, loan.getUserId());
-            pstmt.setInt(2, loan.getItemId());
-            pstmt.setDate(3, Date.valueOf(loan.getLoanDate()));
-            pstmt.setDate(4, Date.valueOf(loan.getDueDate()));
-            pstmt.setDate(5, loan.getReturnDate() != null ? Date.valueOf(loan.getReturnDate()) : null);
-            pstmt.setString(6, loan.getStatus());
+            bindLoan(pstmt, loan);
             
             int affectedRows = pstmt.executeUpdate();
             
@@ -49,18 +74,10 @@ public class JdbcLoanRepository implements LoanRepository {
     
     @Override
     public Loan update(Loan loan) {
-        String sql = "UPDATE loan SET user_id = ?, item_id = ?, loan_date = ?, due_date = ?, " +
-                     "return_date = ?, status = ? WHERE loan_id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
             
-            pstmt.setInt(1, loan.getUserId());
-            pstmt.setInt(2, loan.getItemId());
-            pstmt.setDate(3, Date.valueOf(loan.getLoanDate()));
-            pstmt.setDate(4, Date.valueOf(loan.getDueDate()));
-            pstmt.setDate(5, loan.getReturnDate() != null ? Date.valueOf(loan.getReturnDate()) : null);
-            pstmt.setString(6, loan.getStatus());
+            bindLoan(pstmt, loan);
             pstmt.setInt(7, loan.getLoanId());
             
             int affectedRows = pstmt.executeUpdate();
@@ -76,12 +93,36 @@ public class JdbcLoanRepository implements LoanRepository {
         }
     }
     
+    @Override
+    public List<Loan> saveAll(List<Loan> loans) {
+        return JdbcBatches.insertAll(dataSource, INSERT_SQL, loans, JdbcLoanRepository::bindLoan,
+                Loan::setLoanId, "Error saving " + loans.size() + " loans");
+    }
+    
+    @Override
+    public List<Loan> updateAll(List<Loan> loans) {
+        return JdbcBatches.updateAll(dataSource, UPDATE_SQL, loans, (pstmt, loan) -> {
+            bindLoan(pstmt, loan);
+            pstmt.setInt(7, loan.getLoanId());
+        }, Loan::getLoanId, "Error updating " + loans.size() + " loans");
+    }
+    
+    // Parameters 1-6 of INSERT_SQL and UPDATE_SQL
+    private static void bindLoan(PreparedStatement pstmt, Loan loan) throws SQLException {
+        pstmt.setInt(1, loan.getUserId());
+        pstmt.setInt(2, loan.getItemId());
+        pstmt.setDate(3, Date.valueOf(loan.getLoanDate()));
+        pstmt.setDate(4, Date.valueOf(loan.getDueDate()));
+        pstmt.setDate(5, loan.getReturnDate() != null ? Date.valueOf(loan.getReturnDate()) : null);
+        pstmt.setString(6, loan.getStatus());
+    }
+    
     @Override
     public Optional<Loan> findById(Integer loanId) {
         String sql = "SELECT loan_id, user_id, item_id, loan_date, due_date, return_date, status " +
                      "FROM loan WHERE loan_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, loanId);
@@ -99,13 +140,21 @@ public class JdbcLoanRepository implements LoanRepository {
         }
     }
     
+    @Override
+    public Map<Integer, Loan> findAllByIds(Collection<Integer> loanIds) {
+        String sql = "SELECT loan_id, user_id, item_id, loan_date, due_date, return_date, status " +
+                     "FROM loan WHERE loan_id = ANY(?::int[])";
+        return JdbcMultiGet.findByIds(dataSource, sql, loanIds, this::mapRow, Loan::getLoanId,
+                "Error finding loans by IDs");
+    }
+    
     @Override
     public List<Loan> findAll() {
         String sql = "SELECT loan_id, user_id, item_id, loan_date, due_date, return_date, status " +
                      "FROM loan ORDER BY loan_id";
         List<Loan> loans = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
@@ -120,13 +169,45 @@ public class JdbcLoanRepository implements LoanRepository {
         }
     }
     
+    @Override
+    public Page<Loan> findAll(Integer afterId, int limit) {
+        String sql = "SELECT loan_id, user_id, item_id, loan_date, due_date, return_date, status " +
+                     "FROM loan WHERE loan_id > ? ORDER BY loan_id LIMIT ?";
+        List<Loan> loans = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, Page.keyAfter(afterId));
+            pstmt.setLong(2, limit + 1L);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    loans.add(mapRow(rs));
+                }
+            }
+            
+            return Page.of(loans, limit, Loan::getLoanId);
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding a page of loans after ID: " + afterId, e);
+        }
+    }
+    
+    @Override
+    public Stream<Loan> streamAll() {
+        String sql = "SELECT loan_id, user_id, item_id, loan_date, due_date, return_date, status " +
+                     "FROM loan ORDER BY loan_id";
+        return JdbcStreams.stream(dataSource, sql, pstmt -> { }, this::mapRow, "Error streaming all loans");
+    }
+    
     @Override
     public List<Loan> findByUserId(Integer userId) {
         String sql = "SELECT loan_id, user_id, item_id, loan_date, due_date, return_date, status " +
                      "FROM loan WHERE user_id = ? ORDER BY loan_id";
         List<Loan> loans = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -150,7 +231,7 @@ public class JdbcLoanRepository implements LoanRepository {
                      "FROM loan WHERE item_id = ? ORDER BY loan_id";
         List<Loan> loans = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, itemId);
@@ -174,7 +255,7 @@ public class JdbcLoanRepository implements LoanRepository {
                      "FROM loan WHERE status = ? ORDER BY loan_id";
         List<Loan> loans = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, status);
@@ -192,13 +273,39 @@ public class JdbcLoanRepository implements LoanRepository {
         }
     }
     
+    @Override
+    public Page<Loan> findByStatus(String status, Integer afterId, int limit) {
+        String sql = "SELECT loan_id, user_id, item_id, loan_date, due_date, return_date, status " +
+                     "FROM loan WHERE status = ? AND loan_id > ? ORDER BY loan_id LIMIT ?";
+        List<Loan> loans = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, status);
+            pstmt.setInt(2, Page.keyAfter(afterId));
+            pstmt.setLong(3, limit + 1L);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    loans.add(mapRow(rs));
+                }
+            }
+            
+            return Page.of(loans, limit, Loan::getLoanId);
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding a page of loans by status: " + status, e);
+        }
+    }
+    
     @Override
     public List<Loan> findActiveByUserId(Integer userId) {
         String sql = "SELECT loan_id, user_id, item_id, loan_date, due_date, return_date, status " +
                      "FROM loan WHERE user_id = ? AND return_date IS NULL AND status = 'ACTIVE' ORDER BY loan_id";
         List<Loan> loans = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -222,7 +329,7 @@ public class JdbcLoanRepository implements LoanRepository {
                      "FROM loan WHERE due_date < ? AND return_date IS NULL ORDER BY loan_id";
         List<Loan> loans = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setDate(1, Date.valueOf(currentDate));
@@ -240,13 +347,162 @@ public class JdbcLoanRepository implements LoanRepository {
         }
     }
     
+    @Override
+    public Stream<Loan> streamOverdue(LocalDate currentDate) {
+        String sql = "SELECT loan_id, user_id, item_id, loan_date, due_date, return_date, status " +
+                     "FROM loan WHERE due_date < ? AND return_date IS NULL ORDER BY loan_id";
+        return JdbcStreams.stream(dataSource, sql, pstmt -> pstmt.setDate(1, Date.valueOf(currentDate)),
+                this::mapRow, "Error streaming overdue loans");
+    }
+    
+    @Override
+    public LoanSearchResult search(LoanQuery query) {
+        StringBuilder sql = new StringBuilder("SELECT loan_id, user_id, item_id, loan_date, due_date, return_date, status " +
+                                              "FROM loan WHERE TRUE ");
+        List<Object> parameters = new ArrayList<>();
+        if (query.getStatus() != null) {
+            sql.append("AND status = ? ");
+            parameters.add(query.getStatus());
+        }
+        if (query.getUserId() != null) {
+            sql.append("AND user_id = ? ");
+            parameters.add(query.getUserId());
+        }
+        if (query.getItemId() != null) {
+            sql.append("AND item_id = ? ");
+            parameters.add(query.getItemId());
+        }
+        if (query.getLoanedFrom() != null) {
+            sql.append("AND loan_date >= ? ");
+            parameters.add(Date.valueOf(query.getLoanedFrom()));
+        }
+        if (query.getLoanedTo() != null) {
+            sql.append("AND loan_date <= ? ");
+            parameters.add(Date.valueOf(query.getLoanedTo()));
+        }
+        String direction = query.isDescending() ? "DESC" : "ASC";
+        sql.append("ORDER BY ");
+        if (query.getSortField() != LoanQuery.SortField.LOAN_ID) {
+            sql.append(sortColumn(query.getSortField())).append(' ').append(direction);
+            if (query.getSortField() == LoanQuery.SortField.RETURN_DATE) {
+                sql.append(" NULLS LAST");
+            }
+            sql.append(", ");
+        }
+        // One row past the page tells whether another page follows
+        sql.append("loan_id ").append(direction).append(" LIMIT ? OFFSET ?");
+        parameters.add(query.getLimit() + 1);
+        parameters.add(query.getOffset());
+        List<Loan> loans = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            
+            for (int i = 0; i < parameters.size(); i++) {
+                pstmt.setObject(i + 1, parameters.get(i));
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    loans.add(mapRow(rs));
+                }
+            }
+            
+            return LoanSearchResult.of(loans, query.getOffset(), query.getLimit());
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error searching loans", e);
+        }
+    }
+    
+    // Column names come from this switch only, never from the caller
+    private static String sortColumn(LoanQuery.SortField field) {
+        switch (field) {
+            case USER_ID:
+                return "user_id";
+            case ITEM_ID:
+                return "item_id";
+            case LOAN_DATE:
+                return "loan_date";
+            case DUE_DATE:
+                return "due_date";
+            case RETURN_DATE:
+                return "return_date";
+            case STATUS:
+                return "status";
+            default:
+                return "loan_id";
+        }
+    }
+    
+    @Override
+    public List<LoanView> findViewsByUserId(Integer userId, String status, LocalDate currentDate) {
+        // Served by idx_loan_user and idx_fine_loan; fines are summed per loan, so a loan
+        // with several fines is still one row
+        String sql = "SELECT l.loan_id, l.user_id, l.item_id, l.loan_date, l.due_date, l.return_date, l.status, " +
+                     "m.title, m.type, m.late_fees_per_day, " +
+                     "GREATEST(COALESCE(l.return_date, ?) - l.due_date, 0) AS overdue_days, " +
+                     "(SELECT COALESCE(SUM(f.amount), 0) FROM fine f WHERE f.loan_id = l.loan_id) AS fined " +
+                     "FROM loan l JOIN media_item m ON m.item_id = l.item_id " +
+                     "WHERE l.user_id = ?" + (status != null ? " AND l.status = ?" : "") +
+                     " ORDER BY l.loan_id";
+        List<LoanView> views = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setDate(1, Date.valueOf(currentDate));
+            pstmt.setInt(2, userId);
+            if (status != null) {
+                pstmt.setString(3, status);
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    views.add(new LoanView(mapRow(rs), rs.getString("title"), rs.getString("type"),
+                            rs.getBigDecimal("late_fees_per_day"), rs.getLong("overdue_days"),
+                            rs.getBigDecimal("fined")));
+                }
+            }
+            
+            return views;
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding loan views by userId: " + userId, e);
+        }
+    }
+    
+    @Override
+    public boolean hasOverdueLoansOrUnpaidFines(Integer userId, LocalDate currentDate) {
+        // Overdue check is served by idx_loan_user_open (partial index on open loans)
+        String sql = "SELECT EXISTS (SELECT 1 FROM loan " +
+                     "WHERE user_id = ? AND return_date IS NULL AND due_date < ?) " +
+                     "OR (SELECT COALESCE(SUM(f.amount), 0) FROM fine f " +
+                     "JOIN loan l ON f.loan_id = l.loan_id " +
+                     "WHERE l.user_id = ? AND f.status = 'UNPAID') > 0";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, userId);
+            pstmt.setDate(2, Date.valueOf(currentDate));
+            pstmt.setInt(3, userId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error checking borrowing eligibility for user: " + userId, e);
+        }
+    }
+    
     @Override
     public List<Loan> findLoansDueSoon(LocalDate currentDate, int daysAhead) {
         String sql = "SELECT loan_id, user_id, item_id, loan_date, due_date, return_date, status " +
                      "FROM loan WHERE due_date BETWEEN ? AND ? AND return_date IS NULL ORDER BY loan_id";
         List<Loan> loans = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setDate(1, Date.valueOf(currentDate));
@@ -269,7 +525,7 @@ public class JdbcLoanRepository implements LoanRepository {
     public boolean deleteById(Integer loanId) {
         String sql = "DELETE FROM loan WHERE loan_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, loanId);
@@ -285,7 +541,7 @@ public class JdbcLoanRepository implements LoanRepository {
     public int countActiveByUserId(Integer userId) {
         String sql = "SELECT COUNT(*) FROM loan WHERE user_id = ? AND return_date IS NULL AND status = 'ACTIVE'";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -303,11 +559,31 @@ public class JdbcLoanRepository implements LoanRepository {
         }
     }
     
+    @Override
+    public Map<Integer, Integer> countLoansByItem() {
+        String sql = "SELECT item_id, COUNT(*) FROM loan GROUP BY item_id";
+        Map<Integer, Integer> counts = new HashMap<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            while (rs.next()) {
+                counts.put(rs.getInt(1), rs.getInt(2));
+            }
+            
+            return counts;
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error counting loans by item", e);
+        }
+    }
+    
     @Override
     public void updateStatus(Integer loanId, String status, LocalDate returnDate) {
         String sql = "UPDATE loan SET status = ?, return_date = ? WHERE loan_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, status);
@@ -325,6 +601,31 @@ public class JdbcLoanRepository implements LoanRepository {
         }
     }
     
+    @Override
+    public Optional<Loan> markReturned(Integer loanId, LocalDate returnDate) {
+        String sql = "UPDATE loan SET status = 'RETURNED', return_date = ? " +
+                     "WHERE loan_id = ? AND return_date IS NULL " +
+                     "RETURNING loan_id, user_id, item_id, loan_date, due_date, return_date, status";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setDate(1, Date.valueOf(returnDate));
+            pstmt.setInt(2, loanId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapRow(rs));
+                }
+            }
+            
+            return Optional.empty();
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error marking loan returned for id: " + loanId, e);
+        }
+    }
+    
     /**
      * Helper method to map a ResultSet row to a Loan object
      */
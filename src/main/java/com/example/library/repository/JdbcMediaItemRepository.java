@@ -2,31 +2,73 @@ package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
 import com.example.library.domain.MediaItem;
+import com.example.library.search.InvertedIndex;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
 
 public class JdbcMediaItemRepository implements MediaItemRepository {
     
+    private static final String INSERT_SQL =
+            "INSERT INTO media_item (title, author, type, isbn, publication_date, publisher, " +
+            "total_copies, available_copies, late_fees_per_day) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String UPDATE_SQL =
+            "UPDATE media_item SET title = ?, author = ?, type = ?, isbn = ?, " +
+            "publication_date = ?, publisher = ?, total_copies = ?, available_copies = ?, " +
+            "late_fees_per_day = ? WHERE item_id = ?";
+    
+    // The words of an item's title and author as InvertedIndex.tokenize splits
+    // them: each run of letters and digits, plus each word with its separators
+    // removed
+    private static final String ITEM_WORDS =
+            "(SELECT regexp_split_to_table(lower(concat_ws(' ', title, author)), '[^[:alnum:]]+') " +
+            "UNION ALL SELECT regexp_replace(w, '[^[:alnum:]]+', '', 'g') " +
+            "FROM regexp_split_to_table(lower(concat_ws(' ', title, author)), '\\s+') AS w) AS words(word)";
+    
+    // Longest word fuzzystrmatch's levenshtein() accepts
+    private static final int MAX_LEVENSHTEIN_LENGTH = 255;
+    
+    private final DataSource dataSource;
+    
+    // Null until the first substring search checks for pg_trgm
+    private volatile Boolean trigramSearchAvailable;
+    
+    // Null until the first fuzzy search checks for fuzzystrmatch
+    private volatile Boolean levenshteinAvailable;
+    
+    /**
+     * Creates a repository backed by the shared connection pool.
+     */
+    public JdbcMediaItemRepository() {
+        this(DatabaseConnection.getDataSource());
+    }
+    
+    /**
+     * Creates a repository that borrows connections from the given data source.
+     * 
+     * @param dataSource the data source to obtain connections from
+     */
+    public JdbcMediaItemRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
     @Override
     public MediaItem save(MediaItem item) {
-        String sql = "INSERT INTO media_item (title, author, type, isbn, publication_date, publisher, " +
-                     "total_copies, available_copies, late_fees_per_day) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setString(1, item.getTitle());
-            pstmt.setString(2, item.getAuthor());
-            pstmt.setString(3, item.getType());
-            pstmt.setString(4, item.getIsbn());
-            pstmt.setDate(5, item.getPublicationDate() != null ? Date.valueOf(item.getPublicationDate()) : null);
-            pstmt.setString(6, item.getPublisher());
-            pstmt.setInt(7, item.getTotalCopies());
-            pstmt.setInt(8, item.getAvailableCopies());
-            pstmt.setBigDecimal(9, item.getLateFeesPerDay());
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            
+            bindItem(pstmt, item);
             
             int affectedRows = pstmt.executeUpdate();
             
@@ -51,22 +93,10 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
     
     @Override
     public MediaItem update(MediaItem item) {
-        String sql = "UPDATE media_item SET title = ?, author = ?, type = ?, isbn = ?, " +
-                     "publication_date = ?, publisher = ?, total_copies = ?, available_copies = ?, " +
-                     "late_fees_per_day = ? WHERE item_id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
             
-            pstmt.setString(1, item.getTitle());
-            pstmt.setString(2, item.getAuthor());
-            pstmt.setString(3, item.getType());
-            pstmt.setString(4, item.getIsbn());
-            pstmt.setDate(5, item.getPublicationDate() != null ? Date.valueOf(item.getPublicationDate()) : null);
-            pstmt.setString(6, item.getPublisher());
-            pstmt.setInt(7, item.getTotalCopies());
-            pstmt.setInt(8, item.getAvailableCopies());
-            pstmt.setBigDecimal(9, item.getLateFeesPerDay());
+            bindItem(pstmt, item);
             pstmt.setInt(10, item.getItemId());
             
             int affectedRows = pstmt.executeUpdate();
@@ -82,12 +112,39 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
         }
     }
     
+    @Override
+    public List<MediaItem> saveAll(List<MediaItem> items) {
+        return JdbcBatches.insertAll(dataSource, INSERT_SQL, items, JdbcMediaItemRepository::bindItem,
+                MediaItem::setItemId, "Error saving " + items.size() + " media items");
+    }
+    
+    @Override
+    public List<MediaItem> updateAll(List<MediaItem> items) {
+        return JdbcBatches.updateAll(dataSource, UPDATE_SQL, items, (pstmt, item) -> {
+            bindItem(pstmt, item);
+            pstmt.setInt(10, item.getItemId());
+        }, MediaItem::getItemId, "Error updating " + items.size() + " media items");
+    }
+    
+    // Parameters 1-9 of INSERT_SQL and UPDATE_SQL
+    private static void bindItem(PreparedStatement pstmt, MediaItem item) throws SQLException {
+        pstmt.setString(1, item.getTitle());
+        pstmt.setString(2, item.getAuthor());
+        pstmt.setString(3, item.getType());
+        pstmt.setString(4, item.getIsbn());
+        pstmt.setDate(5, item.getPublicationDate() != null ? Date.valueOf(item.getPublicationDate()) : null);
+        pstmt.setString(6, item.getPublisher());
+        pstmt.setInt(7, item.getTotalCopies());
+        pstmt.setInt(8, item.getAvailableCopies());
+        pstmt.setBigDecimal(9, item.getLateFeesPerDay());
+    }
+    
     @Override
     public Optional<MediaItem> findById(Integer itemId) {
         String sql = "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
                      "total_copies, available_copies, late_fees_per_day FROM media_item WHERE item_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, itemId);
@@ -105,12 +162,20 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
         }
     }
     
+    @Override
+    public Map<Integer, MediaItem> findAllByIds(Collection<Integer> itemIds) {
+        String sql = "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
+                     "total_copies, available_copies, late_fees_per_day FROM media_item WHERE item_id = ANY(?::int[])";
+        return JdbcMultiGet.findByIds(dataSource, sql, itemIds, this::mapResultSetToMediaItem, MediaItem::getItemId,
+                "Error finding media items by IDs");
+    }
+    
     @Override
     public Optional<MediaItem> findByIsbn(String isbn) {
         String sql = "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
                      "total_copies, available_copies, late_fees_per_day FROM media_item WHERE isbn = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, isbn);
@@ -134,7 +199,7 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
                      "total_copies, available_copies, late_fees_per_day FROM media_item ORDER BY item_id";
         List<MediaItem> items = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
@@ -149,13 +214,46 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
         }
     }
     
+    @Override
+    public Page<MediaItem> findAll(Integer afterId, int limit) {
+        String sql = "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
+                     "total_copies, available_copies, late_fees_per_day FROM media_item WHERE item_id > ? ORDER BY item_id LIMIT ?";
+        List<MediaItem> items = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, Page.keyAfter(afterId));
+            pstmt.setLong(2, limit + 1L);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(mapResultSetToMediaItem(rs));
+                }
+            }
+            
+            return Page.of(items, limit, MediaItem::getItemId);
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding a page of media items after ID: " + afterId, e);
+        }
+    }
+    
+    @Override
+    public Stream<MediaItem> streamAll() {
+        String sql = "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
+                     "total_copies, available_copies, late_fees_per_day FROM media_item ORDER BY item_id";
+        return JdbcStreams.stream(dataSource, sql, pstmt -> { }, this::mapResultSetToMediaItem,
+                "Error streaming all media items");
+    }
+    
     @Override
     public List<MediaItem> findByType(String type) {
         String sql = "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
                      "total_copies, available_copies, late_fees_per_day FROM media_item WHERE type = ? ORDER BY item_id";
         List<MediaItem> items = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, type);
@@ -174,15 +272,18 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
     }
     
     @Override
-    public List<MediaItem> findByTitleContaining(String title) {
+    public Page<MediaItem> findByType(String type, Integer afterId, int limit) {
         String sql = "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
-                     "total_copies, available_copies, late_fees_per_day FROM media_item WHERE title ILIKE ? ORDER BY item_id";
+                     "total_copies, available_copies, late_fees_per_day FROM media_item WHERE type = ? AND item_id > ? " +
+                     "ORDER BY item_id LIMIT ?";
         List<MediaItem> items = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setString(1, "%" + title + "%");
+            pstmt.setString(1, type);
+            pstmt.setInt(2, Page.keyAfter(afterId));
+            pstmt.setLong(3, limit + 1L);
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -190,23 +291,47 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
                 }
             }
             
-            return items;
+            return Page.of(items, limit, MediaItem::getItemId);
             
         } catch (SQLException e) {
-            throw new DataAccessException("Error finding media items by title: " + title, e);
+            throw new DataAccessException("Error finding a page of media items by type: " + type, e);
         }
     }
     
+    @Override
+    public List<MediaItem> findByTitleContaining(String title) {
+        return findByColumnContaining("title", title);
+    }
+    
     @Override
     public List<MediaItem> findByAuthorContaining(String author) {
+        return findByColumnContaining("author", author);
+    }
+    
+    /**
+     * Case-insensitive substring match on one column. With pg_trgm installed the
+     * ILIKE is served by the column's trigram index and the closest matches come
+     * first; without it the query falls back to a sequential scan in ID order.
+     * The ILIKE is the whole filter: word similarity only ranks the matches, since
+     * a similarity cutoff would drop true substring hits such as "arto" in
+     * "Handbook of Cartography" (word similarity 0.4).
+     */
+    private List<MediaItem> findByColumnContaining(String column, String fragment) {
+        boolean trigram = isTrigramSearchAvailable();
         String sql = "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
-                     "total_copies, available_copies, late_fees_per_day FROM media_item WHERE author ILIKE ? ORDER BY item_id";
+                     "total_copies, available_copies, late_fees_per_day FROM media_item WHERE " + column + " ILIKE ? " +
+                     (trigram
+                             ? "ORDER BY word_similarity(?, " + column + ") DESC, item_id"
+                             : "ORDER BY item_id");
         List<MediaItem> items = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setString(1, "%" + author + "%");
+            pstmt.setString(1, "%" + fragment + "%");
+            if (trigram) {
+                pstmt.setString(2, fragment);
+            }
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -217,7 +342,50 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
             return items;
             
         } catch (SQLException e) {
-            throw new DataAccessException("Error finding media items by author: " + author, e);
+            throw new DataAccessException("Error finding media items by " + column + ": " + fragment, e);
+        }
+    }
+    
+    /**
+     * Whether the pg_trgm extension is installed. Looked up once, on first use;
+     * the migration that installs it is skipped on servers without the extension.
+     */
+    boolean isTrigramSearchAvailable() {
+        Boolean available = trigramSearchAvailable;
+        if (available == null) {
+            available = isExtensionInstalled("pg_trgm");
+            trigramSearchAvailable = available;
+        }
+        return available;
+    }
+    
+    /**
+     * Whether the fuzzystrmatch extension is installed, looked up once like
+     * {@link #isTrigramSearchAvailable()}.
+     */
+    boolean isLevenshteinAvailable() {
+        Boolean available = levenshteinAvailable;
+        if (available == null) {
+            available = isExtensionInstalled("fuzzystrmatch");
+            levenshteinAvailable = available;
+        }
+        return available;
+    }
+    
+    private boolean isExtensionInstalled(String name) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM pg_extension WHERE extname = ?)";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, name);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error checking for " + name + " extension", e);
         }
     }
     
@@ -227,7 +395,7 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
                      "total_copies, available_copies, late_fees_per_day FROM media_item WHERE available_copies > 0 ORDER BY item_id";
         List<MediaItem> items = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
@@ -242,6 +410,32 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
         }
     }
     
+    @Override
+    public Page<MediaItem> findAvailableItems(Integer afterId, int limit) {
+        String sql = "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
+                     "total_copies, available_copies, late_fees_per_day FROM media_item WHERE available_copies > 0 AND item_id > ? " +
+                     "ORDER BY item_id LIMIT ?";
+        List<MediaItem> items = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, Page.keyAfter(afterId));
+            pstmt.setLong(2, limit + 1L);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(mapResultSetToMediaItem(rs));
+                }
+            }
+            
+            return Page.of(items, limit, MediaItem::getItemId);
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding a page of available media items after ID: " + afterId, e);
+        }
+    }
+    
     @Override
     public List<MediaItem> search(String keyword) {
         String sql = "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
@@ -249,7 +443,7 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
                      "WHERE title ILIKE ? OR author ILIKE ? OR isbn ILIKE ? OR type ILIKE ? ORDER BY item_id";
         List<MediaItem> items = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             String searchPattern = "%" + keyword + "%";
@@ -271,11 +465,43 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
         }
     }
     
+    @Override
+    public Page<MediaItem> search(String keyword, Integer afterId, int limit) {
+        String sql = "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
+                     "total_copies, available_copies, late_fees_per_day FROM media_item " +
+                     "WHERE (title ILIKE ? OR author ILIKE ? OR isbn ILIKE ? OR type ILIKE ?) AND item_id > ? " +
+                     "ORDER BY item_id LIMIT ?";
+        List<MediaItem> items = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            String searchPattern = "%" + keyword + "%";
+            pstmt.setString(1, searchPattern);
+            pstmt.setString(2, searchPattern);
+            pstmt.setString(3, searchPattern);
+            pstmt.setString(4, searchPattern);
+            pstmt.setInt(5, Page.keyAfter(afterId));
+            pstmt.setLong(6, limit + 1L);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(mapResultSetToMediaItem(rs));
+                }
+            }
+            
+            return Page.of(items, limit, MediaItem::getItemId);
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error searching a page of media items with keyword: " + keyword, e);
+        }
+    }
+    
     @Override
     public boolean deleteById(Integer itemId) {
         String sql = "DELETE FROM media_item WHERE item_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, itemId);
@@ -287,11 +513,230 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
         }
     }
     
+    @Override
+    public List<MediaItem> fullTextSearch(String query) {
+        String tsQuery = toPrefixTsQuery(query);
+        List<MediaItem> items = new ArrayList<>();
+        if (tsQuery.isEmpty()) {
+            return items;
+        }
+        
+        String sql = "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
+                     "total_copies, available_copies, late_fees_per_day " +
+                     "FROM media_item, to_tsquery('simple', ?) query " +
+                     "WHERE search_vector @@ query " +
+                     "ORDER BY ts_rank(search_vector, query) DESC, item_id";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, tsQuery);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(mapResultSetToMediaItem(rs));
+                }
+            }
+            
+            return items;
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error searching media items with query: " + query, e);
+        }
+    }
+    
+    /**
+     * Ranks items by pg_trgm word similarity between the query and the title or
+     * author. The trigram indexes find the candidates: the edit budget is mapped
+     * to a word similarity threshold, set on the connection and applied with the
+     * {@code <%} operator, so there is no scan over the whole table. Similarity
+     * only approximates edit distance, so with fuzzystrmatch installed each query
+     * word must also be within its edit budget of a title or author word by
+     * {@code levenshtein}, with the words and budgets of
+     * {@link InvertedIndex#searchFuzzy(String, int)}. Without fuzzystrmatch the
+     * similarity threshold alone decides. Without pg_trgm this falls back to the
+     * exact full-text search.
+     */
+    @Override
+    public List<MediaItem> fuzzySearch(String query, int maxEdits) {
+        if (query == null || query.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (!isTrigramSearchAvailable()) {
+            return fullTextSearch(query);
+        }
+        
+        List<String> terms = List.of();
+        if (isLevenshteinAvailable()) {
+            terms = InvertedIndex.tokenizeQuery(query);
+            // levenshtein() rejects longer words, so such a term cannot be checked
+            if (terms.isEmpty() || terms.stream().anyMatch(term -> term.length() > MAX_LEVENSHTEIN_LENGTH)) {
+                return new ArrayList<>();
+            }
+        }
+        
+        StringBuilder sql = new StringBuilder(
+                "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
+                "total_copies, available_copies, late_fees_per_day FROM media_item " +
+                "WHERE (? <% title OR ? <% author)");
+        for (int i = 0; i < terms.size(); i++) {
+            // Every query word needs an item word within its edit budget
+            sql.append(" AND EXISTS (SELECT 1 FROM ").append(ITEM_WORDS)
+               .append(" WHERE CASE WHEN length(word) <= ").append(MAX_LEVENSHTEIN_LENGTH)
+               .append(" THEN levenshtein_less_equal(word, ?, ?) END <= ?)");
+        }
+        sql.append(" ORDER BY GREATEST(word_similarity(?, title), word_similarity(?, author)) DESC, item_id");
+        List<MediaItem> items = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection()) {
+            // Session setting: every query using <% sets it first, so a pooled
+            // connection never carries a stale threshold into a search
+            try (PreparedStatement threshold = conn.prepareStatement(
+                    "SELECT set_config('pg_trgm.word_similarity_threshold', ?, false)")) {
+                threshold.setString(1, maxEdits >= 2 ? "0.45" : "0.6");
+                threshold.executeQuery().close();
+            }
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                String text = query.trim();
+                int index = 1;
+                pstmt.setString(index++, text);
+                pstmt.setString(index++, text);
+                for (String term : terms) {
+                    int edits = InvertedIndex.allowedEdits(term, maxEdits);
+                    pstmt.setString(index++, term);
+                    pstmt.setInt(index++, edits);
+                    pstmt.setInt(index++, edits);
+                }
+                pstmt.setString(index++, text);
+                pstmt.setString(index, text);
+                
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        items.add(mapResultSetToMediaItem(rs));
+                    }
+                }
+            }
+            
+            return items;
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error fuzzy searching media items with query: " + query, e);
+        }
+    }
+    
+    /**
+     * Counts the facets with one grouped query over the items matching the search
+     * text, one row per combination of type, availability and decade, then reads
+     * the page with the filters applied. Both run on the same connection.
+     */
+    @Override
+    public FacetedSearchResult facetedSearch(CatalogQuery query) {
+        FacetedSearchResult.Counter counter = new FacetedSearchResult.Counter(query);
+        String tsQuery = query.hasText() ? toPrefixTsQuery(query.getText()) : "";
+        if (query.hasText() && tsQuery.isEmpty()) {
+            return counter.build(new ArrayList<>());
+        }
+        String from = query.hasText()
+                ? "FROM media_item, to_tsquery('simple', ?) query WHERE search_vector @@ query "
+                : "FROM media_item WHERE TRUE ";
+        
+        String countSql = "SELECT type, available_copies > 0 AS available, " +
+                          "(EXTRACT(YEAR FROM publication_date)::int / 10) * 10 AS decade, COUNT(*) AS hits " +
+                          from + "GROUP BY 1, 2, 3";
+        
+        StringBuilder pageSql = new StringBuilder("SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
+                                                  "total_copies, available_copies, late_fees_per_day " + from);
+        List<Object> parameters = new ArrayList<>();
+        if (query.hasText()) {
+            parameters.add(tsQuery);
+        }
+        if (query.getType() != null) {
+            pageSql.append("AND type = ? ");
+            parameters.add(query.getType());
+        }
+        if (query.getAvailability() != null) {
+            pageSql.append(query.getAvailability() == CatalogQuery.Availability.AVAILABLE
+                    ? "AND available_copies > 0 "
+                    : "AND available_copies <= 0 ");
+        }
+        if (query.getDecade() != null) {
+            pageSql.append("AND publication_date >= ? AND publication_date < ? ");
+            parameters.add(Date.valueOf(LocalDate.of(query.getDecade(), 1, 1)));
+            parameters.add(Date.valueOf(LocalDate.of(query.getDecade() + 10, 1, 1)));
+        }
+        pageSql.append(query.hasText() ? "ORDER BY ts_rank(search_vector, query) DESC, item_id " : "ORDER BY item_id ");
+        pageSql.append("LIMIT ? OFFSET ?");
+        parameters.add(query.getLimit());
+        parameters.add(query.getOffset());
+        
+        try (Connection conn = dataSource.getConnection()) {
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(countSql)) {
+                if (query.hasText()) {
+                    pstmt.setString(1, tsQuery);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        int decade = rs.getInt("decade");
+                        Integer decadeOrNull = rs.wasNull() ? null : decade;
+                        CatalogQuery.Availability availability = rs.getBoolean("available")
+                                ? CatalogQuery.Availability.AVAILABLE
+                                : CatalogQuery.Availability.CHECKED_OUT;
+                        counter.add(rs.getString("type"), availability, decadeOrNull, rs.getInt("hits"));
+                    }
+                }
+            }
+            
+            List<MediaItem> items = new ArrayList<>();
+            if (counter.getTotalHits() > query.getOffset()) {
+                try (PreparedStatement pstmt = conn.prepareStatement(pageSql.toString())) {
+                    for (int i = 0; i < parameters.size(); i++) {
+                        pstmt.setObject(i + 1, parameters.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            items.add(mapResultSetToMediaItem(rs));
+                        }
+                    }
+                }
+            }
+            return counter.build(items);
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error running faceted search with query: " + query.getText(), e);
+        }
+    }
+    
+    /**
+     * Builds a tsquery that requires every word of the input as a prefix match.
+     * Only letters and digits are passed through, so user input can never form
+     * tsquery syntax. A word with separators such as an ISBN "978-0134685991"
+     * matches either its joined form or all of its parts.
+     */
+    static String toPrefixTsQuery(String input) {
+        if (input == null) {
+            return "";
+        }
+        StringJoiner query = new StringJoiner(" & ");
+        for (String word : input.trim().split("\\s+")) {
+            String[] parts = Arrays.stream(word.split("[^\\p{L}\\p{N}]+"))
+                    .filter(part -> !part.isEmpty())
+                    .toArray(String[]::new);
+            if (parts.length == 1) {
+                query.add(parts[0] + ":*");
+            } else if (parts.length > 1) {
+                query.add("(" + String.join("", parts) + ":* | " + String.join(":* & ", parts) + ":*)");
+            }
+        }
+        return query.toString();
+    }
+    
     @Override
     public void updateAvailableCopies(Integer itemId, Integer availableCopies) {
         String sql = "UPDATE media_item SET available_copies = ? WHERE item_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, availableCopies);
@@ -308,11 +753,57 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
         }
     }
     
+    @Override
+    public Optional<Integer> tryDecrementAvailable(Integer itemId) {
+        String sql = "UPDATE media_item SET available_copies = available_copies - 1 " +
+                     "WHERE item_id = ? AND available_copies > 0 RETURNING available_copies";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, itemId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(rs.getInt(1));
+                }
+            }
+            
+            return Optional.empty();
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error decrementing available copies for item id: " + itemId, e);
+        }
+    }
+    
+    @Override
+    public Optional<Integer> incrementAvailable(Integer itemId) {
+        String sql = "UPDATE media_item SET available_copies = available_copies + 1 " +
+                     "WHERE item_id = ? AND available_copies < total_copies RETURNING available_copies";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, itemId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(rs.getInt(1));
+                }
+            }
+            
+            return Optional.empty();
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error incrementing available copies for item id: " + itemId, e);
+        }
+    }
+    
     @Override
     public boolean existsByIsbn(String isbn) {
         String sql = "SELECT COUNT(*) FROM media_item WHERE isbn = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, isbn);
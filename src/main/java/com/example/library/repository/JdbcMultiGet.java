@@ -0,0 +1,88 @@
+package com.example.library.repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+/**
+ * Looks up many rows by id in one round trip per chunk of ids, binding each
+ * chunk as a single array parameter ({@code WHERE id = ANY(?::int[])}), so the
+ * statement text and its plan stay the same however many ids are asked for.
+ */
+final class JdbcMultiGet {
+
+    /**
+     * Ids bound per query; larger requests are split into chunks of this size.
+     */
+    static final int CHUNK_SIZE = 1000;
+
+    private JdbcMultiGet() {
+    }
+
+    /**
+     * Finds the rows with the given ids.
+     *
+     * @param dataSource where to borrow the connection from
+     * @param sql a query with one {@code int[]} parameter for the ids
+     * @param ids the ids to look up; nulls and duplicates are ignored
+     * @param mapper maps each row
+     * @param idOf the id of a mapped row
+     * @param errorMessage message for a {@link DataAccessException} if a query fails
+     * @return the rows found, keyed by id; ids without a row are absent
+     */
+    static <T> Map<Integer, T> findByIds(DataSource dataSource, String sql, Collection<Integer> ids,
+                                         RowMapper<T> mapper, Function<T, Integer> idOf, String errorMessage) {
+        List<Integer[]> chunks = chunks(ids);
+        Map<Integer, T> rows = new HashMap<>();
+        if (chunks.isEmpty()) {
+            return rows;
+        }
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            for (Integer[] chunk : chunks) {
+                Array array = conn.createArrayOf("integer", chunk);
+                pstmt.setArray(1, array);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        T row = mapper.map(rs);
+                        rows.put(idOf.apply(row), row);
+                    }
+                } finally {
+                    array.free();
+                }
+            }
+            return rows;
+
+        } catch (SQLException e) {
+            throw new DataAccessException(errorMessage, e);
+        }
+    }
+
+    private static List<Integer[]> chunks(Collection<Integer> ids) {
+        if (ids == null) {
+            return List.of();
+        }
+        Set<Integer> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        List<Integer> all = new ArrayList<>(distinct);
+        List<Integer[]> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += CHUNK_SIZE) {
+            chunks.add(all.subList(from, Math.min(all.size(), from + CHUNK_SIZE)).toArray(new Integer[0]));
+        }
+        return chunks;
+    }
+}
@@ -9,17 +9,37 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import javax.sql.DataSource;
+
 /**
  * JDBC implementation of ReservationRepository.
  */
 public class JdbcReservationRepository implements ReservationRepository {
     
+    private final DataSource dataSource;
+    
+    /**
+     * Creates a repository backed by the shared connection pool.
+     */
+    public JdbcReservationRepository() {
+        this(DatabaseConnection.getDataSource());
+    }
+    
+    /**
+     * Creates a repository that borrows connections from the given data source.
+     * 
+     * @param dataSource the data source to obtain connections from
+     */
+    public JdbcReservationRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
     @Override
     public Reservation save(Reservation reservation) {
         String sql = "INSERT INTO reservation (user_id, item_id, reservation_date, expiry_date, status) " +
                      "VALUES (?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setInt(1, reservation.getUserId());
@@ -50,7 +70,7 @@ public class JdbcReservationRepository implements ReservationRepository {
         String sql = "UPDATE reservation SET user_id = ?, item_id = ?, reservation_date = ?, " +
                      "expiry_date = ?, status = ? WHERE reservation_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, reservation.getUserId());
@@ -76,7 +96,7 @@ public class JdbcReservationRepository implements ReservationRepository {
     public Optional<Reservation> findById(Integer reservationId) {
         String sql = "SELECT * FROM reservation WHERE reservation_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, reservationId);
@@ -99,9 +119,9 @@ public class JdbcReservationRepository implements ReservationRepository {
         String sql = "SELECT * FROM reservation ORDER BY reservation_date DESC";
         List<Reservation> reservations = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             
             while (rs.next()) {
                 reservations.add(mapResultSetToReservation(rs));
@@ -114,12 +134,36 @@ public class JdbcReservationRepository implements ReservationRepository {
         }
     }
     
+    @Override
+    public Page<Reservation> findAll(Integer afterId, int limit) {
+        String sql = "SELECT * FROM reservation WHERE reservation_id > ? ORDER BY reservation_id LIMIT ?";
+        List<Reservation> reservations = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, Page.keyAfter(afterId));
+            pstmt.setLong(2, limit + 1L);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    reservations.add(mapResultSetToReservation(rs));
+                }
+            }
+            
+            return Page.of(reservations, limit, Reservation::getReservationId);
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding a page of reservations after ID: " + afterId, e);
+        }
+    }
+    
     @Override
     public List<Reservation> findByUserId(Integer userId) {
         String sql = "SELECT * FROM reservation WHERE user_id = ? ORDER BY reservation_date DESC";
         List<Reservation> reservations = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -142,7 +186,7 @@ public class JdbcReservationRepository implements ReservationRepository {
         String sql = "SELECT * FROM reservation WHERE item_id = ? ORDER BY reservation_date";
         List<Reservation> reservations = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, itemId);
@@ -166,7 +210,7 @@ public class JdbcReservationRepository implements ReservationRepository {
                      "ORDER BY reservation_date";
         List<Reservation> reservations = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, itemId);
@@ -189,7 +233,7 @@ public class JdbcReservationRepository implements ReservationRepository {
         String sql = "SELECT * FROM reservation WHERE status = 'ACTIVE' AND expiry_date < ?";
         List<Reservation> reservations = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setTimestamp(1, Timestamp.valueOf(currentDateTime));
@@ -213,7 +257,7 @@ public class JdbcReservationRepository implements ReservationRepository {
                      "ORDER BY reservation_date DESC";
         List<Reservation> reservations = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -235,7 +279,7 @@ public class JdbcReservationRepository implements ReservationRepository {
     public void deleteById(Integer reservationId) {
         String sql = "DELETE FROM reservation WHERE reservation_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, reservationId);
@@ -250,7 +294,7 @@ public class JdbcReservationRepository implements ReservationRepository {
     public int countActiveByItemId(Integer itemId) {
         String sql = "SELECT COUNT(*) FROM reservation WHERE item_id = ? AND status = 'ACTIVE'";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, itemId);
@@ -0,0 +1,156 @@
+package com.example.library.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.sql.DataSource;
+
+/**
+ * Streams query results row by row from a server-side cursor, for scans too
+ * large to hold in memory.
+ * <p>
+ * PostgreSQL only fetches in batches when the query runs inside a transaction
+ * and a fetch size is set; otherwise the driver reads the whole result before
+ * returning the first row. So autocommit is switched off for the life of the
+ * stream, unless the connection is already in a transaction, and restored when
+ * the stream is closed. The connection stays open until then, so callers must
+ * close the stream, e.g. with try-with-resources.
+ */
+final class JdbcStreams {
+
+    /**
+     * Rows fetched per round trip to the database.
+     */
+    static final int FETCH_SIZE = 500;
+
+    private JdbcStreams() {
+    }
+
+    /**
+     * Sets the parameters of a query.
+     */
+    @FunctionalInterface
+    interface Binder {
+        void bind(PreparedStatement pstmt) throws SQLException;
+    }
+
+    /**
+     * Runs a query and returns its rows as a lazily read stream.
+     *
+     * @param dataSource where to borrow the connection from
+     * @param sql the query
+     * @param binder sets the query parameters
+     * @param mapper maps each row
+     * @param errorMessage message for a {@link DataAccessException} if the query fails
+     * @return the rows, in query order; must be closed to release the connection
+     */
+    static <T> Stream<T> stream(DataSource dataSource, String sql, Binder binder,
+                                RowMapper<T> mapper, String errorMessage) {
+        Cursor<T> cursor = new Cursor<>(mapper, errorMessage);
+        try {
+            cursor.open(dataSource, sql, binder);
+        } catch (SQLException | RuntimeException e) {
+            cursor.closeQuietly();
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw new DataAccessException(errorMessage, e);
+        }
+        return StreamSupport.stream(cursor, false).onClose(cursor::close);
+    }
+
+    private static final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+        private final RowMapper<T> mapper;
+        private final String errorMessage;
+        private Connection conn;
+        private boolean restoreAutoCommit;
+        private PreparedStatement pstmt;
+        private ResultSet rs;
+
+        private Cursor(RowMapper<T> mapper, String errorMessage) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.mapper = mapper;
+            this.errorMessage = errorMessage;
+        }
+
+        private void open(DataSource dataSource, String sql, Binder binder) throws SQLException {
+            conn = dataSource.getConnection();
+            if (conn.getAutoCommit()) {
+                conn.setAutoCommit(false);
+                restoreAutoCommit = true;
+            }
+            pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(FETCH_SIZE);
+            binder.bind(pstmt);
+            rs = pstmt.executeQuery();
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                if (!rs.next()) {
+                    return false;
+                }
+                action.accept(mapper.map(rs));
+                return true;
+            } catch (SQLException e) {
+                throw new DataAccessException(errorMessage, e);
+            }
+        }
+
+        private void close() {
+            try {
+                closeResources();
+            } catch (SQLException e) {
+                throw new DataAccessException("Error closing result stream", e);
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                closeResources();
+            } catch (SQLException e) {
+                // Already failing; the original error is the one worth reporting
+            }
+        }
+
+        // Closes everything even if one step fails, then reports the first failure
+        private void closeResources() throws SQLException {
+            SQLException failure = null;
+            try {
+                if (rs != null) {
+                    rs.close();
+                }
+                if (pstmt != null) {
+                    pstmt.close();
+                }
+            } catch (SQLException e) {
+                failure = e;
+            }
+            if (conn != null) {
+                try {
+                    if (restoreAutoCommit) {
+                        // The scan only read, so ending its transaction either way is safe
+                        conn.rollback();
+                        conn.setAutoCommit(true);
+                    }
+                } catch (SQLException e) {
+                    failure = failure == null ? e : failure;
+                } finally {
+                    conn.close();
+                    conn = null;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
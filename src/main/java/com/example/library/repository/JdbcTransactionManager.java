@@ -0,0 +1,196 @@
+package com.example.library.repository;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * JDBC implementation of TransactionManager.
+ * Binds one connection to the current thread for the duration of the work.
+ * Repositories must obtain connections from {@link #getDataSource()} so that
+ * they pick up the bound connection instead of borrowing a new one.
+ */
+public class JdbcTransactionManager implements TransactionManager {
+    
+    private static final Logger LOGGER = Logger.getLogger(JdbcTransactionManager.class.getName());
+    
+    private final DataSource dataSource;
+    private final DataSource transactionAwareDataSource;
+    private final ThreadLocal<Connection> boundConnection = new ThreadLocal<>();
+    
+    /**
+     * Creates a transaction manager over the given data source.
+     * 
+     * @param dataSource the data source transactions borrow their connection from
+     */
+    public JdbcTransactionManager(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.transactionAwareDataSource = new TransactionAwareDataSource();
+    }
+    
+    /**
+     * Returns the data source repositories should use. Inside a transaction it hands
+     * out the transaction's connection (whose close() is ignored); outside a
+     * transaction it delegates to the underlying data source.
+     * 
+     * @return the transaction-aware data source
+     */
+    public DataSource getDataSource() {
+        return transactionAwareDataSource;
+    }
+    
+    /**
+     * @return true if the current thread is inside a transaction
+     */
+    public boolean isTransactionActive() {
+        return boundConnection.get() != null;
+    }
+    
+    @Override
+    public <T> T execute(Supplier<T> work) {
+        if (isTransactionActive()) {
+            return work.get();
+        }
+        
+        Connection conn;
+        try {
+            conn = dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error starting transaction", e);
+        }
+        try {
+            conn.setAutoCommit(false);
+        } catch (SQLException e) {
+            closeQuietly(conn);
+            throw new DataAccessException("Error starting transaction", e);
+        }
+        
+        boundConnection.set(conn);
+        try {
+            T result = work.get();
+            conn.commit();
+            return result;
+        } catch (SQLException e) {
+            rollbackQuietly(conn);
+            throw new DataAccessException("Error committing transaction", e);
+        } catch (RuntimeException | Error e) {
+            rollbackQuietly(conn);
+            throw e;
+        } finally {
+            boundConnection.remove();
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                // A dead connection cannot be reset; the pool discards it on close
+            } finally {
+                closeQuietly(conn);
+            }
+        }
+    }
+    
+    // Always hand the connection back, or its pool permit is lost
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            // Nothing more to release
+        }
+    }
+    
+    private void rollbackQuietly(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Transaction rollback failed", e);
+        }
+    }
+    
+    /**
+     * Wraps the bound connection so repository try-with-resources blocks
+     * do not close it in the middle of the transaction.
+     */
+    private Connection nonClosing(Connection conn) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            try {
+                                return method.invoke(conn, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+    
+    private final class TransactionAwareDataSource implements DataSource {
+        
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection conn = boundConnection.get();
+            if (conn != null) {
+                return nonClosing(conn);
+            }
+            return dataSource.getConnection();
+        }
+        
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLFeatureNotSupportedException("Per-call credentials are not supported");
+        }
+        
+        @Override
+        public PrintWriter getLogWriter() throws SQLException {
+            return dataSource.getLogWriter();
+        }
+        
+        @Override
+        public void setLogWriter(PrintWriter out) throws SQLException {
+            dataSource.setLogWriter(out);
+        }
+        
+        @Override
+        public void setLoginTimeout(int seconds) throws SQLException {
+            dataSource.setLoginTimeout(seconds);
+        }
+        
+        @Override
+        public int getLoginTimeout() throws SQLException {
+            return dataSource.getLoginTimeout();
+        }
+        
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            return dataSource.getParentLogger();
+        }
+        
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            if (iface.isInstance(this)) {
+                return iface.cast(this);
+            }
+            return dataSource.unwrap(iface);
+        }
+        
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || dataSource.isWrapperFor(iface);
+        }
+    }
+}
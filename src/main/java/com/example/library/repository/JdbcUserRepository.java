@@ -6,16 +6,38 @@ import com.example.library.DatabaseConnection;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import javax.sql.DataSource;
+
 public class JdbcUserRepository implements UserRepository {
     
+    private final DataSource dataSource;
+    
+    /**
+     * Creates a repository backed by the shared connection pool.
+     */
+    public JdbcUserRepository() {
+        this(DatabaseConnection.getDataSource());
+    }
+    
+    /**
+     * Creates a repository that borrows connections from the given data source.
+     * 
+     * @param dataSource the data source to obtain connections from
+     */
+    public JdbcUserRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
     @Override
     public User save(User user) {
         String sql = "INSERT INTO app_user (username, password, email, role, created_at) VALUES (?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setString(1, user.getUsername());
@@ -49,7 +71,7 @@ public class JdbcUserRepository implements UserRepository {
     public User update(User user) {
         String sql = "UPDATE app_user SET username = ?, password = ?, email = ?, role = ? WHERE user_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, user.getUsername());
@@ -75,7 +97,7 @@ public class JdbcUserRepository implements UserRepository {
     public Optional<User> findById(Integer userId) {
         String sql = "SELECT user_id, username, password, email, role, created_at FROM app_user WHERE user_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -93,11 +115,18 @@ public class JdbcUserRepository implements UserRepository {
         }
     }
     
+    @Override
+    public Map<Integer, User> findAllByIds(Collection<Integer> userIds) {
+        String sql = "SELECT user_id, username, password, email, role, created_at FROM app_user WHERE user_id = ANY(?::int[])";
+        return JdbcMultiGet.findByIds(dataSource, sql, userIds, this::mapResultSetToUser, User::getUserId,
+                "Error finding users by IDs");
+    }
+    
     @Override
     public Optional<User> findByUsername(String username) {
         String sql = "SELECT user_id, username, password, email, role, created_at FROM app_user WHERE username = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, username);
@@ -119,7 +148,7 @@ public class JdbcUserRepository implements UserRepository {
     public Optional<User> findByEmail(String email) {
         String sql = "SELECT user_id, username, password, email, role, created_at FROM app_user WHERE email = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, email);
@@ -142,7 +171,7 @@ public class JdbcUserRepository implements UserRepository {
         String sql = "SELECT user_id, username, password, email, role, created_at FROM app_user ORDER BY user_id";
         List<User> users = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
@@ -157,12 +186,37 @@ public class JdbcUserRepository implements UserRepository {
         }
     }
     
+    @Override
+    public Page<User> findAll(Integer afterId, int limit) {
+        String sql = "SELECT user_id, username, password, email, role, created_at FROM app_user WHERE user_id > ? " +
+                     "ORDER BY user_id LIMIT ?";
+        List<User> users = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, Page.keyAfter(afterId));
+            pstmt.setLong(2, limit + 1L);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    users.add(mapResultSetToUser(rs));
+                }
+            }
+            
+            return Page.of(users, limit, User::getUserId);
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding a page of users after ID: " + afterId, e);
+        }
+    }
+    
     @Override
     public List<User> findByRole(String role) {
         String sql = "SELECT user_id, username, password, email, role, created_at FROM app_user WHERE role = ? ORDER BY user_id";
         List<User> users = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, role);
@@ -180,11 +234,37 @@ public class JdbcUserRepository implements UserRepository {
         }
     }
     
+    @Override
+    public Page<User> findByRole(String role, Integer afterId, int limit) {
+        String sql = "SELECT user_id, username, password, email, role, created_at FROM app_user WHERE role = ? AND user_id > ? " +
+                     "ORDER BY user_id LIMIT ?";
+        List<User> users = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, role);
+            pstmt.setInt(2, Page.keyAfter(afterId));
+            pstmt.setLong(3, limit + 1L);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    users.add(mapResultSetToUser(rs));
+                }
+            }
+            
+            return Page.of(users, limit, User::getUserId);
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding a page of users by role: " + role, e);
+        }
+    }
+    
     @Override
     public void deleteById(Integer userId) {
         String sql = "DELETE FROM app_user WHERE user_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -199,7 +279,7 @@ public class JdbcUserRepository implements UserRepository {
     public boolean existsByUsername(String username) {
         String sql = "SELECT COUNT(*) FROM app_user WHERE username = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, username);
@@ -221,7 +301,7 @@ public class JdbcUserRepository implements UserRepository {
     public boolean existsByEmail(String email) {
         String sql = "SELECT COUNT(*) FROM app_user WHERE LOWER(email) = LOWER(?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, email);
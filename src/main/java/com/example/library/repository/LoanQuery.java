@@ -0,0 +1,150 @@
+package com.example.library.repository;
+
+import java.time.LocalDate;
+
+/**
+ * A filtered, sorted listing of loans and the page of it wanted, for
+ * administrators browsing every loan in the library. Filters left null match
+ * every loan. Instances are immutable; the {@code with} methods return
+ * modified copies.
+ */
+public final class LoanQuery {
+
+    /**
+     * Page size used unless {@link #page(int, int)} sets another.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * The column loans are sorted by. Ties are broken by loan ID in the same direction.
+     */
+    public enum SortField {
+        LOAN_ID,
+        USER_ID,
+        ITEM_ID,
+        LOAN_DATE,
+        DUE_DATE,
+        /** Unreturned loans sort last in both directions. */
+        RETURN_DATE,
+        STATUS
+    }
+
+    private final String status;
+    private final Integer userId;
+    private final Integer itemId;
+    private final LocalDate loanedFrom;
+    private final LocalDate loanedTo;
+    private final SortField sortField;
+    private final boolean descending;
+    private final int offset;
+    private final int limit;
+
+    private LoanQuery(String status, Integer userId, Integer itemId, LocalDate loanedFrom, LocalDate loanedTo,
+                      SortField sortField, boolean descending, int offset, int limit) {
+        this.status = status;
+        this.userId = userId;
+        this.itemId = itemId;
+        this.loanedFrom = loanedFrom;
+        this.loanedTo = loanedTo;
+        this.sortField = sortField;
+        this.descending = descending;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    /**
+     * Creates an unfiltered query for the first page of loans, newest loan first.
+     *
+     * @return the query
+     */
+    public static LoanQuery all() {
+        return new LoanQuery(null, null, null, null, null, SortField.LOAN_DATE, true, 0, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param status the loan status to keep, e.g. "ACTIVE"; null for any status
+     * @return a copy of this query with the status filter
+     */
+    public LoanQuery withStatus(String status) {
+        return new LoanQuery(status, userId, itemId, loanedFrom, loanedTo, sortField, descending, offset, limit);
+    }
+
+    /**
+     * @param userId the borrower to keep; null for any user
+     * @return a copy of this query with the user filter
+     */
+    public LoanQuery withUserId(Integer userId) {
+        return new LoanQuery(status, userId, itemId, loanedFrom, loanedTo, sortField, descending, offset, limit);
+    }
+
+    /**
+     * @param itemId the borrowed item to keep; null for any item
+     * @return a copy of this query with the item filter
+     */
+    public LoanQuery withItemId(Integer itemId) {
+        return new LoanQuery(status, userId, itemId, loanedFrom, loanedTo, sortField, descending, offset, limit);
+    }
+
+    /**
+     * @param from the earliest loan date to keep, inclusive; null for no lower bound
+     * @param to the latest loan date to keep, inclusive; null for no upper bound
+     * @return a copy of this query with the loan date range
+     */
+    public LoanQuery withLoanDateBetween(LocalDate from, LocalDate to) {
+        return new LoanQuery(status, userId, itemId, from, to, sortField, descending, offset, limit);
+    }
+
+    /**
+     * @param field the column to sort by
+     * @param descending whether to list the largest values first
+     * @return a copy of this query with the sort order
+     */
+    public LoanQuery sortBy(SortField field, boolean descending) {
+        return new LoanQuery(status, userId, itemId, loanedFrom, loanedTo, field, descending, offset, limit);
+    }
+
+    /**
+     * @param offset the number of loans to skip
+     * @param limit the most loans to return
+     * @return a copy of this query for the given page
+     */
+    public LoanQuery page(int offset, int limit) {
+        return new LoanQuery(status, userId, itemId, loanedFrom, loanedTo, sortField, descending, offset, limit);
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public Integer getItemId() {
+        return itemId;
+    }
+
+    public LocalDate getLoanedFrom() {
+        return loanedFrom;
+    }
+
+    public LocalDate getLoanedTo() {
+        return loanedTo;
+    }
+
+    public SortField getSortField() {
+        return sortField;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.library.repository;
 
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanView;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface LoanRepository {
     
@@ -21,6 +25,21 @@ public interface LoanRepository {
      */
     Loan update(Loan loan);
     
+    /**
+     * Save many new loans in one transaction, sent to the database in batches of a thousand
+     * @param loans the loans to save
+     * @return the same loans, each with its generated ID, in the order given
+     */
+    List<Loan> saveAll(List<Loan> loans);
+    
+    /**
+     * Update many existing loans in one transaction, sent to the database in batches of a thousand;
+     * nothing is updated if any of them does not exist
+     * @param loans the loans to update
+     * @return the updated loans
+     */
+    List<Loan> updateAll(List<Loan> loans);
+    
     /**
      * Find a loan by ID
      * @param loanId the loan ID
@@ -28,12 +47,36 @@ public interface LoanRepository {
      */
     Optional<Loan> findById(Integer loanId);
     
+    /**
+     * Find many loans by ID, with one query per thousand IDs
+     * @param loanIds the IDs to look up; nulls and duplicates are ignored
+     * @return the loans found, keyed by ID; IDs without a loan are absent
+     */
+    Map<Integer, Loan> findAllByIds(Collection<Integer> loanIds);
+    
     /**
      * Find all loans
      * @return list of all loans
      */
     List<Loan> findAll();
     
+    /**
+     * Find all loans, one page at a time in loan ID order
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most loans to return, at least 1
+     * @return the page of loans
+     */
+    Page<Loan> findAll(Integer afterId, int limit);
+    
+    /**
+     * Stream all loans in loan ID order.
+     * Rows are read from a server-side cursor as the stream is consumed, so the
+     * scan runs in constant memory. The stream holds a database connection until
+     * it is closed, so use it in a try-with-resources block.
+     * @return the loans; must be closed
+     */
+    Stream<Loan> streamAll();
+    
     /**
      * Find loans by user ID
      * @param userId the user ID
@@ -55,6 +98,15 @@ public interface LoanRepository {
      */
     List<Loan> findByStatus(String status);
     
+    /**
+     * Find loans by status, one page at a time in loan ID order
+     * @param status the loan status (e.g., ACTIVE, RETURNED, OVERDUE)
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most loans to return, at least 1
+     * @return the page of loans with the specified status
+     */
+    Page<Loan> findByStatus(String status, Integer afterId, int limit);
+    
     /**
      * Find active loans by user ID
      * @param userId the user ID
@@ -62,6 +114,23 @@ public interface LoanRepository {
      */
     List<Loan> findActiveByUserId(Integer userId);
     
+    /**
+     * List loans matching a query's filters, in its sort order, one page per query
+     * @param query the filters, sort order and page
+     * @return the page of loans
+     */
+    LoanSearchResult search(LoanQuery query);
+    
+    /**
+     * Find a user's loans together with the borrowed item's title, type and late fee,
+     * the days each loan is overdue and the fines issued for it, in one query
+     * @param userId the user ID
+     * @param status the loan status to keep, e.g. ACTIVE; null for every loan
+     * @param currentDate the date overdue days of unreturned loans are counted to
+     * @return the loan views in loan ID order; an unreturned loan has no fine issued yet
+     */
+    List<LoanView> findViewsByUserId(Integer userId, String status, LocalDate currentDate);
+    
     /**
      * Find overdue loans (due date passed and status is ACTIVE)
      * @param currentDate the current date
@@ -69,6 +138,27 @@ public interface LoanRepository {
      */
     List<Loan> findOverdueLoans(LocalDate currentDate);
     
+    /**
+     * Stream overdue loans (due date passed and not returned) in loan ID order.
+     * Rows are read from a server-side cursor as the stream is consumed, so the
+     * scan runs in constant memory. The stream holds a database connection until
+     * it is closed, so use it in a try-with-resources block.
+     * @param currentDate the current date
+     * @return the overdue loans; must be closed
+     */
+    Stream<Loan> streamOverdue(LocalDate currentDate);
+    
+    /**
+     * Check whether a user is blocked from borrowing, i.e. has an unreturned loan
+     * past its due date or a positive balance of unpaid fines. Evaluated for the
+     * single user in one query, so the cost does not grow with the number of
+     * overdue loans in the library.
+     * @param userId the user ID
+     * @param currentDate the current date
+     * @return true if the user has overdue loans or unpaid fines
+     */
+    boolean hasOverdueLoansOrUnpaidFines(Integer userId, LocalDate currentDate);
+    
     /**
      * Find loans due soon (within specified days)
      * @param currentDate the current date
@@ -91,6 +181,12 @@ public interface LoanRepository {
      */
     int countActiveByUserId(Integer userId);
     
+    /**
+     * Count loans per item over the whole loan history, as a measure of popularity
+     * @return map from item ID to number of loans; items never borrowed are absent
+     */
+    Map<Integer, Integer> countLoansByItem();
+    
     /**
      * Update loan status and return date
      * @param loanId the loan ID
@@ -98,4 +194,13 @@ public interface LoanRepository {
      * @param returnDate the return date (can be null)
      */
     void updateStatus(Integer loanId, String status, LocalDate returnDate);
+    
+    /**
+     * Mark an open loan as returned in a single conditional update, so two
+     * concurrent returns of the same loan cannot both succeed
+     * @param loanId the loan ID
+     * @param returnDate the return date
+     * @return the updated loan, or empty if no open loan has this ID
+     */
+    Optional<Loan> markReturned(Integer loanId, LocalDate returnDate);
 }
@@ -0,0 +1,66 @@
+package com.example.library.repository;
+
+import com.example.library.domain.Loan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a {@link LoanQuery} listing. Whether another page follows is
+ * told by reading one row past the page, so no query counts every matching
+ * loan.
+ */
+public final class LoanSearchResult {
+
+    private final List<Loan> loans;
+    private final int offset;
+    private final boolean hasNext;
+
+    private LoanSearchResult(List<Loan> loans, int offset, boolean hasNext) {
+        this.loans = Collections.unmodifiableList(loans);
+        this.offset = offset;
+        this.hasNext = hasNext;
+    }
+
+    /**
+     * @param rows the rows read, at most {@code limit + 1}
+     * @param offset the offset the rows were read from
+     * @param limit the page size
+     * @return the first {@code limit} rows, noting whether there were more
+     */
+    static LoanSearchResult of(List<Loan> rows, int offset, int limit) {
+        if (rows.size() <= limit) {
+            return new LoanSearchResult(rows, offset, false);
+        }
+        return new LoanSearchResult(new ArrayList<>(rows.subList(0, limit)), offset, true);
+    }
+
+    /**
+     * @return the loans on this page, in the query's sort order
+     */
+    public List<Loan> getLoans() {
+        return loans;
+    }
+
+    /**
+     * @return the number of loans before this page
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return whether another page follows
+     */
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    /**
+     * @return the offset of the next page
+     */
+    public int getNextOffset() {
+        return offset + loans.size();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.library.repository;
+
+/**
+ * A snapshot of a Bloom filter's counters for one looked-up column, showing
+ * how many database round trips it saved.
+ */
+public final class LookupFilterStats {
+
+    private final long lookups;
+    private final long skippedQueries;
+    private final long falsePositives;
+    private final long elements;
+    private final double expectedFalsePositiveRate;
+
+    LookupFilterStats(long lookups, long skippedQueries, long falsePositives, long elements,
+                      double expectedFalsePositiveRate) {
+        this.lookups = lookups;
+        this.skippedQueries = skippedQueries;
+        this.falsePositives = falsePositives;
+        this.elements = elements;
+        this.expectedFalsePositiveRate = expectedFalsePositiveRate;
+    }
+
+    /**
+     * @return lookups checked against the filter
+     */
+    public long getLookups() {
+        return lookups;
+    }
+
+    /**
+     * @return lookups answered "not found" by the filter alone, i.e. round trips saved
+     */
+    public long getSkippedQueries() {
+        return skippedQueries;
+    }
+
+    /**
+     * @return lookups the filter let through that the database then answered "not found"
+     */
+    public long getFalsePositives() {
+        return falsePositives;
+    }
+
+    /**
+     * @return values added to the filter since it was last built, including the initial load
+     */
+    public long getElements() {
+        return elements;
+    }
+
+    /**
+     * @return the false-positive rate the filter's fill level predicts
+     */
+    public double getExpectedFalsePositiveRate() {
+        return expectedFalsePositiveRate;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("lookups=%d, skippedQueries=%d, falsePositives=%d, elements=%d, expectedFpp=%.4f",
+                lookups, skippedQueries, falsePositives, elements, expectedFalsePositiveRate);
+    }
+}
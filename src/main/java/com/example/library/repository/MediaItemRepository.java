@@ -1,8 +1,11 @@
 package com.example.library.repository;
 
 import com.example.library.domain.MediaItem;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface MediaItemRepository {
     
@@ -20,6 +23,21 @@ public interface MediaItemRepository {
      */
     MediaItem update(MediaItem mediaItem);
     
+    /**
+     * Save many new media items in one transaction, sent to the database in batches of a thousand
+     * @param mediaItems the media items to save
+     * @return the same media items, each with its generated ID, in the order given
+     */
+    List<MediaItem> saveAll(List<MediaItem> mediaItems);
+    
+    /**
+     * Update many existing media items in one transaction, sent to the database in batches of a thousand;
+     * nothing is updated if any of them does not exist
+     * @param mediaItems the media items to update
+     * @return the updated media items
+     */
+    List<MediaItem> updateAll(List<MediaItem> mediaItems);
+    
     /**
      * Find a media item by ID
      * @param itemId the item ID
@@ -27,6 +45,13 @@ public interface MediaItemRepository {
      */
     Optional<MediaItem> findById(Integer itemId);
     
+    /**
+     * Find many media items by ID, with one query per thousand IDs
+     * @param itemIds the IDs to look up; nulls and duplicates are ignored
+     * @return the media items found, keyed by ID; IDs without a media item are absent
+     */
+    Map<Integer, MediaItem> findAllByIds(Collection<Integer> itemIds);
+    
     /**
      * Find a media item by ISBN
      * @param isbn the ISBN
@@ -40,6 +65,23 @@ public interface MediaItemRepository {
      */
     List<MediaItem> findAll();
     
+    /**
+     * Find all media items, one page at a time in item ID order
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most items to return, at least 1
+     * @return the page of media items
+     */
+    Page<MediaItem> findAll(Integer afterId, int limit);
+    
+    /**
+     * Stream all media items in item ID order.
+     * Rows are read from a server-side cursor as the stream is consumed, so the
+     * scan runs in constant memory. The stream holds a database connection until
+     * it is closed, so use it in a try-with-resources block.
+     * @return the media items; must be closed
+     */
+    Stream<MediaItem> streamAll();
+    
     /**
      * Find media items by type
      * @param type the media type (e.g., BOOK, DVD, MAGAZINE)
@@ -47,6 +89,15 @@ public interface MediaItemRepository {
      */
     List<MediaItem> findByType(String type);
     
+    /**
+     * Find media items by type, one page at a time in item ID order
+     * @param type the media type (e.g., BOOK, DVD, MAGAZINE)
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most items to return, at least 1
+     * @return the page of media items with the specified type
+     */
+    Page<MediaItem> findByType(String type, Integer afterId, int limit);
+    
     /**
      * Find media items by title (partial match)
      * @param title the title to search for
@@ -67,6 +118,14 @@ public interface MediaItemRepository {
      */
     List<MediaItem> findAvailableItems();
     
+    /**
+     * Find available media items (availableCopies > 0), one page at a time in item ID order
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most items to return, at least 1
+     * @return the page of available media items
+     */
+    Page<MediaItem> findAvailableItems(Integer afterId, int limit);
+    
     /**
      * Delete a media item by ID
      * @param itemId the item ID
@@ -81,6 +140,20 @@ public interface MediaItemRepository {
      */
     void updateAvailableCopies(Integer itemId, Integer availableCopies);
     
+    /**
+     * Atomically take one available copy of an item, without reading it first
+     * @param itemId the item ID
+     * @return the remaining available copies, or empty if the item does not exist or has no copies left
+     */
+    Optional<Integer> tryDecrementAvailable(Integer itemId);
+    
+    /**
+     * Atomically put one copy of an item back, never exceeding the total copies
+     * @param itemId the item ID
+     * @return the new available copies, or empty if the item does not exist or all copies are already in
+     */
+    Optional<Integer> incrementAvailable(Integer itemId);
+    
     /**
      * Search for media items by keyword (title, author, isbn, or type)
      * @param keyword the search keyword
@@ -88,6 +161,42 @@ public interface MediaItemRepository {
      */
     List<MediaItem> search(String keyword);
     
+    /**
+     * Search for media items by keyword (title, author, isbn, or type), one page at a time in item ID order
+     * @param keyword the search keyword
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most items to return, at least 1
+     * @return the page of matching media items
+     */
+    Page<MediaItem> search(String keyword, Integer afterId, int limit);
+    
+    /**
+     * Full-text search over title, author, ISBN, publisher and type, using the
+     * indexed search vector. Every word in the query must match the start of a
+     * word in the item, so partially typed words are found.
+     * @param query the search text
+     * @return matching media items, best matches first
+     */
+    List<MediaItem> fullTextSearch(String query);
+    
+    /**
+     * Typo-tolerant search over titles and authors. Every word in the query must
+     * be within a few edits of a word in the item, so "Tolkein" finds "Tolkien".
+     * @param query the search text
+     * @param maxEdits the most edits allowed per word, 1 or 2
+     * @return matching media items, closest matches first
+     */
+    List<MediaItem> fuzzySearch(String query, int maxEdits);
+    
+    /**
+     * Searches the catalog and counts the hits by type, availability and
+     * publication decade in the same call, so results can be refined without
+     * running the search again for each facet value.
+     * @param query the search text, facet filters and page
+     * @return the page of hits, best matches first, with the facet counts
+     */
+    FacetedSearchResult facetedSearch(CatalogQuery query);
+    
     /**
      * Check if a media item exists by ISBN
      * @param isbn the ISBN to check
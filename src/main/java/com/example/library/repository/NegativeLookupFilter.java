@@ -0,0 +1,120 @@
+package com.example.library.repository;
+
+import com.example.library.search.BloomFilter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bloom filter of the values of one unique column, used by the filtering
+ * repository decorators to answer "no such row" without a query.
+ * <p>
+ * The filter is built from the database and then told about every value
+ * written through the decorator. Values written by other clients are only
+ * picked up by a rebuild, so a lookup for one of those may wrongly
+ * report it missing until then. Removed values stay in the filter, which only
+ * costs an occasional query.
+ */
+final class NegativeLookupFilter {
+
+    // Headroom over the rows present at rebuild, so inserts do not push up the false-positive rate
+    private static final int MIN_EXPECTED_ELEMENTS = 10_000;
+
+    private final UnaryOperator<String> normalizer;
+    private final double falsePositiveRate;
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    private volatile BloomFilter filter;
+    // Values added while a rebuild is reading the table, replayed into the new filter
+    private List<String> pending;
+
+    /**
+     * @param normalizer maps a value to its filter key, matching how the column is compared in SQL
+     * @param falsePositiveRate the wanted chance that an absent value still needs a query
+     */
+    NegativeLookupFilter(UnaryOperator<String> normalizer, double falsePositiveRate) {
+        this.normalizer = normalizer;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(MIN_EXPECTED_ELEMENTS, falsePositiveRate);
+    }
+
+    /**
+     * Starts collecting values added from now on, to carry them into the filter
+     * being rebuilt. Call before reading the current values from the database,
+     * then {@link #finishRebuild} or {@link #abortRebuild}.
+     */
+    synchronized void beginRebuild() {
+        pending = new ArrayList<>();
+    }
+
+    /**
+     * Replaces the filter with one built from the current values and the values
+     * added since {@link #beginRebuild}.
+     *
+     * @param values every value read from the database
+     */
+    void finishRebuild(Collection<String> values) {
+        BloomFilter rebuilt = new BloomFilter(Math.max(MIN_EXPECTED_ELEMENTS, values.size() * 2L), falsePositiveRate);
+        for (String value : values) {
+            if (value != null) {
+                rebuilt.add(normalizer.apply(value));
+            }
+        }
+        synchronized (this) {
+            pending.forEach(rebuilt::add);
+            pending = null;
+            filter = rebuilt;
+        }
+    }
+
+    /**
+     * Keeps the current filter after reading the values failed.
+     */
+    synchronized void abortRebuild() {
+        pending = null;
+    }
+
+    /**
+     * Records a value that now exists.
+     */
+    synchronized void add(String value) {
+        if (value == null) {
+            return;
+        }
+        String key = normalizer.apply(value);
+        filter.add(key);
+        if (pending != null) {
+            pending.add(key);
+        }
+    }
+
+    /**
+     * @return false if the value certainly does not exist, so the query can be skipped
+     */
+    boolean mightExist(String value) {
+        lookups.incrementAndGet();
+        if (value != null && !filter.mightContain(normalizer.apply(value))) {
+            skipped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records that a value the filter let through was not found after all.
+     */
+    void falsePositive() {
+        falsePositives.incrementAndGet();
+    }
+
+    LookupFilterStats stats() {
+        BloomFilter current = filter;
+        return new LookupFilterStats(lookups.get(), skipped.get(), falsePositives.get(),
+                current.getElementCount(), current.getExpectedFalsePositiveRate());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.library.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a list query read by keyset pagination: rows are ordered by id
+ * and each page starts after the last id of the page before, so a page costs
+ * the same however deep into the table it is, unlike an offset that the
+ * database has to count past.
+ *
+ * @param <T> the row type
+ */
+public final class Page<T> {
+
+    private final List<T> items;
+    private final Integer nextCursor;
+
+    private Page(List<T> items, Integer nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Builds a page from rows read with one row more than the page size, which
+     * tells whether another page follows without counting the rest.
+     *
+     * @param rows the rows read, in id order, at most {@code limit + 1}
+     * @param limit the page size
+     * @param idOf the id of a row
+     * @return the first {@code limit} rows, with the cursor for the next page if there were more
+     */
+    static <T> Page<T> of(List<T> rows, int limit, Function<T, Integer> idOf) {
+        if (rows.size() <= limit) {
+            return new Page<>(rows, null);
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, limit));
+        return new Page<>(items, idOf.apply(items.get(limit - 1)));
+    }
+
+    /**
+     * Returns the id to read after, for a cursor passed in by a caller.
+     *
+     * @param afterId the cursor; null for the first page
+     * @return the cursor, or a key before every id for the first page
+     */
+    static int keyAfter(Integer afterId) {
+        return afterId == null ? Integer.MIN_VALUE : afterId;
+    }
+
+    /**
+     * @return the rows on this page, in id order
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return the cursor to pass as {@code afterId} for the next page; null on the last page
+     */
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @return whether another page follows
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -37,6 +37,14 @@ public interface ReservationRepository {
      */
     List<Reservation> findAll();
     
+    /**
+     * Find all reservations, one page at a time in reservation ID order
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most reservations to return, at least 1
+     * @return the page of reservations
+     */
+    Page<Reservation> findAll(Integer afterId, int limit);
+    
     /**
      * Find reservations by user ID
      * @param userId the user ID
@@ -0,0 +1,49 @@
+package com.example.library.repository;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work inside a single database transaction.
+ * Repository calls made by the work share one connection and are committed
+ * together; if the work throws, everything it wrote is rolled back.
+ */
+public interface TransactionManager {
+    
+    /**
+     * Executes the work in a transaction and commits once when it completes.
+     * Calls made while a transaction is already active join that transaction.
+     * 
+     * @param work the work to execute
+     * @param <T> the result type
+     * @return the result of the work
+     * @throws DataAccessException if the transaction cannot be started or committed
+     */
+    <T> T execute(Supplier<T> work);
+    
+    /**
+     * Executes work that returns no result in a transaction.
+     * 
+     * @param work the work to execute
+     */
+    default void execute(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+    
+    /**
+     * Returns a transaction manager that simply runs the work,
+     * leaving each repository call in its own auto-commit transaction.
+     * 
+     * @return a pass-through transaction manager
+     */
+    static TransactionManager direct() {
+        return new TransactionManager() {
+            @Override
+            public <T> T execute(Supplier<T> work) {
+                return work.get();
+            }
+        };
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.library.repository;
 
 import com.example.library.domain.User;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface UserRepository {
@@ -27,6 +29,13 @@ public interface UserRepository {
      */
     Optional<User> findById(Integer userId);
     
+    /**
+     * Find many users by ID, with one query per thousand IDs
+     * @param userIds the IDs to look up; nulls and duplicates are ignored
+     * @return the users found, keyed by ID; IDs without a user are absent
+     */
+    Map<Integer, User> findAllByIds(Collection<Integer> userIds);
+    
     /**
      * Find a user by username
      * @param username the username
@@ -47,6 +56,14 @@ public interface UserRepository {
      */
     List<User> findAll();
     
+    /**
+     * Find all users, one page at a time in user ID order
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most users to return, at least 1
+     * @return the page of users
+     */
+    Page<User> findAll(Integer afterId, int limit);
+    
     /**
      * Find users by role
      * @param role the user role
@@ -54,6 +71,15 @@ public interface UserRepository {
      */
     List<User> findByRole(String role);
     
+    /**
+     * Find users by role, one page at a time in user ID order
+     * @param role the user role
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most users to return, at least 1
+     * @return the page of users with the specified role
+     */
+    Page<User> findByRole(String role, Integer afterId, int limit);
+    
     /**
      * Delete a user by ID
      * @param userId the user ID
@@ -0,0 +1,130 @@
+package com.example.library.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over strings: answers "definitely absent" or "possibly present"
+ * in constant time and a few bits per element, with no false negatives.
+ * <p>
+ * The bit array and hash count are sized from the expected number of elements
+ * and the wanted false-positive rate. Adding more elements than expected keeps
+ * the filter correct but raises the false-positive rate. Safe for concurrent
+ * use without locking.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedElements;
+    private final AtomicLong elements = new AtomicLong();
+
+    /**
+     * @param expectedElements how many elements the filter is sized for, at least 1
+     * @param falsePositiveRate the wanted chance that an absent element tests positive, between 0 and 1
+     */
+    public BloomFilter(long expectedElements, double falsePositiveRate) {
+        if (expectedElements < 1) {
+            throw new IllegalArgumentException("Expected elements must be at least 1, was " + expectedElements);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1, was " + falsePositiveRate);
+        }
+        // Optimal sizes: m = -n ln p / (ln 2)^2 bits and k = m/n ln 2 hashes
+        long bits = (long) Math.ceil(-expectedElements * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedElements * Math.log(2)));
+        this.expectedElements = expectedElements;
+    }
+
+    /**
+     * Adds an element.
+     */
+    public void add(String element) {
+        long hash1 = hash(element, 0);
+        long hash2 = hash(element, hash1);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+        elements.incrementAndGet();
+    }
+
+    /**
+     * @return false if the element was never added; true if it probably was
+     */
+    public boolean mightContain(String element) {
+        long hash1 = hash(element, 0);
+        long hash2 = hash(element, hash1);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of add calls so far, counting repeats
+     */
+    public long getElementCount() {
+        return elements.get();
+    }
+
+    /**
+     * @return the number of elements the filter was sized for
+     */
+    public long getExpectedElements() {
+        return expectedElements;
+    }
+
+    /**
+     * @return the false-positive rate expected at the current element count
+     */
+    public double getExpectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * elements.get() / bitCount), hashCount);
+    }
+
+    /**
+     * @return the size of the bit array
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * @return the number of bits set per element
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer; the
+    // second hash is seeded with the first (Kirsch-Mitzenmacher double hashing)
+    private static long hash(String element, long seed) {
+        long h = 0xcbf29ce484222325L ^ seed;
+        for (byte b : element.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return seed == 0 ? h : h | 1;
+    }
+}
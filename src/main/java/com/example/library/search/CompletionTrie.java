@@ -0,0 +1,253 @@
+package com.example.library.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prefix trie returning the highest-weighted completions for a typed prefix.
+ * Each completion is reachable from its full text and from the start of every
+ * later word, so "jav" completes to "Effective Java". Nodes keep their children
+ * in sorted parallel arrays and cache their best completions, so a lookup walks
+ * the prefix and reads one cached list; updates only invalidate the caches on
+ * the affected paths. Methods are synchronized, as lookups fill caches lazily.
+ */
+public class CompletionTrie {
+
+    /**
+     * Most completions cached per node; larger requests fall back to walking the subtree.
+     */
+    static final int CACHED_COMPLETIONS = 10;
+
+    private static final Comparator<Completion> BEST_FIRST = Comparator
+            .comparingLong((Completion completion) -> -completion.weight)
+            .thenComparing(completion -> completion.text);
+
+    private final Node root = new Node();
+    private final Map<String, Completion> completions = new HashMap<>();
+
+    /**
+     * Adds one occurrence of the text. Texts equal ignoring case share one
+     * completion whose weight is the sum over occurrences.
+     *
+     * @param text the completion text, e.g. a title or author
+     * @param weight the occurrence's weight, e.g. its borrow count
+     */
+    public synchronized void add(String text, long weight) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        Completion completion = completions.get(normalized);
+        if (completion == null) {
+            completion = new Completion(text.trim());
+            completions.put(normalized, completion);
+            for (String key : keys(normalized)) {
+                Node node = root;
+                for (int i = 0; i < key.length(); i++) {
+                    node.top = null;
+                    node = node.childFor(key.charAt(i), true);
+                }
+                node.top = null;
+                node.terminals.add(completion);
+            }
+        } else {
+            invalidate(normalized);
+        }
+        completion.occurrences++;
+        completion.weight += weight;
+    }
+
+    /**
+     * Removes one occurrence previously added with the same weight. The completion
+     * disappears once its last occurrence is removed.
+     *
+     * @param text the completion text
+     * @param weight the weight the occurrence was added or last adjusted to
+     */
+    public synchronized void remove(String text, long weight) {
+        String normalized = normalize(text);
+        Completion completion = completions.get(normalized);
+        if (completion == null) {
+            return;
+        }
+        invalidate(normalized);
+        completion.occurrences--;
+        completion.weight -= weight;
+        if (completion.occurrences > 0) {
+            return;
+        }
+
+        completions.remove(normalized);
+        for (String key : keys(normalized)) {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.childFor(key.charAt(i), false);
+            }
+            if (node != null) {
+                node.terminals.remove(completion);
+            }
+        }
+    }
+
+    /**
+     * Adjusts the weight of an existing completion, e.g. when an item is borrowed.
+     *
+     * @param text the completion text
+     * @param delta the change in weight
+     */
+    public synchronized void addWeight(String text, long delta) {
+        String normalized = normalize(text);
+        Completion completion = completions.get(normalized);
+        if (completion != null) {
+            invalidate(normalized);
+            completion.weight += delta;
+        }
+    }
+
+    /**
+     * Returns the best completions for the prefix, highest weight first and then
+     * alphabetically.
+     *
+     * @param prefix the typed text; matched ignoring case
+     * @param limit maximum number of completions
+     * @return the completion texts
+     */
+    public synchronized List<String> complete(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        Node node = root;
+        for (int i = 0; i < normalized.length() && node != null; i++) {
+            node = node.childFor(normalized.charAt(i), false);
+        }
+        if (node == null) {
+            return new ArrayList<>();
+        }
+
+        List<Completion> best;
+        if (limit <= CACHED_COMPLETIONS) {
+            best = node.top();
+        } else {
+            Set<Completion> all = new LinkedHashSet<>();
+            node.collect(all);
+            best = new ArrayList<>(all);
+            best.sort(BEST_FIRST);
+        }
+
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < best.size() && i < limit; i++) {
+            texts.add(best.get(i).text);
+        }
+        return texts;
+    }
+
+    /**
+     * @return the number of distinct completions
+     */
+    public synchronized int size() {
+        return completions.size();
+    }
+
+    private void invalidate(String normalized) {
+        for (String key : keys(normalized)) {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node.top = null;
+                node = node.childFor(key.charAt(i), false);
+            }
+            if (node != null) {
+                node.top = null;
+            }
+        }
+    }
+
+    // The full text plus the text from the start of each later word
+    private static List<String> keys(String normalized) {
+        List<String> keys = new ArrayList<>();
+        keys.add(normalized);
+        for (int i = 1; i < normalized.length(); i++) {
+            if (normalized.charAt(i - 1) == ' ') {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Completion {
+        private final String text;
+        private long weight;
+        private int occurrences;
+
+        private Completion(String text) {
+            this.text = text;
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        // Usually empty; a list rather than a field since several words can end here
+        private final List<Completion> terminals = new ArrayList<>(1);
+        private List<Completion> top;
+
+        private Node childFor(char c, boolean create) {
+            int position = Arrays.binarySearch(keys, c);
+            if (position >= 0) {
+                return children[position];
+            }
+            if (!create) {
+                return null;
+            }
+            int insertAt = -position - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = new Node();
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[insertAt];
+        }
+
+        // Best completions in this subtree, merged from the children's cached lists
+        private List<Completion> top() {
+            if (top == null) {
+                Set<Completion> candidates = new LinkedHashSet<>(terminals);
+                for (Node child : children) {
+                    candidates.addAll(child.top());
+                }
+                List<Completion> sorted = new ArrayList<>(candidates);
+                sorted.sort(BEST_FIRST);
+                top = sorted.size() > CACHED_COMPLETIONS
+                        ? new ArrayList<>(sorted.subList(0, CACHED_COMPLETIONS))
+                        : sorted;
+            }
+            return top;
+        }
+
+        private void collect(Set<Completion> into) {
+            into.addAll(terminals);
+            for (Node child : children) {
+                child.collect(into);
+            }
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.library.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index mapping lowercase tokens to sorted posting lists of
+ * document IDs. Documents can be added, replaced and removed one at a time, and
+ * queries combine terms with AND or OR, matching either whole tokens or token
+ * prefixes. Tokens are also kept in a trie searchable by edit distance so
+ * that queries can tolerate typos. Safe for concurrent use: queries share a read lock and updates
+ * take the write lock.
+ */
+public class InvertedIndex {
+
+    /**
+     * How the terms of a query are combined.
+     */
+    public enum Operator {
+        /** Every term must match. */
+        AND,
+        /** At least one term must match. */
+        OR
+    }
+
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<Integer, Set<String>> documentTokens = new HashMap<>();
+    // The same tokens as postings, searchable by edit distance
+    private LevenshteinTrie vocabulary = new LevenshteinTrie();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Indexes a document, replacing whatever was indexed for the ID before.
+     *
+     * @param id the document ID
+     * @param fields text fields of the document; null fields are skipped
+     */
+    public void index(int id, String... fields) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String field : fields) {
+            tokens.addAll(tokenize(field));
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeTokens(id);
+            for (String token : tokens) {
+                postings.computeIfAbsent(token, key -> {
+                    vocabulary.add(key);
+                    return new PostingList();
+                }).add(id);
+            }
+            documentTokens.put(id, tokens);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document from the index.
+     *
+     * @param id the document ID
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeTokens(id);
+            documentTokens.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every document.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documentTokens.clear();
+            vocabulary = new LevenshteinTrie();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed documents
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentTokens.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the documents matching the query text. The text is tokenized the same
+     * way as indexed fields.
+     *
+     * @param text the query text
+     * @param operator whether all or any of the query tokens must match
+     * @param prefix whether a query token also matches longer tokens that start with it
+     * @return matching document IDs in ascending order; empty if the text has no tokens
+     */
+    public int[] search(String text, Operator operator, boolean prefix) {
+        List<String> terms = tokenizeQuery(text);
+        if (terms.isEmpty()) {
+            return new int[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] result = null;
+            for (String term : terms) {
+                int[] matches = prefix ? prefixMatches(term) : exactMatches(term);
+                if (result == null) {
+                    result = matches;
+                } else if (operator == Operator.AND) {
+                    result = PostingList.intersect(result, matches);
+                } else {
+                    result = PostingList.union(result, matches);
+                }
+                if (operator == Operator.AND && result.length == 0) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the documents containing every query word, allowing each word to be
+     * misspelled by a few edits. Short words get fewer edits, since one edit
+     * already turns most of them into unrelated words: none up to two characters,
+     * one up to five, and {@code maxEdits} beyond that. Words made only of digits,
+     * such as ISBN parts, must match exactly.
+     *
+     * @param text the query text
+     * @param maxEdits the most insertions, deletions or substitutions allowed per word
+     * @return matching document IDs in ascending order; empty if the text has no tokens
+     */
+    public int[] searchFuzzy(String text, int maxEdits) {
+        List<String> terms = tokenizeQuery(text);
+        if (terms.isEmpty()) {
+            return new int[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            int[] result = null;
+            for (String term : terms) {
+                int[] matches = fuzzyMatches(term, allowedEdits(term, maxEdits));
+                result = result == null ? matches : PostingList.intersect(result, matches);
+                if (result.length == 0) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The edit budget {@link #searchFuzzy(String, int)} gives one query term.
+     *
+     * @param term a term from {@link #tokenizeQuery(String)}
+     * @param maxEdits the most edits the caller allows per word
+     * @return the most edits allowed for this term
+     */
+    public static int allowedEdits(String term, int maxEdits) {
+        if (term.length() <= 2 || term.chars().allMatch(Character::isDigit)) {
+            return 0;
+        }
+        return Math.min(maxEdits, term.length() <= 5 ? 1 : 2);
+    }
+
+    private int[] fuzzyMatches(String term, int edits) {
+        if (edits <= 0) {
+            return exactMatches(term);
+        }
+        List<PostingList> lists = new ArrayList<>();
+        vocabulary.search(term, edits, (token, distance) -> {
+            PostingList list = postings.get(token);
+            if (list != null) {
+                lists.add(list);
+            }
+        });
+        return merge(lists);
+    }
+
+    private int[] exactMatches(String term) {
+        PostingList list = postings.get(term);
+        return list == null ? new int[0] : list.toArray();
+    }
+
+    private int[] prefixMatches(String term) {
+        return merge(postings.subMap(term, true, term + Character.MAX_VALUE, false).values());
+    }
+
+    private static int[] merge(Collection<PostingList> lists) {
+        if (lists.isEmpty()) {
+            return new int[0];
+        }
+        if (lists.size() == 1) {
+            return lists.iterator().next().toArray();
+        }
+
+        // Concatenate, then sort and drop duplicates once instead of merging pairwise
+        int total = 0;
+        for (PostingList list : lists) {
+            total += list.size();
+        }
+        int[] all = new int[total];
+        int offset = 0;
+        for (PostingList list : lists) {
+            int[] ids = list.toArray();
+            System.arraycopy(ids, 0, all, offset, ids.length);
+            offset += ids.length;
+        }
+        Arrays.sort(all);
+
+        int count = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1]) {
+                all[count++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, count);
+    }
+
+    private void removeTokens(int id) {
+        Set<String> previous = documentTokens.get(id);
+        if (previous == null) {
+            return;
+        }
+        for (String token : previous) {
+            PostingList list = postings.get(token);
+            if (list != null) {
+                list.remove(id);
+                if (list.isEmpty()) {
+                    postings.remove(token);
+                    vocabulary.remove(token);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits text into lowercase tokens of letters and digits. A word that contains
+     * separators, such as "978-0134685991" or "O'Reilly", is indexed both as its
+     * parts and with the separators removed.
+     *
+     * @param text the text to tokenize; may be null
+     * @return the tokens in order of appearance
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).trim().split("\\s+")) {
+            List<String> parts = parts(word);
+            tokens.addAll(parts);
+            if (parts.size() > 1) {
+                tokens.add(String.join("", parts));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Splits query text into one term per word. A word with separators becomes its
+     * joined form, which {@link #tokenize(String)} always indexes.
+     */
+    public static List<String> tokenizeQuery(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).trim().split("\\s+")) {
+            List<String> parts = parts(word);
+            if (!parts.isEmpty()) {
+                terms.add(String.join("", parts));
+            }
+        }
+        return terms;
+    }
+
+    private static List<String> parts(String word) {
+        List<String> parts = new ArrayList<>();
+        for (String part : word.split("[^\\p{L}\\p{N}]+")) {
+            if (!part.isEmpty()) {
+                parts.add(part);
+            }
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.library.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Word dictionary searchable by Levenshtein distance, used to find every word
+ * within a few edits of a misspelled one.
+ * <p>
+ * A lookup walks a trie while filling in one row of the edit-distance table per
+ * character, which simulates a Levenshtein automaton for the query: shared
+ * prefixes are compared once and a branch is abandoned as soon as its whole row
+ * is over budget. With a budget of two edits that still visits most short
+ * prefixes, since any two letters are within two edits of any other two. So the
+ * budget is split: if a word is within k edits of the query, then the first or
+ * the second half of the query is within k / 2 edits of the matching part of
+ * the word. The words are kept in a trie and, reversed, in a second trie, and
+ * each is walked with the smaller budget over its half of the query, where the
+ * trie is dense, and with the full budget only further down, where it is sparse.
+ * <p>
+ * Not thread-safe.
+ */
+final class LevenshteinTrie {
+
+    private final Node forward = new Node();
+    private final Node backward = new Node();
+    private int size;
+
+    /**
+     * Adds the word. Does nothing if already present.
+     *
+     * @return true if the word was added
+     */
+    boolean add(String word) {
+        if (!forward.insert(word, word)) {
+            return false;
+        }
+        backward.insert(reverse(word), word);
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the word. Nodes are left in place for words added later.
+     *
+     * @return true if the word was present
+     */
+    boolean remove(String word) {
+        if (!forward.delete(word)) {
+            return false;
+        }
+        backward.delete(reverse(word));
+        size--;
+        return true;
+    }
+
+    /**
+     * Finds the words within the given number of edits.
+     *
+     * @param word the word to look up
+     * @param maxDistance the most insertions, deletions or substitutions allowed
+     * @param into receives each matching word once, with its distance
+     */
+    void search(String word, int maxDistance, Visitor into) {
+        Map<String, Integer> found = new HashMap<>();
+        int split = word.length() / 2;
+        new Search(word, split, maxDistance, found).run(forward);
+        // The backward half stops one column short, so that letters inserted right at
+        // the split are charged to the forward half only
+        new Search(reverse(word), word.length() - split - 1, maxDistance, found).run(backward);
+        found.forEach(into::visit);
+    }
+
+    /**
+     * @return the number of words in the dictionary
+     */
+    int size() {
+        return size;
+    }
+
+    private static String reverse(String word) {
+        return new StringBuilder(word).reverse().toString();
+    }
+
+    /**
+     * Receives the words found by a search.
+     */
+    @FunctionalInterface
+    interface Visitor {
+        void visit(String word, int distance);
+    }
+
+    /**
+     * One walk of a trie, following only alignments that spend at most half the
+     * budget on the first {@code split} characters of the query.
+     */
+    private static final class Search {
+        private final String query;
+        private final int split;
+        private final int maxDistance;
+        private final int splitBudget;
+        private final Map<String, Integer> found;
+        // One row per depth, reused across branches; words longer than the query
+        // plus the budget cannot match, which bounds the depth
+        private final int[][] rows;
+
+        private Search(String query, int split, int maxDistance, Map<String, Integer> found) {
+            this.query = query;
+            this.split = split;
+            this.maxDistance = maxDistance;
+            this.splitBudget = maxDistance / 2;
+            this.found = found;
+            this.rows = new int[query.length() + maxDistance + 2][query.length() + 1];
+        }
+
+        private void run(Node root) {
+            int[] first = rows[0];
+            for (int j = 0; j < first.length; j++) {
+                first[j] = j > budget(j) ? maxDistance + 1 : j;
+            }
+            report(root, first[query.length()]);
+            walk(root, 1);
+        }
+
+        private void walk(Node node, int depth) {
+            int[] previous = rows[depth - 1];
+            int[] row = rows[depth];
+            int n = query.length();
+            int outOfBudget = maxDistance + 1;
+            // Entries more than maxDistance off the diagonal always exceed it, so only
+            // the band around the diagonal is filled; the entry past each end of the
+            // band is marked as out of budget for the next row to read
+            int from = Math.max(1, depth - maxDistance);
+            int to = Math.min(n, depth + maxDistance);
+
+            for (int i = 0; i < node.keys.length; i++) {
+                char c = node.keys[i];
+                row[0] = depth > budget(0) ? outOfBudget : depth;
+                row[from - 1] = from == 1 ? row[0] : outOfBudget;
+                int rowMinimum = row[from - 1];
+                for (int j = from; j <= to; j++) {
+                    int substitution = previous[j - 1] + (query.charAt(j - 1) == c ? 0 : 1);
+                    int distance = Math.min(substitution, Math.min(previous[j], row[j - 1]) + 1);
+                    if (distance > budget(j)) {
+                        distance = outOfBudget;
+                    }
+                    row[j] = distance;
+                    rowMinimum = Math.min(rowMinimum, distance);
+                }
+                if (to < n) {
+                    row[to + 1] = outOfBudget;
+                }
+                if (rowMinimum > maxDistance) {
+                    continue;
+                }
+                Node child = node.children[i];
+                if (to == n) {
+                    report(child, row[n]);
+                }
+                if (depth + 1 < rows.length) {
+                    walk(child, depth + 1);
+                }
+            }
+        }
+
+        private int budget(int column) {
+            return column <= split ? splitBudget : maxDistance;
+        }
+
+        private void report(Node node, int distance) {
+            if (node.word != null && distance <= maxDistance) {
+                found.merge(node.word, distance, Math::min);
+            }
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        // The word ending here as it was added; the backward trie spells it reversed
+        private String word;
+
+        private boolean insert(String path, String value) {
+            Node node = this;
+            for (int i = 0; i < path.length(); i++) {
+                node = node.childFor(path.charAt(i), true);
+            }
+            if (node.word != null) {
+                return false;
+            }
+            node.word = value;
+            return true;
+        }
+
+        private boolean delete(String path) {
+            Node node = this;
+            for (int i = 0; i < path.length() && node != null; i++) {
+                node = node.childFor(path.charAt(i), false);
+            }
+            if (node == null || node.word == null) {
+                return false;
+            }
+            node.word = null;
+            return true;
+        }
+
+        private Node childFor(char c, boolean create) {
+            int position = Arrays.binarySearch(keys, c);
+            if (position >= 0) {
+                return children[position];
+            }
+            if (!create) {
+                return null;
+            }
+            int insertAt = -position - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = new Node();
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[insertAt];
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.library.service;
+
+import com.example.library.domain.MediaItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service interface for search-as-you-type suggestions.
+ * Suggests titles and authors from the catalogue, most borrowed first.
+ */
+public interface AutocompleteService {
+    
+    /**
+     * Returns suggestions for partially typed search text.
+     * Matches the start of a title or author, or the start of any word in it.
+     * 
+     * @param prefix the text typed so far
+     * @param limit maximum number of suggestions
+     * @return suggested titles and authors, most borrowed first
+     */
+    List<String> suggest(String prefix, int limit);
+    
+    /**
+     * Adds a new item to the suggestions or applies changes to its title or author.
+     * 
+     * @param item the saved media item
+     */
+    void itemSaved(MediaItem item);
+    
+    /**
+     * Removes a deleted item from the suggestions.
+     * 
+     * @param itemId the ID of the deleted item
+     */
+    void itemRemoved(int itemId);
+    
+    /**
+     * Records a borrow so the item's title and author rank higher.
+     * 
+     * @param itemId the ID of the borrowed item
+     */
+    void itemBorrowed(int itemId);
+    
+    /**
+     * Returns an autocomplete service that never suggests anything.
+     * 
+     * @return a no-op autocomplete service
+     */
+    static AutocompleteService none() {
+        return new AutocompleteService() {
+            @Override
+            public List<String> suggest(String prefix, int limit) {
+                return new ArrayList<>();
+            }
+            
+            @Override
+            public void itemSaved(MediaItem item) {
+                // Nothing to index
+            }
+            
+            @Override
+            public void itemRemoved(int itemId) {
+                // Nothing to index
+            }
+            
+            @Override
+            public void itemBorrowed(int itemId) {
+                // Nothing to index
+            }
+        };
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.library.service;
+
+import com.example.library.domain.MediaItem;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.MediaItemRepository;
+import com.example.library.search.CompletionTrie;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the autocomplete service.
+ * Keeps titles and authors in an in-memory prefix trie weighted by how often each
+ * item has been borrowed. The trie is built once from the repositories and then
+ * updated incrementally as items are saved, removed and borrowed.
+ */
+public class AutocompleteServiceImpl implements AutocompleteService {
+    
+    private final CompletionTrie trie = new CompletionTrie();
+    private final Map<Integer, IndexedItem> indexedItems = new HashMap<>();
+    
+    /**
+     * Constructs the service and loads every item with its borrow count.
+     * 
+     * @param mediaItemRepository the repository for accessing media items
+     * @param loanRepository the repository for loan counts per item
+     */
+    public AutocompleteServiceImpl(MediaItemRepository mediaItemRepository, LoanRepository loanRepository) {
+        Map<Integer, Integer> borrowCounts = loanRepository.countLoansByItem();
+        try (Stream<MediaItem> items = mediaItemRepository.streamAll()) {
+            items.forEach(item -> index(item.getItemId(), item.getTitle(), item.getAuthor(),
+                    borrowCounts.getOrDefault(item.getItemId(), 0)));
+        }
+    }
+    
+    @Override
+    public List<String> suggest(String prefix, int limit) {
+        return trie.complete(prefix, limit);
+    }
+    
+    @Override
+    public synchronized void itemSaved(MediaItem item) {
+        if (item == null || item.getItemId() == null) {
+            return;
+        }
+        IndexedItem previous = indexedItems.get(item.getItemId());
+        int borrowCount = previous != null ? previous.borrowCount : 0;
+        unindex(previous);
+        index(item.getItemId(), item.getTitle(), item.getAuthor(), borrowCount);
+    }
+    
+    @Override
+    public synchronized void itemRemoved(int itemId) {
+        unindex(indexedItems.remove(itemId));
+    }
+    
+    @Override
+    public synchronized void itemBorrowed(int itemId) {
+        IndexedItem item = indexedItems.get(itemId);
+        if (item != null) {
+            item.borrowCount++;
+            trie.addWeight(item.title, 1);
+            trie.addWeight(item.author, 1);
+        }
+    }
+    
+    private synchronized void index(Integer itemId, String title, String author, int borrowCount) {
+        IndexedItem item = new IndexedItem(title, author, borrowCount);
+        indexedItems.put(itemId, item);
+        trie.add(title, borrowCount);
+        trie.add(author, borrowCount);
+    }
+    
+    private void unindex(IndexedItem item) {
+        if (item != null) {
+            trie.remove(item.title, item.borrowCount);
+            trie.remove(item.author, item.borrowCount);
+        }
+    }
+    
+    /**
+     * What was added to the trie for one item, so it can be taken out again.
+     */
+    private static final class IndexedItem {
+        private final String title;
+        private final String author;
+        private int borrowCount;
+        
+        private IndexedItem(String title, String author, int borrowCount) {
+            this.title = title;
+            this.author = author;
+            this.borrowCount = borrowCount;
+        }
+    }
+}
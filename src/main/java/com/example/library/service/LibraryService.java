@@ -1,7 +1,13 @@
 package com.example.library.service;
 
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanView;
 import com.example.library.domain.MediaItem;
+import com.example.library.repository.CatalogQuery;
+import com.example.library.repository.FacetedSearchResult;
+import com.example.library.repository.LoanQuery;
+import com.example.library.repository.LoanSearchResult;
+import com.example.library.repository.Page;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -22,13 +28,84 @@ public interface LibraryService {
     
     /**
      * Searches for media items by keyword.
-     * Searches across title, author, ISBN, and publisher fields.
+     * Searches across title, author, ISBN, publisher and type fields using
+     * full-text search, with the best matches first.
      * 
      * @param keyword the search keyword
      * @return list of matching media items
      */
     List<MediaItem> searchItems(String keyword);
     
+    /**
+     * Searches for media items by keyword with the given options.
+     * Fuzzy searches match titles and authors even when words are misspelled.
+     * 
+     * @param keyword the search keyword
+     * @param options exact or fuzzy matching
+     * @return list of matching media items, closest matches first
+     */
+    List<MediaItem> searchItems(String keyword, SearchOptions options);
+    
+    /**
+     * Searches the catalog and returns one page of hits with counts by type,
+     * availability and publication decade, for narrowing down the results.
+     * 
+     * @param query the search text, facet filters and page
+     * @return the page of hits with the facet counts
+     * @throws BusinessException if the query is null or its page is invalid
+     */
+    FacetedSearchResult searchCatalog(CatalogQuery query);
+    
+    /**
+     * Lists the catalog one page at a time in item ID order, optionally keeping
+     * only items of one type or items whose title, author, ISBN or type
+     * contains a keyword.
+     * 
+     * @param keyword the keyword to match; null or blank for every item
+     * @param type the item type to keep, e.g. "BOOK"; null for any type
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most items to return
+     * @return the page of items
+     * @throws BusinessException if the page size is invalid, or both a keyword and a type are given
+     */
+    Page<MediaItem> browseItems(String keyword, String type, Integer afterId, int limit);
+    
+    /**
+     * Lists the items with a copy on the shelf one page at a time in item ID order.
+     * 
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most items to return
+     * @return the page of available items
+     * @throws BusinessException if the page size is invalid
+     */
+    Page<MediaItem> browseAvailableItems(Integer afterId, int limit);
+    
+    /**
+     * Suggests titles and authors for partially typed search text.
+     * 
+     * @param prefix the text typed so far
+     * @param limit maximum number of suggestions
+     * @return suggestions, most borrowed first
+     */
+    List<String> suggestSearchTerms(String prefix, int limit);
+    
+    /**
+     * Saves changes to an existing media item.
+     * 
+     * @param item the media item to update
+     * @return the updated media item
+     * @throws BusinessException if item is null
+     */
+    MediaItem updateMediaItem(MediaItem item);
+    
+    /**
+     * Deletes a media item from the catalog.
+     * 
+     * @param itemId the ID of the item to delete
+     * @return true if the item was deleted
+     */
+    boolean deleteMediaItem(int itemId);
+    
     /**
      * Processes a borrowing request for a user.
      * Validates user eligibility, item availability, and creates a loan record.
@@ -67,6 +144,39 @@ public interface LibraryService {
      */
     List<Loan> getUserLoans(int userId);
     
+    /**
+     * Retrieves a user's loans with the borrowed items' titles, types and late fees,
+     * and the fine accrued on each loan, read in a single query.
+     * 
+     * @param userId the ID of the user
+     * @param status the loan status to keep, e.g. "ACTIVE"; null for every loan
+     * @param today the date fines on unreturned loans are calculated to
+     * @return the user's loans in loan ID order; the accrued fine of an unreturned loan
+     *         is what returning it today would be charged, of a returned loan the fines issued
+     */
+    List<LoanView> getUserLoanViews(int userId, String status, LocalDate today);
+    
+    /**
+     * Lists loans one page at a time in loan ID order.
+     * 
+     * @param status the loan status to keep, e.g. "ACTIVE"; null for every loan
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most loans to return
+     * @return the page of loans
+     * @throws BusinessException if the page size is invalid
+     */
+    Page<Loan> getLoans(String status, Integer afterId, int limit);
+    
+    /**
+     * Lists loans matching the query's status, user, item and loan date filters,
+     * sorted in the database, one query per page.
+     * 
+     * @param query the filters, sort order and page
+     * @return the page of loans
+     * @throws BusinessException if the query is null, its page is invalid or its date range is reversed
+     */
+    LoanSearchResult searchLoans(LoanQuery query);
+    
     /**
      * Checks if a user is eligible to borrow items.
      * User must have no overdue loans and no unpaid fines.
@@ -2,17 +2,25 @@ package com.example.library.service;
 
 import com.example.library.domain.Fine;
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanView;
 import com.example.library.domain.MediaItem;
 import com.example.library.domain.User;
+import com.example.library.repository.CatalogQuery;
+import com.example.library.repository.FacetedSearchResult;
 import com.example.library.repository.FineRepository;
+import com.example.library.repository.LoanQuery;
 import com.example.library.repository.LoanRepository;
+import com.example.library.repository.LoanSearchResult;
 import com.example.library.repository.MediaItemRepository;
+import com.example.library.repository.Page;
+import com.example.library.repository.TransactionManager;
 import com.example.library.repository.UserRepository;
 import com.example.library.service.fine.FineCalculator;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,9 +35,12 @@ public class LibraryServiceImpl implements LibraryService {
     private final LoanRepository loanRepository;
     private final FineRepository fineRepository;
     private final FineCalculator fineCalculator;
+    private final TransactionManager transactionManager;
+    private final AutocompleteService autocompleteService;
     
     /**
      * Constructs a new library service with the specified repositories and fine calculator.
+     * Each repository call runs in its own auto-commit transaction.
      * 
      * @param userRepository the repository for user data
      * @param mediaItemRepository the repository for media item data
@@ -42,11 +53,57 @@ public class LibraryServiceImpl implements LibraryService {
                               LoanRepository loanRepository,
                               FineRepository fineRepository,
                               FineCalculator fineCalculator) {
+        this(userRepository, mediaItemRepository, loanRepository, fineRepository,
+                fineCalculator, TransactionManager.direct());
+    }
+    
+    /**
+     * Constructs a new library service whose borrow and return operations
+     * each run as a single transaction.
+     * 
+     * @param userRepository the repository for user data
+     * @param mediaItemRepository the repository for media item data
+     * @param loanRepository the repository for loan data
+     * @param fineRepository the repository for fine data
+     * @param fineCalculator the calculator for fine amounts using Strategy pattern
+     * @param transactionManager the transaction manager the repositories share
+     */
+    public LibraryServiceImpl(UserRepository userRepository,
+                              MediaItemRepository mediaItemRepository,
+                              LoanRepository loanRepository,
+                              FineRepository fineRepository,
+                              FineCalculator fineCalculator,
+                              TransactionManager transactionManager) {
+        this(userRepository, mediaItemRepository, loanRepository, fineRepository,
+                fineCalculator, transactionManager, AutocompleteService.none());
+    }
+    
+    /**
+     * Constructs a new library service that also keeps search suggestions up to
+     * date as items are added, edited, deleted and borrowed.
+     * 
+     * @param userRepository the repository for user data
+     * @param mediaItemRepository the repository for media item data
+     * @param loanRepository the repository for loan data
+     * @param fineRepository the repository for fine data
+     * @param fineCalculator the calculator for fine amounts using Strategy pattern
+     * @param transactionManager the transaction manager the repositories share
+     * @param autocompleteService the service providing search suggestions
+     */
+    public LibraryServiceImpl(UserRepository userRepository,
+                              MediaItemRepository mediaItemRepository,
+                              LoanRepository loanRepository,
+                              FineRepository fineRepository,
+                              FineCalculator fineCalculator,
+                              TransactionManager transactionManager,
+                              AutocompleteService autocompleteService) {
         this.userRepository = userRepository;
         this.mediaItemRepository = mediaItemRepository;
         this.loanRepository = loanRepository;
         this.fineRepository = fineRepository;
         this.fineCalculator = fineCalculator;
+        this.transactionManager = transactionManager;
+        this.autocompleteService = autocompleteService;
     }
     
     /**
@@ -60,7 +117,9 @@ public class LibraryServiceImpl implements LibraryService {
         if (item == null) {
             throw new BusinessException("Media item cannot be null");
         }
-        return mediaItemRepository.save(item);
+        MediaItem saved = mediaItemRepository.save(item);
+        autocompleteService.itemSaved(saved);
+        return saved;
     }
     
     /**
@@ -72,15 +131,139 @@ public class LibraryServiceImpl implements LibraryService {
      */
     @Override
     public List<MediaItem> searchItems(String keyword) {
+        return searchItems(keyword, SearchOptions.exact());
+    }
+    
+    /**
+     * Searches for media items by keyword with the given options.
+     * An empty keyword lists every item; fuzzy searches go to the repository's
+     * typo-tolerant search. Without the in-memory index or fuzzystrmatch, the
+     * database treats {@code maxEdits} as a similarity heuristic rather than an
+     * edit bound; see {@link SearchOptions}.
+     * 
+     * @param keyword the search keyword
+     * @param options exact or fuzzy matching
+     * @return list of matching media items
+     */
+    @Override
+    public List<MediaItem> searchItems(String keyword, SearchOptions options) {
         if (keyword == null || keyword.trim().isEmpty()) {
             return mediaItemRepository.findAll();
         }
-        return mediaItemRepository.search(keyword);
+        if (options != null && options.isFuzzy()) {
+            return mediaItemRepository.fuzzySearch(keyword, options.getMaxEdits());
+        }
+        return mediaItemRepository.fullTextSearch(keyword);
+    }
+    
+    /**
+     * Searches the catalog and returns one page of hits with facet counts.
+     * 
+     * @param query the search text, facet filters and page
+     * @return the page of hits with the facet counts
+     * @throws BusinessException if the query is null or its page is invalid
+     */
+    @Override
+    public FacetedSearchResult searchCatalog(CatalogQuery query) {
+        if (query == null) {
+            throw new BusinessException("Search query cannot be null");
+        }
+        if (query.getOffset() < 0 || query.getLimit() <= 0) {
+            throw new BusinessException("Invalid page: offset " + query.getOffset() + ", limit " + query.getLimit());
+        }
+        return mediaItemRepository.facetedSearch(query);
+    }
+    
+    /**
+     * Lists the catalog one page at a time in item ID order.
+     * Each page is a single indexed range read, however far into the catalog it is.
+     * 
+     * @param keyword the keyword to match; null or blank for every item
+     * @param type the item type to keep; null for any type
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most items to return
+     * @return the page of items
+     * @throws BusinessException if the page size is invalid, or both a keyword and a type are given
+     */
+    @Override
+    public Page<MediaItem> browseItems(String keyword, String type, Integer afterId, int limit) {
+        PageLimits.check(limit);
+        boolean hasKeyword = keyword != null && !keyword.trim().isEmpty();
+        if (hasKeyword && type != null) {
+            throw new BusinessException("Cannot filter by keyword and type together; use searchCatalog");
+        }
+        if (hasKeyword) {
+            return mediaItemRepository.search(keyword.trim(), afterId, limit);
+        }
+        if (type != null) {
+            return mediaItemRepository.findByType(type, afterId, limit);
+        }
+        return mediaItemRepository.findAll(afterId, limit);
+    }
+    
+    /**
+     * Lists the items with a copy on the shelf one page at a time in item ID order.
+     * 
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most items to return
+     * @return the page of available items
+     * @throws BusinessException if the page size is invalid
+     */
+    @Override
+    public Page<MediaItem> browseAvailableItems(Integer afterId, int limit) {
+        PageLimits.check(limit);
+        return mediaItemRepository.findAvailableItems(afterId, limit);
+    }
+    
+    /**
+     * Suggests titles and authors for partially typed search text.
+     * Answered from memory by the autocomplete service.
+     * 
+     * @param prefix the text typed so far
+     * @param limit maximum number of suggestions
+     * @return suggestions, most borrowed first
+     */
+    @Override
+    public List<String> suggestSearchTerms(String prefix, int limit) {
+        return autocompleteService.suggest(prefix, limit);
+    }
+    
+    /**
+     * Saves changes to an existing media item and refreshes its search suggestions.
+     * 
+     * @param item the media item to update
+     * @return the updated media item
+     * @throws BusinessException if item is null
+     */
+    @Override
+    public MediaItem updateMediaItem(MediaItem item) {
+        if (item == null) {
+            throw new BusinessException("Media item cannot be null");
+        }
+        MediaItem updated = mediaItemRepository.update(item);
+        autocompleteService.itemSaved(updated);
+        return updated;
+    }
+    
+    /**
+     * Deletes a media item and drops it from the search suggestions.
+     * 
+     * @param itemId the ID of the item to delete
+     * @return true if the item was deleted
+     */
+    @Override
+    public boolean deleteMediaItem(int itemId) {
+        boolean deleted = mediaItemRepository.deleteById(itemId);
+        if (deleted) {
+            autocompleteService.itemRemoved(itemId);
+        }
+        return deleted;
     }
     
     /**
      * Processes a borrowing request for a user.
-     * Validates eligibility, creates loan, and updates available copies.
+     * Validates eligibility, claims a copy with an atomic decrement, and creates the loan
+     * in one transaction, so a failure leaves neither change behind.
      * 
      * @param userId the ID of the user borrowing the item
      * @param itemId the ID of the media item to borrow
@@ -90,22 +273,26 @@ public class LibraryServiceImpl implements LibraryService {
      */
     @Override
     public Loan borrowItem(int userId, int itemId, LocalDate today) {
+        Loan loan = transactionManager.execute(() -> doBorrowItem(userId, itemId, today));
+        autocompleteService.itemBorrowed(itemId);
+        return loan;
+    }
+    
+    private Loan doBorrowItem(int userId, int itemId, LocalDate today) {
         // Validate user exists
         Optional<User> userOptional = userRepository.findById(userId);
         if (!userOptional.isPresent()) {
             throw new BusinessException("User not found with ID: " + userId);
         }
         
-        // Validate media item exists and has available copies
+        // Validate media item exists; its copy count may come from a cache and be
+        // stale, so availability is left to the conditional update below
         Optional<MediaItem> itemOptional = mediaItemRepository.findById(itemId);
         if (!itemOptional.isPresent()) {
             throw new BusinessException("Media item not found with ID: " + itemId);
         }
         
         MediaItem item = itemOptional.get();
-        if (item.getAvailableCopies() <= 0) {
-            throw new BusinessException("No available copies of: " + item.getTitle());
-        }
         
         // Check user eligibility
         if (!canUserBorrow(userId, today)) {
@@ -125,6 +312,12 @@ public class LibraryServiceImpl implements LibraryService {
             dueDate = today.plusDays(14);
         }
         
+        // Claim a copy with a single conditional update, which alone decides
+        // availability against the current row
+        if (!mediaItemRepository.tryDecrementAvailable(itemId).isPresent()) {
+            throw new BusinessException("No available copies of: " + item.getTitle());
+        }
+        
         // Create and save loan
         Loan loan = new Loan();
         loan.setUserId(userId);
@@ -134,18 +327,13 @@ public class LibraryServiceImpl implements LibraryService {
         loan.setReturnDate(null);
         loan.setStatus("ACTIVE");
         
-        Loan savedLoan = loanRepository.save(loan);
-        
-        // Decrement available copies
-        int newAvailableCopies = item.getAvailableCopies() - 1;
-        mediaItemRepository.updateAvailableCopies(itemId, newAvailableCopies);
-        
-        return savedLoan;
+        return loanRepository.save(loan);
     }
     
     /**
      * Processes the return of a borrowed item.
-     * Updates loan status, increments available copies, and calculates fines if overdue.
+     * Updates loan status, increments available copies, and calculates fines if overdue,
+     * all in one transaction.
      * Uses Strategy pattern for fine calculation based on media type.
      * 
      * @param loanId the ID of the loan to return
@@ -154,23 +342,24 @@ public class LibraryServiceImpl implements LibraryService {
      */
     @Override
     public void returnItem(int loanId, LocalDate returnDate) {
-        // 1) Load the loan by id
-        Optional<Loan> loanOptional = loanRepository.findById(loanId);
-        if (!loanOptional.isPresent()) {
-            throw new BusinessException("Loan not found with ID: " + loanId);
-        }
-        
-        Loan loan = loanOptional.get();
-        
-        // 2) Check if already returned
-        if (loan.getReturnDate() != null || "RETURNED".equalsIgnoreCase(loan.getStatus())) {
+        transactionManager.execute(() -> doReturnItem(loanId, returnDate));
+    }
+    
+    private void doReturnItem(int loanId, LocalDate returnDate) {
+        // 1) Close the loan with a conditional update; only one of two racing
+        // returns can match the still-open row
+        Optional<Loan> returned = loanRepository.markReturned(loanId, returnDate);
+        if (!returned.isPresent()) {
+            // 2) Nothing updated: tell a missing loan apart from one already returned
+            if (!loanRepository.findById(loanId).isPresent()) {
+                throw new BusinessException("Loan not found with ID: " + loanId);
+            }
             throw new BusinessException("Loan has already been returned");
         }
         
-        // 3) Set returnDate and status "RETURNED" and update the loan
-        loanRepository.updateStatus(loanId, "RETURNED", returnDate);
+        Loan loan = returned.get();
         
-        // 4) Load the related MediaItem by itemId
+        // 3) Load the related MediaItem by itemId
         Optional<MediaItem> itemOptional = mediaItemRepository.findById(loan.getItemId());
         if (!itemOptional.isPresent()) {
             throw new BusinessException("Media item not found with ID: " + loan.getItemId());
@@ -178,11 +367,11 @@ public class LibraryServiceImpl implements LibraryService {
         
         MediaItem item = itemOptional.get();
         
-        // 5) Increment availableCopies and update the media item
-        int newAvailableCopies = item.getAvailableCopies() + 1;
-        mediaItemRepository.updateAvailableCopies(loan.getItemId(), newAvailableCopies);
+        // 4) Put the copy back atomically; an item already showing all copies
+        // in stock is left as is rather than failing the return
+        mediaItemRepository.incrementAvailable(loan.getItemId());
         
-        // 6) Check if the item is overdue and calculate fine using Strategy pattern
+        // 5) Check if the item is overdue and calculate fine using Strategy pattern
         // STRATEGY PATTERN IMPLEMENTATION: Fine calculation based on media type
         // - BookFineStrategy: 10 NIS per day
         // - CDFineStrategy: 20 NIS per day
@@ -231,6 +420,73 @@ public class LibraryServiceImpl implements LibraryService {
         return loanRepository.findByUserId(userId);
     }
     
+    /**
+     * Retrieves a user's loans with item details and accrued fines from one joined query.
+     * Fines on unreturned loans are calculated the same way returning them would.
+     * 
+     * @param userId the ID of the user
+     * @param status the loan status to keep; null for every loan
+     * @param today the date fines on unreturned loans are calculated to
+     * @return the user's loan views in loan ID order
+     */
+    @Override
+    public List<LoanView> getUserLoanViews(int userId, String status, LocalDate today) {
+        List<LoanView> views = loanRepository.findViewsByUserId(userId, status, today);
+        List<LoanView> result = new ArrayList<>(views.size());
+        for (LoanView view : views) {
+            if (view.getLoan().getReturnDate() == null && view.getOverdueDays() > 0) {
+                try {
+                    view = view.withAccruedFine(fineCalculator.calculateFine(view.getItemType(), view.getOverdueDays()));
+                } catch (IllegalArgumentException e) {
+                    // No fine strategy for this media type; list the loan without an estimate
+                }
+            }
+            result.add(view);
+        }
+        return result;
+    }
+    
+    /**
+     * Lists loans one page at a time in loan ID order.
+     * 
+     * @param status the loan status to keep; null for every loan
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most loans to return
+     * @return the page of loans
+     * @throws BusinessException if the page size is invalid
+     */
+    @Override
+    public Page<Loan> getLoans(String status, Integer afterId, int limit) {
+        PageLimits.check(limit);
+        return status == null
+                ? loanRepository.findAll(afterId, limit)
+                : loanRepository.findByStatus(status, afterId, limit);
+    }
+    
+    /**
+     * Lists loans matching the query's filters in its sort order, one query per page.
+     * 
+     * @param query the filters, sort order and page
+     * @return the page of loans
+     * @throws BusinessException if the query is null, its page is invalid or its date range is reversed
+     */
+    @Override
+    public LoanSearchResult searchLoans(LoanQuery query) {
+        if (query == null) {
+            throw new BusinessException("Loan query cannot be null");
+        }
+        if (query.getOffset() < 0) {
+            throw new BusinessException("Invalid page: offset " + query.getOffset());
+        }
+        PageLimits.check(query.getLimit());
+        if (query.getLoanedFrom() != null && query.getLoanedTo() != null
+                && query.getLoanedFrom().isAfter(query.getLoanedTo())) {
+            throw new BusinessException("Loan date range starts after it ends: "
+                    + query.getLoanedFrom() + " to " + query.getLoanedTo());
+        }
+        return loanRepository.search(query);
+    }
+    
     /**
      * Checks if a user is eligible to borrow items.
      * User must have no overdue loans and no unpaid fines.
@@ -241,21 +497,7 @@ public class LibraryServiceImpl implements LibraryService {
      */
     @Override
     public boolean canUserBorrow(int userId, LocalDate today) {
-        // Check for overdue loans
-        List<Loan> overdueLoans = loanRepository.findOverdueLoans(today);
-        boolean hasOverdueLoans = overdueLoans.stream()
-                .anyMatch(loan -> loan.getUserId().equals(userId));
-        
-        if (hasOverdueLoans) {
-            return false;
-        }
-        
-        // Check for unpaid fines
-        BigDecimal totalUnpaidFines = fineRepository.calculateTotalUnpaidByUserId(userId);
-        if (totalUnpaidFines.compareTo(BigDecimal.ZERO) > 0) {
-            return false;
-        }
-        
-        return true;
+        // Overdue loans and unpaid fines are checked for this user only, in one query
+        return !loanRepository.hasOverdueLoansOrUnpaidFines(userId, today);
     }
 }
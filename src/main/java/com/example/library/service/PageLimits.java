@@ -0,0 +1,26 @@
+package com.example.library.service;
+
+/**
+ * Bounds on the page size of paged service queries, so that no single call
+ * reads more than a page's worth of rows whatever the caller asks for.
+ */
+final class PageLimits {
+
+    /**
+     * The largest page a caller may ask for.
+     */
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private PageLimits() {
+    }
+
+    /**
+     * @param limit the page size asked for
+     * @throws BusinessException if the size is not between 1 and {@link #MAX_PAGE_SIZE}
+     */
+    static void check(int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new BusinessException("Invalid page size: " + limit + ", must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.library.service;
 
 import com.example.library.domain.Fine;
+import com.example.library.repository.FineQuery;
+import com.example.library.repository.FineSearchResult;
+import com.example.library.repository.Page;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -19,6 +22,28 @@ public interface PaymentService {
      */
     List<Fine> getUnpaidFines(int userId);
     
+    /**
+     * Lists fines one page at a time in fine ID order.
+     * 
+     * @param status the fine status to keep, e.g. "UNPAID"; null for every fine
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most fines to return
+     * @return the page of fines
+     * @throws BusinessException if the page size is invalid
+     */
+    Page<Fine> getFines(String status, Integer afterId, int limit);
+    
+    /**
+     * Lists fines matching the query's user, status and issue date filters, newest
+     * first, with the count and sum of the matching fines per status. The page and
+     * the totals are read in a single query.
+     * 
+     * @param query the filters and page
+     * @return the page of fines with totals across all pages
+     * @throws BusinessException if the query is null, its page is invalid or its date range is reversed
+     */
+    FineSearchResult searchFines(FineQuery query);
+    
     /**
      * Calculates the total amount of unpaid fines for a user.
      * 
@@ -1,7 +1,10 @@
 package com.example.library.service;
 
 import com.example.library.domain.Fine;
+import com.example.library.repository.FineQuery;
 import com.example.library.repository.FineRepository;
+import com.example.library.repository.FineSearchResult;
+import com.example.library.repository.Page;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -37,6 +40,47 @@ public class PaymentServiceImpl implements PaymentService {
         return fineRepository.findUnpaidByUserId(userId);
     }
     
+    /**
+     * Lists fines one page at a time in fine ID order.
+     * 
+     * @param status the fine status to keep; null for every fine
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most fines to return
+     * @return the page of fines
+     * @throws BusinessException if the page size is invalid
+     */
+    @Override
+    public Page<Fine> getFines(String status, Integer afterId, int limit) {
+        PageLimits.check(limit);
+        return status == null
+                ? fineRepository.findAll(afterId, limit)
+                : fineRepository.findByStatus(status, afterId, limit);
+    }
+    
+    /**
+     * Lists fines matching the query's filters with per-status totals, in one query.
+     * 
+     * @param query the filters and page
+     * @return the page of fines with totals across all pages
+     * @throws BusinessException if the query is null, its page is invalid or its date range is reversed
+     */
+    @Override
+    public FineSearchResult searchFines(FineQuery query) {
+        if (query == null) {
+            throw new BusinessException("Fine query cannot be null");
+        }
+        if (query.getOffset() < 0) {
+            throw new BusinessException("Invalid page: offset " + query.getOffset());
+        }
+        PageLimits.check(query.getLimit());
+        if (query.getIssuedFrom() != null && query.getIssuedTo() != null
+                && query.getIssuedFrom().isAfter(query.getIssuedTo())) {
+            throw new BusinessException("Issue date range starts after it ends: "
+                    + query.getIssuedFrom() + " to " + query.getIssuedTo());
+        }
+        return fineRepository.search(query);
+    }
+    
     /**
      * Calculates the total amount of unpaid fines for a user.
      * Delegates to the repository for sum calculation.
@@ -7,10 +7,9 @@ import com.example.library.repository.LoanRepository;
 import com.example.library.repository.UserRepository;
 
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for sending reminder notifications to users.
@@ -45,26 +44,25 @@ public class ReminderService {
      * @param today the current date to check against loan due dates
      */
     public void sendOverdueReminders(LocalDate today) {
-        // Load all overdue loans
-        List<Loan> overdueLoans = loanRepository.findOverdueLoans(today);
+        // Count overdue loans per user while streaming them, so only the counts are held
+        Map<Integer, Long> overdueLoansByUser;
+        try (Stream<Loan> overdueLoans = loanRepository.streamOverdue(today)) {
+            overdueLoansByUser = overdueLoans.collect(Collectors.groupingBy(
+                    Loan::getUserId,
+                    Collectors.counting()
+            ));
+        }
         
-        if (overdueLoans.isEmpty()) {
+        if (overdueLoansByUser.isEmpty()) {
             return; // No overdue loans, nothing to do
         }
         
-        // Group loans by userId and count them
-        Map<Integer, Long> overdueLoansByUser = overdueLoans.stream()
-                .collect(Collectors.groupingBy(
-                        Loan::getUserId,
-                        Collectors.counting()
-                ));
-        
-        // Send notification to each user with overdue loans
+        // Load the users in one query and send a notification to each
+        Map<Integer, User> users = userRepository.findAllByIds(overdueLoansByUser.keySet());
         overdueLoansByUser.forEach((userId, count) -> {
-            Optional<User> userOptional = userRepository.findById(userId);
+            User user = users.get(userId);
             
-            if (userOptional.isPresent()) {
-                User user = userOptional.get();
+            if (user != null) {
                 String message = buildOverdueMessage(count);
                 notifier.notify(user, message);
             }
@@ -1,6 +1,7 @@
 package com.example.library.service;
 
 import com.example.library.domain.Reservation;
+import com.example.library.repository.Page;
 import java.util.List;
 
 /**
@@ -45,6 +46,16 @@ public interface ReservationService {
      */
     List<Reservation> getUserReservations(int userId);
     
+    /**
+     * Lists all reservations one page at a time in reservation ID order.
+     * 
+     * @param afterId the next cursor of the previous page; null for the first page
+     * @param limit the most reservations to return
+     * @return the page of reservations
+     * @throws BusinessException if the page size is invalid
+     */
+    Page<Reservation> getReservations(Integer afterId, int limit);
+    
     /**
      * Gets active reservations for a specific user.
      * 
@@ -5,6 +5,7 @@ import com.example.library.domain.Reservation;
 import com.example.library.domain.ReservationStatus;
 import com.example.library.domain.User;
 import com.example.library.repository.MediaItemRepository;
+import com.example.library.repository.Page;
 import com.example.library.repository.ReservationRepository;
 import com.example.library.repository.UserRepository;
 
@@ -117,6 +118,12 @@ public class ReservationServiceImpl implements ReservationService {
         return reservationRepository.findByUserId(userId);
     }
     
+    @Override
+    public Page<Reservation> getReservations(Integer afterId, int limit) {
+        PageLimits.check(limit);
+        return reservationRepository.findAll(afterId, limit);
+    }
+    
     @Override
     public List<Reservation> getActiveUserReservations(int userId) {
         return reservationRepository.findActiveByUserId(userId);
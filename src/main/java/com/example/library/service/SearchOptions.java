@@ -0,0 +1,64 @@
+package com.example.library.service;
+
+/**
+ * Options for catalog searches.
+ * Searches are exact by default: every word must match the start of a word in
+ * the item. Fuzzy searches also accept words misspelled by one or two edits.
+ * The edit budget is exact with the in-memory search index
+ * ({@code search.inMemoryIndex}) or with PostgreSQL's fuzzystrmatch extension.
+ * With neither, the database search only has pg_trgm, and the budget becomes a
+ * trigram similarity threshold: a heuristic that can admit words a few more
+ * edits away.
+ */
+public final class SearchOptions {
+
+    /**
+     * The largest edit distance a fuzzy search accepts.
+     */
+    public static final int MAX_EDITS = 2;
+
+    private static final SearchOptions EXACT = new SearchOptions(0);
+
+    private final int maxEdits;
+
+    private SearchOptions(int maxEdits) {
+        this.maxEdits = maxEdits;
+    }
+
+    /**
+     * Returns the options for an exact search.
+     *
+     * @return exact search options
+     */
+    public static SearchOptions exact() {
+        return EXACT;
+    }
+
+    /**
+     * Returns the options for a typo-tolerant search.
+     *
+     * @param maxEdits the most insertions, deletions or substitutions allowed per word
+     * @return fuzzy search options
+     * @throws BusinessException if maxEdits is not between 1 and {@link #MAX_EDITS}
+     */
+    public static SearchOptions fuzzy(int maxEdits) {
+        if (maxEdits < 1 || maxEdits > MAX_EDITS) {
+            throw new BusinessException("Fuzzy search allows 1 to " + MAX_EDITS + " edits per word");
+        }
+        return new SearchOptions(maxEdits);
+    }
+
+    /**
+     * @return whether misspelled words are accepted
+     */
+    public boolean isFuzzy() {
+        return maxEdits > 0;
+    }
+
+    /**
+     * @return the most edits allowed per word; 0 for exact searches
+     */
+    public int getMaxEdits() {
+        return maxEdits;
+    }
+}
@@ -1,8 +1,16 @@
 package com.example.library.ui;
 
+import com.example.library.domain.Fine;
+import com.example.library.domain.FineStatus;
+import com.example.library.domain.FineView;
 import com.example.library.domain.Loan;
 import com.example.library.domain.MediaItem;
 import com.example.library.domain.User;
+import com.example.library.repository.CatalogQuery;
+import com.example.library.repository.FacetedSearchResult;
+import com.example.library.repository.FineQuery;
+import com.example.library.repository.FineSearchResult;
+import com.example.library.repository.LoanQuery;
 import com.example.library.service.*;
 
 import javax.swing.*;
@@ -14,7 +22,8 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * Admin interface for the Library Management System.
@@ -35,6 +44,7 @@ public class AdminFrame extends JFrame {
     private static final String PUBLISHER_TEXT = "Publisher";
     private static final String SUCCESS_TEXT = "Success";
     private static final String SEARCH_TEXT = "Search";
+    private static final int SUGGESTION_LIMIT = 8;
     private static final String SHOW_ALL_TEXT = "Show All";
     private static final String PLEASE_SELECT_ITEM = "Please select an item first";
     private static final String ISBN_LABEL = "ISBN:";
@@ -50,7 +60,11 @@ public class AdminFrame extends JFrame {
     private final transient com.example.library.repository.FineRepository fineRepository;
     private final transient com.example.library.repository.LoanRepository loanRepository;
     
+    private final transient UiTaskExecutor tasks = new UiTaskExecutor(this);
     private JTabbedPane tabbedPane;
+    private FacetBar catalogFacets;
+    private LoanFilterBar loanFilters;
+    private FineFilterBar fineFilters;
     
     public AdminFrame(User currentUser, AuthService authService, LibraryService libraryService, PaymentService paymentService, com.example.library.repository.UserRepository userRepository, com.example.library.repository.MediaItemRepository mediaItemRepository, com.example.library.repository.FineRepository fineRepository, com.example.library.repository.LoanRepository loanRepository) {
         this.currentUser = currentUser;
@@ -98,6 +112,9 @@ public class AdminFrame extends JFrame {
         headerPanel.add(logoutButton, BorderLayout.EAST);
         
         add(headerPanel, BorderLayout.NORTH);
+        
+        // Shows the service calls running in the background
+        add(tasks.getStatusBar(), BorderLayout.SOUTH);
     }
     
     private JPanel createAddMediaItemPanel() {
@@ -140,7 +157,7 @@ public class AdminFrame extends JFrame {
         JButton clearButton = new JButton("Clear");
         
         saveButton.addActionListener(e -> {
-            saveMediaItem(titleField, authorField, typeCombo, isbnField, publisherField,
+            saveMediaItem(saveButton, titleField, authorField, typeCombo, isbnField, publisherField,
                     publicationDateField, totalCopiesField, lateFeesField);
         });
         
@@ -164,7 +181,7 @@ public class AdminFrame extends JFrame {
     
 
     
-    private void saveMediaItem(JTextField titleField, JTextField authorField, JComboBox<String> typeCombo,
+    private void saveMediaItem(JButton saveButton, JTextField titleField, JTextField authorField, JComboBox<String> typeCombo,
                                 JTextField isbnField, JTextField publisherField, JTextField publicationDateField,
                                 JTextField totalCopiesField, JTextField lateFeesField) {
         try {
@@ -225,28 +242,29 @@ public class AdminFrame extends JFrame {
             item.setLateFeesPerDay(lateFees);
             
             // Save to database
-            MediaItem saved = libraryService.addMediaItem(item);
-            
-            JOptionPane.showMessageDialog(this,
-                    "Media item added successfully!\nItem ID: " + saved.getItemId(),
-                    SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
-            
-            // Clear form
-            titleField.setText("");
-            authorField.setText("");
-            typeCombo.setSelectedIndex(0);
-            isbnField.setText("");
-            publisherField.setText("");
-            publicationDateField.setText("");
-            totalCopiesField.setText("");
-            lateFeesField.setText("");
+            tasks.submit(saveButton, "Saving media item...",
+                    () -> libraryService.addMediaItem(item),
+                    saved -> {
+                        JOptionPane.showMessageDialog(this,
+                                "Media item added successfully!\nItem ID: " + saved.getItemId(),
+                                SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
+                        
+                        // Clear form
+                        titleField.setText("");
+                        authorField.setText("");
+                        typeCombo.setSelectedIndex(0);
+                        isbnField.setText("");
+                        publisherField.setText("");
+                        publicationDateField.setText("");
+                        totalCopiesField.setText("");
+                        lateFeesField.setText("");
+                    },
+                    ex -> JOptionPane.showMessageDialog(this, "Error adding media item: " + ex.getMessage(),
+                            ERROR_TITLE, JOptionPane.ERROR_MESSAGE));
             
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this, "Invalid number format: " + ex.getMessage(),
                     VALIDATION_ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error adding media item: " + ex.getMessage(),
-                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
         }
     }
     
@@ -259,16 +277,24 @@ public class AdminFrame extends JFrame {
         searchPanel.add(new JLabel("Search:"));
         JTextField searchField = new JTextField(30);
         searchPanel.add(searchField);
+        JCheckBox fuzzyCheckBox = new JCheckBox("Allow typos");
+        fuzzyCheckBox.setToolTipText("Also find titles and authors spelled slightly differently");
+        searchPanel.add(fuzzyCheckBox);
         JButton searchButton = new JButton(SEARCH_TEXT);
         searchPanel.add(searchButton);
         JButton showAllButton = new JButton(SHOW_ALL_TEXT);
         searchPanel.add(showAllButton);
         
-        panel.add(searchPanel, BorderLayout.NORTH);
-        
         // Table
         String[] columns = {"ID", "Title", "Author", "Type", ISBN_TEXT, PUBLISHER_TEXT, "Available/Total"};
         DefaultTableModel tableModel = UIHelper.createNonEditableTableModel(columns);
+        
+        // Facet filters and paging, refreshed with every search
+        catalogFacets = new FacetBar(() -> searchItems(tableModel, searchField.getText().trim(), fuzzyCheckBox.isSelected()));
+        JPanel northPanel = new JPanel(new GridLayout(2, 1));
+        northPanel.add(searchPanel);
+        northPanel.add(catalogFacets);
+        panel.add(northPanel, BorderLayout.NORTH);
         JTable table = new JTable(tableModel);
         JScrollPane scrollPane = new JScrollPane(table);
         panel.add(scrollPane, BorderLayout.CENTER);
@@ -288,7 +314,7 @@ public class AdminFrame extends JFrame {
         
         JButton deleteButton = new JButton("Delete Item");
         deleteButton.setPreferredSize(new Dimension(120, 30));
-        deleteButton.addActionListener(e -> deleteItem(table, tableModel));
+        deleteButton.addActionListener(e -> deleteItem(table, tableModel, deleteButton));
         buttonPanel.add(deleteButton);
         
         panel.add(buttonPanel, BorderLayout.SOUTH);
@@ -296,48 +322,70 @@ public class AdminFrame extends JFrame {
         // Search action
         searchButton.addActionListener(e -> {
             String keyword = searchField.getText().trim();
-            searchItems(tableModel, keyword);
+            catalogFacets.firstPage();
+            searchItems(tableModel, keyword, fuzzyCheckBox.isSelected());
         });
         
         // Show All action
         showAllButton.addActionListener(e -> {
             searchField.setText("");
-            searchItems(tableModel, "");
+            catalogFacets.reset();
+            searchItems(tableModel, "", false);
         });
         
         // Allow Enter key to trigger search
         searchField.addActionListener(e -> searchButton.doClick());
         
+        // Suggest titles and authors while typing
+        AutocompleteSupport.install(searchField,
+                prefix -> libraryService.suggestSearchTerms(prefix, SUGGESTION_LIMIT),
+                searchButton::doClick);
+        
         // Load all items initially
-        searchItems(tableModel, "");
+        searchItems(tableModel, "", false);
         
         return panel;
     }
     
-    private void searchItems(DefaultTableModel tableModel, String keyword) {
-        try {
-            List<MediaItem> items;
-            
-            // If keyword is a number, search by exact ID
-            if (keyword.trim().matches("\\d+")) {
-                try {
-                    int itemId = Integer.parseInt(keyword.trim());
-                    Optional<MediaItem> item = mediaItemRepository.findById(itemId);
-                    items = item.isPresent() ? java.util.Collections.singletonList(item.get()) : new ArrayList<>();
-                } catch (NumberFormatException e) {
-                    items = new ArrayList<>();
-                }
-            } else {
-                // Otherwise, search by keyword across title, author, ISBN, type
-                items = libraryService.searchItems(keyword);
+    private void searchItems(DefaultTableModel tableModel, String keyword, boolean fuzzy) {
+        Callable<CatalogPage> search;
+        
+        // If keyword is a number, search by exact ID
+        if (keyword.trim().matches("\\d+")) {
+            int itemId;
+            try {
+                itemId = Integer.parseInt(keyword.trim());
+            } catch (NumberFormatException e) {
+                itemId = -1;
             }
-            
-            UIHelper.populateItemsTable(tableModel, items);
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error searching items: " + ex.getMessage(),
-                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+            int id = itemId;
+            search = () -> new CatalogPage(mediaItemRepository.findById(id)
+                    .map(java.util.Collections::singletonList)
+                    .orElseGet(ArrayList::new), null);
+        } else if (fuzzy) {
+            search = () -> new CatalogPage(
+                    libraryService.searchItems(keyword, SearchOptions.fuzzy(SearchOptions.MAX_EDITS)), null);
+        } else {
+            // Otherwise, search by keyword across title, author, ISBN, type, counting
+            // the hits per facet in the same call
+            CatalogQuery query = catalogFacets.applyTo(CatalogQuery.of(keyword));
+            search = () -> {
+                FacetedSearchResult result = libraryService.searchCatalog(query);
+                return new CatalogPage(result.getItems(), result);
+            };
         }
+        
+        tasks.run("catalog", "Searching items...", search,
+                page -> {
+                    if (page.facets() != null) {
+                        catalogFacets.showResult(page.facets());
+                    } else {
+                        catalogFacets.showNoFacets();
+                    }
+                    UIHelper.populateItemsTable(tableModel, page.items());
+                },
+                ex -> JOptionPane.showMessageDialog(this, "Error searching items: " + ex.getMessage(),
+                        ERROR_TITLE, JOptionPane.ERROR_MESSAGE));
     }
     
     private void viewItemDetails(JTable table) {
@@ -348,10 +396,16 @@ public class AdminFrame extends JFrame {
             return;
         }
         
+        int itemId = (int) table.getValueAt(selectedRow, 0);
+        tasks.run("item-details", "Loading item...",
+                () -> mediaItemRepository.findById(itemId).orElse(null),
+                this::showItemDetails,
+                ex -> JOptionPane.showMessageDialog(this, "Error viewing item: " + ex.getMessage(),
+                        ERROR_TITLE, JOptionPane.ERROR_MESSAGE));
+    }
+    
+    private void showItemDetails(MediaItem item) {
         try {
-            int itemId = (int) table.getValueAt(selectedRow, 0);
-            MediaItem item = mediaItemRepository.findById(itemId).orElse(null);
-            
             if (item == null) {
                 JOptionPane.showMessageDialog(this, "Item not found",
                         ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
@@ -408,10 +462,16 @@ public class AdminFrame extends JFrame {
             return;
         }
         
+        int itemId = (int) table.getValueAt(selectedRow, 0);
+        tasks.run("item-details", "Loading item...",
+                () -> mediaItemRepository.findById(itemId).orElse(null),
+                item -> showEditDialog(item, tableModel),
+                ex -> JOptionPane.showMessageDialog(this, "Error editing item: " + ex.getMessage(),
+                        ERROR_TITLE, JOptionPane.ERROR_MESSAGE));
+    }
+    
+    private void showEditDialog(MediaItem item, DefaultTableModel tableModel) {
         try {
-            int itemId = (int) table.getValueAt(selectedRow, 0);
-            MediaItem item = mediaItemRepository.findById(itemId).orElse(null);
-            
             if (item == null) {
                 JOptionPane.showMessageDialog(this, "Item not found",
                         ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
@@ -490,14 +550,18 @@ public class AdminFrame extends JFrame {
                     item.setAvailableCopies(availableCopies);
                     item.setLateFeesPerDay(new BigDecimal(lateFeesField.getText().trim()));
                     
-                    mediaItemRepository.update(item);
-                    
-                    JOptionPane.showMessageDialog(dialog, "Item updated successfully!",
-                            SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
-                    
-                    // Refresh table
-                    searchItems(tableModel, "");
-                    dialog.dispose();
+                    tasks.submit(saveButton, "Saving item...",
+                            () -> libraryService.updateMediaItem(item),
+                            updated -> {
+                                JOptionPane.showMessageDialog(dialog, "Item updated successfully!",
+                                        SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
+                                
+                                // Refresh table
+                                searchItems(tableModel, "", false);
+                                dialog.dispose();
+                            },
+                            ex -> JOptionPane.showMessageDialog(dialog, "Error updating item: " + ex.getMessage(),
+                                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE));
                     
                 } catch (Exception ex) {
                     JOptionPane.showMessageDialog(dialog, "Error updating item: " + ex.getMessage(),
@@ -522,7 +586,7 @@ public class AdminFrame extends JFrame {
         }
     }
     
-    private void deleteItem(JTable table, DefaultTableModel tableModel) {
+    private void deleteItem(JTable table, DefaultTableModel tableModel, JButton deleteButton) {
         int selectedRow = table.getSelectedRow();
         if (selectedRow == -1) {
             JOptionPane.showMessageDialog(this, PLEASE_SELECT_ITEM,
@@ -539,13 +603,20 @@ public class AdminFrame extends JFrame {
                     "Confirm Delete", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
             
             if (confirm == JOptionPane.YES_OPTION) {
-                mediaItemRepository.deleteById(itemId);
-                
-                JOptionPane.showMessageDialog(this, "Item deleted successfully!",
-                        SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
-                
-                // Refresh table
-                searchItems(tableModel, "");
+                tasks.submit(deleteButton, "Deleting item...",
+                        () -> {
+                            libraryService.deleteMediaItem(itemId);
+                            return null;
+                        },
+                        ignored -> {
+                            JOptionPane.showMessageDialog(this, "Item deleted successfully!",
+                                    SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
+                            
+                            // Refresh table
+                            searchItems(tableModel, "", false);
+                        },
+                        ex -> JOptionPane.showMessageDialog(this, "Error deleting item: " + ex.getMessage(),
+                                ERROR_TITLE, JOptionPane.ERROR_MESSAGE));
             }
             
         } catch (Exception ex) {
@@ -581,52 +652,38 @@ public class AdminFrame extends JFrame {
     }
     
     private void loadOverdueLoans(DefaultTableModel tableModel) {
-        try {
-            LocalDate today = LocalDate.now();
-            List<Loan> overdueLoans = libraryService.getOverdueLoans(today);
-            
-            // Clear table
-            tableModel.setRowCount(0);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-            
-            // Add loans to table
-            for (Loan loan : overdueLoans) {
-                long daysOverdue = java.time.temporal.ChronoUnit.DAYS.between(loan.getDueDate(), today);
-                Object[] row = {
-                        loan.getLoanId(),
-                        loan.getUserId(),
-                        loan.getItemId(),
-                        loan.getLoanDate().format(formatter),
-                        loan.getDueDate().format(formatter),
-                        daysOverdue,
-                        loan.getStatus()
-                };
-                tableModel.addRow(row);
-            }
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading overdue loans: " + ex.getMessage(),
-                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-        }
+        LocalDate today = LocalDate.now();
+        tasks.run("overdue-loans", "Loading overdue loans...",
+                () -> libraryService.getOverdueLoans(today),
+                overdueLoans -> {
+                    // Clear table
+                    tableModel.setRowCount(0);
+                    
+                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
+                    
+                    // Add loans to table
+                    for (Loan loan : overdueLoans) {
+                        long daysOverdue = java.time.temporal.ChronoUnit.DAYS.between(loan.getDueDate(), today);
+                        Object[] row = {
+                                loan.getLoanId(),
+                                loan.getUserId(),
+                                loan.getItemId(),
+                                loan.getLoanDate().format(formatter),
+                                loan.getDueDate().format(formatter),
+                                daysOverdue,
+                                loan.getStatus()
+                        };
+                        tableModel.addRow(row);
+                    }
+                },
+                ex -> JOptionPane.showMessageDialog(this, "Error loading overdue loans: " + ex.getMessage(),
+                        ERROR_TITLE, JOptionPane.ERROR_MESSAGE));
     }
     
     private JPanel createUserLoansPanel() {
         JPanel panel = new JPanel(new BorderLayout(10, 10));
         panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
         
-        // Input panel
-        JPanel inputPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        inputPanel.add(new JLabel("Filter by User ID:"));
-        JTextField userIdField = new JTextField(10);
-        inputPanel.add(userIdField);
-        JButton searchButton = new JButton(SEARCH_TEXT);
-        inputPanel.add(searchButton);
-        JButton showAllButton = new JButton(SHOW_ALL_TEXT);
-        inputPanel.add(showAllButton);
-        
-        panel.add(inputPanel, BorderLayout.NORTH);
-        
         // Table
         String[] columns = {LOAN_ID_TEXT, USER_ID_TEXT, "Item ID", "Loan Date", "Due Date", "Return Date", STATUS_TEXT};
         DefaultTableModel tableModel = UIHelper.createNonEditableTableModel(columns);
@@ -634,123 +691,57 @@ public class AdminFrame extends JFrame {
         JScrollPane scrollPane = new JScrollPane(table);
         panel.add(scrollPane, BorderLayout.CENTER);
         
-        // Search action
-        searchButton.addActionListener(e -> {
-            String userIdStr = userIdField.getText().trim();
-            if (userIdStr.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "Please enter a User ID to search",
-                        VALIDATION_ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-            
-            try {
-                int userId = Integer.parseInt(userIdStr);
-                loadUserLoansForAdmin(tableModel, userId);
-            } catch (NumberFormatException ex) {
-                JOptionPane.showMessageDialog(this, "User ID must be a number",
-                        VALIDATION_ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-            }
-        });
-        
-        // Show All action
-        showAllButton.addActionListener(e -> {
-            userIdField.setText("");
-            loadAllLoansForAdmin(tableModel);
-        });
+        // Filters, sort and paging; each change reads one page from the database
+        loanFilters = new LoanFilterBar(() -> loadAllLoansForAdmin(tableModel));
+        panel.add(loanFilters, BorderLayout.NORTH);
         
-        // Load all loans initially
+        // Load the newest loans initially
         loadAllLoansForAdmin(tableModel);
         
         return panel;
     }
     
-    private void loadUserLoansForAdmin(DefaultTableModel tableModel, int userId) {
-        try {
-            List<Loan> loans = libraryService.getUserLoans(userId);
-            
-            // Clear table
-            tableModel.setRowCount(0);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-            
-            // Add loans to table
-            for (Loan loan : loans) {
-                Object[] row = {
-                        loan.getLoanId(),
-                        loan.getUserId(),
-                        loan.getItemId(),
-                        loan.getLoanDate().format(formatter),
-                        loan.getDueDate().format(formatter),
-                        loan.getReturnDate() != null ? loan.getReturnDate().format(formatter) : "",
-                        loan.getStatus()
-                };
-                tableModel.addRow(row);
-            }
-            
-            if (loans.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "No loans found for user ID: " + userId,
-                        "Info", JOptionPane.INFORMATION_MESSAGE);
-            }
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading user loans: " + ex.getMessage(),
-                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-        }
-    }
-    
     private void loadAllLoansForAdmin(DefaultTableModel tableModel) {
+        LoanQuery query;
         try {
-            // Get all loans from all users
-            List<Loan> allLoans = new ArrayList<>();
-            
-            // Get all users and their loans
-            List<User> users = userRepository.findAll();
-            for (User user : users) {
-                List<Loan> userLoans = libraryService.getUserLoans(user.getUserId());
-                allLoans.addAll(userLoans);
-            }
-            
-            // Clear table
-            tableModel.setRowCount(0);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-            
-            // Add all loans to table
-            for (Loan loan : allLoans) {
-                Object[] row = {
-                        loan.getLoanId(),
-                        loan.getUserId(),
-                        loan.getItemId(),
-                        loan.getLoanDate().format(formatter),
-                        loan.getDueDate().format(formatter),
-                        loan.getReturnDate() != null ? loan.getReturnDate().format(formatter) : "",
-                        loan.getStatus()
-                };
-                tableModel.addRow(row);
-            }
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading all loans: " + ex.getMessage(),
-                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+            query = loanFilters.toQuery();
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(),
+                    VALIDATION_ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+            return;
         }
+        
+        // A new search or page supersedes the one still loading
+        tasks.run("loans", "Loading loans...",
+                () -> libraryService.searchLoans(query),
+                result -> {
+                    // Clear table
+                    tableModel.setRowCount(0);
+                    
+                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
+                    
+                    // Add the page of loans to table
+                    for (Loan loan : result.getLoans()) {
+                        Object[] row = {
+                                loan.getLoanId(),
+                                loan.getUserId(),
+                                loan.getItemId(),
+                                loan.getLoanDate().format(formatter),
+                                loan.getDueDate().format(formatter),
+                                loan.getReturnDate() != null ? loan.getReturnDate().format(formatter) : "",
+                                loan.getStatus()
+                        };
+                        tableModel.addRow(row);
+                    }
+                    loanFilters.showResult(result);
+                },
+                ex -> showLoadError("loans", ex));
     }
     
     private JPanel createFinesOverviewPanel() {
         JPanel panel = new JPanel(new BorderLayout(10, 10));
         panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
         
-        // Input panel
-        JPanel inputPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        inputPanel.add(new JLabel("Filter by User ID:"));
-        JTextField userIdField = new JTextField(10);
-        inputPanel.add(userIdField);
-        JButton searchButton = new JButton(SEARCH_TEXT);
-        inputPanel.add(searchButton);
-        JButton showAllButton = new JButton(SHOW_ALL_TEXT);
-        inputPanel.add(showAllButton);
-        
-        panel.add(inputPanel, BorderLayout.NORTH);
-        
         // Table
         String[] columns = {"Fine ID", USER_ID_TEXT, LOAN_ID_TEXT, "Amount (NIS)", "Issued Date", STATUS_TEXT, "Paid Date"};
         DefaultTableModel tableModel = UIHelper.createNonEditableTableModel(columns);
@@ -765,126 +756,66 @@ public class AdminFrame extends JFrame {
         totalPanel.add(totalLabel);
         panel.add(totalPanel, BorderLayout.SOUTH);
         
-        // Search action
-        searchButton.addActionListener(e -> {
-            String userIdStr = userIdField.getText().trim();
-            if (userIdStr.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "Please enter a User ID to search",
-                        VALIDATION_ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-            
-            try {
-                int userId = Integer.parseInt(userIdStr);
-                loadFinesForAdmin(tableModel, totalLabel, userId);
-            } catch (NumberFormatException ex) {
-                JOptionPane.showMessageDialog(this, "User ID must be a number",
-                        VALIDATION_ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-            }
-        });
-        
-        // Show All action
-        showAllButton.addActionListener(e -> {
-            userIdField.setText("");
-            loadAllFinesForAdmin(tableModel, totalLabel);
-        });
+        // Filters and paging; each change reads one page and the totals in one query
+        fineFilters = new FineFilterBar(() -> loadFinesForAdmin(tableModel, totalLabel));
+        panel.add(fineFilters, BorderLayout.NORTH);
         
         // Load all fines initially
-        loadAllFinesForAdmin(tableModel, totalLabel);
+        loadFinesForAdmin(tableModel, totalLabel);
         
         return panel;
     }
     
-    private void loadFinesForAdmin(DefaultTableModel tableModel, JLabel totalLabel, int searchUserId) {
+    private void loadFinesForAdmin(DefaultTableModel tableModel, JLabel totalLabel) {
+        FineQuery query;
         try {
-            List<com.example.library.domain.Fine> allFines = fineRepository.findAll();
-            List<com.example.library.domain.Fine> filteredFines = new ArrayList<>();
-            BigDecimal total = BigDecimal.ZERO;
-            
-            // Filter fines by userId
-            for (com.example.library.domain.Fine fine : allFines) {
-                Optional<Loan> loanOpt = loanRepository.findById(fine.getLoanId());
-                if (loanOpt.isPresent() && loanOpt.get().getUserId().equals(searchUserId)) {
-                    filteredFines.add(fine);
-                    if ("UNPAID".equals(fine.getStatus())) {
-                        total = total.add(fine.getAmount());
-                    }
-                }
-            }
-            
-            // Clear table
-            tableModel.setRowCount(0);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-            
-            // Add fines to table
-            for (com.example.library.domain.Fine fine : filteredFines) {
-                Object[] row = {
-                        fine.getFineId(),
-                        searchUserId,
-                        fine.getLoanId(),
-                        String.format("%.2f", fine.getAmount()),
-                        fine.getIssuedDate().format(formatter),
-                        fine.getStatus(),
-                        fine.getPaidDate() != null ? fine.getPaidDate().format(formatter) : ""
-                };
-                tableModel.addRow(row);
-            }
-            
-            totalLabel.setText(String.format("Total Unpaid: %.2f NIS", total));
-            
-            if (filteredFines.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "No fines found for user ID: " + searchUserId,
-                        "Info", JOptionPane.INFORMATION_MESSAGE);
-            }
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading fines: " + ex.getMessage(),
-                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+            query = fineFilters.toQuery();
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(),
+                    VALIDATION_ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+            return;
         }
+        
+        // A new search or page supersedes the one still loading
+        tasks.run("fines", "Loading fines...",
+                () -> paymentService.searchFines(query),
+                result -> {
+                    // Clear table
+                    tableModel.setRowCount(0);
+                    
+                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
+                    
+                    // Add the page of fines to table
+                    for (FineView view : result.getFines()) {
+                        Fine fine = view.getFine();
+                        Object[] row = {
+                                fine.getFineId(),
+                                view.getUserId(),
+                                fine.getLoanId(),
+                                String.format("%.2f", fine.getAmount()),
+                                fine.getIssuedDate().format(formatter),
+                                fine.getStatus(),
+                                fine.getPaidDate() != null ? fine.getPaidDate().format(formatter) : ""
+                        };
+                        tableModel.addRow(row);
+                    }
+                    fineFilters.showResult(result);
+                    
+                    // Totals cover every matching fine, not just this page
+                    FineSearchResult.StatusTotal unpaid = result.getTotal(FineStatus.UNPAID);
+                    FineSearchResult.StatusTotal paid = result.getTotal(FineStatus.PAID);
+                    totalLabel.setText(String.format("Total Unpaid: %.2f NIS (%d fines)    Paid: %.2f NIS (%d fines)",
+                            unpaid.getAmount(), unpaid.getCount(), paid.getAmount(), paid.getCount()));
+                },
+                ex -> showLoadError("fines", ex));
     }
     
-    private void loadAllFinesForAdmin(DefaultTableModel tableModel, JLabel totalLabel) {
-        try {
-            // Get all fines
-            List<com.example.library.domain.Fine> allFines = fineRepository.findAll();
-            BigDecimal totalUnpaid = BigDecimal.ZERO;
-            
-            // Clear table
-            tableModel.setRowCount(0);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-            
-            // Add all fines to table
-            for (com.example.library.domain.Fine fine : allFines) {
-                // Get userId from loan
-                Integer userId = null;
-                Optional<Loan> loanOpt = loanRepository.findById(fine.getLoanId());
-                if (loanOpt.isPresent()) {
-                    userId = loanOpt.get().getUserId();
-                }
-                
-                Object[] row = {
-                        fine.getFineId(),
-                        userId != null ? userId : "N/A",
-                        fine.getLoanId(),
-                        String.format("%.2f", fine.getAmount()),
-                        fine.getIssuedDate().format(formatter),
-                        fine.getStatus(),
-                        fine.getPaidDate() != null ? fine.getPaidDate().format(formatter) : ""
-                };
-                tableModel.addRow(row);
-                
-                // Calculate total unpaid
-                if ("UNPAID".equals(fine.getStatus())) {
-                    totalUnpaid = totalUnpaid.add(fine.getAmount());
-                }
-            }
-            
-            totalLabel.setText(String.format("Total Unpaid: %.2f NIS", totalUnpaid));
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading all fines: " + ex.getMessage(),
+    private void showLoadError(String what, Exception ex) {
+        if (ex instanceof BusinessException) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(),
+                    VALIDATION_ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this, "Error loading " + what + ": " + ex.getMessage(),
                     ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
         }
     }
@@ -1007,25 +938,25 @@ public class AdminFrame extends JFrame {
     }
     
     private void loadUsers(DefaultTableModel tableModel) {
-        try {
-            List<User> users = userRepository.findAll();
-            tableModel.setRowCount(0);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-            for (User user : users) {
-                Object[] row = {
-                    user.getUserId(),
-                    user.getUsername(),
-                    user.getEmail(),
-                    user.getRole(),
-                    user.getCreatedAt().format(formatter)
-                };
-                tableModel.addRow(row);
-            }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading users: " + ex.getMessage(),
-                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-        }
+        tasks.run("users", "Loading users...",
+                userRepository::findAll,
+                users -> {
+                    tableModel.setRowCount(0);
+                    
+                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+                    for (User user : users) {
+                        Object[] row = {
+                            user.getUserId(),
+                            user.getUsername(),
+                            user.getEmail(),
+                            user.getRole(),
+                            user.getCreatedAt().format(formatter)
+                        };
+                        tableModel.addRow(row);
+                    }
+                },
+                ex -> JOptionPane.showMessageDialog(this, "Error loading users: " + ex.getMessage(),
+                        ERROR_TITLE, JOptionPane.ERROR_MESSAGE));
     }
     
     private void refreshUserTable() {
@@ -1118,44 +1049,41 @@ public class AdminFrame extends JFrame {
                 return;
             }
             
-            try {
-                // Check if username already exists
-                if (userRepository.findByUsername(username).isPresent()) {
-                    JOptionPane.showMessageDialog(dialog, "Username already exists",
-                            ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-                
-                // Check if email already exists
-                if (userRepository.findByEmail(email).isPresent()) {
-                    JOptionPane.showMessageDialog(dialog, "Email already exists",
-                            ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-                
-                // Create new user
-                User newUser = new User();
-                newUser.setUsername(username);
-                newUser.setPassword(password);
-                newUser.setEmail(email);
-                newUser.setRole(role);
-                newUser.setCreatedAt(java.time.LocalDateTime.now());
-                
-                User savedUser = userRepository.save(newUser);
-                
-                JOptionPane.showMessageDialog(dialog,
-                        "User created successfully!\nUser ID: " + savedUser.getUserId(),
-                        SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
-                
-                // Refresh user table
-                refreshUserTable();
-                
-                dialog.dispose();
-                
-            } catch (Exception ex) {
-                JOptionPane.showMessageDialog(dialog, "Error creating user: " + ex.getMessage(),
-                        ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-            }
+            // Create new user
+            User newUser = new User();
+            newUser.setUsername(username);
+            newUser.setPassword(password);
+            newUser.setEmail(email);
+            newUser.setRole(role);
+            newUser.setCreatedAt(java.time.LocalDateTime.now());
+            
+            tasks.submit(saveButton, "Creating user...",
+                    () -> {
+                        // Check if username already exists
+                        if (userRepository.findByUsername(username).isPresent()) {
+                            throw new BusinessException("Username already exists");
+                        }
+                        
+                        // Check if email already exists
+                        if (userRepository.findByEmail(email).isPresent()) {
+                            throw new BusinessException("Email already exists");
+                        }
+                        
+                        return userRepository.save(newUser);
+                    },
+                    savedUser -> {
+                        JOptionPane.showMessageDialog(dialog,
+                                "User created successfully!\nUser ID: " + savedUser.getUserId(),
+                                SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
+                        
+                        // Refresh user table
+                        refreshUserTable();
+                        
+                        dialog.dispose();
+                    },
+                    ex -> JOptionPane.showMessageDialog(dialog,
+                            ex instanceof BusinessException ? ex.getMessage() : "Error creating user: " + ex.getMessage(),
+                            ERROR_TITLE, JOptionPane.ERROR_MESSAGE));
         });
         
         cancelButton.addActionListener(e -> dialog.dispose());
@@ -1182,4 +1110,14 @@ public class AdminFrame extends JFrame {
             });
         }
     }
+    
+    @Override
+    public void dispose() {
+        tasks.close();
+        super.dispose();
+    }
+    
+    // A page of search results, with the facet counts when the search had any
+    private record CatalogPage(List<MediaItem> items, FacetedSearchResult facets) {
+    }
 }
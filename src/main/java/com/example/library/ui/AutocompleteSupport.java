@@ -0,0 +1,176 @@
+package com.example.library.ui;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Adds search-as-you-type suggestions to a text field.
+ * Lookups are debounced: suggestions are fetched once typing pauses rather than
+ * on every keystroke, and shown in a popup below the field.
+ */
+public final class AutocompleteSupport {
+
+    /**
+     * Pause in typing, in milliseconds, before suggestions are looked up.
+     */
+    static final int DEBOUNCE_MILLIS = 200;
+
+    private final JTextField field;
+    private final Function<String, List<String>> suggestions;
+    private final Runnable onSelect;
+    private final DefaultListModel<String> listModel = new DefaultListModel<>();
+    private final JList<String> list = new JList<>(listModel);
+    private final JPopupMenu popup = new JPopupMenu();
+    private final Timer debounce;
+    private boolean settingText;
+
+    private AutocompleteSupport(JTextField field, Function<String, List<String>> suggestions, Runnable onSelect) {
+        this.field = field;
+        this.suggestions = suggestions;
+        this.onSelect = onSelect;
+        this.debounce = new Timer(DEBOUNCE_MILLIS, e -> refresh());
+        this.debounce.setRepeats(false);
+    }
+
+    /**
+     * Installs suggestions on a text field.
+     *
+     * @param field the text field to complete
+     * @param suggestions looks up suggestions for the typed text
+     * @param onSelect run after a suggestion has been chosen and copied into the field
+     */
+    public static void install(JTextField field, Function<String, List<String>> suggestions, Runnable onSelect) {
+        new AutocompleteSupport(field, suggestions, onSelect).install();
+    }
+
+    private void install() {
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setFocusable(false);
+        popup.setFocusable(false);
+        popup.setBorder(BorderFactory.createLineBorder(Color.GRAY));
+        popup.add(new JScrollPane(list));
+
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                textChanged();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                textChanged();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Attribute changes do not affect the text
+            }
+        });
+
+        field.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!popup.isVisible()) {
+                    return;
+                }
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN:
+                        moveSelection(1);
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_UP:
+                        moveSelection(-1);
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_ENTER:
+                        if (list.getSelectedIndex() >= 0) {
+                            // Consumed so the field's own action does not also search for the typed text
+                            select(list.getSelectedValue());
+                            e.consume();
+                        } else {
+                            hide();
+                        }
+                        break;
+                    case KeyEvent.VK_ESCAPE:
+                        hide();
+                        e.consume();
+                        break;
+                    default:
+                        break;
+                }
+            }
+        });
+
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = list.locationToIndex(e.getPoint());
+                if (index >= 0) {
+                    select(listModel.get(index));
+                }
+            }
+        });
+    }
+
+    private void textChanged() {
+        if (settingText) {
+            return;
+        }
+        debounce.restart();
+    }
+
+    private void refresh() {
+        String text = field.getText().trim();
+        List<String> matches = text.isEmpty() ? List.of() : suggestions.apply(text);
+        if (matches.isEmpty() || !field.isShowing()) {
+            hide();
+            return;
+        }
+
+        listModel.clear();
+        for (String match : matches) {
+            listModel.addElement(match);
+        }
+        list.clearSelection();
+        list.setVisibleRowCount(Math.min(matches.size(), 8));
+        popup.setPopupSize(field.getWidth(), popup.getPreferredSize().height);
+        popup.show(field, 0, field.getHeight());
+        // Showing the popup must not take focus away from the field
+        field.requestFocusInWindow();
+    }
+
+    private void moveSelection(int delta) {
+        int size = listModel.getSize();
+        int index = Math.max(-1, Math.min(size - 1, list.getSelectedIndex() + delta));
+        if (index >= 0) {
+            list.setSelectedIndex(index);
+            list.ensureIndexIsVisible(index);
+        } else {
+            list.clearSelection();
+        }
+    }
+
+    private void select(String value) {
+        debounce.stop();
+        hide();
+        settingText = true;
+        try {
+            field.setText(value);
+        } finally {
+            settingText = false;
+        }
+        onSelect.run();
+    }
+
+    private void hide() {
+        popup.setVisible(false);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.library.ui;
+
+import com.example.library.repository.CatalogQuery;
+import com.example.library.repository.FacetedSearchResult;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Filters for narrowing catalog search results by type, availability and
+ * publication decade, with the hit count next to each choice, and buttons for
+ * paging through the hits. Changing a filter or page runs the search again
+ * through the callback; the counts come back with the results.
+ */
+public class FacetBar extends JPanel {
+
+    private static final int PAGE_SIZE = 100;
+    private static final String ANY_TEXT = "Any";
+
+    private final JComboBox<Choice<String>> typeBox = new JComboBox<>();
+    private final JComboBox<Choice<CatalogQuery.Availability>> availabilityBox = new JComboBox<>();
+    private final JComboBox<Choice<Integer>> decadeBox = new JComboBox<>();
+    private final JButton previousButton = new JButton("< Prev");
+    private final JButton nextButton = new JButton("Next >");
+    private final JLabel pageLabel = new JLabel();
+    private int offset;
+    private boolean updating;
+
+    /**
+     * Creates the bar.
+     *
+     * @param onChange runs the search again after a filter or the page changed
+     */
+    public FacetBar(Runnable onChange) {
+        super(new FlowLayout(FlowLayout.LEFT));
+
+        add(new JLabel("Type:"));
+        add(typeBox);
+        add(new JLabel("Availability:"));
+        add(availabilityBox);
+        add(new JLabel("Decade:"));
+        add(decadeBox);
+        add(previousButton);
+        add(nextButton);
+        add(pageLabel);
+
+        for (JComboBox<?> box : new JComboBox<?>[] {typeBox, availabilityBox, decadeBox}) {
+            box.addActionListener(e -> {
+                if (!updating) {
+                    offset = 0;
+                    onChange.run();
+                }
+            });
+        }
+        previousButton.addActionListener(e -> {
+            offset = Math.max(0, offset - PAGE_SIZE);
+            onChange.run();
+        });
+        nextButton.addActionListener(e -> {
+            offset += PAGE_SIZE;
+            onChange.run();
+        });
+        showNoFacets();
+    }
+
+    /**
+     * Applies the selected filters and the current page to a query.
+     *
+     * @param query the query with the search text
+     * @return the query to run
+     */
+    public CatalogQuery applyTo(CatalogQuery query) {
+        return query.withType(selected(typeBox))
+                .withAvailability(selected(availabilityBox))
+                .withDecade(selected(decadeBox))
+                .page(offset, PAGE_SIZE);
+    }
+
+    /**
+     * Shows the counts and paging for a result, keeping the selected filters.
+     *
+     * @param result the result of the query built by {@link #applyTo(CatalogQuery)}
+     */
+    public void showResult(FacetedSearchResult result) {
+        updating = true;
+        try {
+            fill(typeBox, result.getTypeCounts(), String::valueOf);
+            fill(availabilityBox, result.getAvailabilityCounts(),
+                    availability -> availability == CatalogQuery.Availability.AVAILABLE ? "Available" : "Checked out");
+            fill(decadeBox, result.getDecadeCounts(), decade -> decade + "s");
+        } finally {
+            updating = false;
+        }
+        setFiltersEnabled(true);
+
+        int total = result.getTotalHits();
+        int shown = result.getItems().size();
+        pageLabel.setText(total == 0
+                ? "No items found"
+                : "Showing " + (offset + 1) + "-" + (offset + shown) + " of " + total);
+        previousButton.setEnabled(offset > 0);
+        nextButton.setEnabled(offset + shown < total);
+    }
+
+    /**
+     * Disables the filters, for searches that are not faceted.
+     */
+    public void showNoFacets() {
+        setFiltersEnabled(false);
+        previousButton.setEnabled(false);
+        nextButton.setEnabled(false);
+        pageLabel.setText("");
+    }
+
+    /**
+     * Clears the filters and goes back to the first page, without searching.
+     */
+    public void reset() {
+        updating = true;
+        try {
+            for (JComboBox<?> box : new JComboBox<?>[] {typeBox, availabilityBox, decadeBox}) {
+                if (box.getItemCount() > 0) {
+                    box.setSelectedIndex(0);
+                }
+            }
+        } finally {
+            updating = false;
+        }
+        offset = 0;
+    }
+
+    /**
+     * Goes back to the first page, e.g. for new search text, without searching.
+     */
+    public void firstPage() {
+        offset = 0;
+    }
+
+    private void setFiltersEnabled(boolean enabled) {
+        typeBox.setEnabled(enabled);
+        availabilityBox.setEnabled(enabled);
+        decadeBox.setEnabled(enabled);
+    }
+
+    // Rebuilds the choices from the counts; a selected value without hits stays selectable
+    private static <T> void fill(JComboBox<Choice<T>> box, Map<T, Integer> counts,
+                                 Function<T, String> label) {
+        T selected = selected(box);
+        DefaultComboBoxModel<Choice<T>> model = new DefaultComboBoxModel<>();
+        model.addElement(new Choice<>(null, ANY_TEXT));
+        Choice<T> selection = model.getElementAt(0);
+        for (Map.Entry<T, Integer> entry : counts.entrySet()) {
+            Choice<T> choice = new Choice<>(entry.getKey(), label.apply(entry.getKey()) + " (" + entry.getValue() + ")");
+            model.addElement(choice);
+            if (entry.getKey().equals(selected)) {
+                selection = choice;
+            }
+        }
+        if (selected != null && selection.value == null) {
+            selection = new Choice<>(selected, label.apply(selected) + " (0)");
+            model.addElement(selection);
+        }
+        model.setSelectedItem(selection);
+        box.setModel(model);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T selected(JComboBox<Choice<T>> box) {
+        Object item = box.getSelectedItem();
+        return item == null ? null : ((Choice<T>) item).value;
+    }
+
+    /**
+     * A facet value with its label.
+     */
+    private static final class Choice<T> {
+        private final T value;
+        private final String label;
+
+        private Choice(T value, String label) {
+            this.value = value;
+            this.label = label;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Choice && Objects.equals(value, ((Choice<?>) other).value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.library.ui;
+
+import com.example.library.domain.FineStatus;
+import com.example.library.repository.FineQuery;
+import com.example.library.repository.FineSearchResult;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Filters and paging for the admin fines listing. Filtering, paging and the
+ * per-status totals all happen in the database, in one query per page; typed
+ * filters apply when Search is pressed.
+ */
+public class FineFilterBar extends JPanel {
+
+    private static final int PAGE_SIZE = 100;
+    private static final String ANY_TEXT = "Any";
+
+    private final JTextField userIdField = new JTextField(6);
+    private final JComboBox<String> statusBox = new JComboBox<>(
+            new String[] {ANY_TEXT, FineStatus.UNPAID, FineStatus.PAID});
+    private final JTextField fromField = new JTextField(8);
+    private final JTextField toField = new JTextField(8);
+    private final JButton previousButton = new JButton("< Prev");
+    private final JButton nextButton = new JButton("Next >");
+    private final JLabel pageLabel = new JLabel();
+    private int offset;
+    private boolean updating;
+
+    /**
+     * Creates the bar.
+     *
+     * @param onChange runs the listing again after the filters or page changed
+     */
+    public FineFilterBar(Runnable onChange) {
+        super(new FlowLayout(FlowLayout.LEFT));
+
+        add(new JLabel("User ID:"));
+        add(userIdField);
+        add(new JLabel("Status:"));
+        add(statusBox);
+        add(new JLabel("Issued from:"));
+        add(fromField);
+        add(new JLabel("to:"));
+        add(toField);
+        JButton searchButton = new JButton("Search");
+        add(searchButton);
+        JButton showAllButton = new JButton("Show All");
+        add(showAllButton);
+        add(previousButton);
+        add(nextButton);
+        add(pageLabel);
+
+        Runnable firstPage = () -> {
+            if (!updating) {
+                offset = 0;
+                onChange.run();
+            }
+        };
+        searchButton.addActionListener(e -> firstPage.run());
+        for (JTextField field : new JTextField[] {userIdField, fromField, toField}) {
+            field.addActionListener(e -> firstPage.run());
+        }
+        statusBox.addActionListener(e -> firstPage.run());
+        showAllButton.addActionListener(e -> {
+            reset();
+            onChange.run();
+        });
+        previousButton.addActionListener(e -> {
+            offset = Math.max(0, offset - PAGE_SIZE);
+            onChange.run();
+        });
+        nextButton.addActionListener(e -> {
+            offset += PAGE_SIZE;
+            onChange.run();
+        });
+        previousButton.setEnabled(false);
+        nextButton.setEnabled(false);
+    }
+
+    /**
+     * Builds the query for the entered filters and the current page.
+     *
+     * @return the query to run
+     * @throws IllegalArgumentException if the user ID is not a number or a date is not yyyy-MM-dd
+     */
+    public FineQuery toQuery() {
+        String status = (String) statusBox.getSelectedItem();
+        return FineQuery.all()
+                .withUserId(UIHelper.parseOptionalId(userIdField, "User ID"))
+                .withStatus(ANY_TEXT.equals(status) ? null : status)
+                .withIssuedBetween(UIHelper.parseOptionalDate(fromField, "From date"),
+                        UIHelper.parseOptionalDate(toField, "To date"))
+                .page(offset, PAGE_SIZE);
+    }
+
+    /**
+     * Shows the paging for a page of the listing.
+     *
+     * @param result the result of the query built by {@link #toQuery()}
+     */
+    public void showResult(FineSearchResult result) {
+        int shown = result.getFines().size();
+        pageLabel.setText(shown == 0
+                ? "No fines found"
+                : "Showing " + (result.getOffset() + 1) + "-" + (result.getOffset() + shown)
+                        + " of " + result.getTotalCount());
+        previousButton.setEnabled(result.getOffset() > 0);
+        nextButton.setEnabled(result.hasNext());
+    }
+
+    /**
+     * Clears the filters and goes back to the first page, without listing.
+     */
+    public void reset() {
+        updating = true;
+        try {
+            for (JTextField field : new JTextField[] {userIdField, fromField, toField}) {
+                field.setText("");
+            }
+            statusBox.setSelectedIndex(0);
+        } finally {
+            updating = false;
+        }
+        offset = 0;
+    }
+}
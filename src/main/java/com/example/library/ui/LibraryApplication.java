@@ -1,9 +1,17 @@
 package com.example.library.ui;
 
+import com.example.library.DatabaseConnection;
+import com.example.library.db.ChangeNotificationListener;
+import com.example.library.db.MigrationRunner;
+import com.example.library.db.RowChange;
 import com.example.library.repository.*;
 import com.example.library.service.*;
 import com.example.library.service.fine.FineCalculator;
+import com.example.library.util.DatabaseConfig;
 
+import java.time.Duration;
+
+import javax.sql.DataSource;
 import javax.swing.*;
 
 /**
@@ -13,23 +21,43 @@ import javax.swing.*;
 public class LibraryApplication {
     
     public static void main(String[] args) {
+        // Bring the schema up to date before anything touches the database
+        new MigrationRunner(DatabaseConnection.getDataSource()).migrate();
+        
+        // Shared connection pool for all repositories; repositories go through the
+        // transaction manager so multi-step operations share one connection
+        JdbcTransactionManager transactionManager = new JdbcTransactionManager(DatabaseConnection.getDataSource());
+        DataSource dataSource = transactionManager.getDataSource();
+        Runtime.getRuntime().addShutdownHook(new Thread(DatabaseConnection::closeDataSource));
+        
+        // Started before the caches load, so no change committed after their first read is missed
+        ChangeNotificationListener notifications = null;
+        if (DatabaseConfig.isChangeNotificationsEnabled()) {
+            notifications = ChangeNotificationListener.fromConfig();
+            notifications.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(notifications::close));
+        }
+        
         // Initialize repositories
-        UserRepository userRepository = new JdbcUserRepository();
-        MediaItemRepository mediaItemRepository = new JdbcMediaItemRepository();
-        LoanRepository loanRepository = new JdbcLoanRepository();
-        FineRepository fineRepository = new JdbcFineRepository();
+        UserRepository userRepository = createUserRepository(dataSource, notifications);
+        MediaItemRepository mediaItemRepository = createMediaItemRepository(dataSource, notifications);
+        LoanRepository loanRepository = new JdbcLoanRepository(dataSource);
+        FineRepository fineRepository = new JdbcFineRepository(dataSource);
         
         // Initialize FineCalculator
         FineCalculator fineCalculator = new FineCalculator();
         
         // Initialize services
         AuthService authService = new AuthServiceImpl(userRepository);
+        AutocompleteService autocompleteService = new AutocompleteServiceImpl(mediaItemRepository, loanRepository);
         LibraryService libraryService = new LibraryServiceImpl(
                 userRepository,
                 mediaItemRepository,
                 loanRepository,
                 fineRepository,
-                fineCalculator
+                fineCalculator,
+                transactionManager,
+                autocompleteService
         );
         PaymentService paymentService = new PaymentServiceImpl(fineRepository);
         
@@ -48,4 +76,95 @@ public class LibraryApplication {
             loginFrame.setVisible(true);
         });
     }
+    
+    // Decorators are optional and configured in db.properties; the cache wraps the index so
+    // writes through it reach both. With notifications (may be null), each decorator also drops
+    // or reloads the rows other clients changed; inner decorators are registered, and so
+    // updated, first.
+    private static MediaItemRepository createMediaItemRepository(DataSource dataSource,
+                                                                 ChangeNotificationListener notifications) {
+        MediaItemRepository repository = new JdbcMediaItemRepository(dataSource);
+        if (DatabaseConfig.isInMemorySearchEnabled()) {
+            IndexedMediaItemRepository indexed = new IndexedMediaItemRepository(repository);
+            if (notifications != null) {
+                notifications.addListener("media_item", change -> {
+                    if (change.isAllRows()) {
+                        indexed.rebuild();
+                    } else {
+                        indexed.refresh(change.getIds());
+                    }
+                });
+            }
+            repository = indexed;
+        }
+        if (DatabaseConfig.isLookupFilterEnabled()) {
+            BloomFilteredMediaItemRepository filtered = new BloomFilteredMediaItemRepository(repository,
+                    DatabaseConfig.getLookupFilterFalsePositiveRate());
+            if (notifications != null) {
+                notifications.addListener("media_item", change -> {
+                    if (change.isAllRows()) {
+                        filtered.rebuild();
+                    } else if (!isDelete(change)) {
+                        filtered.learn(change.getIds());
+                    }
+                });
+            }
+            repository = filtered;
+        }
+        if (DatabaseConfig.getMediaItemCacheSize() > 0) {
+            CachingMediaItemRepository cached = new CachingMediaItemRepository(repository,
+                    DatabaseConfig.getMediaItemCacheSize(),
+                    Duration.ofSeconds(DatabaseConfig.getMediaItemCacheTtlSeconds()));
+            if (notifications != null) {
+                notifications.addListener("media_item", change -> {
+                    if (change.isAllRows()) {
+                        cached.clear();
+                    } else {
+                        cached.evict(change.getIds());
+                    }
+                });
+            }
+            repository = cached;
+        }
+        return repository;
+    }
+    
+    private static UserRepository createUserRepository(DataSource dataSource,
+                                                       ChangeNotificationListener notifications) {
+        UserRepository repository = new JdbcUserRepository(dataSource);
+        if (DatabaseConfig.isLookupFilterEnabled()) {
+            BloomFilteredUserRepository filtered = new BloomFilteredUserRepository(repository,
+                    DatabaseConfig.getLookupFilterFalsePositiveRate());
+            if (notifications != null) {
+                notifications.addListener("app_user", change -> {
+                    if (change.isAllRows()) {
+                        filtered.rebuild();
+                    } else if (!isDelete(change)) {
+                        filtered.learn(change.getIds());
+                    }
+                });
+            }
+            repository = filtered;
+        }
+        if (DatabaseConfig.getUserCacheSize() > 0) {
+            CachingUserRepository cached = new CachingUserRepository(repository, DatabaseConfig.getUserCacheSize(),
+                    Duration.ofSeconds(DatabaseConfig.getUserCacheTtlSeconds()));
+            if (notifications != null) {
+                notifications.addListener("app_user", change -> {
+                    if (change.isAllRows()) {
+                        cached.clear();
+                    } else {
+                        cached.evict(change.getIds());
+                    }
+                });
+            }
+            repository = cached;
+        }
+        return repository;
+    }
+    
+    // Deleted values may stay in the Bloom filters, which only costs an occasional query
+    private static boolean isDelete(RowChange change) {
+        return "DELETE".equals(change.getOperation());
+    }
 }
@@ -0,0 +1,146 @@
+package com.example.library.ui;
+
+import com.example.library.domain.LoanStatus;
+import com.example.library.repository.LoanQuery;
+import com.example.library.repository.LoanSearchResult;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Filters, sort order and paging for the admin loan listing. The filtering and
+ * sorting happen in the database, one query per page; changing the sort or page
+ * runs the listing again through the callback, while typed filters apply when
+ * Search is pressed.
+ */
+public class LoanFilterBar extends JPanel {
+
+    private static final int PAGE_SIZE = 100;
+    private static final String ANY_TEXT = "Any";
+
+    private final JTextField userIdField = new JTextField(6);
+    private final JTextField itemIdField = new JTextField(6);
+    private final JComboBox<String> statusBox = new JComboBox<>(
+            new String[] {ANY_TEXT, LoanStatus.ACTIVE, LoanStatus.OVERDUE, LoanStatus.RETURNED});
+    private final JTextField fromField = new JTextField(8);
+    private final JTextField toField = new JTextField(8);
+    private final JComboBox<LoanQuery.SortField> sortBox = new JComboBox<>(LoanQuery.SortField.values());
+    private final JCheckBox descendingBox = new JCheckBox("Descending", true);
+    private final JButton previousButton = new JButton("< Prev");
+    private final JButton nextButton = new JButton("Next >");
+    private final JLabel pageLabel = new JLabel();
+    private int offset;
+    private boolean updating;
+
+    /**
+     * Creates the bar, sorted by loan date with the newest loans first.
+     *
+     * @param onChange runs the listing again after the filters, sort or page changed
+     */
+    public LoanFilterBar(Runnable onChange) {
+        super(new GridLayout(2, 1));
+        sortBox.setSelectedItem(LoanQuery.SortField.LOAN_DATE);
+
+        JPanel filters = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filters.add(new JLabel("User ID:"));
+        filters.add(userIdField);
+        filters.add(new JLabel("Item ID:"));
+        filters.add(itemIdField);
+        filters.add(new JLabel("Status:"));
+        filters.add(statusBox);
+        filters.add(new JLabel("Loaned from:"));
+        filters.add(fromField);
+        filters.add(new JLabel("to:"));
+        filters.add(toField);
+        JButton searchButton = new JButton("Search");
+        filters.add(searchButton);
+        JButton showAllButton = new JButton("Show All");
+        filters.add(showAllButton);
+
+        JPanel paging = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        paging.add(new JLabel("Sort by:"));
+        paging.add(sortBox);
+        paging.add(descendingBox);
+        paging.add(previousButton);
+        paging.add(nextButton);
+        paging.add(pageLabel);
+
+        add(filters);
+        add(paging);
+
+        Runnable firstPage = () -> {
+            if (!updating) {
+                offset = 0;
+                onChange.run();
+            }
+        };
+        searchButton.addActionListener(e -> firstPage.run());
+        for (JTextField field : new JTextField[] {userIdField, itemIdField, fromField, toField}) {
+            field.addActionListener(e -> firstPage.run());
+        }
+        statusBox.addActionListener(e -> firstPage.run());
+        sortBox.addActionListener(e -> firstPage.run());
+        descendingBox.addActionListener(e -> firstPage.run());
+        showAllButton.addActionListener(e -> {
+            reset();
+            onChange.run();
+        });
+        previousButton.addActionListener(e -> {
+            offset = Math.max(0, offset - PAGE_SIZE);
+            onChange.run();
+        });
+        nextButton.addActionListener(e -> {
+            offset += PAGE_SIZE;
+            onChange.run();
+        });
+        previousButton.setEnabled(false);
+        nextButton.setEnabled(false);
+    }
+
+    /**
+     * Builds the query for the entered filters, the selected sort and the current page.
+     *
+     * @return the query to run
+     * @throws IllegalArgumentException if an ID is not a number or a date is not yyyy-MM-dd
+     */
+    public LoanQuery toQuery() {
+        String status = (String) statusBox.getSelectedItem();
+        return LoanQuery.all()
+                .withUserId(UIHelper.parseOptionalId(userIdField, "User ID"))
+                .withItemId(UIHelper.parseOptionalId(itemIdField, "Item ID"))
+                .withStatus(ANY_TEXT.equals(status) ? null : status)
+                .withLoanDateBetween(UIHelper.parseOptionalDate(fromField, "From date"), UIHelper.parseOptionalDate(toField, "To date"))
+                .sortBy((LoanQuery.SortField) sortBox.getSelectedItem(), descendingBox.isSelected())
+                .page(offset, PAGE_SIZE);
+    }
+
+    /**
+     * Shows the paging for a page of the listing.
+     *
+     * @param result the result of the query built by {@link #toQuery()}
+     */
+    public void showResult(LoanSearchResult result) {
+        int shown = result.getLoans().size();
+        pageLabel.setText(shown == 0
+                ? "No loans found"
+                : "Showing " + (result.getOffset() + 1) + "-" + (result.getOffset() + shown));
+        previousButton.setEnabled(result.getOffset() > 0);
+        nextButton.setEnabled(result.hasNext());
+    }
+
+    /**
+     * Clears the filters and goes back to the first page, without listing.
+     */
+    public void reset() {
+        updating = true;
+        try {
+            for (JTextField field : new JTextField[] {userIdField, itemIdField, fromField, toField}) {
+                field.setText("");
+            }
+            statusBox.setSelectedIndex(0);
+        } finally {
+            updating = false;
+        }
+        offset = 0;
+    }
+}
@@ -25,6 +25,7 @@ public class LoginFrame extends JFrame {
     private JTextField usernameField;
     private JPasswordField passwordField;
     private JButton loginButton;
+    private final transient UiTaskExecutor tasks = new UiTaskExecutor(this);
     
     // Constructor for testing with minimal dependencies
     public LoginFrame(AuthService authService) {
@@ -105,7 +106,10 @@ public class LoginFrame extends JFrame {
         loginButton.addActionListener(e -> performLogin());
         buttonPanel.add(loginButton);
         
-        mainPanel.add(buttonPanel, BorderLayout.SOUTH);
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(buttonPanel, BorderLayout.CENTER);
+        southPanel.add(tasks.getStatusBar(), BorderLayout.SOUTH);
+        mainPanel.add(southPanel, BorderLayout.SOUTH);
         
         // Add main panel to frame
         add(mainPanel);
@@ -149,40 +153,56 @@ public class LoginFrame extends JFrame {
             return;
         }
         
-        // Attempt authentication
-        try {
-            User user = authService.login(username, password);
-            
-            // Clear password from memory
-            passwordField.setText("");
-            
-            // Hide login frame
-            setVisible(false);
-            
-            // Open appropriate frame based on role
-            if (authService.isAdmin(user)) {
-                AdminFrame adminFrame = new AdminFrame(user, authService, libraryService, paymentService, userRepository, mediaItemRepository, fineRepository, loanRepository);
-                adminFrame.setVisible(true);
-            } else {
-                UserFrame userFrame = new UserFrame(user, authService, libraryService, paymentService, userRepository);
-                userFrame.setVisible(true);
-            }
-            
-            // Dispose login frame
-            dispose();
-            
-        } catch (AuthenticationException ex) {
-            // Show error message
-            JOptionPane.showMessageDialog(
-                    this,
-                    "Login failed: " + ex.getMessage(),
-                    "Authentication Error",
-                    JOptionPane.ERROR_MESSAGE
-            );
-            
-            // Clear fields and focus on username
-            passwordField.setText("");
-            usernameField.requestFocus();
+        // Authenticate in the background; the button stays disabled until it answers
+        tasks.submit(loginButton, "Signing in...",
+                () -> authService.login(username, password),
+                this::openFrameFor,
+                ex -> {
+                    if (ex instanceof AuthenticationException) {
+                        JOptionPane.showMessageDialog(
+                                this,
+                                "Login failed: " + ex.getMessage(),
+                                "Authentication Error",
+                                JOptionPane.ERROR_MESSAGE
+                        );
+                    } else {
+                        JOptionPane.showMessageDialog(
+                                this,
+                                "Error signing in: " + ex.getMessage(),
+                                "Error",
+                                JOptionPane.ERROR_MESSAGE
+                        );
+                    }
+                    
+                    // Clear fields and focus on username
+                    passwordField.setText("");
+                    usernameField.requestFocus();
+                });
+    }
+    
+    private void openFrameFor(User user) {
+        // Clear password from memory
+        passwordField.setText("");
+        
+        // Hide login frame
+        setVisible(false);
+        
+        // Open appropriate frame based on role
+        if (authService.isAdmin(user)) {
+            AdminFrame adminFrame = new AdminFrame(user, authService, libraryService, paymentService, userRepository, mediaItemRepository, fineRepository, loanRepository);
+            adminFrame.setVisible(true);
+        } else {
+            UserFrame userFrame = new UserFrame(user, authService, libraryService, paymentService, userRepository);
+            userFrame.setVisible(true);
         }
+        
+        // Dispose login frame
+        dispose();
+    }
+    
+    @Override
+    public void dispose() {
+        tasks.close();
+        super.dispose();
     }
 }
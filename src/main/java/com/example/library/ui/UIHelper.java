@@ -4,6 +4,8 @@ import com.example.library.domain.MediaItem;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
@@ -84,4 +86,40 @@ public final class UIHelper {
     public static void clearTableModel(DefaultTableModel tableModel) {
         tableModel.setRowCount(0);
     }
+    
+    /**
+     * Reads an optional ID typed into a filter field.
+     * 
+     * @return the ID, or null if the field is blank
+     * @throws IllegalArgumentException if the text is not a number
+     */
+    public static Integer parseOptionalId(JTextField field, String name) {
+        String text = field.getText().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+    
+    /**
+     * Reads an optional yyyy-MM-dd date typed into a filter field.
+     * 
+     * @return the date, or null if the field is blank
+     * @throws IllegalArgumentException if the text is not a valid date
+     */
+    public static LocalDate parseOptionalDate(JTextField field, String name) {
+        String text = field.getText().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be in yyyy-MM-dd format");
+        }
+    }
 }
@@ -0,0 +1,236 @@
+package com.example.library.ui;
+
+import com.example.library.db.QueryCancellation;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs a frame's service calls on background threads, so slow queries never
+ * freeze the Event Dispatch Thread. Results and errors are handed to callbacks
+ * on the EDT.
+ * <p>
+ * Reads started with {@link #run} carry a key naming what they load, such as a
+ * table; starting another read with the same key supersedes the one still
+ * running: its queries are cancelled and its result is never delivered.
+ * Writes started with {@link #submit} always run to completion. While tasks
+ * run, the status bar shows what they are doing and the window shows a wait
+ * cursor. All methods must be called on the EDT.
+ */
+public final class UiTaskExecutor {
+
+    // Tasks quicker than this finish without the progress indicator flashing up
+    private static final int PROGRESS_DELAY_MILLIS = 200;
+
+    // Cancelling a query opens a connection to the server, so it is kept off the EDT
+    private static final ExecutorService CANCELLER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ui-task-canceller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Component owner;
+    private final JPanel statusBar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+    private final JProgressBar progressBar = new JProgressBar();
+    private final JLabel statusLabel = new JLabel();
+    private final JButton cancelButton = new JButton("Cancel");
+    private final Timer progressDelay;
+    private final Set<Task<?>> running = new LinkedHashSet<>();
+    private final Map<String, Task<?>> latestByKey = new HashMap<>();
+    private boolean closed;
+
+    /**
+     * Creates the executor for a window.
+     *
+     * @param owner the window that shows a wait cursor while tasks run
+     */
+    public UiTaskExecutor(Component owner) {
+        this.owner = owner;
+        progressBar.setIndeterminate(true);
+        progressBar.setPreferredSize(new Dimension(120, progressBar.getPreferredSize().height));
+        cancelButton.setToolTipText("Stop loading");
+        cancelButton.addActionListener(e -> cancelReads());
+        statusBar.add(progressBar);
+        statusBar.add(statusLabel);
+        statusBar.add(cancelButton);
+        statusBar.setVisible(false);
+        progressDelay = new Timer(PROGRESS_DELAY_MILLIS, e -> showProgress());
+        progressDelay.setRepeats(false);
+    }
+
+    /**
+     * @return the status bar showing the tasks in progress, to be added to the window
+     */
+    public JComponent getStatusBar() {
+        return statusBar;
+    }
+
+    /**
+     * Starts a read in the background, superseding any read with the same key.
+     *
+     * @param key what the read loads; a later read with the same key cancels this one
+     * @param description what the status bar shows while the read runs, e.g. "Loading loans..."
+     * @param work the service calls, run off the EDT
+     * @param onSuccess receives the result on the EDT
+     * @param onFailure receives what the work threw on the EDT
+     */
+    public <T> void run(String key, String description, Callable<T> work,
+                        Consumer<? super T> onSuccess, Consumer<? super Exception> onFailure) {
+        Task<?> previous = latestByKey.get(key);
+        if (previous != null) {
+            previous.cancelQuietly();
+        }
+        Task<T> task = new Task<>(key, description, work, onSuccess, onFailure, null);
+        latestByKey.put(key, task);
+        start(task);
+    }
+
+    /**
+     * Starts a write in the background. Writes are not cancelled, and the
+     * component that triggered one is disabled until it finishes, so it is not
+     * submitted twice.
+     *
+     * @param trigger the button or field that started the write, or null
+     * @param description what the status bar shows while the write runs
+     * @param work the service calls, run off the EDT
+     * @param onSuccess receives the result on the EDT
+     * @param onFailure receives what the work threw on the EDT
+     */
+    public <T> void submit(JComponent trigger, String description, Callable<T> work,
+                           Consumer<? super T> onSuccess, Consumer<? super Exception> onFailure) {
+        if (trigger != null) {
+            trigger.setEnabled(false);
+        }
+        start(new Task<>(null, description, work, onSuccess, onFailure, trigger));
+    }
+
+    /**
+     * Cancels the running reads; their results are not delivered.
+     */
+    public void cancelReads() {
+        for (Task<?> task : latestByKey.values().toArray(new Task<?>[0])) {
+            task.cancelQuietly();
+        }
+    }
+
+    /**
+     * Cancels the running reads and drops the results of running writes, for a
+     * window that is being closed.
+     */
+    public void close() {
+        closed = true;
+        cancelReads();
+    }
+
+    /**
+     * @return true while any task is running
+     */
+    public boolean isBusy() {
+        return !running.isEmpty();
+    }
+
+    private void start(Task<?> task) {
+        running.add(task);
+        statusLabel.setText(task.description);
+        cancelButton.setEnabled(!latestByKey.isEmpty());
+        if (!statusBar.isVisible()) {
+            progressDelay.restart();
+        }
+        task.execute();
+    }
+
+    private void finished(Task<?> task) {
+        running.remove(task);
+        if (task.key != null) {
+            latestByKey.remove(task.key, task);
+        }
+        if (task.trigger != null) {
+            task.trigger.setEnabled(true);
+        }
+        if (running.isEmpty()) {
+            progressDelay.stop();
+            statusBar.setVisible(false);
+            owner.setCursor(Cursor.getDefaultCursor());
+        } else {
+            statusLabel.setText(running.iterator().next().description);
+            cancelButton.setEnabled(!latestByKey.isEmpty());
+        }
+    }
+
+    private void showProgress() {
+        if (running.isEmpty()) {
+            return;
+        }
+        cancelButton.setEnabled(!latestByKey.isEmpty());
+        statusBar.setVisible(true);
+        owner.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+    }
+
+    /**
+     * One background task; done() runs on the EDT once the work finished or the
+     * task was cancelled, whichever comes first.
+     */
+    private final class Task<T> extends SwingWorker<T, Void> {
+        private final String key;
+        private final String description;
+        private final Callable<T> work;
+        private final Consumer<? super T> onSuccess;
+        private final Consumer<? super Exception> onFailure;
+        private final JComponent trigger;
+        private final QueryCancellation cancellation = new QueryCancellation();
+
+        private Task(String key, String description, Callable<T> work, Consumer<? super T> onSuccess,
+                     Consumer<? super Exception> onFailure, JComponent trigger) {
+            this.key = key;
+            this.description = description;
+            this.work = work;
+            this.onSuccess = onSuccess;
+            this.onFailure = onFailure;
+            this.trigger = trigger;
+        }
+
+        @Override
+        protected T doInBackground() throws Exception {
+            return cancellation.call(work);
+        }
+
+        // Not interrupting: the driver does not expect it, and cancelling the queries stops the work
+        private void cancelQuietly() {
+            if (cancel(false)) {
+                CANCELLER.execute(cancellation::cancel);
+            }
+        }
+
+        @Override
+        protected void done() {
+            finished(this);
+            if (isCancelled() || closed) {
+                return;
+            }
+            T result;
+            try {
+                result = get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                onFailure.accept((Exception) cause);
+                return;
+            }
+            onSuccess.accept(result);
+        }
+    }
+}
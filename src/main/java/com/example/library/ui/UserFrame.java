@@ -2,7 +2,8 @@ package com.example.library.ui;
 
 import com.example.library.domain.Fine;
 import com.example.library.domain.Loan;
-import com.example.library.domain.MediaItem;
+import com.example.library.domain.LoanStatus;
+import com.example.library.domain.LoanView;
 import com.example.library.domain.User;
 import com.example.library.service.*;
 
@@ -32,6 +33,7 @@ public class UserFrame extends JFrame {
     private static final String PUBLISHER_TEXT = "Publisher";
     private static final String SUCCESS_TEXT = "Success";
     private static final String SEARCH_TEXT = "Search";
+    private static final int SUGGESTION_LIMIT = 8;
     
     private final transient User currentUser;
     private final transient LibraryService libraryService;
@@ -39,6 +41,7 @@ public class UserFrame extends JFrame {
     private final transient AuthService authService;
     private final transient com.example.library.repository.UserRepository userRepository;
     
+    private final transient UiTaskExecutor tasks = new UiTaskExecutor(this);
     private JTabbedPane tabbedPane;
     
     public UserFrame(User currentUser, AuthService authService, LibraryService libraryService, PaymentService paymentService, com.example.library.repository.UserRepository userRepository) {
@@ -83,6 +86,9 @@ public class UserFrame extends JFrame {
         headerPanel.add(logoutButton, BorderLayout.EAST);
         
         add(headerPanel, BorderLayout.NORTH);
+        
+        // Shows the service calls running in the background
+        add(tasks.getStatusBar(), BorderLayout.SOUTH);
     }
     
     private JPanel createSearchItemsPanel() {
@@ -94,6 +100,9 @@ public class UserFrame extends JFrame {
         searchPanel.add(new JLabel("Search:"));
         JTextField searchField = new JTextField(30);
         searchPanel.add(searchField);
+        JCheckBox fuzzyCheckBox = new JCheckBox("Allow typos");
+        fuzzyCheckBox.setToolTipText("Also find titles and authors spelled slightly differently");
+        searchPanel.add(fuzzyCheckBox);
         JButton searchButton = new JButton(SEARCH_TEXT);
         searchPanel.add(searchButton);
         
@@ -109,27 +118,30 @@ public class UserFrame extends JFrame {
         // Search action
         searchButton.addActionListener(e -> {
             String keyword = searchField.getText().trim();
-            searchItems(tableModel, keyword);
+            searchItems(tableModel, keyword, fuzzyCheckBox.isSelected());
         });
         
         // Allow Enter key to trigger search
         searchField.addActionListener(e -> searchButton.doClick());
         
+        // Suggest titles and authors while typing
+        AutocompleteSupport.install(searchField,
+                prefix -> libraryService.suggestSearchTerms(prefix, SUGGESTION_LIMIT),
+                searchButton::doClick);
+        
         // Load all items initially
-        searchItems(tableModel, "");
+        searchItems(tableModel, "", false);
         
         return panel;
     }
     
-    private void searchItems(DefaultTableModel tableModel, String keyword) {
-        try {
-            List<MediaItem> items = libraryService.searchItems(keyword);
-            UIHelper.populateItemsTable(tableModel, items);
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error searching items: " + ex.getMessage(),
-                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-        }
+    private void searchItems(DefaultTableModel tableModel, String keyword, boolean fuzzy) {
+        SearchOptions options = fuzzy ? SearchOptions.fuzzy(SearchOptions.MAX_EDITS) : SearchOptions.exact();
+        tasks.run("catalog", "Searching items...",
+                () -> libraryService.searchItems(keyword, options),
+                items -> UIHelper.populateItemsTable(tableModel, items),
+                ex -> JOptionPane.showMessageDialog(this, "Error searching items: " + ex.getMessage(),
+                        ERROR_TITLE, JOptionPane.ERROR_MESSAGE));
     }
     
     private JPanel createBorrowItemPanel() {
@@ -167,7 +179,7 @@ public class UserFrame extends JFrame {
             
             try {
                 int itemId = Integer.parseInt(itemIdStr);
-                borrowItem(itemId, infoArea);
+                borrowItem(itemId, infoArea, borrowButton);
                 itemIdField.setText("");
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(this, "Item ID must be a number",
@@ -178,33 +190,35 @@ public class UserFrame extends JFrame {
         return panel;
     }
     
-    private void borrowItem(int itemId, JTextArea infoArea) {
-        try {
-            LocalDate today = LocalDate.now();
-            Loan loan = libraryService.borrowItem(currentUser.getUserId(), itemId, today);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-            String message = "✓ Item borrowed successfully!\n\n" +
-                    "Loan ID: " + loan.getLoanId() + "\n" +
-                    "Item ID: " + loan.getItemId() + "\n" +
-                    "Loan Date: " + loan.getLoanDate().format(formatter) + "\n" +
-                    "Due Date: " + loan.getDueDate().format(formatter) + "\n" +
-                    "Status: " + loan.getStatus();
-            
-            infoArea.setText(message);
-            
-            JOptionPane.showMessageDialog(this, "Item borrowed successfully!\nDue date: " + loan.getDueDate(),
-                    SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
-            
-        } catch (BusinessException ex) {
-            JOptionPane.showMessageDialog(this, "Cannot borrow item: " + ex.getMessage(),
-                    BUSINESS_ERROR_TITLE, JOptionPane.WARNING_MESSAGE);
-            infoArea.setText("✗ Cannot borrow item:\n" + ex.getMessage());
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error borrowing item: " + ex.getMessage(),
-                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-            infoArea.setText("✗ Error:\n" + ex.getMessage());
-        }
+    private void borrowItem(int itemId, JTextArea infoArea, JButton borrowButton) {
+        LocalDate today = LocalDate.now();
+        tasks.submit(borrowButton, "Borrowing item...",
+                () -> libraryService.borrowItem(currentUser.getUserId(), itemId, today),
+                loan -> {
+                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
+                    String message = "✓ Item borrowed successfully!\n\n" +
+                            "Loan ID: " + loan.getLoanId() + "\n" +
+                            "Item ID: " + loan.getItemId() + "\n" +
+                            "Loan Date: " + loan.getLoanDate().format(formatter) + "\n" +
+                            "Due Date: " + loan.getDueDate().format(formatter) + "\n" +
+                            "Status: " + loan.getStatus();
+                    
+                    infoArea.setText(message);
+                    
+                    JOptionPane.showMessageDialog(this, "Item borrowed successfully!\nDue date: " + loan.getDueDate(),
+                            SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
+                },
+                ex -> {
+                    if (ex instanceof BusinessException) {
+                        JOptionPane.showMessageDialog(this, "Cannot borrow item: " + ex.getMessage(),
+                                BUSINESS_ERROR_TITLE, JOptionPane.WARNING_MESSAGE);
+                        infoArea.setText("✗ Cannot borrow item:\n" + ex.getMessage());
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Error borrowing item: " + ex.getMessage(),
+                                ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+                        infoArea.setText("✗ Error:\n" + ex.getMessage());
+                    }
+                });
     }
     
     private JPanel createActiveLoansPanel() {
@@ -217,18 +231,18 @@ public class UserFrame extends JFrame {
         panel.add(titleLabel, BorderLayout.NORTH);
         
         // Table
-        String[] columns = {LOAN_ID_TEXT, "Item ID", "Title", "Loan Date", "Due Date", "Days Until Due", "Late Fee/Day", "Return"};
+        String[] columns = {LOAN_ID_TEXT, "Item ID", "Title", "Loan Date", "Due Date", "Days Until Due", "Late Fee/Day", "Accrued Fine", "Return"};
         DefaultTableModel tableModel = UIHelper.createNonEditableTableModel(columns);
         JTable table = new JTable(tableModel);
         
         // Add button column renderer
-        table.getColumnModel().getColumn(7).setCellRenderer((tbl, value, isSelected, hasFocus, row, column) -> {
+        table.getColumnModel().getColumn(8).setCellRenderer((tbl, value, isSelected, hasFocus, row, column) -> {
             JButton button = new JButton("Return Now");
             return button;
         });
         
         // Add button column editor
-        table.getColumnModel().getColumn(7).setCellEditor(new javax.swing.DefaultCellEditor(new JCheckBox()) {
+        table.getColumnModel().getColumn(8).setCellEditor(new javax.swing.DefaultCellEditor(new JCheckBox()) {
             private JButton button = new JButton("Return Now");
             
             {
@@ -265,78 +279,77 @@ public class UserFrame extends JFrame {
     }
     
     private void loadActiveLoans(DefaultTableModel tableModel) {
-        try {
-            List<Loan> loans = libraryService.getUserLoans(currentUser.getUserId());
-            
-            // Clear table
-            tableModel.setRowCount(0);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-            LocalDate today = LocalDate.now();
-            
-            // Only show ACTIVE loans
-            for (Loan loan : loans) {
-                if ("ACTIVE".equals(loan.getStatus())) {
-                    // Get item details
-                    MediaItem item = libraryService.searchItems("").stream()
-                            .filter(i -> i.getItemId().equals(loan.getItemId()))
-                            .findFirst()
-                            .orElse(null);
-                    
-                    String itemTitle = item != null ? item.getTitle() : "Unknown";
-                    LocalDate dueDate = loan.getDueDate();
-                    long daysUntilDue = java.time.temporal.ChronoUnit.DAYS.between(today, dueDate);
-                    
-                    String daysUntilDueStr;
-                    if (daysUntilDue > 0) {
-                        daysUntilDueStr = daysUntilDue + " days";
-                    } else if (daysUntilDue == 0) {
-                        daysUntilDueStr = "DUE TODAY!";
-                    } else {
-                        daysUntilDueStr = "OVERDUE " + Math.abs(daysUntilDue) + " days";
-                    }
-                    
-                    // Get late fee from item
-                    BigDecimal lateFee = item != null && item.getLateFeesPerDay() != null ? item.getLateFeesPerDay() : BigDecimal.ZERO;
-                    
-                    Object[] row = {
-                        loan.getLoanId(),
-                        loan.getItemId(),
-                        itemTitle,
-                        loan.getLoanDate().format(formatter),
-                        dueDate.format(formatter),
-                        daysUntilDueStr,
-                        lateFee + " NIS",
-                        "Return"
-                    };
-                    tableModel.addRow(row);
-                }
-            }
-            
-            if (tableModel.getRowCount() == 0) {
-                Object[] emptyRow = {"No active loans", "", "", "", "", "", "", ""};
-                tableModel.addRow(emptyRow);
+        LocalDate today = LocalDate.now();
+        // Item details and fines come with the loans, in one query
+        tasks.run("active-loans", "Loading active loans...",
+                () -> libraryService.getUserLoanViews(currentUser.getUserId(), LoanStatus.ACTIVE, today),
+                loans -> showActiveLoans(tableModel, loans, today),
+                ex -> JOptionPane.showMessageDialog(this, "Error loading active loans: " + ex.getMessage(),
+                        ERROR_TITLE, JOptionPane.ERROR_MESSAGE));
+    }
+    
+    private void showActiveLoans(DefaultTableModel tableModel, List<LoanView> loans, LocalDate today) {
+        // Clear table
+        tableModel.setRowCount(0);
+        
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
+        
+        for (LoanView view : loans) {
+            Loan loan = view.getLoan();
+            LocalDate dueDate = loan.getDueDate();
+            long daysUntilDue = java.time.temporal.ChronoUnit.DAYS.between(today, dueDate);
+            
+            String daysUntilDueStr;
+            if (daysUntilDue > 0) {
+                daysUntilDueStr = daysUntilDue + " days";
+            } else if (daysUntilDue == 0) {
+                daysUntilDueStr = "DUE TODAY!";
+            } else {
+                daysUntilDueStr = "OVERDUE " + Math.abs(daysUntilDue) + " days";
             }
             
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading active loans: " + ex.getMessage(),
-                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+            BigDecimal lateFee = view.getLateFeePerDay() != null ? view.getLateFeePerDay() : BigDecimal.ZERO;
+            
+            Object[] row = {
+                loan.getLoanId(),
+                loan.getItemId(),
+                view.getItemTitle(),
+                loan.getLoanDate().format(formatter),
+                dueDate.format(formatter),
+                daysUntilDueStr,
+                lateFee + " NIS",
+                String.format("%.2f NIS", view.getAccruedFine()),
+                "Return"
+            };
+            tableModel.addRow(row);
+        }
+        
+        if (tableModel.getRowCount() == 0) {
+            Object[] emptyRow = {"No active loans", "", "", "", "", "", "", "", ""};
+            tableModel.addRow(emptyRow);
         }
     }
     
     private void returnItemQuick(int loanId, DefaultTableModel tableModel) {
-        try {
-            libraryService.returnItem(loanId, LocalDate.now());
-            JOptionPane.showMessageDialog(this, "Item returned successfully!",
-                    SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
-            loadActiveLoans(tableModel); // Refresh
-        } catch (BusinessException ex) {
-            JOptionPane.showMessageDialog(this, ex.getMessage(),
-                    BUSINESS_ERROR_TITLE, JOptionPane.WARNING_MESSAGE);
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error returning item: " + ex.getMessage(),
-                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-        }
+        tasks.submit(null, "Returning item...",
+                () -> {
+                    libraryService.returnItem(loanId, LocalDate.now());
+                    return null;
+                },
+                ignored -> {
+                    JOptionPane.showMessageDialog(this, "Item returned successfully!",
+                            SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
+                    loadActiveLoans(tableModel); // Refresh
+                },
+                ex -> {
+                    if (ex instanceof BusinessException) {
+                        JOptionPane.showMessageDialog(this, ex.getMessage(),
+                                BUSINESS_ERROR_TITLE, JOptionPane.WARNING_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Error returning item: " + ex.getMessage(),
+                                ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+                    }
+                });
     }
     
     private JPanel createReturnItemPanel() {
@@ -356,7 +369,7 @@ public class UserFrame extends JFrame {
         panel.add(formPanel, BorderLayout.NORTH);
         
         // Table for displaying user's loans
-        String[] columns = {LOAN_ID_TEXT, "Item ID", "Loan Date", "Due Date", "Return Date", STATUS_TEXT};
+        String[] columns = {LOAN_ID_TEXT, "Item ID", "Title", "Loan Date", "Due Date", "Return Date", STATUS_TEXT};
         DefaultTableModel tableModel = UIHelper.createNonEditableTableModel(columns);
         JTable table = new JTable(tableModel);
         JScrollPane scrollPane = new JScrollPane(table);
@@ -373,9 +386,8 @@ public class UserFrame extends JFrame {
             
             try {
                 int loanId = Integer.parseInt(loanIdStr);
-                returnItem(loanId);
                 loanIdField.setText("");
-                loadUserLoans(tableModel); // Refresh loans table
+                returnItem(loanId, returnButton, () -> loadUserLoans(tableModel)); // Refresh loans table
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(this, "Loan ID must be a number",
                         VALIDATION_ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
@@ -392,58 +404,64 @@ public class UserFrame extends JFrame {
     }
     
     private void loadUserLoans(DefaultTableModel tableModel) {
-        try {
-            List<Loan> loans = libraryService.getUserLoans(currentUser.getUserId());
-            
-            // Clear table
-            tableModel.setRowCount(0);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-            
-            // Add loans to table
-            for (Loan loan : loans) {
-                Object[] row = {
-                        loan.getLoanId(),
-                        loan.getItemId(),
-                        loan.getLoanDate().format(formatter),
-                        loan.getDueDate().format(formatter),
-                        loan.getReturnDate() != null ? loan.getReturnDate().format(formatter) : "",
-                        loan.getStatus()
-                };
-                tableModel.addRow(row);
-            }
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading loans: " + ex.getMessage(),
-                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-        }
+        tasks.run("loan-history", "Loading loans...",
+                () -> libraryService.getUserLoanViews(currentUser.getUserId(), null, LocalDate.now()),
+                loans -> {
+                    // Clear table
+                    tableModel.setRowCount(0);
+                    
+                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
+                    
+                    // Add loans to table
+                    for (LoanView view : loans) {
+                        Loan loan = view.getLoan();
+                        Object[] row = {
+                                loan.getLoanId(),
+                                loan.getItemId(),
+                                view.getItemTitle(),
+                                loan.getLoanDate().format(formatter),
+                                loan.getDueDate().format(formatter),
+                                loan.getReturnDate() != null ? loan.getReturnDate().format(formatter) : "",
+                                loan.getStatus()
+                        };
+                        tableModel.addRow(row);
+                    }
+                },
+                ex -> JOptionPane.showMessageDialog(this, "Error loading loans: " + ex.getMessage(),
+                        ERROR_TITLE, JOptionPane.ERROR_MESSAGE));
     }
     
-    private void returnItem(int loanId) {
-        try {
-            LocalDate today = LocalDate.now();
-            libraryService.returnItem(loanId, today);
-            
-            JOptionPane.showMessageDialog(this, "Item returned successfully!",
-                    SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
-            
-            // Check if fine was created
-            List<Fine> fines = paymentService.getUnpaidFines(currentUser.getUserId());
-            if (!fines.isEmpty()) {
-                BigDecimal total = paymentService.getTotalUnpaid(currentUser.getUserId());
-                JOptionPane.showMessageDialog(this,
-                        "Item returned, but you have unpaid fines.\nTotal unpaid: " + total + " NIS\n" +
-                                "Please check the 'My Fines' tab.",
-                        "Fine Notice", JOptionPane.WARNING_MESSAGE);
-            }
-            
-        } catch (BusinessException ex) {
-            JOptionPane.showMessageDialog(this, "Cannot return item: " + ex.getMessage(),
-                    BUSINESS_ERROR_TITLE, JOptionPane.WARNING_MESSAGE);
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error returning item: " + ex.getMessage(),
-                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-        }
+    private void returnItem(int loanId, JButton returnButton, Runnable afterReturn) {
+        LocalDate today = LocalDate.now();
+        tasks.submit(returnButton, "Returning item...",
+                () -> {
+                    libraryService.returnItem(loanId, today);
+                    // Check if fine was created
+                    List<Fine> fines = paymentService.getUnpaidFines(currentUser.getUserId());
+                    return fines.isEmpty() ? null : paymentService.getTotalUnpaid(currentUser.getUserId());
+                },
+                unpaidTotal -> {
+                    JOptionPane.showMessageDialog(this, "Item returned successfully!",
+                            SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
+                    
+                    if (unpaidTotal != null) {
+                        JOptionPane.showMessageDialog(this,
+                                "Item returned, but you have unpaid fines.\nTotal unpaid: " + unpaidTotal + " NIS\n" +
+                                        "Please check the 'My Fines' tab.",
+                                "Fine Notice", JOptionPane.WARNING_MESSAGE);
+                    }
+                    afterReturn.run();
+                },
+                ex -> {
+                    if (ex instanceof BusinessException) {
+                        JOptionPane.showMessageDialog(this, "Cannot return item: " + ex.getMessage(),
+                                BUSINESS_ERROR_TITLE, JOptionPane.WARNING_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Error returning item: " + ex.getMessage(),
+                                ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
+                    }
+                    afterReturn.run();
+                });
     }
     
     private JPanel createFinesPanel() {
@@ -480,7 +498,7 @@ public class UserFrame extends JFrame {
         
         // Pay all action
         payAllButton.addActionListener(e -> {
-            payAllFines(tableModel, totalLabel);
+            payAllFines(tableModel, totalLabel, payAllButton);
         });
         
         // Pay selected action
@@ -501,7 +519,7 @@ public class UserFrame extends JFrame {
                 return;
             }
             
-            payFine(fineId, tableModel, totalLabel);
+            payFine(fineId, tableModel, totalLabel, paySelectedButton);
         });
         
         // Load fines initially
@@ -511,74 +529,83 @@ public class UserFrame extends JFrame {
     }
     
     private void loadFines(DefaultTableModel tableModel, JLabel totalLabel) {
-        try {
-            List<Fine> fines = paymentService.getUnpaidFines(currentUser.getUserId());
-            BigDecimal total = paymentService.getTotalUnpaid(currentUser.getUserId());
-            
-            // Clear table
-            tableModel.setRowCount(0);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-            
-            // Add fines to table
-            for (Fine fine : fines) {
-                Object[] row = {
-                        fine.getFineId(),
-                        fine.getLoanId(),
-                        String.format("%.2f", fine.getAmount()),
-                        fine.getIssuedDate().format(formatter),
-                        fine.getStatus(),
-                        fine.getPaidDate() != null ? fine.getPaidDate().format(formatter) : ""
-                };
-                tableModel.addRow(row);
-            }
-            
-            totalLabel.setText(String.format("Total Unpaid: %.2f NIS", total));
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading fines: " + ex.getMessage(),
-                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-        }
+        tasks.run("fines", "Loading fines...",
+                () -> new UnpaidFines(paymentService.getUnpaidFines(currentUser.getUserId()),
+                        paymentService.getTotalUnpaid(currentUser.getUserId())),
+                unpaid -> {
+                    // Clear table
+                    tableModel.setRowCount(0);
+                    
+                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
+                    
+                    // Add fines to table
+                    for (Fine fine : unpaid.fines()) {
+                        Object[] row = {
+                                fine.getFineId(),
+                                fine.getLoanId(),
+                                String.format("%.2f", fine.getAmount()),
+                                fine.getIssuedDate().format(formatter),
+                                fine.getStatus(),
+                                fine.getPaidDate() != null ? fine.getPaidDate().format(formatter) : ""
+                        };
+                        tableModel.addRow(row);
+                    }
+                    
+                    totalLabel.setText(String.format("Total Unpaid: %.2f NIS", unpaid.total()));
+                },
+                ex -> JOptionPane.showMessageDialog(this, "Error loading fines: " + ex.getMessage(),
+                        ERROR_TITLE, JOptionPane.ERROR_MESSAGE));
     }
     
-    private void payAllFines(DefaultTableModel tableModel, JLabel totalLabel) {
-        try {
-            BigDecimal total = paymentService.getTotalUnpaid(currentUser.getUserId());
-            
-            if (total.compareTo(BigDecimal.ZERO) == 0) {
-                JOptionPane.showMessageDialog(this, "You have no unpaid fines.",
-                        "Payment Info", JOptionPane.INFORMATION_MESSAGE);
-                return;
-            }
-            
-            int choice = JOptionPane.showConfirmDialog(this,
-                    String.format("Pay all fines?\nTotal amount: %.2f NIS", total),
-                    "Confirm Payment", JOptionPane.YES_NO_OPTION);
-            
-            if (choice == JOptionPane.YES_OPTION) {
-                paymentService.payAllFinesForUser(currentUser.getUserId());
-                JOptionPane.showMessageDialog(this, "All fines paid successfully!",
-                        SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
-                loadFines(tableModel, totalLabel);
-            }
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error paying fines: " + ex.getMessage(),
-                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-        }
+    private void payAllFines(DefaultTableModel tableModel, JLabel totalLabel, JButton payAllButton) {
+        tasks.submit(payAllButton, "Checking fines...",
+                () -> paymentService.getTotalUnpaid(currentUser.getUserId()),
+                total -> {
+                    if (total.compareTo(BigDecimal.ZERO) == 0) {
+                        JOptionPane.showMessageDialog(this, "You have no unpaid fines.",
+                                "Payment Info", JOptionPane.INFORMATION_MESSAGE);
+                        return;
+                    }
+                    
+                    int choice = JOptionPane.showConfirmDialog(this,
+                            String.format("Pay all fines?\nTotal amount: %.2f NIS", total),
+                            "Confirm Payment", JOptionPane.YES_NO_OPTION);
+                    
+                    if (choice == JOptionPane.YES_OPTION) {
+                        tasks.submit(payAllButton, "Paying fines...",
+                                () -> {
+                                    paymentService.payAllFinesForUser(currentUser.getUserId());
+                                    return null;
+                                },
+                                ignored -> {
+                                    JOptionPane.showMessageDialog(this, "All fines paid successfully!",
+                                            SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
+                                    loadFines(tableModel, totalLabel);
+                                },
+                                this::showPaymentError);
+                    }
+                },
+                this::showPaymentError);
     }
     
-    private void payFine(int fineId, DefaultTableModel tableModel, JLabel totalLabel) {
-        try {
-            paymentService.payFine(fineId);
-            JOptionPane.showMessageDialog(this, "Fine paid successfully!",
-                    SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
-            loadFines(tableModel, totalLabel);
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error paying fine: " + ex.getMessage(),
-                    ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
-        }
+    private void payFine(int fineId, DefaultTableModel tableModel, JLabel totalLabel, JButton paySelectedButton) {
+        tasks.submit(paySelectedButton, "Paying fine...",
+                () -> {
+                    paymentService.payFine(fineId);
+                    return null;
+                },
+                ignored -> {
+                    JOptionPane.showMessageDialog(this, "Fine paid successfully!",
+                            SUCCESS_TEXT, JOptionPane.INFORMATION_MESSAGE);
+                    loadFines(tableModel, totalLabel);
+                },
+                ex -> JOptionPane.showMessageDialog(this, "Error paying fine: " + ex.getMessage(),
+                        ERROR_TITLE, JOptionPane.ERROR_MESSAGE));
+    }
+    
+    private void showPaymentError(Exception ex) {
+        JOptionPane.showMessageDialog(this, "Error paying fines: " + ex.getMessage(),
+                ERROR_TITLE, JOptionPane.ERROR_MESSAGE);
     }
     
     private JPanel createProfilePanel() {
@@ -675,4 +702,13 @@ public class UserFrame extends JFrame {
             });
         }
     }
+    
+    @Override
+    public void dispose() {
+        tasks.close();
+        super.dispose();
+    }
+    
+    private record UnpaidFines(List<Fine> fines, BigDecimal total) {
+    }
 }
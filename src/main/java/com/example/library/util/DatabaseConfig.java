@@ -49,4 +49,119 @@ public class DatabaseConfig {
     public static String getDriver() {
         return properties.getProperty("db.driver");
     }
+    
+    public static int getPoolMinSize() {
+        return getIntProperty("db.pool.minSize", 2);
+    }
+    
+    public static int getPoolMaxSize() {
+        return getIntProperty("db.pool.maxSize", 10);
+    }
+    
+    public static long getPoolAcquireTimeoutMillis() {
+        return getIntProperty("db.pool.acquireTimeoutMillis", 30000);
+    }
+    
+    public static long getPoolIdleTimeoutMillis() {
+        return getIntProperty("db.pool.idleTimeoutMillis", 600000);
+    }
+    
+    public static int getPoolValidationTimeoutSeconds() {
+        return getIntProperty("db.pool.validationTimeoutSeconds", 5);
+    }
+    
+    public static long getPoolLeakDetectionThresholdMillis() {
+        return getIntProperty("db.pool.leakDetectionThresholdMillis", 60000);
+    }
+    
+    public static int getPoolStatementCacheSize() {
+        return getIntProperty("db.pool.statementCacheSize", 64);
+    }
+    
+    public static boolean isInMemorySearchEnabled() {
+        return getBooleanProperty("search.inMemoryIndex", false);
+    }
+    
+    /**
+     * @return the most media items kept by the read-through item cache; 0 turns the cache off
+     */
+    public static int getMediaItemCacheSize() {
+        return getIntProperty("cache.mediaItem.maxSize", 1000);
+    }
+    
+    public static int getMediaItemCacheTtlSeconds() {
+        return getIntProperty("cache.mediaItem.ttlSeconds", 60);
+    }
+    
+    /**
+     * @return the most entries kept by the user cache, two per user looked up by both ID and
+     *         username; 0 turns the cache off
+     */
+    public static int getUserCacheSize() {
+        return getIntProperty("cache.user.maxSize", 1000);
+    }
+    
+    public static int getUserCacheTtlSeconds() {
+        return getIntProperty("cache.user.ttlSeconds", 60);
+    }
+    
+    public static boolean isLookupFilterEnabled() {
+        return getBooleanProperty("lookupFilter.enabled", false);
+    }
+    
+    public static double getLookupFilterFalsePositiveRate() {
+        String value = System.getProperty("lookupFilter.falsePositiveRate");
+        if (value == null || value.isEmpty()) {
+            value = properties.getProperty("lookupFilter.falsePositiveRate");
+        }
+        if (value == null || value.trim().isEmpty()) {
+            return 0.01;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return 0.01;
+        }
+    }
+    
+    /**
+     * @return whether to listen for changes committed by other clients and drop them from the caches
+     */
+    public static boolean isChangeNotificationsEnabled() {
+        return getBooleanProperty("changeNotifications.enabled", true);
+    }
+    
+    public static int getChangeNotificationReconnectDelayMillis() {
+        return getIntProperty("changeNotifications.reconnectDelayMillis", 5000);
+    }
+    
+    private static boolean getBooleanProperty(String key, boolean defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null || value.isEmpty()) {
+            value = properties.getProperty(key);
+        }
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+    
+    /**
+     * Reads an integer setting, allowing a system property override like the connection settings.
+     * Falls back to the default when the value is missing or not a number.
+     */
+    private static int getIntProperty(String key, int defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null || value.isEmpty()) {
+            value = properties.getProperty(key);
+        }
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
 }
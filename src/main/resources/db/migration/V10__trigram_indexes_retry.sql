@@ -0,0 +1,26 @@
+-- Retries the trigram indexes from V6, whose blanket exception handler also
+-- swallowed index build failures (lock or statement timeouts, disk space) and
+-- still recorded the migration as applied, so those indexes were never built.
+-- Only an unavailable pg_trgm (not installed, or this role may not create it)
+-- is tolerated here; the repository then falls back to unindexed ILIKE. Any
+-- other failure aborts this migration so it is retried on the next startup.
+
+DO $$
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS pg_trgm;
+EXCEPTION
+    WHEN undefined_file OR insufficient_privilege OR feature_not_supported THEN
+        RAISE NOTICE 'pg_trgm not available, substring search stays unindexed: %', SQLERRM;
+END
+$$;
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm') THEN
+        CREATE INDEX IF NOT EXISTS idx_media_title_trgm ON media_item USING GIN (title gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_media_author_trgm ON media_item USING GIN (author gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_media_isbn_trgm ON media_item USING GIN (isbn gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_media_type_trgm ON media_item USING GIN (type gin_trgm_ops);
+    END IF;
+END
+$$;
@@ -0,0 +1,13 @@
+-- fuzzystrmatch provides levenshtein(), which JdbcMediaItemRepository.fuzzySearch
+-- uses to check the trigram candidates against the edit budget. Like pg_trgm it
+-- ships with contrib; when it is unavailable the search keeps the trigram
+-- similarity threshold alone, which it detects at runtime.
+
+DO $$
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS fuzzystrmatch;
+EXCEPTION
+    WHEN undefined_file OR insufficient_privilege OR feature_not_supported THEN
+        RAISE NOTICE 'fuzzystrmatch not available, fuzzy search is not checked against the edit budget: %', SQLERRM;
+END
+$$;
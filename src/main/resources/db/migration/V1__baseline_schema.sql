@@ -0,0 +1,60 @@
+-- Baseline schema for the Library Management System.
+-- Uses IF NOT EXISTS throughout so databases that were set up by hand before
+-- the migration runner existed are adopted without changes.
+
+CREATE TABLE IF NOT EXISTS app_user (
+    user_id SERIAL PRIMARY KEY,
+    username VARCHAR(100) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    role VARCHAR(50) NOT NULL DEFAULT 'MEMBER',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS media_item (
+    item_id SERIAL PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    author VARCHAR(255),
+    type VARCHAR(50) NOT NULL,
+    isbn VARCHAR(20),
+    publication_date DATE,
+    publisher VARCHAR(255),
+    total_copies INTEGER NOT NULL DEFAULT 1,
+    available_copies INTEGER NOT NULL DEFAULT 1,
+    late_fees_per_day DECIMAL(10, 2) NOT NULL DEFAULT 10.00,
+    CONSTRAINT chk_copies CHECK (available_copies >= 0 AND available_copies <= total_copies)
+);
+
+CREATE TABLE IF NOT EXISTS loan (
+    loan_id SERIAL PRIMARY KEY,
+    user_id INTEGER NOT NULL,
+    item_id INTEGER NOT NULL,
+    loan_date DATE NOT NULL,
+    due_date DATE NOT NULL,
+    return_date DATE,
+    status VARCHAR(50) NOT NULL DEFAULT 'ACTIVE',
+    CONSTRAINT fk_loan_user FOREIGN KEY (user_id) REFERENCES app_user(user_id) ON DELETE CASCADE,
+    CONSTRAINT fk_loan_item FOREIGN KEY (item_id) REFERENCES media_item(item_id) ON DELETE CASCADE,
+    CONSTRAINT chk_dates CHECK (due_date >= loan_date)
+);
+
+CREATE TABLE IF NOT EXISTS fine (
+    fine_id SERIAL PRIMARY KEY,
+    loan_id INTEGER NOT NULL,
+    amount DECIMAL(10, 2) NOT NULL,
+    issued_date DATE NOT NULL,
+    status VARCHAR(50) NOT NULL DEFAULT 'UNPAID',
+    paid_date DATE,
+    CONSTRAINT fk_fine_loan FOREIGN KEY (loan_id) REFERENCES loan(loan_id) ON DELETE CASCADE,
+    CONSTRAINT chk_amount CHECK (amount >= 0)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_username ON app_user(username);
+CREATE INDEX IF NOT EXISTS idx_user_email ON app_user(email);
+CREATE INDEX IF NOT EXISTS idx_media_title ON media_item(title);
+CREATE INDEX IF NOT EXISTS idx_media_type ON media_item(type);
+CREATE INDEX IF NOT EXISTS idx_loan_user ON loan(user_id);
+CREATE INDEX IF NOT EXISTS idx_loan_item ON loan(item_id);
+CREATE INDEX IF NOT EXISTS idx_loan_status ON loan(status);
+CREATE INDEX IF NOT EXISTS idx_fine_loan ON fine(loan_id);
+CREATE INDEX IF NOT EXISTS idx_fine_status ON fine(status);
@@ -0,0 +1,7 @@
+-- Partial index backing the per-user borrowing eligibility check
+-- (JdbcLoanRepository.hasOverdueLoansOrUnpaidFines). Only open loans are indexed,
+-- so the index stays small as returned loans accumulate.
+
+CREATE INDEX IF NOT EXISTS idx_loan_user_open ON loan(user_id, due_date) WHERE return_date IS NULL;
+
+COMMENT ON INDEX idx_loan_user_open IS 'Open loans by user and due date, used to check for overdue loans when borrowing';
@@ -0,0 +1,15 @@
+-- Indexes for the hot repository queries that otherwise fall back to sequential scans.
+
+-- Open loans by due date (JdbcLoanRepository.findOverdueLoans, findLoansDueSoon)
+CREATE INDEX IF NOT EXISTS idx_loan_open_due ON loan(due_date) WHERE return_date IS NULL;
+
+-- Case-insensitive email lookup (JdbcUserRepository.existsByEmail)
+CREATE INDEX IF NOT EXISTS idx_user_email_lower ON app_user(LOWER(email));
+
+-- One catalogue entry per ISBN (JdbcMediaItemRepository.findByIsbn, existsByIsbn).
+-- Items without an ISBN are unaffected since NULLs never conflict.
+CREATE UNIQUE INDEX IF NOT EXISTS uq_media_isbn ON media_item(isbn);
+
+-- Unpaid fines joined back to their loans (JdbcFineRepository.findUnpaidByUserId,
+-- calculateTotalUnpaidByUserId)
+CREATE INDEX IF NOT EXISTS idx_fine_status_loan ON fine(status, loan_id);
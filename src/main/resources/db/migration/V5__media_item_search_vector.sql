@@ -0,0 +1,15 @@
+-- Full-text catalogue search (JdbcMediaItemRepository.fullTextSearch).
+-- The 'simple' configuration skips stemming and stop words so prefix matching
+-- behaves predictably for names and partial words. ISBNs are indexed with
+-- separators removed so "978-0134685991" and "9780134685991" both match.
+
+ALTER TABLE media_item ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(author, '')), 'B') ||
+        setweight(to_tsvector('simple', regexp_replace(coalesce(isbn, ''), '[^0-9A-Za-z]', '', 'g')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(publisher, '')), 'C') ||
+        setweight(to_tsvector('simple', coalesce(type, '')), 'D')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_media_search ON media_item USING GIN (search_vector);
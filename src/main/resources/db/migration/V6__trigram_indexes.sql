@@ -0,0 +1,18 @@
+-- Trigram indexes so substring ILIKE '%x%' queries can use an index
+-- (JdbcMediaItemRepository.findByTitleContaining, findByAuthorContaining, search).
+-- pg_trgm ships with contrib and may be missing or need privileges this role
+-- lacks; in that case the indexes are skipped and the repository falls back to
+-- unindexed ILIKE, which it detects at runtime.
+
+DO $$
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS pg_trgm;
+    CREATE INDEX IF NOT EXISTS idx_media_title_trgm ON media_item USING GIN (title gin_trgm_ops);
+    CREATE INDEX IF NOT EXISTS idx_media_author_trgm ON media_item USING GIN (author gin_trgm_ops);
+    CREATE INDEX IF NOT EXISTS idx_media_isbn_trgm ON media_item USING GIN (isbn gin_trgm_ops);
+    CREATE INDEX IF NOT EXISTS idx_media_type_trgm ON media_item USING GIN (type gin_trgm_ops);
+EXCEPTION
+    WHEN OTHERS THEN
+        RAISE NOTICE 'pg_trgm not available, substring search stays unindexed: %', SQLERRM;
+END
+$$;
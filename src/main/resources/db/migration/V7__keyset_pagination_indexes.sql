@@ -0,0 +1,19 @@
+-- Indexes for keyset pagination of filtered lists: each page is read as
+-- "filter AND id > cursor ORDER BY id LIMIT n", which these serve as a single
+-- range scan that stops after n rows, however deep into the list the page is.
+-- Unfiltered lists page through the primary keys.
+
+-- Items by type (JdbcMediaItemRepository.findByType)
+CREATE INDEX IF NOT EXISTS idx_media_type_id ON media_item(type, item_id);
+
+-- Items with a copy on the shelf (JdbcMediaItemRepository.findAvailableItems)
+CREATE INDEX IF NOT EXISTS idx_media_available_id ON media_item(item_id) WHERE available_copies > 0;
+
+-- Loans by status (JdbcLoanRepository.findByStatus)
+CREATE INDEX IF NOT EXISTS idx_loan_status_id ON loan(status, loan_id);
+
+-- Fines by status (JdbcFineRepository.findByStatus)
+CREATE INDEX IF NOT EXISTS idx_fine_status_id ON fine(status, fine_id);
+
+-- Users by role (JdbcUserRepository.findByRole)
+CREATE INDEX IF NOT EXISTS idx_user_role_id ON app_user(role, user_id);
@@ -0,0 +1,68 @@
+-- Change notifications for cross-client cache invalidation. After every
+-- statement that writes one of the tables below, a notification is sent on
+-- the library_changes channel with the payload
+--     <table>:<INSERT|UPDATE|DELETE>:<id>,<id>,...
+-- or, for TRUNCATE and for statements changing too many rows to list,
+--     <table>:<operation>:*
+-- Notifications are delivered when the writing transaction commits, and
+-- triggers are per statement, so a bulk write sends one notification.
+
+CREATE OR REPLACE FUNCTION notify_library_change() RETURNS trigger AS $$
+DECLARE
+    -- The primary key column, passed as the trigger argument
+    id_column TEXT := TG_ARGV[0];
+    ids TEXT;
+BEGIN
+    IF TG_OP = 'TRUNCATE' THEN
+        ids := '*';
+    ELSE
+        IF TG_OP = 'DELETE' THEN
+            SELECT string_agg(DISTINCT to_jsonb(r) ->> id_column, ',') INTO ids FROM old_rows r;
+        ELSE
+            SELECT string_agg(DISTINCT to_jsonb(r) ->> id_column, ',') INTO ids FROM new_rows r;
+        END IF;
+        IF ids IS NULL THEN
+            -- The statement matched no rows
+            RETURN NULL;
+        END IF;
+        -- Payloads are limited to 8000 bytes
+        IF length(ids) > 7900 THEN
+            ids := '*';
+        END IF;
+    END IF;
+    PERFORM pg_notify('library_changes', TG_TABLE_NAME || ':' || TG_OP || ':' || ids);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    t RECORD;
+BEGIN
+    FOR t IN SELECT * FROM (VALUES
+            ('media_item', 'item_id'),
+            ('app_user', 'user_id'),
+            ('loan', 'loan_id'),
+            ('fine', 'fine_id'),
+            ('reservation', 'reservation_id')) AS v(table_name, id_column)
+    LOOP
+        -- Transition tables only work on triggers for a single event, hence one trigger per operation
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', t.table_name || '_notify_insert', t.table_name);
+        EXECUTE format('CREATE TRIGGER %I AFTER INSERT ON %I REFERENCING NEW TABLE AS new_rows '
+                       'FOR EACH STATEMENT EXECUTE FUNCTION notify_library_change(%L)',
+                       t.table_name || '_notify_insert', t.table_name, t.id_column);
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', t.table_name || '_notify_update', t.table_name);
+        EXECUTE format('CREATE TRIGGER %I AFTER UPDATE ON %I REFERENCING NEW TABLE AS new_rows '
+                       'FOR EACH STATEMENT EXECUTE FUNCTION notify_library_change(%L)',
+                       t.table_name || '_notify_update', t.table_name, t.id_column);
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', t.table_name || '_notify_delete', t.table_name);
+        EXECUTE format('CREATE TRIGGER %I AFTER DELETE ON %I REFERENCING OLD TABLE AS old_rows '
+                       'FOR EACH STATEMENT EXECUTE FUNCTION notify_library_change(%L)',
+                       t.table_name || '_notify_delete', t.table_name, t.id_column);
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', t.table_name || '_notify_truncate', t.table_name);
+        EXECUTE format('CREATE TRIGGER %I AFTER TRUNCATE ON %I '
+                       'FOR EACH STATEMENT EXECUTE FUNCTION notify_library_change(%L)',
+                       t.table_name || '_notify_truncate', t.table_name, t.id_column);
+    END LOOP;
+END;
+$$;
@@ -0,0 +1,5 @@
+-- Index for the admin loan listing (JdbcLoanRepository.search), which by
+-- default shows the newest loans first: "ORDER BY loan_date DESC, loan_id DESC
+-- LIMIT n" becomes a backward scan that stops after the page instead of a sort
+-- of every loan. Filtered listings use the existing user, item and status indexes.
+CREATE INDEX IF NOT EXISTS idx_loan_date_id ON loan(loan_date, loan_id);
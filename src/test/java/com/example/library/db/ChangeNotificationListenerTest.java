@@ -0,0 +1,177 @@
+package com.example.library.db;
+
+import com.example.library.DatabaseConnection;
+import com.example.library.util.DatabaseConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.postgresql.PGConnection;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MigratedSchemaExtension.class)
+class ChangeNotificationListenerTest {
+
+    private static final long WAIT_SECONDS = 10;
+
+    private final BlockingQueue<RowChange> changes = new LinkedBlockingQueue<>();
+    private final List<Integer> listenerPids = new ArrayList<>();
+    private ChangeNotificationListener listener;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            execute(conn, "DELETE FROM fine");
+            execute(conn, "DELETE FROM loan");
+            execute(conn, "DELETE FROM media_item");
+        }
+        listener = new ChangeNotificationListener(() -> {
+            Connection conn = DriverManager.getConnection(DatabaseConfig.getUrl(),
+                    DatabaseConfig.getUsername(), DatabaseConfig.getPassword());
+            synchronized (listenerPids) {
+                listenerPids.add(conn.unwrap(PGConnection.class).getBackendPID());
+            }
+            return conn;
+        }, 100);
+        listener.addListener("media_item", changes::add);
+        listener.start();
+        assertTrue(listener.isListening());
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.close();
+    }
+
+    @Test
+    void testInsert_ReportsNewIds() throws Exception {
+        int id = insertItem("978-100");
+
+        RowChange change = nextChange();
+        assertEquals("media_item", change.getTable());
+        assertEquals("INSERT", change.getOperation());
+        assertEquals(Set.of(id), change.getIds());
+    }
+
+    @Test
+    void testMultiRowUpdate_ReportsEveryIdOnce() throws Exception {
+        int first = insertItem("978-101");
+        int second = insertItem("978-102");
+        nextChange();
+        nextChange();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            execute(conn, "UPDATE media_item SET available_copies = 0");
+        }
+
+        RowChange change = nextChange();
+        assertEquals("UPDATE", change.getOperation());
+        assertFalse(change.isAllRows());
+        assertEquals(Set.of(first, second), change.getIds());
+    }
+
+    @Test
+    void testRolledBackWrite_IsNotReported() throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            execute(conn, "UPDATE media_item SET title = title");
+            insertItem(conn, "978-103");
+            conn.rollback();
+            conn.setAutoCommit(true);
+        }
+        int id = insertItem("978-104");
+
+        assertEquals(Set.of(id), nextChange().getIds());
+    }
+
+    @Test
+    void testFailingListener_DoesNotStopDelivery() throws Exception {
+        listener.addListener("media_item", change -> {
+            throw new IllegalStateException("listener failure");
+        });
+
+        insertItem("978-105");
+        int id = insertItem("978-106");
+
+        nextChange();
+        assertEquals(Set.of(id), nextChange().getIds());
+    }
+
+    @Test
+    void testLostConnection_ReconnectsAndReportsResync() throws Exception {
+        int pid;
+        synchronized (listenerPids) {
+            pid = listenerPids.get(listenerPids.size() - 1);
+        }
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT pg_terminate_backend(?)")) {
+            pstmt.setInt(1, pid);
+            pstmt.execute();
+        }
+
+        RowChange resync = nextChange();
+        assertEquals(RowChange.RESYNC, resync.getOperation());
+        assertTrue(resync.isAllRows());
+
+        int id = insertItem("978-107");
+        assertEquals(Set.of(id), nextChange().getIds());
+    }
+
+    @Test
+    void testParse_AllRowsPayload() {
+        RowChange change = RowChange.parse("app_user:TRUNCATE:*");
+
+        assertEquals("app_user", change.getTable());
+        assertTrue(change.isAllRows());
+        assertTrue(change.getIds().isEmpty());
+    }
+
+    @Test
+    void testParse_MalformedPayloadIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RowChange.parse("media_item:INSERT"));
+        assertThrows(IllegalArgumentException.class, () -> RowChange.parse("media_item:INSERT:1,x"));
+    }
+
+    private RowChange nextChange() throws InterruptedException {
+        RowChange change = changes.poll(WAIT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(change, "no change notification received");
+        return change;
+    }
+
+    private static int insertItem(String isbn) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return insertItem(conn, isbn);
+        }
+    }
+
+    private static int insertItem(Connection conn, String isbn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO media_item (title, author, type, isbn, total_copies, available_copies, late_fees_per_day) " +
+                "VALUES ('Title', 'Author', 'BOOK', ?, 1, 1, 0.50) RETURNING item_id")) {
+            pstmt.setString(1, isbn);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.execute();
+        }
+    }
+}
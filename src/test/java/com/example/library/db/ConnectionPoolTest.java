@@ -0,0 +1,377 @@
+package com.example.library.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionPoolTest {
+
+    private final List<Connection> physicalConnections = new ArrayList<>();
+    private final List<PreparedStatement> physicalStatements = new ArrayList<>();
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private ConnectionPool createPool(int maxSize, long acquireTimeoutMillis) {
+        return createPool(maxSize, acquireTimeoutMillis, 0);
+    }
+
+    private ConnectionPool createPool(int maxSize, long acquireTimeoutMillis, int statementCacheSize) {
+        return new ConnectionPool(() -> {
+            Connection physical = mock(Connection.class);
+            when(physical.getAutoCommit()).thenReturn(true);
+            when(physical.isValid(anyInt())).thenReturn(true);
+            when(physical.prepareStatement(anyString())).thenAnswer(invocation -> {
+                PreparedStatement statement = mock(PreparedStatement.class);
+                synchronized (physicalStatements) {
+                    physicalStatements.add(statement);
+                }
+                return statement;
+            });
+            when(physical.prepareStatement(anyString(), anyInt())).thenAnswer(invocation -> mock(PreparedStatement.class));
+            synchronized (physicalConnections) {
+                physicalConnections.add(physical);
+            }
+            return physical;
+        }, 0, maxSize, acquireTimeoutMillis, 600000, 5, 0, statementCacheSize);
+    }
+
+    @Test
+    void testClosedConnection_IsReusedInsteadOfReconnecting() throws SQLException {
+        pool = createPool(2, 1000);
+
+        Connection first = pool.getConnection();
+        first.createStatement();
+        first.close();
+
+        Connection second = pool.getConnection();
+        second.createStatement();
+        second.close();
+
+        assertEquals(1, physicalConnections.size(), "Should open only one physical connection");
+        verify(physicalConnections.get(0), times(2)).createStatement();
+        verify(physicalConnections.get(0), never()).close();
+        assertEquals(1, pool.getIdleConnections());
+        assertEquals(0, pool.getActiveConnections());
+    }
+
+    @Test
+    void testConcurrentBorrowers_GetDistinctConnections() throws SQLException {
+        pool = createPool(2, 1000);
+
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+
+        assertNotSame(first, second);
+        assertEquals(2, physicalConnections.size());
+        assertEquals(2, pool.getActiveConnections());
+
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void testExhaustedPool_TimesOut() throws SQLException {
+        pool = createPool(1, 50);
+
+        Connection held = pool.getConnection();
+
+        SQLException exception = assertThrows(SQLException.class, () -> pool.getConnection());
+        assertTrue(exception.getMessage().contains("Timed out"));
+
+        held.close();
+        assertDoesNotThrow(() -> pool.getConnection().close());
+    }
+
+    @Test
+    void testReturnedHandle_CannotBeUsedAgain() throws SQLException {
+        pool = createPool(1, 1000);
+
+        Connection conn = pool.getConnection();
+        conn.close();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+        assertEquals(0, pool.getActiveConnections());
+    }
+
+    @Test
+    void testOpenTransaction_IsRolledBackOnReturn() throws SQLException {
+        pool = createPool(1, 1000);
+
+        Connection conn = pool.getConnection();
+        Connection physical = physicalConnections.get(0);
+        when(physical.getAutoCommit()).thenReturn(false);
+        conn.close();
+
+        verify(physical).rollback();
+        verify(physical).setAutoCommit(true);
+    }
+
+    @Test
+    void testBrokenConnection_IsDiscarded() throws SQLException {
+        pool = createPool(1, 1000);
+
+        Connection conn = pool.getConnection();
+        Connection physical = physicalConnections.get(0);
+        when(physical.createStatement()).thenThrow(new SQLException("I/O error", "08006"));
+
+        assertThrows(SQLException.class, conn::createStatement);
+        conn.close();
+
+        verify(physical).close();
+        assertEquals(0, pool.getTotalConnections());
+
+        pool.getConnection().close();
+        assertEquals(2, physicalConnections.size(), "Should open a replacement connection");
+    }
+
+    @Test
+    void testClosedPool_RejectsBorrowers() {
+        pool = createPool(1, 1000);
+        pool.close();
+
+        assertTrue(pool.isClosed());
+        assertThrows(SQLException.class, () -> pool.getConnection());
+    }
+
+    @Test
+    void testInvalidSizes_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConnectionPool(() -> null, 0, 0, 1000, 1000, 5, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConnectionPool(() -> null, 3, 2, 1000, 1000, 5, 0));
+    }
+
+    @Test
+    void testStatementCache_ReusesPreparedStatementAcrossBorrows() throws SQLException {
+        pool = createPool(1, 1000, 8);
+
+        for (int i = 0; i < 3; i++) {
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement("SELECT * FROM app_user WHERE user_id = ?")) {
+                pstmt.setInt(1, i);
+                pstmt.executeQuery();
+            }
+        }
+
+        Connection physical = physicalConnections.get(0);
+        verify(physical, times(1)).prepareStatement("SELECT * FROM app_user WHERE user_id = ?");
+        assertEquals(2, pool.getStatementCacheHits());
+        assertEquals(1, pool.getStatementCacheMisses());
+    }
+
+    @Test
+    void testStatementCache_KeysOnGeneratedKeysMode() throws SQLException {
+        pool = createPool(1, 1000, 8);
+        String sql = "INSERT INTO fine (loan_id) VALUES (?)";
+
+        try (Connection conn = pool.getConnection()) {
+            conn.prepareStatement(sql).close();
+            conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS).close();
+            conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS).close();
+        }
+
+        assertEquals(1, pool.getStatementCacheHits());
+        assertEquals(2, pool.getStatementCacheMisses());
+    }
+
+    @Test
+    void testStatementCache_ClosingReturnsStatementWithoutClosingIt() throws SQLException {
+        pool = createPool(1, 1000, 8);
+
+        PreparedStatement underlying = mock(PreparedStatement.class);
+        try (Connection conn = pool.getConnection()) {
+            when(physicalConnections.get(0).prepareStatement("SELECT 1")).thenReturn(underlying);
+            PreparedStatement pstmt = conn.prepareStatement("SELECT 1");
+            assertSame(conn, pstmt.getConnection());
+            pstmt.close();
+            assertTrue(pstmt.isClosed());
+            assertThrows(SQLException.class, pstmt::executeQuery);
+        }
+
+        verify(underlying, never()).close();
+        verify(underlying).clearParameters();
+    }
+
+    @Test
+    void testStatementCache_OpenStatementIsNotShared() throws SQLException {
+        pool = createPool(1, 1000, 8);
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement first = conn.prepareStatement("SELECT 1");
+             PreparedStatement second = conn.prepareStatement("SELECT 1")) {
+            assertNotSame(first, second);
+        }
+
+        assertEquals(0, pool.getStatementCacheHits());
+        assertEquals(2, pool.getStatementCacheMisses());
+    }
+
+    @Test
+    void testStatementCache_EvictsLeastRecentlyUsed() throws SQLException {
+        pool = createPool(1, 1000, 2);
+
+        try (Connection conn = pool.getConnection()) {
+            conn.prepareStatement("SELECT 1").close();
+            conn.prepareStatement("SELECT 2").close();
+            conn.prepareStatement("SELECT 1").close();
+            conn.prepareStatement("SELECT 3").close();
+            conn.prepareStatement("SELECT 1").close();
+            conn.prepareStatement("SELECT 2").close();
+        }
+
+        Connection physical = physicalConnections.get(0);
+        verify(physical, times(1)).prepareStatement("SELECT 1");
+        verify(physical, times(2)).prepareStatement("SELECT 2");
+        assertEquals(2, pool.getStatementCacheHits());
+        assertEquals(4, pool.getStatementCacheMisses());
+    }
+
+    @Test
+    void testStatementCache_RestoresChangedSettingsOnCheckIn() throws SQLException {
+        pool = createPool(1, 1000, 8);
+
+        try (Connection conn = pool.getConnection()) {
+            PreparedStatement underlying = mock(PreparedStatement.class);
+            when(underlying.getFetchSize()).thenReturn(0);
+            when(underlying.getFetchDirection()).thenReturn(ResultSet.FETCH_FORWARD);
+            when(physicalConnections.get(0).prepareStatement("SELECT 1")).thenReturn(underlying);
+
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1")) {
+                pstmt.setFetchSize(500);
+                pstmt.setQueryTimeout(5);
+            }
+            conn.prepareStatement("SELECT 1").close();
+
+            verify(underlying).setFetchSize(0);
+            verify(underlying).setQueryTimeout(0);
+            verify(underlying).setFetchDirection(ResultSet.FETCH_FORWARD);
+            verify(underlying, never()).close();
+        }
+
+        assertEquals(1, pool.getStatementCacheHits());
+    }
+
+    @Test
+    void testStatementCache_UntouchedSettingsAreNotReset() throws SQLException {
+        pool = createPool(1, 1000, 8);
+
+        try (Connection conn = pool.getConnection()) {
+            conn.prepareStatement("SELECT 1").close();
+        }
+
+        verify(physicalStatements.get(0), never()).setFetchSize(anyInt());
+        verify(physicalStatements.get(0), never()).setQueryTimeout(anyInt());
+    }
+
+    @Test
+    void testStatementCache_EvictsStatementWithUnresettableSettings() throws SQLException {
+        pool = createPool(1, 1000, 8);
+
+        try (Connection conn = pool.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1")) {
+                pstmt.setPoolable(false);
+            }
+            conn.prepareStatement("SELECT 1").close();
+        }
+
+        verify(physicalStatements.get(0)).close();
+        verify(physicalConnections.get(0), times(2)).prepareStatement("SELECT 1");
+        assertEquals(0, pool.getStatementCacheHits());
+    }
+
+    @Test
+    void testStatementCache_ConnectionErrorOnPrepareDiscardsConnection() throws SQLException {
+        pool = createPool(1, 1000, 8);
+
+        Connection conn = pool.getConnection();
+        Connection physical = physicalConnections.get(0);
+        when(physical.prepareStatement("SELECT 1")).thenThrow(new SQLException("I/O error", "08006"));
+
+        assertThrows(SQLException.class, () -> conn.prepareStatement("SELECT 1"));
+        conn.close();
+
+        verify(physical).close();
+        assertEquals(0, pool.getTotalConnections());
+    }
+
+    @Test
+    void testQueryCancellation_CancelsOpenStatementsAndFailsLaterOnes() throws Exception {
+        pool = createPool(1, 1000);
+        QueryCancellation cancellation = new QueryCancellation();
+
+        cancellation.call(() -> {
+            try (Connection conn = pool.getConnection()) {
+                conn.prepareStatement("SELECT 1");
+                conn.prepareStatement("SELECT 2").close();
+                cancellation.cancel();
+                PreparedStatement later = conn.prepareStatement("SELECT 3");
+                SQLException e = assertThrows(SQLException.class, later::executeQuery);
+                assertEquals(QueryCancellation.QUERY_CANCELED_STATE, e.getSQLState());
+            }
+            return null;
+        });
+
+        assertTrue(cancellation.isCancelled());
+        verify(physicalStatements.get(0), times(1)).cancel();
+        verify(physicalStatements.get(1), never()).cancel();
+        verify(physicalStatements.get(2), never()).executeQuery();
+    }
+
+    @Test
+    void testQueryCancellation_ReusedCachedStatementIsNotCancelled() throws Exception {
+        pool = createPool(1, 1000, 8);
+        QueryCancellation cancellation = new QueryCancellation();
+
+        cancellation.call(() -> {
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement("SELECT 1")) {
+                pstmt.executeQuery();
+            }
+            return null;
+        });
+        cancellation.cancel();
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement reused = conn.prepareStatement("SELECT 1")) {
+            reused.executeQuery();
+        }
+
+        assertEquals(1, pool.getStatementCacheHits(), "Second task should get the cached statement");
+        verify(physicalStatements.get(0), never()).cancel();
+        verify(physicalStatements.get(0), times(2)).executeQuery();
+    }
+
+    @Test
+    void testQueryCancellation_DoesNotTrackStatementsOutsideCall() throws Exception {
+        pool = createPool(1, 1000);
+        QueryCancellation cancellation = new QueryCancellation();
+
+        try (Connection conn = pool.getConnection()) {
+            conn.prepareStatement("SELECT 1");
+            cancellation.cancel();
+            conn.prepareStatement("SELECT 1").executeQuery();
+        }
+
+        verify(physicalStatements.get(0), never()).cancel();
+        verify(physicalStatements.get(1), times(1)).executeQuery();
+    }
+}
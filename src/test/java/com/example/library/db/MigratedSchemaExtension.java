@@ -0,0 +1,30 @@
+package com.example.library.db;
+
+import com.example.library.DatabaseConnection;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Brings the test database up to date with the migrations shipped in
+ * {@code db/migration} before the first database-backed test class runs,
+ * so tests exercise exactly the schema the application creates at startup.
+ * The migration runs once per test JVM; later classes find nothing to apply.
+ *
+ * Usage in test classes:
+ *
+ * @ExtendWith(MigratedSchemaExtension.class)
+ * class JdbcLoanRepositoryTest { ... }
+ */
+public class MigratedSchemaExtension implements BeforeAllCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(MigratedSchemaExtension.class);
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(
+                MigrationRunner.class,
+                key -> new MigrationRunner(DatabaseConnection.getDataSource()).migrate(),
+                Integer.class);
+    }
+}
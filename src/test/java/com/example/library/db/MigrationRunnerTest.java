@@ -0,0 +1,149 @@
+package com.example.library.db;
+
+import com.example.library.DatabaseConnection;
+import com.example.library.repository.DataAccessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MigrationRunnerTest {
+
+    private static final String TEST_LOCATION = "db/testmigration";
+    private static final String PROBE_SCRIPT = "V1001__create_migration_probe.sql";
+    private static final String FAILING_SCRIPT = "V1002__failing_migration.sql";
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = DatabaseConnection.getDataSource();
+        cleanUp();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        cleanUp();
+    }
+
+    private void cleanUp() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            execute(conn, "DROP TABLE IF EXISTS migration_probe");
+            execute(conn, "DROP TABLE IF EXISTS migration_probe_partial");
+            execute(conn, "CREATE TABLE IF NOT EXISTS schema_version (version INTEGER PRIMARY KEY, " +
+                          "description VARCHAR(255) NOT NULL, script VARCHAR(255) NOT NULL, " +
+                          "checksum VARCHAR(64) NOT NULL, installed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                          "execution_time_ms INTEGER NOT NULL)");
+            execute(conn, "DELETE FROM schema_version WHERE version > 1000");
+        }
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.execute();
+        }
+    }
+
+    private static boolean tableExists(String tableName) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+            pstmt.setString(1, tableName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static int countVersions(String whereClause) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM schema_version WHERE " + whereClause);
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void testDefaultScripts_ApplyToExistingSchemaOnlyOnce() throws SQLException {
+        new MigrationRunner(dataSource).migrate();
+
+        assertEquals(0, new MigrationRunner(dataSource).migrate(), "Second run should have nothing to apply");
+        assertEquals(MigrationRunner.DEFAULT_SCRIPTS.size(), countVersions("version <= 1000"));
+    }
+
+    @Test
+    void testPendingScript_AppliedAndRecorded() throws SQLException {
+        MigrationRunner runner = new MigrationRunner(dataSource, TEST_LOCATION, List.of(PROBE_SCRIPT));
+
+        assertEquals(1, runner.migrate());
+        assertEquals(0, runner.migrate());
+
+        assertTrue(tableExists("migration_probe"));
+        assertEquals(1, countVersions("version = 1001 AND description = 'create migration probe'"));
+    }
+
+    @Test
+    void testEditedScript_FailsChecksumValidation() throws SQLException {
+        new MigrationRunner(dataSource, TEST_LOCATION, List.of(PROBE_SCRIPT)).migrate();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            execute(conn, "UPDATE schema_version SET checksum = 'edited' WHERE version = 1001");
+        }
+
+        DataAccessException exception = assertThrows(DataAccessException.class,
+                () -> new MigrationRunner(dataSource, TEST_LOCATION, List.of(PROBE_SCRIPT)).migrate());
+        assertTrue(exception.getMessage().contains("Checksum mismatch"));
+    }
+
+    @Test
+    void testFailingScript_IsRolledBack() throws SQLException {
+        MigrationRunner runner = new MigrationRunner(dataSource, TEST_LOCATION, List.of(PROBE_SCRIPT, FAILING_SCRIPT));
+
+        assertThrows(DataAccessException.class, runner::migrate);
+
+        assertTrue(tableExists("migration_probe"), "Earlier script should stay applied");
+        assertFalse(tableExists("migration_probe_partial"), "Failed script should leave no changes");
+        assertEquals(0, countVersions("version = 1002"));
+    }
+
+    @Test
+    void testConcurrentRunners_ApplyScriptOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(
+                        () -> new MigrationRunner(dataSource, TEST_LOCATION, List.of(PROBE_SCRIPT)).migrate()));
+            }
+
+            int applied = 0;
+            for (Future<Integer> result : results) {
+                applied += result.get();
+            }
+            assertEquals(1, applied, "Advisory lock should let exactly one runner apply the script");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testInvalidScriptNames_Rejected() {
+        assertThrows(DataAccessException.class,
+                () -> new MigrationRunner(dataSource, TEST_LOCATION, List.of("create_probe.sql")).migrate());
+        assertThrows(DataAccessException.class,
+                () -> new MigrationRunner(dataSource, TEST_LOCATION, List.of("V1003__missing.sql")).migrate());
+        assertThrows(DataAccessException.class,
+                () -> new MigrationRunner(dataSource, TEST_LOCATION, List.of(FAILING_SCRIPT, PROBE_SCRIPT)).migrate());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.library.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCancellationTest {
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = ConnectionPool.fromConfig();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void testCancel_StopsRunningQuery() throws Exception {
+        QueryCancellation cancellation = new QueryCancellation();
+        CompletableFuture<Void> running = CompletableFuture.runAsync(() -> {
+            try {
+                cancellation.call(() -> {
+                    try (Connection conn = pool.getConnection();
+                         PreparedStatement pstmt = conn.prepareStatement("SELECT pg_sleep(30)")) {
+                        pstmt.executeQuery();
+                    }
+                    return null;
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Give the query time to reach the server
+        Thread.sleep(500);
+        long started = System.nanoTime();
+        cancellation.cancel();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> running.get(10, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started) < 10);
+        SQLException cause = assertInstanceOf(SQLException.class, e.getCause().getCause());
+        assertEquals(QueryCancellation.QUERY_CANCELED_STATE, cause.getSQLState());
+
+        // The connection is still usable after the cancelled query
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT 1")) {
+            assertTrue(pstmt.executeQuery().next());
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
+import com.example.library.db.MigratedSchemaExtension;
 import com.example.library.domain.User;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -12,6 +14,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ExtendWith(MigratedSchemaExtension.class)
 class AdditionalUserRepositoryEdgeCaseTest {
     
     private JdbcUserRepository userRepository;
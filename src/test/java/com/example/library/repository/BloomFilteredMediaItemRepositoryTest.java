@@ -0,0 +1,75 @@
+package com.example.library.repository;
+
+import com.example.library.domain.MediaItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class BloomFilteredMediaItemRepositoryTest {
+
+    @Mock
+    private MediaItemRepository delegate;
+
+    private BloomFilteredMediaItemRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(delegate.streamAll()).thenAnswer(inv -> Stream.of(
+                createMediaItem(1, "978-1"), createMediaItem(2, null)));
+        repository = new BloomFilteredMediaItemRepository(delegate, 0.001);
+    }
+
+    @Test
+    void testNewIsbnIsAnsweredWithoutQuery() {
+        assertFalse(repository.existsByIsbn("978-2"));
+        assertTrue(repository.findByIsbn("978-2").isEmpty());
+
+        verify(delegate, never()).existsByIsbn(anyString());
+        verify(delegate, never()).findByIsbn(anyString());
+        assertEquals(2, repository.getIsbnStats().getSkippedQueries());
+    }
+
+    @Test
+    void testCataloguedIsbnGoesToDelegate() {
+        when(delegate.existsByIsbn("978-1")).thenReturn(true);
+
+        assertTrue(repository.existsByIsbn("978-1"));
+    }
+
+    @Test
+    void testLearn_AddsIsbnsOfItemsChangedElsewhere() {
+        when(delegate.findAllByIds(List.of(5))).thenReturn(Map.of(5, createMediaItem(5, "978-5")));
+        when(delegate.existsByIsbn("978-5")).thenReturn(true);
+
+        repository.learn(List.of(5));
+
+        assertTrue(repository.existsByIsbn("978-5"));
+    }
+
+    @Test
+    void testBatchSavedIsbnsAreRemembered() {
+        List<MediaItem> items = List.of(createMediaItem(null, "978-3"), createMediaItem(null, "978-4"));
+        when(delegate.saveAll(items)).thenReturn(items);
+        when(delegate.existsByIsbn(anyString())).thenReturn(true);
+
+        repository.saveAll(items);
+
+        assertTrue(repository.existsByIsbn("978-3"));
+        assertTrue(repository.existsByIsbn("978-4"));
+    }
+
+    private MediaItem createMediaItem(Integer id, String isbn) {
+        return new MediaItem(id, "Title", "Author", "BOOK", isbn, null, "Publisher", 1, 1, new BigDecimal("1.00"));
+    }
+}
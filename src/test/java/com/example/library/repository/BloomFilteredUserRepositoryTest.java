@@ -0,0 +1,111 @@
+package com.example.library.repository;
+
+import com.example.library.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class BloomFilteredUserRepositoryTest {
+
+    @Mock
+    private UserRepository delegate;
+
+    private BloomFilteredUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(delegate.findAll()).thenReturn(List.of(
+                createUser(1, "alice", "Alice@Example.com"),
+                createUser(2, "bob", "bob@example.com")));
+        repository = new BloomFilteredUserRepository(delegate, 0.001);
+    }
+
+    @Test
+    void testLearn_AddsUsersChangedElsewhere() {
+        when(delegate.findAllByIds(List.of(3))).thenReturn(Map.of(3, createUser(3, "carol", "Carol@Example.com")));
+        when(delegate.existsByUsername("carol")).thenReturn(true);
+        when(delegate.existsByEmail("carol@example.com")).thenReturn(true);
+
+        repository.learn(List.of(3));
+
+        assertTrue(repository.existsByUsername("carol"));
+        assertTrue(repository.existsByEmail("carol@example.com"));
+    }
+
+    @Test
+    void testUnknownUsernameIsAnsweredWithoutQuery() {
+        assertTrue(repository.findByUsername("mallory").isEmpty());
+        assertFalse(repository.existsByUsername("mallory"));
+
+        verify(delegate, never()).findByUsername(anyString());
+        verify(delegate, never()).existsByUsername(anyString());
+        LookupFilterStats stats = repository.getUsernameStats();
+        assertEquals(2, stats.getLookups());
+        assertEquals(2, stats.getSkippedQueries());
+    }
+
+    @Test
+    void testKnownUsernameGoesToDelegate() {
+        User alice = createUser(1, "alice", "Alice@Example.com");
+        when(delegate.findByUsername("alice")).thenReturn(Optional.of(alice));
+
+        assertEquals(Optional.of(alice), repository.findByUsername("alice"));
+        assertEquals(0, repository.getUsernameStats().getSkippedQueries());
+    }
+
+    @Test
+    void testEmailsAreFilteredIgnoringCase() {
+        when(delegate.existsByEmail("alice@example.com")).thenReturn(true);
+
+        assertTrue(repository.existsByEmail("alice@example.com"));
+        assertTrue(repository.findByEmail("carol@example.com").isEmpty());
+
+        verify(delegate, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void testSavedUserIsFoundAfterwards() {
+        User carol = createUser(null, "carol", "carol@example.com");
+        when(delegate.save(carol)).thenReturn(carol);
+        when(delegate.findByUsername("carol")).thenReturn(Optional.of(carol));
+
+        repository.save(carol);
+
+        assertTrue(repository.findByUsername("carol").isPresent());
+        verify(delegate).findByUsername("carol");
+    }
+
+    @Test
+    void testRebuildPicksUpUsersAddedElsewhere() {
+        when(delegate.findAll()).thenReturn(List.of(createUser(3, "dave", "dave@example.com")));
+        when(delegate.existsByUsername("dave")).thenReturn(true);
+        assertFalse(repository.existsByUsername("dave"));
+
+        repository.rebuild();
+
+        assertTrue(repository.existsByUsername("dave"));
+    }
+
+    @Test
+    void testFalsePositivesAreCounted() {
+        when(delegate.existsByUsername("alice")).thenReturn(false);
+
+        assertFalse(repository.existsByUsername("alice"));
+
+        assertEquals(1, repository.getUsernameStats().getFalsePositives());
+    }
+
+    private User createUser(Integer id, String username, String email) {
+        return new User(id, username, "hash", email, "STUDENT", null);
+    }
+}
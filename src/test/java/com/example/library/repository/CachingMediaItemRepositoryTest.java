@@ -0,0 +1,177 @@
+package com.example.library.repository;
+
+import com.example.library.domain.MediaItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingMediaItemRepositoryTest {
+
+    @Mock
+    private MediaItemRepository delegate;
+
+    private long now;
+    private CachingMediaItemRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        for (int id = 1; id <= 3; id++) {
+            when(delegate.findById(id)).thenReturn(Optional.of(createMediaItem(id, "Title " + id)));
+        }
+        repository = new CachingMediaItemRepository(delegate, 2, Duration.ofMinutes(1), () -> now);
+    }
+
+    @Test
+    void testFindById_SecondReadIsAHit() {
+        repository.findById(1);
+        MediaItem cached = repository.findById(1).orElseThrow();
+
+        assertEquals("Title 1", cached.getTitle());
+        verify(delegate, times(1)).findById(1);
+        CacheStats stats = repository.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRate());
+    }
+
+    @Test
+    void testFindById_CallersCannotChangeCachedItem() {
+        repository.findById(1).orElseThrow().setTitle("Changed by caller");
+
+        assertEquals("Title 1", repository.findById(1).orElseThrow().getTitle());
+    }
+
+    @Test
+    void testFindById_MissingItemIsNotCached() {
+        when(delegate.findById(9)).thenReturn(Optional.empty());
+
+        assertTrue(repository.findById(9).isEmpty());
+        assertTrue(repository.findById(9).isEmpty());
+
+        verify(delegate, times(2)).findById(9);
+    }
+
+    @Test
+    void testLeastRecentlyUsedItemIsEvicted() {
+        repository.findById(1);
+        repository.findById(2);
+        repository.findById(1);
+        repository.findById(3);
+
+        repository.findById(1);
+        repository.findById(2);
+
+        verify(delegate, times(1)).findById(1);
+        verify(delegate, times(2)).findById(2);
+        assertEquals(2, repository.getStats().getEvictions());
+        assertEquals(2, repository.getStats().getSize());
+    }
+
+    @Test
+    void testExpiredItemIsReadAgain() {
+        repository.findById(1);
+        now += TimeUnit.SECONDS.toNanos(59);
+        repository.findById(1);
+        now += TimeUnit.SECONDS.toNanos(1);
+        repository.findById(1);
+
+        verify(delegate, times(2)).findById(1);
+        assertEquals(1, repository.getStats().getEvictions());
+    }
+
+    @Test
+    void testWritesInvalidateTheItem() {
+        MediaItem item = createMediaItem(1, "Renamed");
+        when(delegate.update(item)).thenReturn(item);
+
+        repository.findById(1);
+        repository.update(item);
+        repository.findById(1);
+        repository.tryDecrementAvailable(1);
+        repository.findById(1);
+        repository.incrementAvailable(1);
+        repository.findById(1);
+        repository.updateAvailableCopies(1, 1);
+        repository.findById(1);
+        repository.deleteById(1);
+        repository.findById(1);
+
+        verify(delegate, times(6)).findById(1);
+        assertEquals(0, repository.getStats().getHits());
+    }
+
+    @Test
+    void testFailedWriteStillInvalidates() {
+        MediaItem item = createMediaItem(1, "Renamed");
+        when(delegate.update(item)).thenThrow(new DataAccessException("boom"));
+        repository.findById(1);
+
+        assertThrows(DataAccessException.class, () -> repository.update(item));
+        repository.findById(1);
+
+        verify(delegate, times(2)).findById(1);
+    }
+
+    @Test
+    void testLoadRacingAnInvalidationIsNotCached() {
+        // The row is read, then updated by another thread before the read result is cached
+        when(delegate.findById(1)).thenAnswer(inv -> {
+            repository.updateAvailableCopies(1, 0);
+            return Optional.of(createMediaItem(1, "Title 1"));
+        });
+
+        repository.findById(1);
+
+        assertEquals(0, repository.getStats().getSize());
+    }
+
+    @Test
+    void testFindAllByIds_OnlyLoadsMissingItems() {
+        MediaItem third = createMediaItem(3, "Title 3");
+        when(delegate.findAllByIds(List.of(3))).thenReturn(Map.of(3, third));
+        repository.findById(1);
+
+        Map<Integer, MediaItem> found = repository.findAllByIds(List.of(1, 3));
+
+        assertEquals(2, found.size());
+        verify(delegate).findAllByIds(List.of(3));
+        repository.findById(3);
+        verify(delegate, never()).findById(3);
+    }
+
+    @Test
+    void testEvict_DropsOnlyTheChangedItems() {
+        repository.findById(1);
+        repository.findById(2);
+
+        repository.evict(List.of(1));
+        repository.findById(1);
+        repository.findById(2);
+
+        verify(delegate, times(2)).findById(1);
+        verify(delegate, times(1)).findById(2);
+    }
+
+    @Test
+    void testInvalidSizeIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CachingMediaItemRepository(delegate, 0, Duration.ofMinutes(1)));
+    }
+
+    private MediaItem createMediaItem(int id, String title) {
+        return new MediaItem(id, title, "Author", "BOOK", "ISBN-" + id, null, "Publisher",
+                2, 2, new BigDecimal("1.00"));
+    }
+}
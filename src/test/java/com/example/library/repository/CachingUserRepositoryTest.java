@@ -0,0 +1,131 @@
+package com.example.library.repository;
+
+import com.example.library.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class CachingUserRepositoryTest {
+
+    @Mock
+    private UserRepository delegate;
+
+    private long now;
+    private CachingUserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(delegate.findById(1)).thenReturn(Optional.of(createUser(1, "alice")));
+        when(delegate.findByUsername("alice")).thenReturn(Optional.of(createUser(1, "alice")));
+        when(delegate.findById(2)).thenReturn(Optional.of(createUser(2, "bob")));
+        repository = new CachingUserRepository(delegate, 100, Duration.ofMinutes(1), () -> now);
+    }
+
+    @Test
+    void testFindByUsername_AlsoCachesById() {
+        repository.findByUsername("alice");
+        repository.findByUsername("alice");
+        User byId = repository.findById(1).orElseThrow();
+
+        assertEquals("alice", byId.getUsername());
+        verify(delegate, times(1)).findByUsername("alice");
+        verify(delegate, never()).findById(anyInt());
+        assertEquals(2, repository.getStats().getHits());
+    }
+
+    @Test
+    void testFindById_AlsoCachesByUsername() {
+        repository.findById(1);
+        repository.findByUsername("alice");
+
+        verify(delegate, never()).findByUsername("alice");
+    }
+
+    @Test
+    void testFindAllByIds_OnlyLoadsMissingUsers() {
+        when(delegate.findAllByIds(List.of(2))).thenReturn(Map.of(2, createUser(2, "bob")));
+        repository.findById(1);
+
+        Map<Integer, User> found = repository.findAllByIds(List.of(1, 2));
+
+        assertEquals(2, found.size());
+        verify(delegate).findAllByIds(List.of(2));
+    }
+
+    @Test
+    void testEvict_DropsBothKeysOfTheChangedUsers() {
+        repository.findByUsername("alice");
+        repository.findById(2);
+
+        repository.evict(List.of(1));
+        repository.findByUsername("alice");
+        repository.evict(List.of(1));
+        repository.findById(1);
+        repository.findById(2);
+
+        verify(delegate, times(2)).findByUsername("alice");
+        verify(delegate).findById(1);
+        verify(delegate, times(1)).findById(2);
+    }
+
+    @Test
+    void testUpdate_InvalidatesBothKeysEvenAfterRename() {
+        repository.findByUsername("alice");
+        User renamed = createUser(1, "alicia");
+        when(delegate.update(renamed)).thenReturn(renamed);
+        when(delegate.findByUsername("alice")).thenReturn(Optional.empty());
+
+        repository.update(renamed);
+
+        assertTrue(repository.findByUsername("alice").isEmpty(), "Old username no longer finds the user");
+        repository.findById(1);
+        verify(delegate).findById(1);
+    }
+
+    @Test
+    void testDeleteById_InvalidatesUser() {
+        repository.findById(1);
+
+        repository.deleteById(1);
+        when(delegate.findById(1)).thenReturn(Optional.empty());
+
+        assertTrue(repository.findById(1).isEmpty());
+        assertEquals(0, repository.getStats().getSize());
+    }
+
+    @Test
+    void testSizeAndTimeToLiveBoundTheCache() {
+        CachingUserRepository small = new CachingUserRepository(delegate, 2, Duration.ofMinutes(1), () -> now);
+        small.findById(1);
+        small.findById(2);
+        assertEquals(2, small.getStats().getSize());
+        assertEquals(2, small.getStats().getEvictions());
+
+        now += TimeUnit.MINUTES.toNanos(1);
+        small.findById(2);
+        verify(delegate, times(2)).findById(2);
+    }
+
+    @Test
+    void testReturnedUsersAreCopies() {
+        repository.findById(1).orElseThrow().setRole("ADMIN");
+
+        assertEquals("STUDENT", repository.findById(1).orElseThrow().getRole());
+    }
+
+    private User createUser(int id, String username) {
+        return new User(id, username, "hash", username + "@example.com", "STUDENT", null);
+    }
+}
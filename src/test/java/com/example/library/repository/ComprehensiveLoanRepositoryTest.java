@@ -1,11 +1,13 @@
 package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
+import com.example.library.db.MigratedSchemaExtension;
 import com.example.library.domain.Loan;
 import com.example.library.domain.MediaItem;
 import com.example.library.domain.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
@@ -17,6 +19,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith(MigratedSchemaExtension.class)
 class ComprehensiveLoanRepositoryTest {
     
     private JdbcLoanRepository loanRepository;
@@ -1,9 +1,11 @@
 package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
+import com.example.library.db.MigratedSchemaExtension;
 import com.example.library.domain.MediaItem;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
@@ -14,6 +16,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith(MigratedSchemaExtension.class)
 class ComprehensiveMediaItemRepositoryTest {
     
     private JdbcMediaItemRepository mediaItemRepository;
@@ -1,9 +1,11 @@
 package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
+import com.example.library.db.MigratedSchemaExtension;
 import com.example.library.domain.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -12,6 +14,7 @@ import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith(MigratedSchemaExtension.class)
 class ComprehensiveUserRepositoryTest {
     
     private JdbcUserRepository userRepository;
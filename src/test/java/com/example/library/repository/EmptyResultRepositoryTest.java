@@ -1,8 +1,10 @@
 package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
+import com.example.library.db.MigratedSchemaExtension;
 import com.example.library.domain.*;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
@@ -18,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * Tests focusing on empty result scenarios to cover empty branches in repository methods.
  * These tests use real database connections to ensure actual code coverage.
  */
+@ExtendWith(MigratedSchemaExtension.class)
 class EmptyResultRepositoryTest {
 
     private JdbcUserRepository userRepository;
@@ -1,8 +1,10 @@
 package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
+import com.example.library.db.MigratedSchemaExtension;
 import com.example.library.domain.*;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
@@ -11,6 +13,7 @@ import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -18,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * Tests focusing on "happy path" scenarios with actual data to cover TRUE branches,
  * multiple-row loops, and UPDATE/DELETE operations in repository methods.
  */
+@ExtendWith(MigratedSchemaExtension.class)
 class HappyPathRepositoryTest {
 
     private JdbcUserRepository userRepository;
@@ -65,7 +69,7 @@ class HappyPathRepositoryTest {
         MediaItem item = new MediaItem();
         item.setTitle(title);
         item.setAuthor("Test Author");
-        item.setIsbn("ISBN-" + System.currentTimeMillis());
+        item.setIsbn("ISBN-" + UUID.randomUUID().toString().substring(0, 13));
         item.setPublisher("Test Publisher");
         item.setPublicationDate(LocalDate.of(2024, 1, 1));
         item.setType(type);
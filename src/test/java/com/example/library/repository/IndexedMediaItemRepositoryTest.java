@@ -0,0 +1,254 @@
+package com.example.library.repository;
+
+import com.example.library.domain.MediaItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class IndexedMediaItemRepositoryTest {
+
+    @Mock
+    private MediaItemRepository delegate;
+
+    private IndexedMediaItemRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(delegate.streamAll()).thenAnswer(invocation -> Stream.of(
+                createMediaItem(1, "Designing Data-Intensive Applications", "Martin Kleppmann", "Java Press"),
+                createMediaItem(2, "Effective Java", "Joshua Bloch", "Addison-Wesley"),
+                createMediaItem(3, "Clean Code", "Robert Martin", "Prentice Hall")));
+        repository = new IndexedMediaItemRepository(delegate);
+    }
+
+    @Test
+    void testFullTextSearch_AnsweredWithoutDelegate() {
+        List<MediaItem> results = repository.fullTextSearch("mart");
+
+        assertEquals(2, results.size());
+        verify(delegate, never()).fullTextSearch(anyString());
+        verify(delegate, never()).search(anyString());
+    }
+
+    @Test
+    void testFullTextSearch_TitleMatchesRankFirst() {
+        List<MediaItem> results = repository.fullTextSearch("java");
+
+        assertEquals(2, results.size());
+        assertEquals(2, results.get(0).getItemId(), "Title match should rank above publisher match");
+        assertEquals(1, results.get(1).getItemId());
+    }
+
+    @Test
+    void testFuzzySearch_AnsweredWithoutDelegate() {
+        List<MediaItem> results = repository.fuzzySearch("klepman", 2);
+
+        assertEquals(1, results.size());
+        assertEquals(1, results.get(0).getItemId());
+        assertTrue(repository.fuzzySearch("prentice", 2).isEmpty(), "Publishers are not fuzzy matched");
+        verify(delegate, never()).fuzzySearch(anyString(), anyInt());
+    }
+
+    @Test
+    void testFuzzySearch_ExactMatchesRankFirst() {
+        MediaItem lookalike = createMediaItem(4, "Clean Cole", "Someone Else", "Small Press");
+        when(delegate.save(lookalike)).thenReturn(lookalike);
+        repository.save(lookalike);
+
+        List<MediaItem> results = repository.fuzzySearch("clean code", 1);
+
+        assertEquals(2, results.size());
+        assertEquals(3, results.get(0).getItemId());
+        assertEquals(4, results.get(1).getItemId());
+    }
+
+    @Test
+    void testSaveAllAndUpdateAll_KeepIndexInStep() {
+        MediaItem refactoring = createMediaItem(4, "Refactoring", "Martin Fowler", "Addison-Wesley");
+        when(delegate.saveAll(List.of(refactoring))).thenReturn(List.of(refactoring));
+        repository.saveAll(List.of(refactoring));
+        assertEquals(3, repository.fullTextSearch("mart").size());
+
+        MediaItem renamed = createMediaItem(4, "Patterns of Enterprise Architecture", "Martin Fowler", "Addison-Wesley");
+        when(delegate.updateAll(List.of(renamed))).thenReturn(List.of(renamed));
+        repository.updateAll(List.of(renamed));
+
+        assertTrue(repository.fullTextSearch("refactoring").isEmpty());
+        assertEquals(4, repository.fullTextSearch("patterns").get(0).getItemId());
+    }
+
+    @Test
+    void testFacetedSearch_CountsAndPagesFromMemory() {
+        MediaItem checkedOut = createMediaItem(4, "Clean Agile", "Robert Martin", "Prentice Hall");
+        checkedOut.setType("EBOOK");
+        checkedOut.setAvailableCopies(0);
+        checkedOut.setPublicationDate(java.time.LocalDate.of(2019, 9, 1));
+        when(delegate.save(checkedOut)).thenReturn(checkedOut);
+        repository.save(checkedOut);
+
+        FacetedSearchResult result = repository.facetedSearch(CatalogQuery.of("martin")
+                .withAvailability(CatalogQuery.Availability.AVAILABLE).page(0, 1));
+
+        assertEquals(2, result.getTotalHits());
+        assertEquals(1, result.getItems().size());
+        assertEquals(1, result.getItems().get(0).getItemId());
+        assertEquals(java.util.Map.of("BOOK", 2), result.getTypeCounts());
+        assertEquals(1, result.getAvailabilityCounts().get(CatalogQuery.Availability.CHECKED_OUT));
+        assertTrue(result.getDecadeCounts().isEmpty());
+        verify(delegate, never()).facetedSearch(any());
+
+        FacetedSearchResult everything = repository.facetedSearch(CatalogQuery.of(" ").withType("EBOOK"));
+        assertEquals(1, everything.getTotalHits());
+        assertEquals(java.util.Map.of(2010, 1), everything.getDecadeCounts());
+        assertEquals(java.util.Map.of("BOOK", 3, "EBOOK", 1), everything.getTypeCounts());
+    }
+
+    @Test
+    void testSave_IndexesNewItem() {
+        MediaItem newItem = createMediaItem(null, "Refactoring", "Martin Fowler", "Addison-Wesley");
+        when(delegate.save(newItem)).thenAnswer(invocation -> {
+            newItem.setItemId(4);
+            return newItem;
+        });
+
+        repository.save(newItem);
+
+        assertEquals(1, repository.fullTextSearch("refactor").size());
+        assertEquals(3, repository.fullTextSearch("martin").size());
+    }
+
+    @Test
+    void testUpdate_ReplacesIndexedText() {
+        MediaItem changed = createMediaItem(3, "Clean Architecture", "Robert Martin", "Prentice Hall");
+        when(delegate.update(changed)).thenReturn(changed);
+
+        repository.update(changed);
+
+        assertTrue(repository.fullTextSearch("code").isEmpty());
+        assertEquals(1, repository.fullTextSearch("architecture").size());
+    }
+
+    @Test
+    void testRefresh_ReloadsChangedAndDropsDeletedItems() {
+        when(delegate.findAllByIds(List.of(2, 3))).thenReturn(Map.of(
+                3, createMediaItem(3, "Clean Architecture", "Robert Martin", "Prentice Hall")));
+
+        repository.refresh(List.of(2, 3));
+
+        assertTrue(repository.fullTextSearch("bloch").isEmpty());
+        assertTrue(repository.fullTextSearch("code").isEmpty());
+        assertEquals(1, repository.fullTextSearch("architecture").size());
+    }
+
+    @Test
+    void testDeleteById_RemovesOnlyWhenDelegateDeletes() {
+        when(delegate.deleteById(2)).thenReturn(true);
+        when(delegate.deleteById(3)).thenReturn(false);
+
+        repository.deleteById(2);
+        repository.deleteById(3);
+
+        assertTrue(repository.fullTextSearch("bloch").isEmpty());
+        assertEquals(1, repository.fullTextSearch("clean").size());
+    }
+
+    @Test
+    void testAvailabilityChanges_ReflectedInResults() {
+        when(delegate.tryDecrementAvailable(2)).thenReturn(Optional.of(1));
+        when(delegate.incrementAvailable(3)).thenReturn(Optional.empty());
+
+        repository.tryDecrementAvailable(2);
+        repository.incrementAvailable(3);
+
+        assertEquals(1, repository.fullTextSearch("bloch").get(0).getAvailableCopies());
+        assertEquals(2, repository.fullTextSearch("clean").get(0).getAvailableCopies());
+    }
+
+    @Test
+    void testRebuild_SwapsInFreshIndexes() {
+        when(delegate.streamAll()).thenAnswer(invocation -> Stream.of(
+                createMediaItem(2, "Effective Java", "Joshua Bloch", "Addison-Wesley"),
+                createMediaItem(5, "Java Concurrency in Practice", "Brian Goetz", "Addison-Wesley")));
+
+        repository.rebuild();
+
+        assertTrue(repository.fullTextSearch("clean").isEmpty(), "Items gone from the delegate should be dropped");
+        assertEquals(2, repository.fullTextSearch("java").size());
+        assertEquals(5, repository.fuzzySearch("goets", 1).get(0).getItemId());
+        verify(delegate, never()).findAll();
+    }
+
+    @Test
+    void testRebuild_SearchesOldIndexesAndRecordsWritesWhileLoading() {
+        MediaItem refactoring = createMediaItem(4, "Refactoring", "Martin Fowler", "Addison-Wesley");
+        when(delegate.save(refactoring)).thenReturn(refactoring);
+        when(delegate.findAllByIds(Set.of(4))).thenReturn(Map.of(4, refactoring));
+        // The stream was read before the save, so it does not include the new item
+        when(delegate.streamAll()).thenAnswer(invocation -> Stream.of(
+                createMediaItem(2, "Effective Java", "Joshua Bloch", "Addison-Wesley"))
+                .peek(item -> {
+                    assertEquals(1, repository.fullTextSearch("kleppmann").size(), "Old indexes should still answer");
+                    repository.save(refactoring);
+                }));
+
+        repository.rebuild();
+
+        assertTrue(repository.fullTextSearch("kleppmann").isEmpty());
+        assertEquals(4, repository.fullTextSearch("refactoring").get(0).getItemId(),
+                "Item saved during the load should be reloaded after the swap");
+    }
+
+    @Test
+    void testRebuild_FailedLoadKeepsCurrentIndexes() {
+        when(delegate.streamAll()).thenThrow(new DataAccessException("connection lost"));
+
+        assertThrows(DataAccessException.class, repository::rebuild);
+
+        assertEquals(1, repository.fullTextSearch("bloch").size());
+    }
+
+    @Test
+    void testReturnedItems_AreCopies() {
+        repository.fullTextSearch("bloch").get(0).setTitle("Changed");
+
+        assertEquals("Effective Java", repository.fullTextSearch("bloch").get(0).getTitle());
+    }
+
+    @Test
+    void testOtherReads_GoToDelegate() {
+        repository.findById(1);
+        repository.search("java");
+        repository.findByTitleContaining("java");
+
+        verify(delegate).findById(1);
+        verify(delegate).search("java");
+        verify(delegate).findByTitleContaining("java");
+    }
+
+    private MediaItem createMediaItem(Integer itemId, String title, String author, String publisher) {
+        MediaItem item = new MediaItem();
+        item.setItemId(itemId);
+        item.setTitle(title);
+        item.setAuthor(author);
+        item.setType("BOOK");
+        item.setPublisher(publisher);
+        item.setTotalCopies(2);
+        item.setAvailableCopies(2);
+        item.setLateFeesPerDay(new BigDecimal("1.00"));
+        return item;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.library.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JdbcBatchesTest {
+
+    private DataSource dataSource;
+    private Connection conn;
+    private PreparedStatement pstmt;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = mock(DataSource.class);
+        conn = mock(Connection.class);
+        pstmt = mock(PreparedStatement.class);
+        when(dataSource.getConnection()).thenReturn(conn);
+        when(conn.prepareStatement(anyString())).thenReturn(pstmt);
+    }
+
+    @Test
+    void testUpdateAllCommitsOwnTransaction() throws SQLException {
+        // Arrange
+        when(conn.getAutoCommit()).thenReturn(true);
+        when(pstmt.executeBatch()).thenReturn(new int[] {1, 1});
+
+        // Act
+        JdbcBatches.updateAll(dataSource, "UPDATE t SET x = ? WHERE id = ?", List.of(1, 2),
+                (p, id) -> p.setInt(1, id), id -> id, "Error");
+
+        // Assert
+        verify(pstmt, times(2)).addBatch();
+        verify(pstmt).executeBatch();
+        verify(conn).setAutoCommit(false);
+        verify(conn).commit();
+        verify(conn).setAutoCommit(true);
+        verify(conn).close();
+    }
+
+    @Test
+    void testUpdateAllRollsBackWhenARowIsMissing() throws SQLException {
+        // Arrange
+        when(conn.getAutoCommit()).thenReturn(true);
+        when(pstmt.executeBatch()).thenReturn(new int[] {1, 0});
+
+        // Act & Assert
+        DataAccessException e = assertThrows(DataAccessException.class,
+                () -> JdbcBatches.updateAll(dataSource, "UPDATE t SET x = ? WHERE id = ?", List.of(7, 8),
+                        (p, id) -> p.setInt(1, id), id -> id, "Error updating"));
+        assertEquals("Error updating: no rows affected for id: 8", e.getMessage());
+        verify(conn).rollback();
+        verify(conn, never()).commit();
+        verify(conn).setAutoCommit(true);
+    }
+
+    @Test
+    void testUpdateAllJoinsSurroundingTransaction() throws SQLException {
+        // Arrange - the connection is already in a transaction
+        when(conn.getAutoCommit()).thenReturn(false);
+        when(pstmt.executeBatch()).thenReturn(new int[] {1});
+
+        // Act
+        JdbcBatches.updateAll(dataSource, "UPDATE t SET x = ? WHERE id = ?", List.of(1),
+                (p, id) -> p.setInt(1, id), id -> id, "Error");
+
+        // Assert
+        verify(conn, never()).setAutoCommit(anyBoolean());
+        verify(conn, never()).commit();
+        verify(conn, never()).rollback();
+    }
+
+    @Test
+    void testEmptyInputSkipsDatabase() throws SQLException {
+        assertTrue(JdbcBatches.updateAll(dataSource, "UPDATE t", List.<Integer>of(),
+                (p, id) -> { }, id -> id, "Error").isEmpty());
+        verify(dataSource, never()).getConnection();
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.library.repository;
+
+import com.example.library.DatabaseConnection;
+import com.example.library.db.MigratedSchemaExtension;
+import com.example.library.domain.MediaItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MigratedSchemaExtension.class)
+class JdbcCatalogImporterTest {
+
+    private JdbcCatalogImporter importer;
+    private JdbcMediaItemRepository mediaItemRepository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        importer = new JdbcCatalogImporter();
+        mediaItemRepository = new JdbcMediaItemRepository();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            // Clean all tables (in order of foreign key dependencies)
+            for (String table : List.of("fine", "loan", "reservation", "media_item")) {
+                try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM " + table)) {
+                    pstmt.executeUpdate();
+                }
+            }
+        }
+    }
+
+    @Test
+    void testImportsValidRows() {
+        // Arrange - columns in a different order from the table, with quoting and defaults
+        String csv = "isbn,title,type,author,publication_date,total_copies,late_fees_per_day\n"
+                + "111,\"Dune, Part One\",book,Frank Herbert,1965-08-01,3,2.50\n"
+                + "222,Kind of Blue,CD,Miles Davis,,,\n";
+
+        // Act
+        ImportReport report = importer.importCsv(new StringReader(csv));
+
+        // Assert
+        assertEquals(2, report.getRowsRead());
+        assertEquals(2, report.getRowsInserted());
+        assertEquals(0, report.getRowsMerged());
+        assertEquals(0, report.getRowsRejected());
+        assertTrue(report.getRejections().isEmpty());
+
+        MediaItem dune = mediaItemRepository.findByIsbn("111").orElseThrow();
+        assertEquals("Dune, Part One", dune.getTitle());
+        assertEquals("BOOK", dune.getType());
+        assertEquals(LocalDate.of(1965, 8, 1), dune.getPublicationDate());
+        assertEquals(3, dune.getTotalCopies());
+        assertEquals(3, dune.getAvailableCopies());
+        assertEquals(0, new BigDecimal("2.50").compareTo(dune.getLateFeesPerDay()));
+
+        MediaItem blue = mediaItemRepository.findByIsbn("222").orElseThrow();
+        assertNull(blue.getPublicationDate());
+        assertEquals(1, blue.getTotalCopies());
+        assertEquals(0, new BigDecimal("10.00").compareTo(blue.getLateFeesPerDay()));
+    }
+
+    @Test
+    void testRejectsInvalidRowsAndKeepsTheRest() {
+        // Arrange
+        String csv = "title,type,isbn,publication_date,total_copies,late_fees_per_day\n"
+                + "Good,BOOK,100,2020-01-01,1,1.00\n"
+                + ",BOOK,101,,,\n"
+                + "Bad Date,BOOK,102,2020-13-45,,\n"
+                + "No Copies,BOOK,103,,0,\n"
+                + "Letters,BOOK,104,,many,\n"
+                + "Negative Fee,BOOK,105,,,-1\n";
+
+        // Act
+        ImportReport report = importer.importCsv(new StringReader(csv));
+
+        // Assert
+        assertEquals(6, report.getRowsRead());
+        assertEquals(1, report.getRowsInserted());
+        assertEquals(5, report.getRowsRejected());
+        List<ImportReport.Rejection> rejections = report.getRejections();
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L), rejections.stream().map(ImportReport.Rejection::getRow).toList());
+        assertEquals("Missing title", rejections.get(0).getReason());
+        assertEquals("Invalid publication date: 2020-13-45", rejections.get(1).getReason());
+        assertEquals("Total copies must be at least 1", rejections.get(2).getReason());
+        assertEquals("Invalid total copies: many", rejections.get(3).getReason());
+        assertEquals("Late fee cannot be negative", rejections.get(4).getReason());
+        assertTrue(mediaItemRepository.findByIsbn("100").isPresent());
+        assertTrue(mediaItemRepository.findByIsbn("102").isEmpty());
+    }
+
+    @Test
+    void testRejectsIsbnRepeatedInInput() {
+        // Arrange
+        String csv = "title,type,isbn\n"
+                + "First,BOOK,555\n"
+                + "Second,BOOK,555\n";
+
+        // Act
+        ImportReport report = importer.importCsv(new StringReader(csv));
+
+        // Assert
+        assertEquals(1, report.getRowsInserted());
+        assertEquals(1, report.getRowsRejected());
+        assertEquals("row 2: Duplicate ISBN 555, first on row 1", report.getRejections().get(0).toString());
+        assertEquals("First", mediaItemRepository.findByIsbn("555").orElseThrow().getTitle());
+    }
+
+    @Test
+    void testMergesCopiesIntoCataloguedIsbn() {
+        // Arrange
+        MediaItem existing = new MediaItem();
+        existing.setTitle("Existing");
+        existing.setType("BOOK");
+        existing.setIsbn("777");
+        existing.setTotalCopies(2);
+        existing.setAvailableCopies(1);
+        existing.setLateFeesPerDay(new BigDecimal("10.00"));
+        mediaItemRepository.save(existing);
+
+        // Act
+        ImportReport report = importer.importCsv(new StringReader("title,type,isbn,total_copies\nExisting,BOOK,777,3\n"));
+
+        // Assert
+        assertEquals(0, report.getRowsInserted());
+        assertEquals(1, report.getRowsMerged());
+        MediaItem merged = mediaItemRepository.findByIsbn("777").orElseThrow();
+        assertEquals(5, merged.getTotalCopies());
+        assertEquals(4, merged.getAvailableCopies());
+    }
+
+    @Test
+    void testImportsManyRows() {
+        // Arrange
+        StringBuilder csv = new StringBuilder("title,type,isbn\n");
+        for (int i = 0; i < 5000; i++) {
+            csv.append("Title ").append(i).append(",BOOK,BULK-").append(i).append('\n');
+        }
+
+        // Act
+        ImportReport report = importer.importCsv(new StringReader(csv.toString()));
+
+        // Assert
+        assertEquals(5000, report.getRowsRead());
+        assertEquals(5000, report.getRowsInserted());
+        assertTrue(report.getRowsPerSecond() > 0);
+        assertEquals(5000, mediaItemRepository.findAll().size());
+    }
+
+    @Test
+    void testMalformedCsvImportsNothing() {
+        // Arrange - the unterminated quote fails the COPY itself
+        String csv = "title,type,isbn\n"
+                + "Fine,BOOK,900\n"
+                + "\"Broken,BOOK,901\n";
+
+        // Act & Assert
+        assertThrows(DataAccessException.class, () -> importer.importCsv(new StringReader(csv)));
+        assertTrue(mediaItemRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void testRejectsBadHeader() {
+        assertThrows(IllegalArgumentException.class, () -> importer.importCsv(new StringReader("")));
+        assertThrows(IllegalArgumentException.class,
+                () -> importer.importCsv(new StringReader("title,type,colour\n")));
+        assertThrows(IllegalArgumentException.class,
+                () -> importer.importCsv(new StringReader("title,type,title\n")));
+        assertThrows(IllegalArgumentException.class,
+                () -> importer.importCsv(new StringReader("title,author\n")));
+    }
+}
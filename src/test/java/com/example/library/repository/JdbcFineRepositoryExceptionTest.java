@@ -1,6 +1,7 @@
 package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
+import com.example.library.db.MigratedSchemaExtension;
 import com.example.library.domain.Fine;
 import com.example.library.domain.Loan;
 import com.example.library.domain.MediaItem;
@@ -8,6 +9,7 @@ import com.example.library.domain.User;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
@@ -19,6 +21,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith(MigratedSchemaExtension.class)
 class JdbcFineRepositoryExceptionTest {
     
     private JdbcFineRepository fineRepository;
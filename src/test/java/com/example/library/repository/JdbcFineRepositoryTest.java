@@ -1,9 +1,11 @@
 package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
+import com.example.library.db.MigratedSchemaExtension;
 import com.example.library.domain.Fine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
@@ -15,6 +17,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith(MigratedSchemaExtension.class)
 class JdbcFineRepositoryTest {
     
     private JdbcFineRepository fineRepository;
@@ -387,4 +390,202 @@ class JdbcFineRepositoryTest {
         assertTrue(userFines.stream().anyMatch(f -> f.getStatus().equals("PAID")), 
                    "Should contain PAID fine");
     }
+    
+    @Test
+    void testFindByStatusPaged() {
+        // Arrange
+        Fine unpaid1 = saveFine("UNPAID");
+        saveFine("PAID");
+        Fine unpaid2 = saveFine("UNPAID");
+        
+        // Act
+        Page<Fine> first = fineRepository.findByStatus("UNPAID", null, 1);
+        Page<Fine> second = fineRepository.findByStatus("UNPAID", first.getNextCursor(), 1);
+        Page<Fine> all = fineRepository.findAll(null, 3);
+        
+        // Assert
+        assertEquals(List.of(unpaid1.getFineId()), first.getItems().stream().map(Fine::getFineId).toList());
+        assertTrue(first.hasNext());
+        assertEquals(List.of(unpaid2.getFineId()), second.getItems().stream().map(Fine::getFineId).toList());
+        assertFalse(second.hasNext(), "A page filled exactly to the limit is the last when nothing follows");
+        assertEquals(3, all.getItems().size());
+        assertFalse(all.hasNext());
+    }
+    
+    private Fine saveFine(String status) {
+        Fine fine = new Fine();
+        fine.setLoanId(testLoanId);
+        fine.setAmount(new BigDecimal("2.50"));
+        fine.setIssuedDate(LocalDate.now());
+        fine.setStatus(status);
+        fine.setPaidDate("PAID".equals(status) ? LocalDate.now() : null);
+        return fineRepository.save(fine);
+    }
+    
+    @Test
+    void testStreamByStatusAndStreamAll() {
+        // Arrange
+        Fine unpaid = saveFine("UNPAID");
+        saveFine("PAID");
+        
+        // Act
+        List<Integer> unpaidIds;
+        try (java.util.stream.Stream<Fine> fines = fineRepository.streamByStatus("UNPAID")) {
+            unpaidIds = fines.map(Fine::getFineId).toList();
+        }
+        long total;
+        try (java.util.stream.Stream<Fine> fines = fineRepository.streamAll()) {
+            total = fines.count();
+        }
+        
+        // Assert
+        assertEquals(List.of(unpaid.getFineId()), unpaidIds);
+        assertEquals(2, total);
+    }
+    
+    @Test
+    void testFindAllByIds() {
+        // Arrange
+        Fine unpaid = saveFine("UNPAID");
+        Fine paid = saveFine("PAID");
+        
+        // Act
+        java.util.Map<Integer, Fine> found = fineRepository.findAllByIds(java.util.Set.of(unpaid.getFineId(), paid.getFineId()));
+        
+        // Assert
+        assertEquals(2, found.size());
+        assertEquals("UNPAID", found.get(unpaid.getFineId()).getStatus());
+        assertEquals("PAID", found.get(paid.getFineId()).getStatus());
+        assertTrue(fineRepository.findAllByIds(null).isEmpty());
+    }
+    
+    @Test
+    void testSaveAllAndUpdateAll() {
+        // Arrange
+        List<Fine> fines = new java.util.ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Fine fine = new Fine();
+            fine.setLoanId(testLoanId);
+            fine.setAmount(new BigDecimal(i + ".00"));
+            fine.setIssuedDate(LocalDate.now());
+            fine.setStatus("UNPAID");
+            fines.add(fine);
+        }
+        
+        // Act
+        List<Fine> saved = fineRepository.saveAll(fines);
+        saved.forEach(fine -> {
+            fine.setStatus("PAID");
+            fine.setPaidDate(LocalDate.now());
+        });
+        fineRepository.updateAll(saved);
+        
+        // Assert
+        for (int i = 0; i < saved.size(); i++) {
+            Fine found = fineRepository.findById(saved.get(i).getFineId()).orElseThrow();
+            assertEquals(0, new BigDecimal((i + 1) + ".00").compareTo(found.getAmount()));
+            assertEquals("PAID", found.getStatus());
+            assertEquals(LocalDate.now(), found.getPaidDate());
+        }
+    }
+    
+    @Test
+    void testSearch_FiltersPagesAndTotalsByStatus() throws SQLException {
+        // Arrange - three fines for the test user, one for another user
+        Fine oldUnpaid = saveFine("UNPAID");
+        Fine paid = saveFine("PAID");
+        Fine newUnpaid = saveFine("UNPAID");
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("UPDATE fine SET issued_date = ? WHERE fine_id = ?")) {
+            pstmt.setDate(1, java.sql.Date.valueOf(LocalDate.of(2024, 1, 10)));
+            pstmt.setInt(2, oldUnpaid.getFineId());
+            pstmt.executeUpdate();
+        }
+        Integer otherLoanId = insertLoanForOtherUser();
+        Fine other = new Fine();
+        other.setLoanId(otherLoanId);
+        other.setAmount(new BigDecimal("7.00"));
+        other.setIssuedDate(LocalDate.now());
+        other.setStatus("UNPAID");
+        fineRepository.save(other);
+        
+        // Act
+        FineSearchResult all = fineRepository.search(FineQuery.all());
+        FineSearchResult byUser = fineRepository.search(FineQuery.all().withUserId(testUserId));
+        FineSearchResult unpaidSince = fineRepository.search(FineQuery.all()
+                .withUserId(testUserId).withStatus("UNPAID").withIssuedBetween(LocalDate.of(2024, 2, 1), null));
+        FineSearchResult firstPage = fineRepository.search(FineQuery.all().withUserId(testUserId).page(0, 2));
+        FineSearchResult lastPage = fineRepository.search(FineQuery.all().withUserId(testUserId).page(2, 2));
+        
+        // Assert - totals cover every matching fine, per status
+        assertEquals(4, all.getTotalCount());
+        assertEquals(3, all.getTotal("UNPAID").getCount());
+        assertEquals(0, new BigDecimal("12.00").compareTo(all.getTotal("UNPAID").getAmount()));
+        assertEquals(1, all.getTotal("PAID").getCount());
+        assertEquals(0, new BigDecimal("2.50").compareTo(all.getTotal("PAID").getAmount()));
+        
+        // Assert - filters apply to both rows and totals
+        assertEquals(3, byUser.getFines().size());
+        assertTrue(byUser.getFines().stream().allMatch(view -> testUserId.equals(view.getUserId())));
+        assertTrue(byUser.getFines().stream().allMatch(view -> testItemId.equals(view.getItemId())));
+        assertEquals(List.of(newUnpaid.getFineId()),
+                unpaidSince.getFines().stream().map(view -> view.getFine().getFineId()).toList());
+        assertEquals(1, unpaidSince.getTotalCount());
+        assertEquals(0, unpaidSince.getTotal("PAID").getCount());
+        assertEquals(0, BigDecimal.ZERO.compareTo(unpaidSince.getTotal("PAID").getAmount()));
+        
+        // Assert - newest first, paged, with totals on every page
+        assertEquals(2, firstPage.getFines().size());
+        assertTrue(firstPage.hasNext());
+        assertEquals(2, firstPage.getNextOffset());
+        assertEquals(3, firstPage.getTotalCount());
+        assertEquals(List.of(oldUnpaid.getFineId()),
+                lastPage.getFines().stream().map(view -> view.getFine().getFineId()).toList());
+        assertFalse(lastPage.hasNext());
+        assertEquals(3, lastPage.getTotalCount());
+        assertTrue(firstPage.getFines().stream().map(view -> view.getFine().getFineId()).toList()
+                .containsAll(List.of(paid.getFineId(), newUnpaid.getFineId())));
+    }
+    
+    @Test
+    void testSearch_NoMatches() {
+        // Arrange
+        saveFine("UNPAID");
+        
+        // Act
+        FineSearchResult result = fineRepository.search(FineQuery.all().withUserId(testUserId + 1000));
+        
+        // Assert
+        assertTrue(result.getFines().isEmpty());
+        assertEquals(0, result.getTotalCount());
+        assertTrue(result.getTotals().isEmpty());
+        assertFalse(result.hasNext());
+    }
+    
+    private Integer insertLoanForOtherUser() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int userId;
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO app_user (username, password, email, role) VALUES (?, ?, ?, ?) RETURNING user_id")) {
+                pstmt.setString(1, "otheruser");
+                pstmt.setString(2, "password123");
+                pstmt.setString(3, "otheruser@example.com");
+                pstmt.setString(4, "STUDENT");
+                var rs = pstmt.executeQuery();
+                rs.next();
+                userId = rs.getInt(1);
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO loan (user_id, item_id, loan_date, due_date, return_date, status) " +
+                    "VALUES (?, ?, ?, ?, NULL, 'ACTIVE') RETURNING loan_id")) {
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, testItemId);
+                pstmt.setDate(3, java.sql.Date.valueOf(LocalDate.now().minusDays(20)));
+                pstmt.setDate(4, java.sql.Date.valueOf(LocalDate.now().minusDays(5)));
+                var rs = pstmt.executeQuery();
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
 }
@@ -1,9 +1,12 @@
 package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
+import com.example.library.db.MigratedSchemaExtension;
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
@@ -11,10 +14,12 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith(MigratedSchemaExtension.class)
 class JdbcLoanRepositoryTest {
     
     private JdbcLoanRepository loanRepository;
@@ -193,6 +198,118 @@ class JdbcLoanRepositoryTest {
         assertNull(found.getReturnDate(), "Return date should be null for overdue loan");
     }
     
+    @Test
+    void testHasOverdueLoansOrUnpaidFines() throws SQLException {
+        // Arrange - a current loan does not block borrowing
+        Loan currentLoan = new Loan();
+        currentLoan.setUserId(testUserId);
+        currentLoan.setItemId(testItemId);
+        currentLoan.setLoanDate(LocalDate.now().minusDays(5));
+        currentLoan.setDueDate(LocalDate.now().plusDays(9));
+        currentLoan.setReturnDate(null);
+        currentLoan.setStatus("ACTIVE");
+        Loan savedCurrent = loanRepository.save(currentLoan);
+        
+        assertFalse(loanRepository.hasOverdueLoansOrUnpaidFines(testUserId, LocalDate.now()));
+        
+        // An unpaid fine blocks borrowing
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO fine (loan_id, amount, issued_date, status) VALUES (?, ?, ?, 'UNPAID')")) {
+            pstmt.setInt(1, savedCurrent.getLoanId());
+            pstmt.setBigDecimal(2, new BigDecimal("3.00"));
+            pstmt.setDate(3, java.sql.Date.valueOf(LocalDate.now()));
+            pstmt.executeUpdate();
+        }
+        
+        assertTrue(loanRepository.hasOverdueLoansOrUnpaidFines(testUserId, LocalDate.now()));
+        
+        // Once the due date passes, the loan alone blocks borrowing
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM fine")) {
+            pstmt.executeUpdate();
+        }
+        
+        assertFalse(loanRepository.hasOverdueLoansOrUnpaidFines(testUserId, LocalDate.now()));
+        assertTrue(loanRepository.hasOverdueLoansOrUnpaidFines(testUserId, LocalDate.now().plusDays(10)));
+        assertFalse(loanRepository.hasOverdueLoansOrUnpaidFines(99999, LocalDate.now().plusDays(10)),
+                "Other users should not be affected");
+    }
+    
+    @Test
+    void testFindViewsByUserId() throws SQLException {
+        LocalDate today = LocalDate.now();
+        Loan overdue = new Loan(null, testUserId, testItemId, today.minusDays(20), today.minusDays(6), null, "ACTIVE");
+        Loan returned = new Loan(null, testUserId, testItemId, today.minusDays(30), today.minusDays(16),
+                today.minusDays(13), "RETURNED");
+        loanRepository.save(overdue);
+        Loan savedReturned = loanRepository.save(returned);
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO fine (loan_id, amount, issued_date, status) VALUES (?, ?, ?, 'UNPAID')")) {
+            for (String amount : new String[] {"20.00", "10.00"}) {
+                pstmt.setInt(1, savedReturned.getLoanId());
+                pstmt.setBigDecimal(2, new BigDecimal(amount));
+                pstmt.setDate(3, java.sql.Date.valueOf(today.minusDays(13)));
+                pstmt.executeUpdate();
+            }
+        }
+        
+        List<LoanView> all = loanRepository.findViewsByUserId(testUserId, null, today);
+        List<LoanView> active = loanRepository.findViewsByUserId(testUserId, "ACTIVE", today);
+        
+        assertEquals(2, all.size());
+        LoanView activeView = all.get(0);
+        assertEquals("Test Book", activeView.getItemTitle());
+        assertEquals("BOOK", activeView.getItemType());
+        assertEquals(0, new BigDecimal("1.00").compareTo(activeView.getLateFeePerDay()));
+        assertEquals(6, activeView.getOverdueDays());
+        assertEquals(0, BigDecimal.ZERO.compareTo(activeView.getAccruedFine()));
+        LoanView returnedView = all.get(1);
+        assertEquals(3, returnedView.getOverdueDays(), "Returned loans count days up to the return");
+        assertEquals(0, new BigDecimal("30.00").compareTo(returnedView.getAccruedFine()));
+        assertEquals(1, active.size());
+        assertEquals(activeView.getLoan().getLoanId(), active.get(0).getLoan().getLoanId());
+        assertTrue(loanRepository.findViewsByUserId(99999, null, today).isEmpty());
+    }
+    
+    @Test
+    void testSearch_FiltersSortsAndPages() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < 5; i++) {
+            String status = i % 2 == 0 ? "ACTIVE" : "RETURNED";
+            loanRepository.save(new Loan(null, testUserId, testItemId, start.plusDays(i), start.plusDays(i + 14),
+                    "RETURNED".equals(status) ? start.plusDays(i + 7) : null, status));
+        }
+        
+        LoanSearchResult newest = loanRepository.search(LoanQuery.all().page(0, 2));
+        LoanSearchResult rest = loanRepository.search(LoanQuery.all().page(newest.getNextOffset(), 2));
+        LoanSearchResult last = loanRepository.search(LoanQuery.all().page(rest.getNextOffset(), 2));
+        
+        assertEquals(List.of(start.plusDays(4), start.plusDays(3)),
+                newest.getLoans().stream().map(Loan::getLoanDate).toList());
+        assertTrue(newest.hasNext());
+        assertEquals(start.plusDays(2), rest.getLoans().get(0).getLoanDate());
+        assertEquals(1, last.getLoans().size());
+        assertFalse(last.hasNext());
+        
+        LoanSearchResult active = loanRepository.search(LoanQuery.all()
+                .withStatus("ACTIVE")
+                .withUserId(testUserId)
+                .withItemId(testItemId)
+                .withLoanDateBetween(start.plusDays(1), start.plusDays(4))
+                .sortBy(LoanQuery.SortField.DUE_DATE, false));
+        assertEquals(List.of(start.plusDays(2), start.plusDays(4)),
+                active.getLoans().stream().map(Loan::getLoanDate).toList());
+        
+        LoanSearchResult byReturn = loanRepository.search(LoanQuery.all()
+                .sortBy(LoanQuery.SortField.RETURN_DATE, true));
+        assertEquals(start.plusDays(10), byReturn.getLoans().get(0).getReturnDate());
+        assertNull(byReturn.getLoans().get(4).getReturnDate(), "Unreturned loans sort last");
+        
+        assertTrue(loanRepository.search(LoanQuery.all().withUserId(99999)).getLoans().isEmpty());
+    }
+    
     @Test
     void testUpdateStatus() {
         // Arrange - Insert a loan
@@ -288,6 +405,32 @@ class JdbcLoanRepositoryTest {
         assertNull(updated.get().getReturnDate(), "Return date should still be null");
     }
     
+    @Test
+    void testMarkReturned_OnlyMatchesOpenLoan() {
+        // Arrange
+        Loan loan = new Loan();
+        loan.setUserId(testUserId);
+        loan.setItemId(testItemId);
+        loan.setLoanDate(LocalDate.now().minusDays(5));
+        loan.setDueDate(LocalDate.now().plusDays(9));
+        loan.setStatus("ACTIVE");
+        Loan saved = loanRepository.save(loan);
+        
+        // Act
+        Optional<Loan> first = loanRepository.markReturned(saved.getLoanId(), LocalDate.now());
+        Optional<Loan> second = loanRepository.markReturned(saved.getLoanId(), LocalDate.now().plusDays(1));
+        
+        // Assert - first call closes the loan and returns it, second matches nothing
+        assertTrue(first.isPresent(), "Open loan should be marked returned");
+        assertEquals("RETURNED", first.get().getStatus());
+        assertEquals(LocalDate.now(), first.get().getReturnDate());
+        assertEquals(testItemId, first.get().getItemId());
+        assertFalse(second.isPresent(), "Returned loan should not match again");
+        assertEquals(LocalDate.now(), loanRepository.findById(saved.getLoanId()).get().getReturnDate(),
+                "Second call should not overwrite the return date");
+        assertFalse(loanRepository.markReturned(-1, LocalDate.now()).isPresent());
+    }
+    
     @Test
     void testFindAll() {
         // Arrange - Create a loan
@@ -384,4 +527,137 @@ class JdbcLoanRepositoryTest {
         assertTrue(activeLoans.stream().allMatch(l -> "ACTIVE".equals(l.getStatus())));
         assertTrue(returnedLoans.stream().allMatch(l -> "RETURNED".equals(l.getStatus())));
     }
+    
+    @Test
+    void testCountLoansByItem() {
+        // Arrange
+        Loan activeLoan = new Loan();
+        activeLoan.setUserId(testUserId);
+        activeLoan.setItemId(testItemId);
+        activeLoan.setLoanDate(LocalDate.now().minusDays(5));
+        activeLoan.setDueDate(LocalDate.now().plusDays(9));
+        activeLoan.setStatus("ACTIVE");
+        loanRepository.save(activeLoan);
+        
+        Loan returnedLoan = new Loan();
+        returnedLoan.setUserId(testUserId);
+        returnedLoan.setItemId(testItemId);
+        returnedLoan.setLoanDate(LocalDate.now().minusDays(20));
+        returnedLoan.setDueDate(LocalDate.now().minusDays(6));
+        returnedLoan.setReturnDate(LocalDate.now().minusDays(5));
+        returnedLoan.setStatus("RETURNED");
+        loanRepository.save(returnedLoan);
+        
+        // Act
+        Map<Integer, Integer> counts = loanRepository.countLoansByItem();
+        
+        // Assert
+        assertEquals(1, counts.size(), "Only items with loans should be counted");
+        assertEquals(2, counts.get(testItemId), "Returned loans count as borrows too");
+    }
+    
+    @Test
+    void testFindByStatusPaged() {
+        // Arrange
+        List<Integer> active = new java.util.ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            active.add(saveLoan("ACTIVE").getLoanId());
+        }
+        saveLoan("RETURNED");
+        
+        // Act
+        Page<Loan> first = loanRepository.findByStatus("ACTIVE", null, 2);
+        Page<Loan> second = loanRepository.findByStatus("ACTIVE", first.getNextCursor(), 2);
+        Page<Loan> all = loanRepository.findAll(null, 10);
+        
+        // Assert
+        assertEquals(active.subList(0, 2), first.getItems().stream().map(Loan::getLoanId).toList());
+        assertEquals(active.get(1), first.getNextCursor());
+        assertEquals(active.subList(2, 3), second.getItems().stream().map(Loan::getLoanId).toList());
+        assertFalse(second.hasNext());
+        assertEquals(4, all.getItems().size());
+        assertFalse(all.hasNext());
+    }
+    
+    private Loan saveLoan(String status) {
+        Loan loan = new Loan();
+        loan.setUserId(testUserId);
+        loan.setItemId(testItemId);
+        loan.setLoanDate(LocalDate.now().minusDays(5));
+        loan.setDueDate(LocalDate.now().plusDays(9));
+        loan.setReturnDate("RETURNED".equals(status) ? LocalDate.now() : null);
+        loan.setStatus(status);
+        return loanRepository.save(loan);
+    }
+    
+    @Test
+    void testStreamOverdueAndStreamAll() {
+        // Arrange
+        Loan overdue = saveLoan("ACTIVE");
+        overdue.setDueDate(LocalDate.now().minusDays(1));
+        loanRepository.update(overdue);
+        saveLoan("ACTIVE");
+        saveLoan("RETURNED");
+        
+        // Act
+        List<Integer> overdueIds;
+        try (java.util.stream.Stream<Loan> loans = loanRepository.streamOverdue(LocalDate.now())) {
+            overdueIds = loans.map(Loan::getLoanId).toList();
+        }
+        long total;
+        try (java.util.stream.Stream<Loan> loans = loanRepository.streamAll()) {
+            total = loans.count();
+        }
+        
+        // Assert
+        assertEquals(List.of(overdue.getLoanId()), overdueIds);
+        assertEquals(3, total);
+    }
+    
+    @Test
+    void testFindAllByIds() {
+        // Arrange
+        Loan first = saveLoan("ACTIVE");
+        Loan second = saveLoan("RETURNED");
+        
+        // Act
+        java.util.Map<Integer, Loan> found = loanRepository.findAllByIds(
+                List.of(first.getLoanId(), second.getLoanId(), first.getLoanId(), -1));
+        
+        // Assert
+        assertEquals(2, found.size());
+        assertEquals("ACTIVE", found.get(first.getLoanId()).getStatus());
+        assertEquals("RETURNED", found.get(second.getLoanId()).getStatus());
+    }
+    
+    @Test
+    void testSaveAllAndUpdateAll() {
+        // Arrange
+        List<Loan> loans = new java.util.ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Loan loan = new Loan();
+            loan.setUserId(testUserId);
+            loan.setItemId(testItemId);
+            loan.setLoanDate(LocalDate.now());
+            loan.setDueDate(LocalDate.now().plusDays(14 + i));
+            loan.setStatus("ACTIVE");
+            loans.add(loan);
+        }
+        
+        // Act
+        List<Loan> saved = loanRepository.saveAll(loans);
+        saved.forEach(loan -> {
+            loan.setStatus("RETURNED");
+            loan.setReturnDate(LocalDate.now());
+        });
+        loanRepository.updateAll(saved);
+        
+        // Assert
+        assertEquals(3, saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            Loan found = loanRepository.findById(saved.get(i).getLoanId()).orElseThrow();
+            assertEquals(LocalDate.now().plusDays(14 + i), found.getDueDate());
+            assertEquals("RETURNED", found.getStatus());
+        }
+    }
 }
@@ -1,9 +1,11 @@
 package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
+import com.example.library.db.MigratedSchemaExtension;
 import com.example.library.domain.MediaItem;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
@@ -15,6 +17,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith(MigratedSchemaExtension.class)
 class JdbcMediaItemRepositoryTest {
     
     private JdbcMediaItemRepository mediaItemRepository;
@@ -173,7 +176,7 @@ class JdbcMediaItemRepositoryTest {
         saved.setTitle("Updated Title");
         saved.setAuthor("Updated Author");
         saved.setTotalCopies(10);
-        MediaItem updated = mediaItemRepository.save(saved);
+        MediaItem updated = mediaItemRepository.update(saved);
         
         // Assert
         assertEquals(saved.getItemId(), updated.getItemId(), "Item ID should remain the same");
@@ -244,6 +247,71 @@ class JdbcMediaItemRepositoryTest {
         assertFalse(results3.isEmpty(), "Should find item with mixed case search");
     }
     
+    @Test
+    void testFullTextSearch_RanksTitleMatchesFirst() {
+        // Arrange - "Rust" appears in one title and in the other item's publisher only
+        MediaItem publisherMatch = new MediaItem();
+        publisherMatch.setTitle("Systems Design");
+        publisherMatch.setAuthor("Jane Smith");
+        publisherMatch.setType("BOOK");
+        publisherMatch.setIsbn("978-0000000001");
+        publisherMatch.setPublisher("Rust Belt Press");
+        publisherMatch.setTotalCopies(1);
+        publisherMatch.setAvailableCopies(1);
+        publisherMatch.setLateFeesPerDay(new BigDecimal("1.00"));
+        mediaItemRepository.save(publisherMatch);
+        
+        MediaItem titleMatch = new MediaItem();
+        titleMatch.setTitle("Programming Rust");
+        titleMatch.setAuthor("Jim Blandy");
+        titleMatch.setType("BOOK");
+        titleMatch.setIsbn("978-0000000002");
+        titleMatch.setPublisher("O'Reilly");
+        titleMatch.setTotalCopies(1);
+        titleMatch.setAvailableCopies(1);
+        titleMatch.setLateFeesPerDay(new BigDecimal("1.00"));
+        mediaItemRepository.save(titleMatch);
+        
+        // Act
+        List<MediaItem> results = mediaItemRepository.fullTextSearch("rust");
+        
+        // Assert
+        assertEquals(2, results.size());
+        assertEquals("Programming Rust", results.get(0).getTitle(), "Title match should rank first");
+    }
+    
+    @Test
+    void testFullTextSearch_PrefixIsbnAndMultipleWords() {
+        // Arrange
+        MediaItem item = new MediaItem();
+        item.setTitle("Effective Java");
+        item.setAuthor("Joshua Bloch");
+        item.setType("BOOK");
+        item.setIsbn("978-0134685991");
+        item.setPublisher("Addison-Wesley");
+        item.setTotalCopies(2);
+        item.setAvailableCopies(2);
+        item.setLateFeesPerDay(new BigDecimal("1.00"));
+        mediaItemRepository.save(item);
+        
+        // Act & Assert
+        assertEquals(1, mediaItemRepository.fullTextSearch("Effect").size(), "Partial word should match");
+        assertEquals(1, mediaItemRepository.fullTextSearch("bloch java").size(), "Words may come from different fields");
+        assertEquals(1, mediaItemRepository.fullTextSearch("978-0134685991").size(), "Hyphenated ISBN should match");
+        assertEquals(1, mediaItemRepository.fullTextSearch("9780134685991").size(), "Plain ISBN should match");
+        assertTrue(mediaItemRepository.fullTextSearch("bloch python").isEmpty(), "All words must match");
+        assertTrue(mediaItemRepository.fullTextSearch("!&|:*").isEmpty(), "Query syntax should be ignored");
+    }
+    
+    @Test
+    void testToPrefixTsQuery() {
+        assertEquals("effective:* & java:*", JdbcMediaItemRepository.toPrefixTsQuery("  effective   java "));
+        assertEquals("(9780134685991:* | 978:* & 0134685991:*)", JdbcMediaItemRepository.toPrefixTsQuery("978-0134685991"));
+        assertEquals("(OReilly:* | O:* & Reilly:*)", JdbcMediaItemRepository.toPrefixTsQuery("O'Reilly"));
+        assertEquals("", JdbcMediaItemRepository.toPrefixTsQuery("'&|!"));
+        assertEquals("", JdbcMediaItemRepository.toPrefixTsQuery(null));
+    }
+    
     @Test
     void testFindAll() {
         // Act
@@ -324,6 +392,121 @@ class JdbcMediaItemRepositoryTest {
         assertTrue(results.stream().anyMatch(i -> i.getAuthor().contains("King")));
     }
     
+    @Test
+    void testFindByAuthorContaining_ClosestMatchFirst() {
+        // Arrange - the weaker match is saved first so ID order would put it first
+        MediaItem partialMatch = new MediaItem();
+        partialMatch.setTitle("Collected Letters");
+        partialMatch.setAuthor("Tylerson-Whitmore Bartholomew");
+        partialMatch.setType("BOOK");
+        partialMatch.setIsbn("ISBN-TRGM-001");
+        partialMatch.setTotalCopies(1);
+        partialMatch.setAvailableCopies(1);
+        partialMatch.setLateFeesPerDay(new BigDecimal("1.00"));
+        mediaItemRepository.save(partialMatch);
+        
+        MediaItem exactMatch = new MediaItem();
+        exactMatch.setTitle("Breathing Lessons");
+        exactMatch.setAuthor("Anne Tyler");
+        exactMatch.setType("BOOK");
+        exactMatch.setIsbn("ISBN-TRGM-002");
+        exactMatch.setTotalCopies(1);
+        exactMatch.setAvailableCopies(1);
+        exactMatch.setLateFeesPerDay(new BigDecimal("1.00"));
+        mediaItemRepository.save(exactMatch);
+        
+        // Act
+        List<MediaItem> results = mediaItemRepository.findByAuthorContaining("tyler");
+        
+        // Assert
+        assertEquals(2, results.size());
+        assertTrue(mediaItemRepository.isTrigramSearchAvailable(), "Test database should have pg_trgm");
+        assertEquals("Anne Tyler", results.get(0).getAuthor(), "Whole-word match should rank first");
+    }
+    
+    @Test
+    void testFindByTitleContaining_KeepsWeakSubstringMatches() {
+        // Arrange - "arto" is a substring of both titles but only a whole word of one
+        MediaItem wordMatch = new MediaItem();
+        wordMatch.setTitle("Arto and the Sea");
+        wordMatch.setType("BOOK");
+        wordMatch.setIsbn("ISBN-TRGM-003");
+        wordMatch.setTotalCopies(1);
+        wordMatch.setAvailableCopies(1);
+        wordMatch.setLateFeesPerDay(new BigDecimal("1.00"));
+        
+        MediaItem substringMatch = new MediaItem();
+        substringMatch.setTitle("Handbook of Cartography");
+        substringMatch.setType("BOOK");
+        substringMatch.setIsbn("ISBN-TRGM-004");
+        substringMatch.setTotalCopies(1);
+        substringMatch.setAvailableCopies(1);
+        substringMatch.setLateFeesPerDay(new BigDecimal("1.00"));
+        mediaItemRepository.save(substringMatch);
+        mediaItemRepository.save(wordMatch);
+        
+        // Act
+        List<MediaItem> results = mediaItemRepository.findByTitleContaining("arto");
+        
+        // Assert - the low-similarity substring match is ranked, not filtered out
+        assertEquals(2, results.size());
+        assertEquals("Arto and the Sea", results.get(0).getTitle());
+        assertEquals("Handbook of Cartography", results.get(1).getTitle());
+    }
+    
+    @Test
+    void testFuzzySearch_MisspelledAuthor() {
+        // Arrange
+        MediaItem hobbit = new MediaItem();
+        hobbit.setTitle("The Hobbit");
+        hobbit.setAuthor("J.R.R. Tolkien");
+        hobbit.setType("BOOK");
+        hobbit.setIsbn("ISBN-FUZZY-001");
+        hobbit.setTotalCopies(1);
+        hobbit.setAvailableCopies(1);
+        hobbit.setLateFeesPerDay(new BigDecimal("1.00"));
+        mediaItemRepository.save(hobbit);
+        
+        MediaItem unrelated = new MediaItem();
+        unrelated.setTitle("Dune");
+        unrelated.setAuthor("Frank Herbert");
+        unrelated.setType("BOOK");
+        unrelated.setIsbn("ISBN-FUZZY-002");
+        unrelated.setTotalCopies(1);
+        unrelated.setAvailableCopies(1);
+        unrelated.setLateFeesPerDay(new BigDecimal("1.00"));
+        mediaItemRepository.save(unrelated);
+        
+        // Act
+        List<MediaItem> exact = mediaItemRepository.fullTextSearch("Tolkein");
+        List<MediaItem> fuzzy = mediaItemRepository.fuzzySearch("Tolkein", 2);
+        
+        // Assert
+        assertTrue(exact.isEmpty(), "Exact search should miss the misspelling");
+        assertEquals(1, fuzzy.size());
+        assertEquals("J.R.R. Tolkien", fuzzy.get(0).getAuthor());
+        assertTrue(mediaItemRepository.fuzzySearch("Tolkein Herbert", 1).isEmpty());
+    }
+    
+    @Test
+    void testFuzzySearch_SimilarButTooManyEditsAway() {
+        // Arrange - "Tolkiensson" shares most trigrams with "Tolkien" but is four edits away
+        MediaItem hobbit = new MediaItem();
+        hobbit.setTitle("The Hobbit");
+        hobbit.setAuthor("J.R.R. Tolkien");
+        hobbit.setType("BOOK");
+        hobbit.setIsbn("ISBN-FUZZY-003");
+        hobbit.setTotalCopies(1);
+        hobbit.setAvailableCopies(1);
+        hobbit.setLateFeesPerDay(new BigDecimal("1.00"));
+        mediaItemRepository.save(hobbit);
+        
+        // Act & Assert
+        assertTrue(mediaItemRepository.isLevenshteinAvailable(), "Test database should have fuzzystrmatch");
+        assertTrue(mediaItemRepository.fuzzySearch("Tolkiensson", 2).isEmpty());
+        assertEquals(1, mediaItemRepository.fuzzySearch("The Hobit", 1).size());
+    }
+    
     @Test
     void testFindAvailableItems() {
         // Arrange - Create available and unavailable items
@@ -392,4 +575,268 @@ class JdbcMediaItemRepositoryTest {
         // Assert
         assertFalse(result.isPresent(), "Non-existent ISBN should not be found");
     }
+    
+    @Test
+    void testTryDecrementAvailable_StopsAtZero() {
+        // Arrange
+        MediaItem item = new MediaItem();
+        item.setTitle("Last Copy Book");
+        item.setAuthor("Author");
+        item.setType("BOOK");
+        item.setIsbn("ISBN-DECR-001");
+        item.setTotalCopies(2);
+        item.setAvailableCopies(1);
+        item.setLateFeesPerDay(new BigDecimal("1.00"));
+        MediaItem saved = mediaItemRepository.save(item);
+        
+        // Act
+        Optional<Integer> first = mediaItemRepository.tryDecrementAvailable(saved.getItemId());
+        Optional<Integer> second = mediaItemRepository.tryDecrementAvailable(saved.getItemId());
+        
+        // Assert
+        assertEquals(Optional.of(0), first, "First borrower should take the last copy");
+        assertFalse(second.isPresent(), "No copy should be left for the second borrower");
+        assertEquals(0, mediaItemRepository.findById(saved.getItemId()).get().getAvailableCopies());
+        assertFalse(mediaItemRepository.tryDecrementAvailable(99999).isPresent(), "Unknown item should not be decremented");
+    }
+    
+    @Test
+    void testIncrementAvailable_StopsAtTotalCopies() {
+        // Arrange
+        MediaItem item = new MediaItem();
+        item.setTitle("Returned Book");
+        item.setAuthor("Author");
+        item.setType("BOOK");
+        item.setIsbn("ISBN-INCR-001");
+        item.setTotalCopies(2);
+        item.setAvailableCopies(1);
+        item.setLateFeesPerDay(new BigDecimal("1.00"));
+        MediaItem saved = mediaItemRepository.save(item);
+        
+        // Act
+        Optional<Integer> first = mediaItemRepository.incrementAvailable(saved.getItemId());
+        Optional<Integer> second = mediaItemRepository.incrementAvailable(saved.getItemId());
+        
+        // Assert
+        assertEquals(Optional.of(2), first);
+        assertFalse(second.isPresent(), "Available copies should not exceed total copies");
+        assertEquals(2, mediaItemRepository.findById(saved.getItemId()).get().getAvailableCopies());
+    }
+    
+    @Test
+    void testFacetedSearch_CountsEachFacetWithoutItsOwnFilter() {
+        // Arrange
+        saveFacetItem("Java Basics", "BOOK", "ISBN-FACET-001", LocalDate.of(1995, 5, 1), 1);
+        saveFacetItem("Java Patterns", "BOOK", "ISBN-FACET-002", LocalDate.of(2004, 3, 1), 0);
+        saveFacetItem("Java Sessions", "CD", "ISBN-FACET-003", LocalDate.of(2008, 1, 1), 2);
+        saveFacetItem("Java Undated", "BOOK", "ISBN-FACET-004", null, 1);
+        saveFacetItem("Kind of Blue", "CD", "ISBN-FACET-005", LocalDate.of(1959, 8, 17), 1);
+        
+        // Act
+        FacetedSearchResult all = mediaItemRepository.facetedSearch(CatalogQuery.of("java"));
+        FacetedSearchResult books = mediaItemRepository.facetedSearch(CatalogQuery.of("java").withType("BOOK")
+                .withAvailability(CatalogQuery.Availability.AVAILABLE));
+        
+        // Assert
+        assertEquals(4, all.getTotalHits());
+        assertEquals(4, all.getItems().size());
+        assertEquals(java.util.Map.of("BOOK", 3, "CD", 1), all.getTypeCounts());
+        assertEquals(3, all.getAvailabilityCounts().get(CatalogQuery.Availability.AVAILABLE));
+        assertEquals(1, all.getAvailabilityCounts().get(CatalogQuery.Availability.CHECKED_OUT));
+        assertEquals(java.util.Map.of(1990, 1, 2000, 2), all.getDecadeCounts());
+        
+        assertEquals(2, books.getTotalHits());
+        assertTrue(books.getItems().stream().allMatch(i -> "BOOK".equals(i.getType()) && i.getAvailableCopies() > 0));
+        assertEquals(java.util.Map.of("BOOK", 2, "CD", 1), books.getTypeCounts(), "Type counts ignore the type filter");
+        assertEquals(1, books.getAvailabilityCounts().get(CatalogQuery.Availability.CHECKED_OUT));
+        assertEquals(java.util.Map.of(1990, 1), books.getDecadeCounts());
+    }
+    
+    @Test
+    void testFacetedSearch_DecadeFilterAndPaging() {
+        // Arrange
+        saveFacetItem("Java Basics", "BOOK", "ISBN-FACET-001", LocalDate.of(2001, 5, 1), 1);
+        saveFacetItem("Java Patterns", "BOOK", "ISBN-FACET-002", LocalDate.of(2004, 3, 1), 0);
+        saveFacetItem("Java Sessions", "CD", "ISBN-FACET-003", LocalDate.of(2010, 1, 1), 2);
+        
+        // Act
+        FacetedSearchResult firstPage = mediaItemRepository.facetedSearch(CatalogQuery.of(null).withDecade(2000).page(0, 1));
+        FacetedSearchResult secondPage = mediaItemRepository.facetedSearch(CatalogQuery.of("").withDecade(2000).page(1, 1));
+        FacetedSearchResult pastTheEnd = mediaItemRepository.facetedSearch(CatalogQuery.of("").withDecade(2000).page(5, 1));
+        
+        // Assert
+        assertEquals(2, firstPage.getTotalHits());
+        assertEquals("Java Basics", firstPage.getItems().get(0).getTitle());
+        assertEquals("Java Patterns", secondPage.getItems().get(0).getTitle());
+        assertTrue(pastTheEnd.getItems().isEmpty());
+        assertEquals(java.util.Map.of(2000, 2, 2010, 1), firstPage.getDecadeCounts());
+        assertTrue(mediaItemRepository.facetedSearch(CatalogQuery.of("&|!")).getItems().isEmpty());
+    }
+    
+    @Test
+    void testPagedQueriesWalkInIdOrder() {
+        // Arrange
+        saveFacetItem("Java Basics", "BOOK", "ISBN-PAGE-001", LocalDate.of(1995, 5, 1), 1);
+        saveFacetItem("Java Patterns", "BOOK", "ISBN-PAGE-002", LocalDate.of(2004, 3, 1), 0);
+        saveFacetItem("Java Sessions", "CD", "ISBN-PAGE-003", LocalDate.of(2008, 1, 1), 2);
+        saveFacetItem("Java Undated", "BOOK", "ISBN-PAGE-004", null, 1);
+        saveFacetItem("Kind of Blue", "CD", "ISBN-PAGE-005", LocalDate.of(1959, 8, 17), 1);
+        List<Integer> ids = mediaItemRepository.findAll().stream().map(MediaItem::getItemId).toList();
+        
+        // Act
+        Page<MediaItem> first = mediaItemRepository.findAll(null, 2);
+        Page<MediaItem> second = mediaItemRepository.findAll(first.getNextCursor(), 2);
+        Page<MediaItem> third = mediaItemRepository.findAll(second.getNextCursor(), 2);
+        Page<MediaItem> books = mediaItemRepository.findByType("BOOK", ids.get(0), 10);
+        Page<MediaItem> available = mediaItemRepository.findAvailableItems(null, 3);
+        Page<MediaItem> java = mediaItemRepository.search("java", null, 3);
+        
+        // Assert
+        assertEquals(ids.subList(0, 2), first.getItems().stream().map(MediaItem::getItemId).toList());
+        assertEquals(ids.subList(2, 4), second.getItems().stream().map(MediaItem::getItemId).toList());
+        assertEquals(ids.subList(4, 5), third.getItems().stream().map(MediaItem::getItemId).toList());
+        assertTrue(first.hasNext());
+        assertTrue(second.hasNext());
+        assertFalse(third.hasNext());
+        
+        assertEquals(List.of(ids.get(1), ids.get(3)), books.getItems().stream().map(MediaItem::getItemId).toList(),
+                "Only books after the cursor");
+        assertEquals(List.of(ids.get(0), ids.get(2), ids.get(3)),
+                available.getItems().stream().map(MediaItem::getItemId).toList());
+        assertTrue(available.hasNext());
+        assertEquals(ids.subList(0, 3), java.getItems().stream().map(MediaItem::getItemId).toList());
+        assertEquals(ids.get(2), java.getNextCursor());
+    }
+    
+    @Test
+    void testStreamAllReadsPastOneFetch() throws SQLException {
+        // Arrange - enough rows that the cursor has to fetch more than once
+        int count = JdbcStreams.FETCH_SIZE * 2 + 1;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO media_item (title, author, type, total_copies, available_copies, late_fees_per_day) " +
+                     "SELECT 'Stream ' || n, 'Author', 'BOOK', 1, 1, 1.00 FROM generate_series(1, ?) AS n")) {
+            pstmt.setInt(1, count);
+            pstmt.executeUpdate();
+        }
+        
+        // Act
+        List<Integer> ids;
+        try (java.util.stream.Stream<MediaItem> items = mediaItemRepository.streamAll()) {
+            ids = items.map(MediaItem::getItemId).toList();
+        }
+        
+        // Assert
+        assertEquals(count, ids.size());
+        assertEquals(ids.stream().sorted().toList(), ids, "Items should stream in ID order");
+        assertEquals(count, mediaItemRepository.findAll().size(), "Connection should be usable again");
+    }
+    
+    @Test
+    void testFindAllByIdsAcrossChunks() throws SQLException {
+        // Arrange - more items than fit in one chunk of bound IDs
+        int count = JdbcMultiGet.CHUNK_SIZE + 5;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO media_item (title, author, type, total_copies, available_copies, late_fees_per_day) " +
+                     "SELECT 'Multi ' || n, 'Author', 'BOOK', 1, 1, 1.00 FROM generate_series(1, ?) AS n")) {
+            pstmt.setInt(1, count);
+            pstmt.executeUpdate();
+        }
+        List<Integer> ids = new java.util.ArrayList<>(
+                mediaItemRepository.findAll().stream().map(MediaItem::getItemId).toList());
+        ids.add(ids.get(0));
+        ids.add(null);
+        ids.add(-1);
+        
+        // Act
+        java.util.Map<Integer, MediaItem> found = mediaItemRepository.findAllByIds(ids);
+        
+        // Assert
+        assertEquals(count, found.size());
+        assertFalse(found.containsKey(-1), "Missing IDs are absent");
+        found.forEach((id, item) -> assertEquals(id, item.getItemId()));
+        assertTrue(mediaItemRepository.findAllByIds(List.of()).isEmpty());
+    }
+    
+    @Test
+    void testSaveAllAndUpdateAllAcrossBatches() {
+        // Arrange - more items than fit in one batch
+        int count = JdbcBatches.BATCH_SIZE + 5;
+        List<MediaItem> items = new java.util.ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            MediaItem item = new MediaItem();
+            item.setTitle("Batch " + i);
+            item.setType("BOOK");
+            item.setIsbn("BATCH-" + i);
+            item.setTotalCopies(2);
+            item.setAvailableCopies(2);
+            item.setLateFeesPerDay(new BigDecimal("1.00"));
+            items.add(item);
+        }
+        
+        // Act
+        List<MediaItem> saved = mediaItemRepository.saveAll(items);
+        saved.forEach(item -> item.setAvailableCopies(1));
+        mediaItemRepository.updateAll(saved);
+        
+        // Assert - IDs are handed out in input order
+        assertEquals(count, saved.size());
+        for (int i = 1; i < count; i++) {
+            assertTrue(saved.get(i).getItemId() > saved.get(i - 1).getItemId());
+        }
+        java.util.Map<Integer, MediaItem> found = mediaItemRepository.findAllByIds(
+                saved.stream().map(MediaItem::getItemId).toList());
+        assertEquals(count, found.size());
+        for (MediaItem item : saved) {
+            assertEquals(item.getTitle(), found.get(item.getItemId()).getTitle());
+            assertEquals(1, found.get(item.getItemId()).getAvailableCopies());
+        }
+        assertTrue(mediaItemRepository.saveAll(List.of()).isEmpty());
+    }
+    
+    @Test
+    void testSaveAllWritesNothingWhenOneRowFails() {
+        // Arrange - the second item repeats the first one's ISBN
+        saveFacetItem("First", "BOOK", "DUP-1", null, 1);
+        MediaItem fresh = mediaItemRepository.findByIsbn("DUP-1").orElseThrow();
+        fresh.setItemId(null);
+        fresh.setIsbn("NEW-1");
+        MediaItem duplicate = mediaItemRepository.findByIsbn("DUP-1").orElseThrow();
+        duplicate.setItemId(null);
+        
+        // Act & Assert
+        assertThrows(DataAccessException.class, () -> mediaItemRepository.saveAll(List.of(fresh, duplicate)));
+        assertFalse(mediaItemRepository.existsByIsbn("NEW-1"));
+    }
+    
+    @Test
+    void testUpdateAllWritesNothingWhenAnItemIsMissing() {
+        // Arrange
+        saveFacetItem("Existing", "BOOK", "UPD-1", null, 1);
+        MediaItem existing = mediaItemRepository.findByIsbn("UPD-1").orElseThrow();
+        existing.setTitle("Renamed");
+        MediaItem missing = mediaItemRepository.findByIsbn("UPD-1").orElseThrow();
+        missing.setItemId(-1);
+        missing.setIsbn("UPD-2");
+        
+        // Act & Assert
+        DataAccessException e = assertThrows(DataAccessException.class,
+                () -> mediaItemRepository.updateAll(List.of(existing, missing)));
+        assertTrue(e.getMessage().contains("-1"));
+        assertEquals("Existing", mediaItemRepository.findByIsbn("UPD-1").orElseThrow().getTitle());
+    }
+    
+    private void saveFacetItem(String title, String type, String isbn, LocalDate publicationDate, int availableCopies) {
+        MediaItem item = new MediaItem();
+        item.setTitle(title);
+        item.setAuthor("Author");
+        item.setType(type);
+        item.setIsbn(isbn);
+        item.setPublicationDate(publicationDate);
+        item.setTotalCopies(2);
+        item.setAvailableCopies(availableCopies);
+        item.setLateFeesPerDay(new BigDecimal("1.00"));
+        mediaItemRepository.save(item);
+    }
 }
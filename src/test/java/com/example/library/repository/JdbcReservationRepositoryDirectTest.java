@@ -1,10 +1,12 @@
 package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
+import com.example.library.db.MigratedSchemaExtension;
 import com.example.library.domain.MediaItem;
 import com.example.library.domain.Reservation;
 import com.example.library.domain.User;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
@@ -14,6 +16,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -22,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * Tests against actual PostgreSQL database (not Testcontainers).
  */
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@ExtendWith(MigratedSchemaExtension.class)
 class JdbcReservationRepositoryDirectTest {
     
     private static ReservationRepository reservationRepository;
@@ -277,6 +281,31 @@ class JdbcReservationRepositoryDirectTest {
         System.out.println("✓ Test 10 passed: Delete reservation by ID");
     }
     
+    @Test
+    @Order(11)
+    @DisplayName("Should page through reservations by ID")
+    void testFindAllPaged() {
+        // Arrange
+        User user = createAndSaveUser("testuser11", "test11@example.com");
+        MediaItem item = createAndSaveMediaItem("Test Book 11", "Test Author", 1, 0);
+        Reservation first = createAndSaveReservation(user.getUserId(), item.getItemId());
+        Reservation second = createAndSaveReservation(user.getUserId(), item.getItemId());
+        Reservation third = createAndSaveReservation(user.getUserId(), item.getItemId());
+        
+        // Act
+        Page<Reservation> page1 = reservationRepository.findAll(null, 2);
+        Page<Reservation> page2 = reservationRepository.findAll(page1.getNextCursor(), 2);
+        
+        // Assert
+        assertEquals(List.of(first.getReservationId(), second.getReservationId()),
+                page1.getItems().stream().map(Reservation::getReservationId).toList());
+        assertTrue(page1.hasNext());
+        assertEquals(List.of(third.getReservationId()),
+                page2.getItems().stream().map(Reservation::getReservationId).toList());
+        assertFalse(page2.hasNext());
+        assertNull(page2.getNextCursor());
+    }
+    
     // Helper methods
     
     private User createAndSaveUser(String username, String email) {
@@ -294,7 +323,7 @@ class JdbcReservationRepositoryDirectTest {
         item.setTitle(title);
         item.setAuthor(author);
         item.setType("BOOK");
-        item.setIsbn("ISBN-" + System.currentTimeMillis());
+        item.setIsbn("ISBN-" + UUID.randomUUID().toString().substring(0, 13));
         item.setPublicationDate(LocalDate.now().minusYears(1));
         item.setPublisher("Test Publisher");
         item.setTotalCopies(totalCopies);
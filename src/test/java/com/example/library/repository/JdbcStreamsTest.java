@@ -0,0 +1,109 @@
+package com.example.library.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JdbcStreamsTest {
+
+    private DataSource dataSource;
+    private Connection conn;
+    private PreparedStatement pstmt;
+    private ResultSet rs;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = mock(DataSource.class);
+        conn = mock(Connection.class);
+        pstmt = mock(PreparedStatement.class);
+        rs = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(conn);
+        when(conn.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(pstmt);
+        when(pstmt.executeQuery()).thenReturn(rs);
+    }
+
+    @Test
+    void testStreamUsesCursorAndRestoresAutoCommitOnClose() throws SQLException {
+        // Arrange
+        when(conn.getAutoCommit()).thenReturn(true);
+        when(rs.next()).thenReturn(true, true, false);
+        when(rs.getInt("id")).thenReturn(1, 2);
+
+        // Act
+        List<Integer> ids;
+        try (Stream<Integer> stream = JdbcStreams.stream(dataSource, "SELECT id FROM t WHERE x = ?",
+                p -> p.setString(1, "x"), r -> r.getInt("id"), "Error")) {
+            ids = stream.toList();
+            verify(conn, never()).close();
+        }
+
+        // Assert
+        assertEquals(List.of(1, 2), ids);
+        verify(conn).setAutoCommit(false);
+        verify(pstmt).setFetchSize(JdbcStreams.FETCH_SIZE);
+        verify(pstmt).setString(1, "x");
+        verify(conn).rollback();
+        verify(conn).setAutoCommit(true);
+        verify(rs).close();
+        verify(pstmt).close();
+        verify(conn).close();
+    }
+
+    @Test
+    void testStreamLeavesSurroundingTransactionAlone() throws SQLException {
+        // Arrange - the connection is already in a transaction
+        when(conn.getAutoCommit()).thenReturn(false);
+        when(rs.next()).thenReturn(false);
+
+        // Act
+        try (Stream<Integer> stream = JdbcStreams.stream(dataSource, "SELECT id FROM t", p -> { },
+                r -> r.getInt("id"), "Error")) {
+            assertEquals(0, stream.count());
+        }
+
+        // Assert
+        verify(conn, never()).setAutoCommit(anyBoolean());
+        verify(conn, never()).rollback();
+        verify(conn).close();
+    }
+
+    @Test
+    void testFailedQueryReleasesConnection() throws SQLException {
+        // Arrange
+        when(conn.getAutoCommit()).thenReturn(true);
+        when(pstmt.executeQuery()).thenThrow(new SQLException("boom"));
+
+        // Act & Assert
+        DataAccessException e = assertThrows(DataAccessException.class,
+                () -> JdbcStreams.stream(dataSource, "SELECT id FROM t", p -> { }, r -> r.getInt("id"), "Error streaming"));
+        assertEquals("Error streaming", e.getMessage());
+        verify(conn).setAutoCommit(true);
+        verify(conn).close();
+    }
+
+    @Test
+    void testReadErrorIsWrapped() throws SQLException {
+        // Arrange
+        when(conn.getAutoCommit()).thenReturn(true);
+        when(rs.next()).thenThrow(new SQLException("lost connection"));
+
+        // Act & Assert
+        try (Stream<Integer> stream = JdbcStreams.stream(dataSource, "SELECT id FROM t", p -> { },
+                r -> r.getInt("id"), "Error streaming")) {
+            assertThrows(DataAccessException.class, stream::toList);
+        }
+        verify(conn).close();
+    }
+}
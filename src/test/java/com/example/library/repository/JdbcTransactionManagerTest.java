@@ -0,0 +1,156 @@
+package com.example.library.repository;
+
+import com.example.library.DatabaseConnection;
+import com.example.library.db.ConnectionPool;
+import com.example.library.db.MigratedSchemaExtension;
+import com.example.library.domain.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MigratedSchemaExtension.class)
+class JdbcTransactionManagerTest {
+    
+    private static final String TX_USERNAME = "tx_manager_test_user";
+    
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM app_user WHERE username = ?")) {
+            pstmt.setString(1, TX_USERNAME);
+            pstmt.executeUpdate();
+        }
+    }
+    
+    @Test
+    void testExecute_CommitsOnceAndSharesConnection() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        JdbcTransactionManager transactionManager = new JdbcTransactionManager(dataSource);
+        
+        String result = transactionManager.execute(() -> {
+            try (Connection first = transactionManager.getDataSource().getConnection();
+                 Connection second = transactionManager.getDataSource().getConnection()) {
+                first.prepareStatement("SELECT 1");
+                second.prepareStatement("SELECT 2");
+            } catch (SQLException e) {
+                throw new DataAccessException(e);
+            }
+            assertTrue(transactionManager.isTransactionActive());
+            return "done";
+        });
+        
+        assertEquals("done", result);
+        assertFalse(transactionManager.isTransactionActive());
+        verify(dataSource, times(1)).getConnection();
+        verify(connection).setAutoCommit(false);
+        verify(connection, times(1)).commit();
+        verify(connection, never()).rollback();
+        verify(connection, times(1)).close();
+    }
+    
+    @Test
+    void testExecute_RollsBackWhenWorkFails() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        JdbcTransactionManager transactionManager = new JdbcTransactionManager(dataSource);
+        
+        assertThrows(IllegalStateException.class, () -> transactionManager.execute(() -> {
+            throw new IllegalStateException("boom");
+        }));
+        
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(connection).close();
+    }
+    
+    @Test
+    void testExecute_NestedCallJoinsOuterTransaction() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        JdbcTransactionManager transactionManager = new JdbcTransactionManager(dataSource);
+        
+        transactionManager.execute(() -> transactionManager.execute(() -> { }));
+        
+        verify(dataSource, times(1)).getConnection();
+        verify(connection, times(1)).commit();
+    }
+    
+    @Test
+    void testExecute_CommitFailureThrowsDataAccessException() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        doThrow(new SQLException("commit failed")).when(connection).commit();
+        JdbcTransactionManager transactionManager = new JdbcTransactionManager(dataSource);
+        
+        assertThrows(DataAccessException.class, () -> transactionManager.execute(() -> 1));
+        verify(connection).rollback();
+    }
+    
+    @Test
+    void testExecute_ConnectionDyingInsideWorkIsStillReturnedToPool() throws SQLException {
+        Connection physical = mock(Connection.class);
+        when(physical.getAutoCommit()).thenReturn(false);
+        when(physical.isValid(anyInt())).thenReturn(true);
+        SQLException dead = new SQLException("This connection has been closed.", "08003");
+        when(physical.prepareStatement(anyString())).thenThrow(new SQLException("I/O error", "08006"));
+        doThrow(dead).when(physical).rollback();
+        doThrow(dead).when(physical).setAutoCommit(true);
+        
+        try (ConnectionPool pool = new ConnectionPool(() -> physical, 0, 1, 500, 600000, 5, 0)) {
+            JdbcTransactionManager transactionManager = new JdbcTransactionManager(pool);
+            
+            assertThrows(DataAccessException.class, () -> transactionManager.execute(() -> {
+                try (Connection conn = transactionManager.getDataSource().getConnection()) {
+                    conn.prepareStatement("SELECT 1");
+                } catch (SQLException e) {
+                    throw new DataAccessException(e);
+                }
+                return null;
+            }));
+            
+            assertEquals(0, pool.getActiveConnections(), "Handle should be released despite the failed reset");
+            verify(physical).close();
+            pool.getConnection().close();
+        }
+    }
+    
+    @Test
+    void testExecute_RollbackDiscardsRepositoryWrites() {
+        JdbcTransactionManager transactionManager = new JdbcTransactionManager(DatabaseConnection.getDataSource());
+        JdbcUserRepository userRepository = new JdbcUserRepository(transactionManager.getDataSource());
+        
+        assertThrows(IllegalStateException.class, () -> transactionManager.execute(() -> {
+            User user = new User();
+            user.setUsername(TX_USERNAME);
+            user.setPassword("secret");
+            user.setEmail(TX_USERNAME + "@library.com");
+            user.setRole("MEMBER");
+            user.setCreatedAt(LocalDateTime.now());
+            userRepository.save(user);
+            
+            assertTrue(userRepository.findByUsername(TX_USERNAME).isPresent(),
+                    "Write should be visible inside the transaction");
+            throw new IllegalStateException("abort");
+        }));
+        
+        assertFalse(userRepository.findByUsername(TX_USERNAME).isPresent(),
+                "Write should be rolled back");
+    }
+}
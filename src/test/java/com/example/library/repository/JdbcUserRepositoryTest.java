@@ -1,19 +1,23 @@
 package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
+import com.example.library.db.MigratedSchemaExtension;
 import com.example.library.domain.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith(MigratedSchemaExtension.class)
 class JdbcUserRepositoryTest {
     
     private JdbcUserRepository userRepository;
@@ -359,4 +363,47 @@ class JdbcUserRepositoryTest {
         assertTrue(userRepository.existsByEmail("existsemail@test.com"), "Email should exist");
         assertFalse(userRepository.existsByEmail("nonexistent@test.com"), "Email should not exist");
     }
+    
+    @Test
+    void testFindAllPagedVisitsEveryUserOnce() {
+        // Arrange
+        List<Integer> expected = userRepository.findAll().stream().map(User::getUserId).toList();
+        
+        // Act - walk the pages two users at a time
+        List<Integer> visited = new ArrayList<>();
+        Integer cursor = null;
+        do {
+            Page<User> page = userRepository.findAll(cursor, 2);
+            assertTrue(page.getItems().size() <= 2, "Page should not exceed the limit");
+            page.getItems().forEach(u -> visited.add(u.getUserId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        
+        // Assert
+        assertEquals(expected, visited);
+    }
+    
+    @Test
+    void testFindByRolePaged() {
+        // Act
+        Page<User> admins = userRepository.findByRole("ADMIN", null, 1);
+        
+        // Assert
+        assertEquals(1, admins.getItems().size());
+        assertEquals("ADMIN", admins.getItems().get(0).getRole());
+        assertTrue(userRepository.findByRole("NO_SUCH_ROLE", null, 10).getItems().isEmpty());
+    }
+    
+    @Test
+    void testFindAllByIds() {
+        // Arrange
+        User admin = userRepository.findByUsername("admin").orElseThrow();
+        
+        // Act
+        java.util.Map<Integer, User> found = userRepository.findAllByIds(List.of(admin.getUserId(), Integer.MAX_VALUE));
+        
+        // Assert
+        assertEquals(1, found.size());
+        assertEquals("admin", found.get(admin.getUserId()).getUsername());
+    }
 }
@@ -1,9 +1,11 @@
 package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
+import com.example.library.db.MigratedSchemaExtension;
 import com.example.library.domain.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.math.BigDecimal;
 import java.sql.Connection;
@@ -19,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * Additional tests for uncovered branches in repository layer methods.
  * Targets findLoansDueSoon, countActiveByUserId, findByStatus, findActiveByUserId, findOverdueLoans.
  */
+@ExtendWith(MigratedSchemaExtension.class)
 class RepositoryAdditionalBranchTest {
     
     private JdbcUserRepository userRepository;
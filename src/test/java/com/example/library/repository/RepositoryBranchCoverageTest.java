@@ -1,6 +1,5 @@
 package com.example.library.repository;
 
-import com.example.library.DatabaseConnection;
 import com.example.library.domain.*;
 import org.junit.jupiter.api.*;
 import org.mockito.*;
@@ -9,6 +8,8 @@ import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
 
+import javax.sql.DataSource;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -19,7 +20,7 @@ import static org.mockito.Mockito.*;
  */
 class RepositoryBranchCoverageTest {
 
-    private MockedStatic<DatabaseConnection> mockedDbConnection;
+    private DataSource mockDataSource;
     private Connection mockConnection;
     private PreparedStatement mockStatement;
     private ResultSet mockResultSet;
@@ -30,15 +31,8 @@ class RepositoryBranchCoverageTest {
         mockStatement = mock(PreparedStatement.class);
         mockResultSet = mock(ResultSet.class);
         
-        mockedDbConnection = mockStatic(DatabaseConnection.class);
-        mockedDbConnection.when(DatabaseConnection::getConnection).thenReturn(mockConnection);
-    }
-
-    @AfterEach
-    void tearDown() {
-        if (mockedDbConnection != null) {
-            mockedDbConnection.close();
-        }
+        mockDataSource = mock(DataSource.class);
+        when(mockDataSource.getConnection()).thenReturn(mockConnection);
     }
 
     // ==================== JdbcUserRepository Tests ====================
@@ -47,7 +41,7 @@ class RepositoryBranchCoverageTest {
     void testUserRepository_ExistsByUsername_SQLException() throws SQLException {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
         
-        JdbcUserRepository repository = new JdbcUserRepository();
+        JdbcUserRepository repository = new JdbcUserRepository(mockDataSource);
         
         assertThrows(RuntimeException.class, () -> repository.existsByUsername("testuser"));
     }
@@ -58,7 +52,7 @@ class RepositoryBranchCoverageTest {
         when(mockStatement.executeQuery()).thenReturn(mockResultSet);
         when(mockResultSet.next()).thenReturn(false);
         
-        JdbcUserRepository repository = new JdbcUserRepository();
+        JdbcUserRepository repository = new JdbcUserRepository(mockDataSource);
         
         boolean exists = repository.existsByUsername("nonexistent");
         assertFalse(exists);
@@ -68,7 +62,7 @@ class RepositoryBranchCoverageTest {
     void testUserRepository_ExistsByEmail_SQLException() throws SQLException {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
         
-        JdbcUserRepository repository = new JdbcUserRepository();
+        JdbcUserRepository repository = new JdbcUserRepository(mockDataSource);
         
         assertThrows(RuntimeException.class, () -> repository.existsByEmail("test@test.com"));
     }
@@ -79,7 +73,7 @@ class RepositoryBranchCoverageTest {
         when(mockStatement.executeQuery()).thenReturn(mockResultSet);
         when(mockResultSet.next()).thenReturn(false);
         
-        JdbcUserRepository repository = new JdbcUserRepository();
+        JdbcUserRepository repository = new JdbcUserRepository(mockDataSource);
         
         boolean exists = repository.existsByEmail("nonexistent@test.com");
         assertFalse(exists);
@@ -89,7 +83,7 @@ class RepositoryBranchCoverageTest {
     void testUserRepository_FindById_SQLException() throws SQLException {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
         
-        JdbcUserRepository repository = new JdbcUserRepository();
+        JdbcUserRepository repository = new JdbcUserRepository(mockDataSource);
         
         assertThrows(RuntimeException.class, () -> repository.findById(1));
     }
@@ -98,7 +92,7 @@ class RepositoryBranchCoverageTest {
     void testUserRepository_FindByUsername_SQLException() throws SQLException {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
         
-        JdbcUserRepository repository = new JdbcUserRepository();
+        JdbcUserRepository repository = new JdbcUserRepository(mockDataSource);
         
         assertThrows(RuntimeException.class, () -> repository.findByUsername("testuser"));
     }
@@ -107,7 +101,7 @@ class RepositoryBranchCoverageTest {
     void testUserRepository_FindByEmail_SQLException() throws SQLException {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
         
-        JdbcUserRepository repository = new JdbcUserRepository();
+        JdbcUserRepository repository = new JdbcUserRepository(mockDataSource);
         
         assertThrows(RuntimeException.class, () -> repository.findByEmail("test@test.com"));
     }
@@ -117,7 +111,7 @@ class RepositoryBranchCoverageTest {
         when(mockConnection.prepareStatement(anyString(), anyInt())).thenReturn(mockStatement);
         when(mockStatement.executeUpdate()).thenReturn(0);
         
-        JdbcUserRepository repository = new JdbcUserRepository();
+        JdbcUserRepository repository = new JdbcUserRepository(mockDataSource);
         User user = new User(null, "testuser", "test@test.com", "password", UserRole.MEMBER, null);
         
         assertThrows(RuntimeException.class, () -> repository.save(user));
@@ -130,7 +124,7 @@ class RepositoryBranchCoverageTest {
         when(mockStatement.getGeneratedKeys()).thenReturn(mockResultSet);
         when(mockResultSet.next()).thenReturn(false);
         
-        JdbcUserRepository repository = new JdbcUserRepository();
+        JdbcUserRepository repository = new JdbcUserRepository(mockDataSource);
         User user = new User(null, "testuser", "test@test.com", "password", UserRole.MEMBER, null);
         
         assertThrows(RuntimeException.class, () -> repository.save(user));
@@ -142,7 +136,7 @@ class RepositoryBranchCoverageTest {
     void testFineRepository_ExistsByLoanId_SQLException() throws SQLException {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
         
-        JdbcFineRepository repository = new JdbcFineRepository();
+        JdbcFineRepository repository = new JdbcFineRepository(mockDataSource);
         
         assertThrows(RuntimeException.class, () -> repository.existsByLoanId(1));
     }
@@ -153,7 +147,7 @@ class RepositoryBranchCoverageTest {
         when(mockStatement.executeQuery()).thenReturn(mockResultSet);
         when(mockResultSet.next()).thenReturn(false);
         
-        JdbcFineRepository repository = new JdbcFineRepository();
+        JdbcFineRepository repository = new JdbcFineRepository(mockDataSource);
         
         boolean exists = repository.existsByLoanId(999);
         assertFalse(exists);
@@ -163,7 +157,7 @@ class RepositoryBranchCoverageTest {
     void testFineRepository_CalculateTotalUnpaid_SQLException() throws SQLException {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
         
-        JdbcFineRepository repository = new JdbcFineRepository();
+        JdbcFineRepository repository = new JdbcFineRepository(mockDataSource);
         
         assertThrows(RuntimeException.class, () -> repository.calculateTotalUnpaidByUserId(1));
     }
@@ -174,7 +168,7 @@ class RepositoryBranchCoverageTest {
         when(mockStatement.executeQuery()).thenReturn(mockResultSet);
         when(mockResultSet.next()).thenReturn(false);
         
-        JdbcFineRepository repository = new JdbcFineRepository();
+        JdbcFineRepository repository = new JdbcFineRepository(mockDataSource);
         
         BigDecimal total = repository.calculateTotalUnpaidByUserId(999);
         assertEquals(BigDecimal.ZERO, total);
@@ -185,7 +179,7 @@ class RepositoryBranchCoverageTest {
         when(mockConnection.prepareStatement(anyString(), anyInt())).thenReturn(mockStatement);
         when(mockStatement.executeUpdate()).thenReturn(0);
         
-        JdbcFineRepository repository = new JdbcFineRepository();
+        JdbcFineRepository repository = new JdbcFineRepository(mockDataSource);
         Fine fine = new Fine(null, 1, BigDecimal.TEN, LocalDate.now(), FineStatus.UNPAID, null);
         
         assertThrows(RuntimeException.class, () -> repository.save(fine));
@@ -198,7 +192,7 @@ class RepositoryBranchCoverageTest {
         when(mockStatement.getGeneratedKeys()).thenReturn(mockResultSet);
         when(mockResultSet.next()).thenReturn(false);
         
-        JdbcFineRepository repository = new JdbcFineRepository();
+        JdbcFineRepository repository = new JdbcFineRepository(mockDataSource);
         Fine fine = new Fine(null, 1, BigDecimal.TEN, LocalDate.now(), FineStatus.UNPAID, null);
         
         assertThrows(RuntimeException.class, () -> repository.save(fine));
@@ -208,7 +202,7 @@ class RepositoryBranchCoverageTest {
     void testFineRepository_FindById_SQLException() throws SQLException {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
         
-        JdbcFineRepository repository = new JdbcFineRepository();
+        JdbcFineRepository repository = new JdbcFineRepository(mockDataSource);
         
         assertThrows(RuntimeException.class, () -> repository.findById(1));
     }
@@ -217,7 +211,7 @@ class RepositoryBranchCoverageTest {
     void testFineRepository_FindByLoanId_SQLException() throws SQLException {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
         
-        JdbcFineRepository repository = new JdbcFineRepository();
+        JdbcFineRepository repository = new JdbcFineRepository(mockDataSource);
         
         assertThrows(RuntimeException.class, () -> repository.findByLoanId(1));
     }
@@ -228,7 +222,7 @@ class RepositoryBranchCoverageTest {
     void testMediaItemRepository_ExistsByIsbn_SQLException() throws SQLException {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
         
-        JdbcMediaItemRepository repository = new JdbcMediaItemRepository();
+        JdbcMediaItemRepository repository = new JdbcMediaItemRepository(mockDataSource);
         
         assertThrows(RuntimeException.class, () -> repository.existsByIsbn("123456"));
     }
@@ -239,17 +233,63 @@ class RepositoryBranchCoverageTest {
         when(mockStatement.executeQuery()).thenReturn(mockResultSet);
         when(mockResultSet.next()).thenReturn(false);
         
-        JdbcMediaItemRepository repository = new JdbcMediaItemRepository();
+        JdbcMediaItemRepository repository = new JdbcMediaItemRepository(mockDataSource);
         
         boolean exists = repository.existsByIsbn("nonexistent");
         assertFalse(exists);
     }
 
+    @Test
+    void testMediaItemRepository_FindByTitleContaining_WithoutTrigramExtension() throws SQLException {
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, false);
+        when(mockResultSet.getBoolean(1)).thenReturn(false);
+        
+        JdbcMediaItemRepository repository = new JdbcMediaItemRepository(mockDataSource);
+        
+        assertTrue(repository.findByTitleContaining("java").isEmpty());
+        assertFalse(repository.isTrigramSearchAvailable());
+        verify(mockConnection).prepareStatement(argThat(sql -> sql.contains("ILIKE") && sql.endsWith("ORDER BY item_id")));
+        verify(mockConnection, never()).prepareStatement(contains("word_similarity"));
+        verify(mockConnection, times(1)).prepareStatement(contains("pg_extension"));
+    }
+
+    @Test
+    void testMediaItemRepository_FuzzySearch_WithoutTrigramExtension() throws SQLException {
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, false);
+        when(mockResultSet.getBoolean(1)).thenReturn(false);
+        
+        JdbcMediaItemRepository repository = new JdbcMediaItemRepository(mockDataSource);
+        
+        assertTrue(repository.fuzzySearch("tolkein", 2).isEmpty());
+        assertTrue(repository.fuzzySearch("  ", 2).isEmpty());
+        verify(mockConnection).prepareStatement(contains("search_vector @@ query"));
+        verify(mockConnection, never()).prepareStatement(contains("word_similarity"));
+    }
+
+    @Test
+    void testMediaItemRepository_FuzzySearch_WithoutFuzzystrmatchExtension() throws SQLException {
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, true, false);
+        when(mockResultSet.getBoolean(1)).thenReturn(true, false);
+        
+        JdbcMediaItemRepository repository = new JdbcMediaItemRepository(mockDataSource);
+        
+        assertTrue(repository.fuzzySearch("tolkein", 2).isEmpty());
+        assertFalse(repository.isLevenshteinAvailable());
+        verify(mockConnection).prepareStatement(contains("? <% title"));
+        verify(mockConnection, never()).prepareStatement(contains("levenshtein"));
+    }
+
     @Test
     void testMediaItemRepository_FindById_SQLException() throws SQLException {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
         
-        JdbcMediaItemRepository repository = new JdbcMediaItemRepository();
+        JdbcMediaItemRepository repository = new JdbcMediaItemRepository(mockDataSource);
         
         assertThrows(RuntimeException.class, () -> repository.findById(1));
     }
@@ -258,7 +298,7 @@ class RepositoryBranchCoverageTest {
     void testMediaItemRepository_FindByIsbn_SQLException() throws SQLException {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
         
-        JdbcMediaItemRepository repository = new JdbcMediaItemRepository();
+        JdbcMediaItemRepository repository = new JdbcMediaItemRepository(mockDataSource);
         
         assertThrows(RuntimeException.class, () -> repository.findByIsbn("123456"));
     }
@@ -268,7 +308,7 @@ class RepositoryBranchCoverageTest {
         when(mockConnection.prepareStatement(anyString(), anyInt())).thenReturn(mockStatement);
         when(mockStatement.executeUpdate()).thenReturn(0);
         
-        JdbcMediaItemRepository repository = new JdbcMediaItemRepository();
+        JdbcMediaItemRepository repository = new JdbcMediaItemRepository(mockDataSource);
         MediaItem item = new MediaItem(null, "Test Book", "Author", "Book", "123456", 
                                        LocalDate.now(), "Publisher", 5, 5, BigDecimal.ONE);
         
@@ -282,7 +322,7 @@ class RepositoryBranchCoverageTest {
         when(mockStatement.getGeneratedKeys()).thenReturn(mockResultSet);
         when(mockResultSet.next()).thenReturn(false);
         
-        JdbcMediaItemRepository repository = new JdbcMediaItemRepository();
+        JdbcMediaItemRepository repository = new JdbcMediaItemRepository(mockDataSource);
         MediaItem item = new MediaItem(null, "Test Book", "Author", "Book", "123456", 
                                        LocalDate.now(), "Publisher", 5, 5, BigDecimal.ONE);
         
@@ -295,7 +335,7 @@ class RepositoryBranchCoverageTest {
     void testLoanRepository_CountActiveByUserId_SQLException() throws SQLException {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
         
-        JdbcLoanRepository repository = new JdbcLoanRepository();
+        JdbcLoanRepository repository = new JdbcLoanRepository(mockDataSource);
         
         assertThrows(RuntimeException.class, () -> repository.countActiveByUserId(1));
     }
@@ -306,7 +346,7 @@ class RepositoryBranchCoverageTest {
         when(mockStatement.executeQuery()).thenReturn(mockResultSet);
         when(mockResultSet.next()).thenReturn(false);
         
-        JdbcLoanRepository repository = new JdbcLoanRepository();
+        JdbcLoanRepository repository = new JdbcLoanRepository(mockDataSource);
         
         int count = repository.countActiveByUserId(999);
         assertEquals(0, count);
@@ -316,7 +356,7 @@ class RepositoryBranchCoverageTest {
     void testLoanRepository_FindById_SQLException() throws SQLException {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
         
-        JdbcLoanRepository repository = new JdbcLoanRepository();
+        JdbcLoanRepository repository = new JdbcLoanRepository(mockDataSource);
         
         assertThrows(RuntimeException.class, () -> repository.findById(1));
     }
@@ -326,7 +366,7 @@ class RepositoryBranchCoverageTest {
         when(mockConnection.prepareStatement(anyString(), anyInt())).thenReturn(mockStatement);
         when(mockStatement.executeUpdate()).thenReturn(0);
         
-        JdbcLoanRepository repository = new JdbcLoanRepository();
+        JdbcLoanRepository repository = new JdbcLoanRepository(mockDataSource);
         Loan loan = new Loan(null, 1, 1, LocalDate.now(), LocalDate.now().plusDays(14), null, LoanStatus.ACTIVE);
         
         assertThrows(RuntimeException.class, () -> repository.save(loan));
@@ -339,7 +379,7 @@ class RepositoryBranchCoverageTest {
         when(mockStatement.getGeneratedKeys()).thenReturn(mockResultSet);
         when(mockResultSet.next()).thenReturn(false);
         
-        JdbcLoanRepository repository = new JdbcLoanRepository();
+        JdbcLoanRepository repository = new JdbcLoanRepository(mockDataSource);
         Loan loan = new Loan(null, 1, 1, LocalDate.now(), LocalDate.now().plusDays(14), null, LoanStatus.ACTIVE);
         
         assertThrows(RuntimeException.class, () -> repository.save(loan));
@@ -351,7 +391,7 @@ class RepositoryBranchCoverageTest {
     void testReservationRepository_CountActiveByItemId_SQLException() throws SQLException {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
         
-        JdbcReservationRepository repository = new JdbcReservationRepository();
+        JdbcReservationRepository repository = new JdbcReservationRepository(mockDataSource);
         
         assertThrows(RuntimeException.class, () -> repository.countActiveByItemId(1));
     }
@@ -362,7 +402,7 @@ class RepositoryBranchCoverageTest {
         when(mockStatement.executeQuery()).thenReturn(mockResultSet);
         when(mockResultSet.next()).thenReturn(false);
         
-        JdbcReservationRepository repository = new JdbcReservationRepository();
+        JdbcReservationRepository repository = new JdbcReservationRepository(mockDataSource);
         
         int count = repository.countActiveByItemId(999);
         assertEquals(0, count);
@@ -372,7 +412,7 @@ class RepositoryBranchCoverageTest {
     void testReservationRepository_FindById_SQLException() throws SQLException {
         when(mockConnection.prepareStatement(anyString())).thenThrow(new SQLException("Database error"));
         
-        JdbcReservationRepository repository = new JdbcReservationRepository();
+        JdbcReservationRepository repository = new JdbcReservationRepository(mockDataSource);
         
         assertThrows(RuntimeException.class, () -> repository.findById(1));
     }
@@ -384,7 +424,7 @@ class RepositoryBranchCoverageTest {
         when(mockStatement.getGeneratedKeys()).thenReturn(mockResultSet);
         when(mockResultSet.next()).thenReturn(false);
         
-        JdbcReservationRepository repository = new JdbcReservationRepository();
+        JdbcReservationRepository repository = new JdbcReservationRepository(mockDataSource);
         Reservation reservation = new Reservation(null, 1, 1, java.time.LocalDateTime.now(), java.time.LocalDateTime.now().plusDays(7), ReservationStatus.ACTIVE);
         
         assertThrows(RuntimeException.class, () -> repository.save(reservation));
@@ -395,7 +435,7 @@ class RepositoryBranchCoverageTest {
         when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
         when(mockStatement.executeUpdate()).thenReturn(0);
         
-        JdbcReservationRepository repository = new JdbcReservationRepository();
+        JdbcReservationRepository repository = new JdbcReservationRepository(mockDataSource);
         Reservation reservation = new Reservation(999, 1, 1, java.time.LocalDateTime.now(), java.time.LocalDateTime.now().plusDays(7), ReservationStatus.CANCELLED);
         
         assertThrows(RuntimeException.class, () -> repository.update(reservation));
@@ -0,0 +1,91 @@
+package com.example.library.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionTrieTest {
+
+    private CompletionTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new CompletionTrie();
+        trie.add("Effective Java", 12);
+        trie.add("Java Concurrency in Practice", 30);
+        trie.add("Joshua Bloch", 12);
+        trie.add("Brian Goetz", 30);
+        trie.add("Kind of Blue", 4);
+    }
+
+    @Test
+    void testComplete_RanksByWeightThenText() {
+        assertEquals(List.of("Java Concurrency in Practice", "Effective Java"), trie.complete("ja", 5));
+        assertEquals(List.of("Brian Goetz", "Joshua Bloch", "Kind of Blue"), trie.complete("b", 5));
+    }
+
+    @Test
+    void testComplete_MatchesStartOfAnyWordIgnoringCase() {
+        assertEquals(List.of("Java Concurrency in Practice"), trie.complete("IN PRAC", 5));
+        assertEquals(List.of("Kind of Blue"), trie.complete("  of   bl", 5));
+        assertTrue(trie.complete("ava", 5).isEmpty(), "Only word starts should match");
+    }
+
+    @Test
+    void testComplete_RespectsLimit() {
+        assertEquals(List.of("Brian Goetz"), trie.complete("b", 1));
+        assertTrue(trie.complete("b", 0).isEmpty());
+        assertTrue(trie.complete("", 5).isEmpty());
+        assertTrue(trie.complete(null, 5).isEmpty());
+    }
+
+    @Test
+    void testComplete_LimitAboveCacheSize() {
+        CompletionTrie large = new CompletionTrie();
+        for (int i = 0; i < CompletionTrie.CACHED_COMPLETIONS + 5; i++) {
+            large.add(String.format("Title %02d", i), i);
+        }
+
+        List<String> all = large.complete("title", 100);
+
+        assertEquals(CompletionTrie.CACHED_COMPLETIONS + 5, all.size());
+        assertEquals("Title 14", all.get(0));
+        assertEquals("Title 00", all.get(all.size() - 1));
+        assertEquals(all.subList(0, 3), large.complete("title", 3));
+    }
+
+    @Test
+    void testAddWeight_ReordersCachedCompletions() {
+        assertEquals("Java Concurrency in Practice", trie.complete("ja", 1).get(0));
+
+        trie.addWeight("effective java", 20);
+
+        assertEquals(List.of("Effective Java", "Java Concurrency in Practice"), trie.complete("ja", 5));
+    }
+
+    @Test
+    void testAdd_DuplicateTextSumsWeights() {
+        trie.add("kind of blue", 40);
+
+        assertEquals(5, trie.size());
+        assertEquals(List.of("Kind of Blue", "Brian Goetz", "Joshua Bloch"), trie.complete("b", 5));
+    }
+
+    @Test
+    void testRemove_DropsCompletionAfterLastOccurrence() {
+        trie.add("Effective Java", 1);
+        trie.complete("ja", 5);
+
+        trie.remove("Effective Java", 1);
+        assertEquals(List.of("Java Concurrency in Practice", "Effective Java"), trie.complete("ja", 5));
+
+        trie.remove("Effective Java", 12);
+        trie.remove("Unknown", 3);
+        assertEquals(List.of("Java Concurrency in Practice"), trie.complete("ja", 5));
+        assertTrue(trie.complete("eff", 5).isEmpty());
+        assertEquals(4, trie.size());
+    }
+}
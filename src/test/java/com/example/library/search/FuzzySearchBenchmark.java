@@ -0,0 +1,93 @@
+package com.example.library.search;
+
+import java.util.Random;
+
+/**
+ * Measures fuzzy search latency on a synthetic catalog. Not run by the test
+ * suite; run it directly, with enough heap for the catalog:
+ * <pre>
+ * mvn -q test-compile
+ * java -Xmx4g -cp target/classes:target/test-classes com.example.library.search.FuzzySearchBenchmark [items]
+ * </pre>
+ * Titles and authors are drawn from a fixed vocabulary with a skewed word
+ * frequency, so a few words are very common and most are rare, as in a real
+ * catalog. Each query misspells one vocabulary word by one or two edits.
+ */
+public final class FuzzySearchBenchmark {
+
+    private static final int VOCABULARY_SIZE = 200_000;
+    private static final int QUERIES = 10_000;
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    private FuzzySearchBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+
+        String[] vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = randomWord(random);
+        }
+
+        InvertedIndex index = new InvertedIndex();
+        long buildStart = System.nanoTime();
+        for (int id = 1; id <= items; id++) {
+            index.index(id, phrase(random, vocabulary, 2 + random.nextInt(4)), phrase(random, vocabulary, 2));
+        }
+        System.out.printf("Indexed %,d items in %,d ms%n", items, (System.nanoTime() - buildStart) / 1_000_000);
+
+        for (int maxEdits = 1; maxEdits <= 2; maxEdits++) {
+            String[] queries = new String[QUERIES];
+            for (int i = 0; i < queries.length; i++) {
+                // Rare words: a query for one of the most common words is dominated by merging its postings
+                queries[i] = misspell(random, vocabulary[1_000 + random.nextInt(VOCABULARY_SIZE - 1_000)], maxEdits);
+            }
+            // Warm up the JIT before measuring
+            for (String query : queries) {
+                index.searchFuzzy(query, maxEdits);
+            }
+
+            long[] nanos = new long[queries.length];
+            long hits = 0;
+            for (int i = 0; i < queries.length; i++) {
+                long start = System.nanoTime();
+                hits += index.searchFuzzy(queries[i], maxEdits).length;
+                nanos[i] = System.nanoTime() - start;
+            }
+            java.util.Arrays.sort(nanos);
+            System.out.printf("maxEdits=%d: median %.3f ms, p99 %.3f ms, %.1f hits per query%n",
+                    maxEdits, nanos[nanos.length / 2] / 1e6, nanos[nanos.length * 99 / 100] / 1e6,
+                    (double) hits / queries.length);
+        }
+    }
+
+    private static String randomWord(Random random) {
+        int length = 4 + random.nextInt(7);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return word.toString();
+    }
+
+    // Word i is picked with probability roughly proportional to 1 / (i + 1)
+    private static String phrase(Random random, String[] vocabulary, int words) {
+        StringBuilder phrase = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int rank = (int) Math.pow(vocabulary.length, random.nextDouble()) - 1;
+            phrase.append(i == 0 ? "" : " ").append(vocabulary[rank]);
+        }
+        return phrase.toString();
+    }
+
+    private static String misspell(Random random, String word, int edits) {
+        StringBuilder misspelled = new StringBuilder(word);
+        for (int i = 0; i < edits; i++) {
+            int position = random.nextInt(misspelled.length());
+            misspelled.setCharAt(position, LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return misspelled.toString();
+    }
+}
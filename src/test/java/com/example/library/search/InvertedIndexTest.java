@@ -0,0 +1,209 @@
+package com.example.library.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.index(3, "Effective Java", "Joshua Bloch", "978-0134685991", "BOOK", "Addison-Wesley");
+        index.index(1, "Java Concurrency in Practice", "Brian Goetz", "978-0321349606", "BOOK", "Addison-Wesley");
+        index.index(2, "Kind of Blue", "Miles Davis", null, "CD", "Columbia");
+    }
+
+    @Test
+    void testAndQuery_RequiresEveryTerm() {
+        assertArrayEquals(new int[] {1, 3}, index.search("java", InvertedIndex.Operator.AND, false));
+        assertArrayEquals(new int[] {3}, index.search("JAVA bloch", InvertedIndex.Operator.AND, false));
+        assertArrayEquals(new int[0], index.search("java davis", InvertedIndex.Operator.AND, false));
+    }
+
+    @Test
+    void testOrQuery_MatchesAnyTerm() {
+        assertArrayEquals(new int[] {2, 3}, index.search("bloch davis", InvertedIndex.Operator.OR, false));
+        assertArrayEquals(new int[] {1, 2, 3}, index.search("book cd", InvertedIndex.Operator.OR, false));
+    }
+
+    @Test
+    void testPrefixQuery_MatchesPartialWords() {
+        assertArrayEquals(new int[0], index.search("jav", InvertedIndex.Operator.AND, false));
+        assertArrayEquals(new int[] {1, 3}, index.search("jav", InvertedIndex.Operator.AND, true));
+        assertArrayEquals(new int[] {1, 3}, index.search("addison-wes", InvertedIndex.Operator.AND, true));
+        assertArrayEquals(new int[] {3}, index.search("9780134", InvertedIndex.Operator.AND, true));
+        assertArrayEquals(new int[] {1, 2, 3}, index.search("b", InvertedIndex.Operator.AND, true));
+    }
+
+    @Test
+    void testReindex_ReplacesOldTokens() {
+        index.index(3, "Effective Kotlin");
+
+        assertArrayEquals(new int[] {1}, index.search("java", InvertedIndex.Operator.AND, false));
+        assertArrayEquals(new int[] {3}, index.search("kotlin", InvertedIndex.Operator.AND, false));
+        assertArrayEquals(new int[0], index.search("bloch", InvertedIndex.Operator.AND, false));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testRemove_DropsDocumentFromEveryPostingList() {
+        index.remove(1);
+        index.remove(42);
+
+        assertArrayEquals(new int[] {3}, index.search("java", InvertedIndex.Operator.AND, false));
+        assertArrayEquals(new int[0], index.search("goetz", InvertedIndex.Operator.AND, true));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testEmptyQuery_MatchesNothing() {
+        assertArrayEquals(new int[0], index.search(null, InvertedIndex.Operator.AND, true));
+        assertArrayEquals(new int[0], index.search("  ", InvertedIndex.Operator.OR, true));
+        assertArrayEquals(new int[0], index.search("&|!", InvertedIndex.Operator.AND, true));
+    }
+
+    @Test
+    void testTokenize() {
+        assertEquals(List.of("o", "reilly", "oreilly", "media"), InvertedIndex.tokenize("O'Reilly  Media"));
+        assertEquals(List.of("oreilly", "media"), InvertedIndex.tokenizeQuery("O'Reilly Media"));
+        assertTrue(InvertedIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void testPostingList_SetOperations() {
+        PostingList list = new PostingList();
+        for (int id : new int[] {9, 1, 5, 1, 7, 3}) {
+            list.add(id);
+        }
+        list.remove(7);
+        list.remove(8);
+
+        assertArrayEquals(new int[] {1, 3, 5, 9}, list.toArray());
+        assertArrayEquals(new int[] {3, 9}, PostingList.intersect(list.toArray(), new int[] {2, 3, 9, 10}));
+        assertArrayEquals(new int[] {1, 2, 3, 5, 9, 10}, PostingList.union(list.toArray(), new int[] {2, 3, 9, 10}));
+    }
+
+    @Test
+    void testFuzzyQuery_ToleratesTypos() {
+        index.index(4, "The Hobbit", "J.R.R. Tolkien", "978-0547928227", "BOOK", "Mariner");
+
+        assertArrayEquals(new int[] {4}, index.searchFuzzy("Tolkein", 2));
+        assertArrayEquals(new int[] {4}, index.searchFuzzy("hobit tolkien", 1));
+        assertArrayEquals(new int[] {1, 3}, index.searchFuzzy("jawa", 1));
+        assertArrayEquals(new int[] {3}, index.searchFuzzy("efective jva", 2));
+        assertArrayEquals(new int[0], index.searchFuzzy("Tolkein", 1), "A transposition is two edits");
+    }
+
+    @Test
+    void testFuzzyQuery_ShortWordsAndNumbersMatchExactly() {
+        assertArrayEquals(new int[] {2}, index.searchFuzzy("cd", 2));
+        assertArrayEquals(new int[0], index.searchFuzzy("cf", 2));
+        assertArrayEquals(new int[0], index.searchFuzzy("9780134685990", 2));
+        assertEquals(0, InvertedIndex.allowedEdits("of", 2));
+        assertEquals(1, InvertedIndex.allowedEdits("blue", 2));
+        assertEquals(2, InvertedIndex.allowedEdits("tolkein", 2));
+        assertEquals(1, InvertedIndex.allowedEdits("tolkein", 1));
+    }
+
+    @Test
+    void testFuzzyQuery_SkipsRemovedTokens() {
+        index.index(3, "Effective Kotlin");
+        index.remove(2);
+
+        assertArrayEquals(new int[0], index.searchFuzzy("blosh", 1));
+        assertArrayEquals(new int[0], index.searchFuzzy("davies", 1));
+        assertArrayEquals(new int[] {3}, index.searchFuzzy("kotlon", 1));
+
+        index.clear();
+        assertArrayEquals(new int[0], index.searchFuzzy("kotlin", 1));
+    }
+
+    @Test
+    void testLevenshteinTrie_FindsWordsWithinDistance() {
+        LevenshteinTrie trie = new LevenshteinTrie();
+        for (String word : new String[] {"book", "books", "boo", "cake", "boon", "cook", "cart", "book", "bo"}) {
+            trie.add(word);
+        }
+        trie.remove("bo");
+        trie.remove("missing");
+
+        assertEquals(List.of("boo:1", "book:0", "books:1", "boon:1", "cook:1"), search(trie, "book", 1));
+        assertEquals(List.of("cake:1", "cook:2"), search(trie, "coke", 2));
+        assertEquals(List.of("tolkien:2"), search(trieOf("tolkien"), "tolkein", 2));
+        assertTrue(search(trieOf("tolkien"), "tolkein", 1).isEmpty());
+        assertEquals(7, trie.size());
+    }
+
+    @Test
+    void testLevenshteinTrie_AgreesWithFullDistanceTable() {
+        Random random = new Random(7);
+        Set<String> words = new TreeSet<>();
+        LevenshteinTrie trie = new LevenshteinTrie();
+        for (int i = 0; i < 500; i++) {
+            String word = randomWord(random);
+            words.add(word);
+            trie.add(word);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            String query = randomWord(random);
+            for (int maxDistance = 0; maxDistance <= 3; maxDistance++) {
+                List<String> expected = new ArrayList<>();
+                for (String word : words) {
+                    int distance = levenshtein(query, word);
+                    if (distance <= maxDistance) {
+                        expected.add(word + ":" + distance);
+                    }
+                }
+                assertEquals(expected, search(trie, query, maxDistance), query + " within " + maxDistance);
+            }
+        }
+    }
+
+    // Short words over a small alphabet, so that many are within a few edits of each other
+    private static String randomWord(Random random) {
+        char[] word = new char[random.nextInt(7)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) ('a' + random.nextInt(4));
+        }
+        return new String(word);
+    }
+
+    private static int levenshtein(String a, String b) {
+        int[][] table = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    table[i][j] = i + j;
+                } else {
+                    int substitution = table[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                    table[i][j] = Math.min(substitution, Math.min(table[i - 1][j], table[i][j - 1]) + 1);
+                }
+            }
+        }
+        return table[a.length()][b.length()];
+    }
+
+    private static LevenshteinTrie trieOf(String word) {
+        LevenshteinTrie trie = new LevenshteinTrie();
+        trie.add(word);
+        return trie;
+    }
+
+    private static List<String> search(LevenshteinTrie trie, String word, int maxDistance) {
+        List<String> found = new ArrayList<>();
+        trie.search(word, maxDistance, (match, distance) -> found.add(match + ":" + distance));
+        found.sort(null);
+        return found;
+    }
+}
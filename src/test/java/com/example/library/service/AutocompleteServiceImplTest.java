@@ -0,0 +1,97 @@
+package com.example.library.service;
+
+import com.example.library.domain.MediaItem;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.MediaItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AutocompleteServiceImplTest {
+
+    @Mock
+    private MediaItemRepository mediaItemRepository;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    private AutocompleteServiceImpl autocompleteService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mediaItemRepository.streamAll()).thenAnswer(invocation -> Stream.of(
+                createMediaItem(1, "Clean Code", "Robert Martin"),
+                createMediaItem(2, "Clean Architecture", "Robert Martin"),
+                createMediaItem(3, "Refactoring", "Martin Fowler")));
+        when(loanRepository.countLoansByItem()).thenReturn(Map.of(1, 2, 2, 7, 3, 5));
+        autocompleteService = new AutocompleteServiceImpl(mediaItemRepository, loanRepository);
+    }
+
+    @Test
+    void testSuggest_MostBorrowedFirst() {
+        assertEquals(List.of("Clean Architecture", "Clean Code"), autocompleteService.suggest("cle", 5));
+        // Robert Martin wrote items borrowed 9 times in total
+        assertEquals(List.of("Robert Martin", "Martin Fowler"), autocompleteService.suggest("mart", 5));
+        verify(mediaItemRepository, times(1)).streamAll();
+    }
+
+    @Test
+    void testItemBorrowed_RaisesRanking() {
+        for (int i = 0; i < 6; i++) {
+            autocompleteService.itemBorrowed(1);
+        }
+        autocompleteService.itemBorrowed(42);
+
+        assertEquals(List.of("Clean Code", "Clean Architecture"), autocompleteService.suggest("cle", 5));
+    }
+
+    @Test
+    void testItemSaved_AddsAndReplacesText() {
+        autocompleteService.itemSaved(createMediaItem(4, "Domain-Driven Design", "Eric Evans"));
+        autocompleteService.itemSaved(createMediaItem(1, "Clean Coder", "Robert Martin"));
+
+        assertEquals(List.of("Domain-Driven Design"), autocompleteService.suggest("domain", 5));
+        assertEquals(List.of("Clean Architecture", "Clean Coder"), autocompleteService.suggest("clean", 5));
+        assertEquals(List.of("Robert Martin", "Martin Fowler"), autocompleteService.suggest("mart", 5));
+    }
+
+    @Test
+    void testItemRemoved_KeepsSharedAuthor() {
+        autocompleteService.itemRemoved(2);
+        autocompleteService.itemRemoved(42);
+
+        assertEquals(List.of("Clean Code"), autocompleteService.suggest("clean", 5));
+        assertEquals(List.of("Martin Fowler", "Robert Martin"), autocompleteService.suggest("mart", 5));
+
+        autocompleteService.itemRemoved(1);
+        assertEquals(List.of("Martin Fowler"), autocompleteService.suggest("mart", 5));
+    }
+
+    @Test
+    void testNone_SuggestsNothing() {
+        AutocompleteService none = AutocompleteService.none();
+        none.itemSaved(createMediaItem(1, "Clean Code", "Robert Martin"));
+        none.itemBorrowed(1);
+        none.itemRemoved(1);
+
+        assertTrue(none.suggest("clean", 5).isEmpty());
+    }
+
+    private MediaItem createMediaItem(Integer itemId, String title, String author) {
+        MediaItem item = new MediaItem();
+        item.setItemId(itemId);
+        item.setTitle(title);
+        item.setAuthor(author);
+        item.setType("BOOK");
+        return item;
+    }
+}
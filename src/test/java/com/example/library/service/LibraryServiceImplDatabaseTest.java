@@ -0,0 +1,113 @@
+package com.example.library.service;
+
+import com.example.library.DatabaseConnection;
+import com.example.library.db.MigratedSchemaExtension;
+import com.example.library.domain.Loan;
+import com.example.library.repository.JdbcFineRepository;
+import com.example.library.repository.JdbcLoanRepository;
+import com.example.library.repository.JdbcMediaItemRepository;
+import com.example.library.repository.JdbcUserRepository;
+import com.example.library.service.fine.FineCalculator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MigratedSchemaExtension.class)
+class LibraryServiceImplDatabaseTest {
+
+    private JdbcMediaItemRepository mediaItemRepository;
+    private JdbcLoanRepository loanRepository;
+    private LibraryServiceImpl libraryService;
+    private Integer testUserId;
+    private Integer testItemId;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        mediaItemRepository = new JdbcMediaItemRepository();
+        loanRepository = new JdbcLoanRepository();
+        libraryService = new LibraryServiceImpl(new JdbcUserRepository(), mediaItemRepository,
+                loanRepository, new JdbcFineRepository(), new FineCalculator());
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            // Clean in correct order: fines → loans → media_items → users
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM fine")) {
+                pstmt.executeUpdate();
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM loan")) {
+                pstmt.executeUpdate();
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM media_item")) {
+                pstmt.executeUpdate();
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM app_user WHERE username = 'serviceuser'")) {
+                pstmt.executeUpdate();
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO app_user (username, password, email, role) VALUES (?, ?, ?, ?) RETURNING user_id")) {
+                pstmt.setString(1, "serviceuser");
+                pstmt.setString(2, "password123");
+                pstmt.setString(3, "serviceuser@example.com");
+                pstmt.setString(4, "STUDENT");
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        testUserId = rs.getInt(1);
+                    }
+                }
+            }
+
+            // Five copies, two of them out on loan
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO media_item (title, author, type, isbn, publication_date, publisher, total_copies, available_copies, late_fees_per_day) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) RETURNING item_id")) {
+                pstmt.setString(1, "Service Test Book");
+                pstmt.setString(2, "Test Author");
+                pstmt.setString(3, "BOOK");
+                pstmt.setString(4, "SERVICE-ISBN-001");
+                pstmt.setDate(5, java.sql.Date.valueOf(LocalDate.of(2020, 1, 1)));
+                pstmt.setString(6, "Test Publisher");
+                pstmt.setInt(7, 5);
+                pstmt.setInt(8, 3);
+                pstmt.setBigDecimal(9, new BigDecimal("1.00"));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        testItemId = rs.getInt(1);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testReturnItem_SecondReturnFailsWithoutRestockingCopy() {
+        // Arrange
+        Loan loan = new Loan();
+        loan.setUserId(testUserId);
+        loan.setItemId(testItemId);
+        loan.setLoanDate(LocalDate.now().minusDays(5));
+        loan.setDueDate(LocalDate.now().plusDays(9));
+        loan.setStatus("ACTIVE");
+        Loan saved = loanRepository.save(loan);
+
+        // Act
+        libraryService.returnItem(saved.getLoanId(), LocalDate.now());
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> libraryService.returnItem(saved.getLoanId(), LocalDate.now()));
+
+        // Assert - only the first return put a copy back
+        assertEquals("Loan has already been returned", exception.getMessage());
+        assertEquals(4, mediaItemRepository.findById(testItemId).get().getAvailableCopies());
+    }
+}
@@ -1,11 +1,18 @@
 package com.example.library.service;
 
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanView;
 import com.example.library.domain.MediaItem;
 import com.example.library.domain.User;
+import com.example.library.repository.CatalogQuery;
+import com.example.library.repository.FacetedSearchResult;
 import com.example.library.repository.FineRepository;
+import com.example.library.repository.LoanQuery;
 import com.example.library.repository.LoanRepository;
+import com.example.library.repository.LoanSearchResult;
 import com.example.library.repository.MediaItemRepository;
+import com.example.library.repository.Page;
+import com.example.library.repository.TransactionManager;
 import com.example.library.repository.UserRepository;
 import com.example.library.service.fine.FineCalculator;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,6 +46,9 @@ class LibraryServiceImplTest {
     @Mock
     private FineCalculator fineCalculator;
     
+    @Mock
+    private AutocompleteService autocompleteService;
+    
     private LibraryServiceImpl libraryService;
     
     @BeforeEach
@@ -77,7 +87,7 @@ class LibraryServiceImplTest {
         MediaItem item1 = createMediaItem(1, "Java Programming", "Author A", 3, 2);
         MediaItem item2 = createMediaItem(2, "JavaScript Basics", "Author B", 4, 4);
         
-        when(mediaItemRepository.search("Java")).thenReturn(Arrays.asList(item1, item2));
+        when(mediaItemRepository.fullTextSearch("Java")).thenReturn(Arrays.asList(item1, item2));
         
         // Act
         List<MediaItem> results = libraryService.searchItems("Java");
@@ -85,20 +95,20 @@ class LibraryServiceImplTest {
         // Assert
         assertEquals(2, results.size());
         assertTrue(results.get(0).getTitle().contains("Java"));
-        verify(mediaItemRepository, times(1)).search("Java");
+        verify(mediaItemRepository, times(1)).fullTextSearch("Java");
     }
     
     @Test
     void testSearchItems_NoResults() {
         // Arrange
-        when(mediaItemRepository.search("nonexistent")).thenReturn(Arrays.asList());
+        when(mediaItemRepository.fullTextSearch("nonexistent")).thenReturn(Arrays.asList());
         
         // Act
         List<MediaItem> results = libraryService.searchItems("nonexistent");
         
         // Assert
         assertTrue(results.isEmpty());
-        verify(mediaItemRepository, times(1)).search("nonexistent");
+        verify(mediaItemRepository, times(1)).fullTextSearch("nonexistent");
     }
     
     @Test
@@ -113,14 +123,13 @@ class LibraryServiceImplTest {
         
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(mediaItemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(loanRepository.findOverdueLoans(today)).thenReturn(Arrays.asList());
-        when(fineRepository.findUnpaidByUserId(userId)).thenReturn(Arrays.asList());
-        when(fineRepository.calculateTotalUnpaidByUserId(userId)).thenReturn(BigDecimal.ZERO);
+        when(loanRepository.hasOverdueLoansOrUnpaidFines(userId, today)).thenReturn(false);
         when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> {
             Loan loan = invocation.getArgument(0);
             loan.setLoanId(100);
             return loan;
         });
+        when(mediaItemRepository.tryDecrementAvailable(itemId)).thenReturn(Optional.of(2));
         
         // Act
         Loan result = libraryService.borrowItem(userId, itemId, today);
@@ -132,7 +141,7 @@ class LibraryServiceImplTest {
         assertEquals(itemId, result.getItemId());
         assertEquals("ACTIVE", result.getStatus());
         verify(loanRepository, times(1)).save(any(Loan.class));
-        verify(mediaItemRepository, times(1)).updateAvailableCopies(itemId, 2);
+        verify(mediaItemRepository, times(1)).tryDecrementAvailable(itemId);
     }
     
     @Test
@@ -164,8 +173,7 @@ class LibraryServiceImplTest {
         
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(mediaItemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(loanRepository.findOverdueLoans(today)).thenReturn(Arrays.asList());
-        when(fineRepository.findUnpaidByUserId(userId)).thenReturn(Arrays.asList());
+        when(loanRepository.hasOverdueLoansOrUnpaidFines(userId, today)).thenReturn(false);
         
         // Act & Assert
         assertThrows(BusinessException.class, () -> {
@@ -175,6 +183,54 @@ class LibraryServiceImplTest {
         verify(loanRepository, never()).save(any(Loan.class));
     }
     
+    @Test
+    void testBorrowItem_LastCopyTakenConcurrently() {
+        // Arrange - item looked available when read, but another borrower claimed the last copy
+        int userId = 1;
+        int itemId = 10;
+        LocalDate today = LocalDate.now();
+        
+        User user = createUser(userId, "testuser", "STUDENT");
+        MediaItem item = createMediaItem(itemId, "Test Book", "Author", 5, 1);
+        
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(mediaItemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(loanRepository.hasOverdueLoansOrUnpaidFines(userId, today)).thenReturn(false);
+        when(mediaItemRepository.tryDecrementAvailable(itemId)).thenReturn(Optional.empty());
+        
+        // Act & Assert
+        assertThrows(BusinessException.class, () -> {
+            libraryService.borrowItem(userId, itemId, today);
+        });
+        
+        verify(loanRepository, never()).save(any(Loan.class));
+    }
+
+    @Test
+    void testBorrowItem_StaleZeroCopiesStillClaimsCopy() {
+        // Arrange - a cached read says no copies are left, but one was returned since
+        int userId = 1;
+        int itemId = 10;
+        LocalDate today = LocalDate.now();
+
+        User user = createUser(userId, "testuser", "STUDENT");
+        MediaItem item = createMediaItem(itemId, "Test Book", "Author", 5, 0);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(mediaItemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(loanRepository.hasOverdueLoansOrUnpaidFines(userId, today)).thenReturn(false);
+        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mediaItemRepository.tryDecrementAvailable(itemId)).thenReturn(Optional.of(0));
+
+        // Act
+        Loan result = libraryService.borrowItem(userId, itemId, today);
+
+        // Assert
+        assertNotNull(result);
+        verify(mediaItemRepository).tryDecrementAvailable(itemId);
+        verify(loanRepository).save(any(Loan.class));
+    }
+
     @Test
     void testGetOverdueLoans() {
         // Arrange
@@ -212,15 +268,61 @@ class LibraryServiceImplTest {
         verify(loanRepository, times(1)).findByUserId(userId);
     }
     
+    @Test
+    void testGetUserLoanViews_EstimatesFinesOfOverdueOpenLoans() {
+        // Arrange
+        int userId = 1;
+        LocalDate today = LocalDate.now();
+        Loan onTime = createLoan(1, userId, 100, today.minusDays(3), today.plusDays(11));
+        Loan overdue = createLoan(2, userId, 101, today.minusDays(20), today.minusDays(6));
+        Loan returned = createLoan(3, userId, 102, today.minusDays(30), today.minusDays(16));
+        returned.setReturnDate(today.minusDays(14));
+        when(loanRepository.findViewsByUserId(userId, null, today)).thenReturn(Arrays.asList(
+                new LoanView(onTime, "On Time", "BOOK", new BigDecimal("1.00"), 0, BigDecimal.ZERO),
+                new LoanView(overdue, "Late", "CD", new BigDecimal("1.00"), 6, BigDecimal.ZERO),
+                new LoanView(returned, "Returned", "BOOK", new BigDecimal("1.00"), 2, new BigDecimal("20.00"))));
+        when(fineCalculator.calculateFine("CD", 6)).thenReturn(new BigDecimal("120.00"));
+        
+        // Act
+        List<LoanView> results = libraryService.getUserLoanViews(userId, null, today);
+        
+        // Assert
+        assertEquals(BigDecimal.ZERO, results.get(0).getAccruedFine());
+        assertEquals(new BigDecimal("120.00"), results.get(1).getAccruedFine());
+        assertEquals(new BigDecimal("20.00"), results.get(2).getAccruedFine(), "Issued fines are kept");
+        verify(fineCalculator, times(1)).calculateFine(anyString(), anyLong());
+        verify(loanRepository, never()).findByUserId(anyInt());
+    }
+    
+    @Test
+    void testSearchLoans_DelegatesValidQuery() {
+        LoanQuery query = LoanQuery.all().withStatus("ACTIVE").page(100, 50);
+        LoanSearchResult result = mock(LoanSearchResult.class);
+        when(loanRepository.search(query)).thenReturn(result);
+        
+        assertSame(result, libraryService.searchLoans(query));
+    }
+    
+    @Test
+    void testSearchLoans_RejectsInvalidQueries() {
+        LocalDate today = LocalDate.now();
+        
+        assertThrows(BusinessException.class, () -> libraryService.searchLoans(null));
+        assertThrows(BusinessException.class, () -> libraryService.searchLoans(LoanQuery.all().page(-1, 10)));
+        assertThrows(BusinessException.class, () -> libraryService.searchLoans(LoanQuery.all().page(0, 0)));
+        assertThrows(BusinessException.class, () -> libraryService.searchLoans(LoanQuery.all().page(0, 5000)));
+        assertThrows(BusinessException.class, () -> libraryService.searchLoans(
+                LoanQuery.all().withLoanDateBetween(today, today.minusDays(1))));
+        verify(loanRepository, never()).search(any());
+    }
+    
     @Test
     void testCanUserBorrow_Eligible() {
         // Arrange
         int userId = 1;
         LocalDate today = LocalDate.now();
         
-        when(loanRepository.findOverdueLoans(today)).thenReturn(Arrays.asList());
-        when(fineRepository.findUnpaidByUserId(userId)).thenReturn(Arrays.asList());
-        when(fineRepository.calculateTotalUnpaidByUserId(userId)).thenReturn(BigDecimal.ZERO);
+        when(loanRepository.hasOverdueLoansOrUnpaidFines(userId, today)).thenReturn(false);
         
         // Act
         boolean result = libraryService.canUserBorrow(userId, today);
@@ -234,15 +336,15 @@ class LibraryServiceImplTest {
         // Arrange
         int userId = 1;
         LocalDate today = LocalDate.now();
-        Loan overdueLoan = createLoan(1, userId, 100, today.minusDays(20), today.minusDays(5));
         
-        when(loanRepository.findOverdueLoans(today)).thenReturn(Arrays.asList(overdueLoan));
+        when(loanRepository.hasOverdueLoansOrUnpaidFines(userId, today)).thenReturn(true);
         
         // Act
         boolean result = libraryService.canUserBorrow(userId, today);
         
         // Assert
         assertFalse(result, "User with overdue loans should not be eligible");
+        verify(loanRepository, never()).findOverdueLoans(any(LocalDate.class));
     }
     
     // Helper methods
@@ -297,7 +399,7 @@ class LibraryServiceImplTest {
         // Assert
         assertEquals(2, result.size());
         verify(mediaItemRepository).findAll();
-        verify(mediaItemRepository, never()).search(anyString());
+        verify(mediaItemRepository, never()).fullTextSearch(anyString());
     }
     
     @Test
@@ -314,6 +416,171 @@ class LibraryServiceImplTest {
         // Assert
         assertEquals(1, result.size());
         verify(mediaItemRepository).findAll();
-        verify(mediaItemRepository, never()).search(anyString());
+        verify(mediaItemRepository, never()).fullTextSearch(anyString());
+    }
+    
+    @Test
+    void testSuggestSearchTerms_DelegatesToAutocomplete() {
+        // Arrange
+        LibraryServiceImpl service = serviceWithAutocomplete();
+        when(autocompleteService.suggest("eff", 5)).thenReturn(List.of("Effective Java"));
+        
+        // Act
+        List<String> result = service.suggestSearchTerms("eff", 5);
+        
+        // Assert
+        assertEquals(List.of("Effective Java"), result);
+    }
+    
+    @Test
+    void testSuggestSearchTerms_WithoutAutocomplete_ReturnsEmpty() {
+        assertTrue(libraryService.suggestSearchTerms("eff", 5).isEmpty());
+    }
+    
+    @Test
+    void testAddUpdateDelete_RefreshSuggestions() {
+        // Arrange
+        LibraryServiceImpl service = serviceWithAutocomplete();
+        MediaItem item = createMediaItem(1, "Test Book", "Test Author", 5, 5);
+        when(mediaItemRepository.save(item)).thenReturn(item);
+        when(mediaItemRepository.update(item)).thenReturn(item);
+        when(mediaItemRepository.deleteById(1)).thenReturn(true);
+        when(mediaItemRepository.deleteById(2)).thenReturn(false);
+        
+        // Act
+        service.addMediaItem(item);
+        service.updateMediaItem(item);
+        assertTrue(service.deleteMediaItem(1));
+        assertFalse(service.deleteMediaItem(2));
+        
+        // Assert
+        verify(autocompleteService, times(2)).itemSaved(item);
+        verify(autocompleteService).itemRemoved(1);
+        verify(autocompleteService, never()).itemRemoved(2);
+    }
+    
+    @Test
+    void testUpdateMediaItem_NullItem_ThrowsException() {
+        assertThrows(BusinessException.class, () -> libraryService.updateMediaItem(null));
+        verify(mediaItemRepository, never()).update(any());
+    }
+    
+    @Test
+    void testBorrowItem_CountsTowardsSuggestionRanking() {
+        // Arrange
+        LibraryServiceImpl service = serviceWithAutocomplete();
+        User user = createUser(1, "testuser", "STUDENT");
+        MediaItem item = createMediaItem(1, "Test Book", "Test Author", 5, 3);
+        when(userRepository.findById(1)).thenReturn(Optional.of(user));
+        when(mediaItemRepository.findById(1)).thenReturn(Optional.of(item));
+        when(loanRepository.hasOverdueLoansOrUnpaidFines(eq(1), any(LocalDate.class))).thenReturn(false);
+        when(mediaItemRepository.tryDecrementAvailable(1)).thenReturn(Optional.of(2));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // Act
+        service.borrowItem(1, 1, LocalDate.now());
+        
+        // Assert
+        verify(autocompleteService).itemBorrowed(1);
+    }
+    
+    @Test
+    void testSearchItems_FuzzyOptions_UseFuzzySearch() {
+        // Arrange
+        MediaItem item = createMediaItem(1, "The Hobbit", "J.R.R. Tolkien", 2, 2);
+        when(mediaItemRepository.fuzzySearch("Tolkein", 2)).thenReturn(List.of(item));
+        
+        // Act
+        List<MediaItem> result = libraryService.searchItems("Tolkein", SearchOptions.fuzzy(2));
+        
+        // Assert
+        assertEquals(List.of(item), result);
+        verify(mediaItemRepository, never()).fullTextSearch(anyString());
+    }
+    
+    @Test
+    void testSearchItems_ExactOptions_UseFullTextSearch() {
+        libraryService.searchItems("Tolkien", SearchOptions.exact());
+        libraryService.searchItems("Tolkien", null);
+        
+        verify(mediaItemRepository, times(2)).fullTextSearch("Tolkien");
+        verify(mediaItemRepository, never()).fuzzySearch(anyString(), anyInt());
+    }
+    
+    @Test
+    void testSearchOptions_FuzzyEditsMustBeOneOrTwo() {
+        assertFalse(SearchOptions.exact().isFuzzy());
+        assertEquals(1, SearchOptions.fuzzy(1).getMaxEdits());
+        assertThrows(BusinessException.class, () -> SearchOptions.fuzzy(0));
+        assertThrows(BusinessException.class, () -> SearchOptions.fuzzy(3));
+    }
+    
+    @Test
+    void testSearchCatalog_DelegatesToRepository() {
+        // Arrange
+        CatalogQuery query = CatalogQuery.of("java").withType("BOOK");
+        FacetedSearchResult expected = mock(FacetedSearchResult.class);
+        when(mediaItemRepository.facetedSearch(query)).thenReturn(expected);
+        
+        // Act
+        FacetedSearchResult result = libraryService.searchCatalog(query);
+        
+        // Assert
+        assertSame(expected, result);
+    }
+    
+    @Test
+    void testSearchCatalog_InvalidQuery_ThrowsException() {
+        assertThrows(BusinessException.class, () -> libraryService.searchCatalog(null));
+        assertThrows(BusinessException.class, () -> libraryService.searchCatalog(CatalogQuery.of("java").page(-1, 10)));
+        assertThrows(BusinessException.class, () -> libraryService.searchCatalog(CatalogQuery.of("java").page(0, 0)));
+        verify(mediaItemRepository, never()).facetedSearch(any());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBrowseItems_PicksQueryByFilter() {
+        // Arrange
+        Page<MediaItem> all = mock(Page.class);
+        Page<MediaItem> books = mock(Page.class);
+        Page<MediaItem> matches = mock(Page.class);
+        when(mediaItemRepository.findAll(null, 20)).thenReturn(all);
+        when(mediaItemRepository.findByType("BOOK", 7, 20)).thenReturn(books);
+        when(mediaItemRepository.search("java", 7, 20)).thenReturn(matches);
+        
+        // Act & Assert
+        assertSame(all, libraryService.browseItems("  ", null, null, 20));
+        assertSame(books, libraryService.browseItems(null, "BOOK", 7, 20));
+        assertSame(matches, libraryService.browseItems(" java ", null, 7, 20));
+    }
+    
+    @Test
+    void testBrowseItems_InvalidPage_ThrowsException() {
+        assertThrows(BusinessException.class, () -> libraryService.browseItems(null, null, null, 0));
+        assertThrows(BusinessException.class,
+                () -> libraryService.browseItems(null, null, null, PageLimits.MAX_PAGE_SIZE + 1));
+        assertThrows(BusinessException.class, () -> libraryService.browseItems("java", "BOOK", null, 10));
+        assertThrows(BusinessException.class, () -> libraryService.browseAvailableItems(null, -1));
+        verifyNoInteractions(mediaItemRepository);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetLoans_FiltersByStatusWhenGiven() {
+        // Arrange
+        Page<Loan> all = mock(Page.class);
+        Page<Loan> active = mock(Page.class);
+        when(loanRepository.findAll(3, 50)).thenReturn(all);
+        when(loanRepository.findByStatus("ACTIVE", 3, 50)).thenReturn(active);
+        
+        // Act & Assert
+        assertSame(all, libraryService.getLoans(null, 3, 50));
+        assertSame(active, libraryService.getLoans("ACTIVE", 3, 50));
+        assertThrows(BusinessException.class, () -> libraryService.getLoans("ACTIVE", null, 0));
+    }
+    
+    private LibraryServiceImpl serviceWithAutocomplete() {
+        return new LibraryServiceImpl(userRepository, mediaItemRepository, loanRepository,
+                fineRepository, fineCalculator, TransactionManager.direct(), autocompleteService);
     }
 }
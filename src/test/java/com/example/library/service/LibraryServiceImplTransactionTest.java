@@ -0,0 +1,120 @@
+package com.example.library.service;
+
+import com.example.library.domain.Loan;
+import com.example.library.domain.MediaItem;
+import com.example.library.domain.User;
+import com.example.library.repository.DataAccessException;
+import com.example.library.repository.FineRepository;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.MediaItemRepository;
+import com.example.library.repository.TransactionManager;
+import com.example.library.repository.UserRepository;
+import com.example.library.service.fine.FineCalculator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LibraryServiceImplTransactionTest {
+    
+    @Mock
+    private MediaItemRepository mediaItemRepository;
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Mock
+    private LoanRepository loanRepository;
+    
+    @Mock
+    private FineRepository fineRepository;
+    
+    private RecordingTransactionManager transactionManager;
+    private LibraryServiceImpl libraryService;
+    
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        transactionManager = new RecordingTransactionManager();
+        libraryService = new LibraryServiceImpl(
+            userRepository,
+            mediaItemRepository,
+            loanRepository,
+            fineRepository,
+            new FineCalculator(),
+            transactionManager
+        );
+    }
+    
+    @Test
+    void testBorrowItem_RunsAllStepsInOneTransaction() {
+        User user = new User();
+        user.setUserId(1);
+        MediaItem item = new MediaItem();
+        item.setItemId(10);
+        item.setTitle("Clean Code");
+        item.setType("BOOK");
+        item.setAvailableCopies(2);
+        
+        when(userRepository.findById(1)).thenAnswer(inv -> inTransaction(Optional.of(user)));
+        when(mediaItemRepository.findById(10)).thenAnswer(inv -> inTransaction(Optional.of(item)));
+        when(loanRepository.hasOverdueLoansOrUnpaidFines(eq(1), any())).thenAnswer(inv -> inTransaction(false));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(inv -> inTransaction(inv.getArgument(0)));
+        when(mediaItemRepository.tryDecrementAvailable(10)).thenAnswer(inv -> inTransaction(Optional.of(1)));
+        
+        Loan loan = libraryService.borrowItem(1, 10, LocalDate.of(2024, 1, 1));
+        
+        assertNotNull(loan);
+        assertEquals(1, transactionManager.transactions);
+    }
+    
+    @Test
+    void testReturnItem_FailurePropagatesOutOfTransaction() {
+        Loan loan = new Loan();
+        loan.setLoanId(5);
+        loan.setItemId(10);
+        loan.setStatus("ACTIVE");
+        loan.setDueDate(LocalDate.of(2024, 1, 10));
+        
+        when(loanRepository.markReturned(eq(5), any())).thenReturn(Optional.of(loan));
+        when(mediaItemRepository.findById(10)).thenThrow(new DataAccessException("connection lost"));
+        
+        assertThrows(DataAccessException.class,
+                () -> libraryService.returnItem(5, LocalDate.of(2024, 1, 5)));
+        assertEquals(1, transactionManager.transactions);
+        assertEquals(1, transactionManager.failures);
+    }
+    
+    private <T> T inTransaction(T value) {
+        assertTrue(transactionManager.active, "Repository call should run inside the transaction");
+        return value;
+    }
+    
+    private static class RecordingTransactionManager implements TransactionManager {
+        private int transactions;
+        private int failures;
+        private boolean active;
+        
+        @Override
+        public <T> T execute(Supplier<T> work) {
+            transactions++;
+            active = true;
+            try {
+                return work.get();
+            } catch (RuntimeException e) {
+                failures++;
+                throw e;
+            } finally {
+                active = false;
+            }
+        }
+    }
+}
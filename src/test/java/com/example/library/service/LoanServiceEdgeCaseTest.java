@@ -102,16 +102,16 @@ class LibraryServiceImplEdgeCaseTest {
         
         when(userRepository.findById(1)).thenReturn(Optional.of(user));
         when(mediaItemRepository.findById(1)).thenReturn(Optional.of(item));
-        when(loanRepository.findOverdueLoans(any(LocalDate.class))).thenReturn(java.util.Collections.emptyList());
-        when(fineRepository.calculateTotalUnpaidByUserId(1)).thenReturn(BigDecimal.ZERO);
+        when(loanRepository.hasOverdueLoansOrUnpaidFines(eq(1), any(LocalDate.class))).thenReturn(false);
         when(loanRepository.save(any(Loan.class))).thenReturn(savedLoan);
-        doNothing().when(mediaItemRepository).updateAvailableCopies(anyInt(), anyInt());
+        when(mediaItemRepository.tryDecrementAvailable(1)).thenReturn(Optional.of(4));
         
         Loan result = libraryService.borrowItem(1, 1, LocalDate.now());
         
         assertNotNull(result);
         assertEquals("ACTIVE", result.getStatus());
-        verify(mediaItemRepository).updateAvailableCopies(1, 4);
+        verify(mediaItemRepository).tryDecrementAvailable(1);
+        verify(mediaItemRepository, never()).updateAvailableCopies(anyInt(), anyInt());
     }
     
     @Test
@@ -123,7 +123,7 @@ class LibraryServiceImplEdgeCaseTest {
         });
         
         verify(loanRepository).findById(999);
-        verify(mediaItemRepository, never()).updateAvailableCopies(anyInt(), anyInt());
+        verify(mediaItemRepository, never()).incrementAvailable(anyInt());
     }
     
     @Test
@@ -141,7 +141,7 @@ class LibraryServiceImplEdgeCaseTest {
         });
         
         verify(loanRepository).findById(1);
-        verify(loanRepository, never()).updateStatus(anyInt(), anyString(), any());
+        verify(mediaItemRepository, never()).incrementAvailable(anyInt());
     }
     
     @Test
@@ -159,14 +159,14 @@ class LibraryServiceImplEdgeCaseTest {
         item.setAvailableCopies(5);
         item.setTotalCopies(10);
         
-        when(loanRepository.findById(1)).thenReturn(Optional.of(loan));
+        when(loanRepository.markReturned(eq(1), any())).thenReturn(Optional.of(loan));
         when(mediaItemRepository.findById(1)).thenReturn(Optional.of(item));
         when(fineCalculator.calculateFine(anyString(), anyLong())).thenReturn(BigDecimal.ZERO);
         
         assertDoesNotThrow(() -> libraryService.returnItem(1, LocalDate.now()));
         
-        verify(loanRepository).updateStatus(eq(1), eq("RETURNED"), any());
-        verify(mediaItemRepository).updateAvailableCopies(eq(1), eq(6));
+        verify(loanRepository).markReturned(eq(1), any());
+        verify(mediaItemRepository).incrementAvailable(1);
     }
     
 }
@@ -1,7 +1,10 @@
 package com.example.library.service;
 
 import com.example.library.domain.Fine;
+import com.example.library.repository.FineQuery;
 import com.example.library.repository.FineRepository;
+import com.example.library.repository.FineSearchResult;
+import com.example.library.repository.Page;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -185,4 +188,46 @@ class PaymentServiceImplTest {
         fine.setIssuedDate(LocalDate.now());
         return fine;
     }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetFines_FiltersByStatusWhenGiven() {
+        // Arrange
+        Page<Fine> all = mock(Page.class);
+        Page<Fine> unpaid = mock(Page.class);
+        when(fineRepository.findAll(null, 25)).thenReturn(all);
+        when(fineRepository.findByStatus("UNPAID", null, 25)).thenReturn(unpaid);
+        
+        // Act & Assert
+        assertSame(all, paymentService.getFines(null, null, 25));
+        assertSame(unpaid, paymentService.getFines("UNPAID", null, 25));
+    }
+    
+    @Test
+    void testGetFines_InvalidPageSize_ThrowsException() {
+        assertThrows(BusinessException.class, () -> paymentService.getFines(null, null, 0));
+        assertThrows(BusinessException.class, () -> paymentService.getFines(null, null, PageLimits.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(fineRepository);
+    }
+    
+    @Test
+    void testSearchFines_DelegatesToRepository() {
+        // Arrange
+        FineQuery query = FineQuery.all().withStatus("UNPAID").page(100, 50);
+        FineSearchResult result = mock(FineSearchResult.class);
+        when(fineRepository.search(query)).thenReturn(result);
+        
+        // Act & Assert
+        assertSame(result, paymentService.searchFines(query));
+    }
+    
+    @Test
+    void testSearchFines_InvalidQuery_ThrowsException() {
+        assertThrows(BusinessException.class, () -> paymentService.searchFines(null));
+        assertThrows(BusinessException.class, () -> paymentService.searchFines(FineQuery.all().page(-1, 10)));
+        assertThrows(BusinessException.class, () -> paymentService.searchFines(FineQuery.all().page(0, 0)));
+        assertThrows(BusinessException.class, () -> paymentService.searchFines(
+                FineQuery.all().withIssuedBetween(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1))));
+        verifyNoInteractions(fineRepository);
+    }
 }
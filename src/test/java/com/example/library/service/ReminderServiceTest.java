@@ -11,7 +11,8 @@ import org.junit.jupiter.api.Test;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 
 import static org.mockito.Mockito.*;
 
@@ -85,9 +86,8 @@ class ReminderServiceTest {
         user2.setRole("STUDENT");
         
         // Mock repository responses
-        when(loanRepository.findOverdueLoans(today)).thenReturn(overdueLoans);
-        when(userRepository.findById(1)).thenReturn(Optional.of(user1));
-        when(userRepository.findById(2)).thenReturn(Optional.of(user2));
+        when(loanRepository.streamOverdue(today)).thenAnswer(invocation -> overdueLoans.stream());
+        when(userRepository.findAllByIds(Set.of(1, 2))).thenReturn(Map.of(1, user1, 2, user2));
         
         // Act
         reminderService.sendOverdueReminders(today);
@@ -103,9 +103,9 @@ class ReminderServiceTest {
         verify(notifier).notify(user2, "You have 1 overdue book(s).");
         
         // Verify repositories were called
-        verify(loanRepository).findOverdueLoans(today);
-        verify(userRepository).findById(1);
-        verify(userRepository).findById(2);
+        verify(loanRepository).streamOverdue(today);
+        verify(userRepository).findAllByIds(Set.of(1, 2));
+        verify(userRepository, never()).findById(anyInt());
     }
     
     @Test
@@ -113,15 +113,16 @@ class ReminderServiceTest {
         // Arrange
         LocalDate today = LocalDate.of(2025, 11, 27);
         
-        when(loanRepository.findOverdueLoans(today)).thenReturn(Arrays.asList());
+        when(loanRepository.streamOverdue(today)).thenAnswer(invocation -> Arrays.asList().stream());
         
         // Act
         reminderService.sendOverdueReminders(today);
         
         // Assert
-        verify(loanRepository).findOverdueLoans(today);
+        verify(loanRepository).streamOverdue(today);
         verify(notifier, never()).notify(any(User.class), anyString());
         verify(userRepository, never()).findById(anyInt());
+        verify(userRepository, never()).findAllByIds(any());
     }
     
     @Test
@@ -138,15 +139,15 @@ class ReminderServiceTest {
         loan.setReturnDate(null);
         loan.setStatus("ACTIVE");
         
-        when(loanRepository.findOverdueLoans(today)).thenReturn(Arrays.asList(loan));
-        when(userRepository.findById(999)).thenReturn(Optional.empty());
+        when(loanRepository.streamOverdue(today)).thenAnswer(invocation -> Arrays.asList(loan).stream());
+        when(userRepository.findAllByIds(Set.of(999))).thenReturn(Map.of());
         
         // Act
         reminderService.sendOverdueReminders(today);
         
         // Assert
-        verify(loanRepository).findOverdueLoans(today);
-        verify(userRepository).findById(999);
+        verify(loanRepository).streamOverdue(today);
+        verify(userRepository).findAllByIds(Set.of(999));
         verify(notifier, never()).notify(any(User.class), anyString());
     }
     
@@ -170,8 +171,8 @@ class ReminderServiceTest {
         user.setEmail("user5@example.com");
         user.setRole("FACULTY");
         
-        when(loanRepository.findOverdueLoans(today)).thenReturn(Arrays.asList(loan));
-        when(userRepository.findById(5)).thenReturn(Optional.of(user));
+        when(loanRepository.streamOverdue(today)).thenAnswer(invocation -> Arrays.asList(loan).stream());
+        when(userRepository.findAllByIds(Set.of(5))).thenReturn(Map.of(5, user));
         
         // Act
         reminderService.sendOverdueReminders(today);
@@ -4,6 +4,7 @@ import com.example.library.domain.MediaItem;
 import com.example.library.domain.Reservation;
 import com.example.library.domain.User;
 import com.example.library.repository.MediaItemRepository;
+import com.example.library.repository.Page;
 import com.example.library.repository.ReservationRepository;
 import com.example.library.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -543,5 +544,17 @@ class ReservationServiceImplTest {
         // Assert
         assertEquals(-1, position); // Not found in queue
     }
+    
+    @Test
+    @DisplayName("Should list reservations a page at a time")
+    @SuppressWarnings("unchecked")
+    void testGetReservations() {
+        // Arrange
+        Page<Reservation> page = mock(Page.class);
+        when(reservationRepository.findAll(12, 30)).thenReturn(page);
+        
+        // Act & Assert
+        assertSame(page, reservationService.getReservations(12, 30));
+        assertThrows(BusinessException.class, () -> reservationService.getReservations(null, 0));
+    }
 }
-
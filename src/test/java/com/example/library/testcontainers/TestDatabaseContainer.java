@@ -1,23 +1,20 @@
 package com.example.library.testcontainers;
 
+import com.example.library.db.MigrationRunner;
+import org.postgresql.ds.PGSimpleDataSource;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.utility.DockerImageName;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.Statement;
-import java.util.stream.Collectors;
 
 /**
  * Singleton Testcontainers PostgreSQL setup for all repository integration tests.
  * 
  * This class:
  * - Starts a single PostgreSQL container shared across all tests (faster execution)
- * - Loads schema.sql automatically when container starts
+ * - Applies the db/migration scripts via MigrationRunner when container starts
  * - Configures system properties so DatabaseConfig uses the test container
  * - Keeps production code unchanged - only test configuration is affected
  * 
@@ -39,7 +36,7 @@ public class TestDatabaseContainer {
     private static boolean initialized = false;
     
     /**
-     * Starts the PostgreSQL Testcontainer and loads the schema.
+     * Starts the PostgreSQL Testcontainer and migrates the schema.
      * This method is idempotent - calling it multiple times is safe.
      */
     @SuppressWarnings("resource") // Container is intentionally kept open and closed via shutdown hook
@@ -62,8 +59,8 @@ public class TestDatabaseContainer {
         System.setProperty("db.username", container.getUsername());
         System.setProperty("db.password", container.getPassword());
         
-        // Load schema.sql
-        loadSchema();
+        // Apply the same migrations the application runs at startup
+        migrateSchema();
         
         initialized = true;
         
@@ -76,35 +73,16 @@ public class TestDatabaseContainer {
     }
     
     /**
-     * Loads the schema.sql file into the test database.
+     * Applies the shipped db/migration scripts to the test database.
      */
-    private static void loadSchema() {
-        try (InputStream inputStream = TestDatabaseContainer.class
-                .getClassLoader()
-                .getResourceAsStream("schema.sql")) {
-            
-            if (inputStream == null) {
-                throw new RuntimeException("Could not find schema.sql in test resources");
-            }
-            
-            String schemaSql = new BufferedReader(
-                    new InputStreamReader(inputStream, StandardCharsets.UTF_8))
-                    .lines()
-                    .collect(Collectors.joining("\n"));
-            
-            try (Connection connection = DriverManager.getConnection(
-                    container.getJdbcUrl(),
-                    container.getUsername(),
-                    container.getPassword());
-                 Statement statement = connection.createStatement()) {
-                
-                statement.execute(schemaSql);
-                System.out.println("✅ Test database schema loaded successfully");
-                
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to load schema.sql", e);
-        }
+    private static void migrateSchema() {
+        PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        dataSource.setURL(container.getJdbcUrl());
+        dataSource.setUser(container.getUsername());
+        dataSource.setPassword(container.getPassword());
+
+        int applied = new MigrationRunner(dataSource).migrate();
+        System.out.println("✅ Test database schema migrated (" + applied + " scripts applied)");
     }
     
     /**
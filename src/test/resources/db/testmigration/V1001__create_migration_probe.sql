@@ -0,0 +1,7 @@
+-- Used by MigrationRunnerTest
+CREATE TABLE migration_probe (
+    probe_id SERIAL PRIMARY KEY,
+    label VARCHAR(50) NOT NULL
+);
+
+INSERT INTO migration_probe (label) VALUES ('applied');
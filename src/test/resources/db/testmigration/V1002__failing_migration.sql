@@ -0,0 +1,4 @@
+-- Used by MigrationRunnerTest: the second statement fails, so the first must be rolled back
+CREATE TABLE migration_probe_partial (probe_id INTEGER);
+
+INSERT INTO missing_table_for_migration_test (probe_id) VALUES (1);